@@ -133,8 +133,11 @@ public class Constants {
     public static final String TMP_PATH = "tmp";
     public static final String LIB_PATH = "lib";
     public static final String LOG_PATH = "log";
+    public static final String CACHE_PATH = "cache";
+    public static final String SHARED_PATH = "shared";
     public static final String APK_PATH = "apk";
     public static final String NATIVE_CODE_PATH = "native";
+    public static final String PATHING_JAR_PATH = "pathing";
     public static final String PATHING_JAR_DEPS_PATH = "deps";
 
 
@@ -49,6 +49,11 @@ public class ProjectConfiguration {
     private boolean usePrismSW = false;
     private boolean verbose = false;
     private boolean usePrecompiledCode = true;
+    private int nativeCompileJobs = 0;
+    private boolean nativeImageAutoSizing = false;
+    private boolean reflectionTrimming = false;
+    private boolean resourceScanning = false;
+    private long resourceSizeThreshold = -1;
 
     private Triplet targetTriplet;
     private Triplet hostTriplet = Triplet.fromCurrentOS();
@@ -151,6 +156,88 @@ public class ProjectConfiguration {
         return usePrecompiledCode;
     }
 
+    /**
+     * Sets the maximum number of native source files that are compiled in parallel,
+     * which is also the maximum number of JavaScript libraries that are generated in
+     * parallel for the web target.
+     * A value of 0 or less uses the number of available processors.
+     *
+     * @param nativeCompileJobs the number of parallel native compile jobs
+     */
+    public void setNativeCompileJobs(int nativeCompileJobs) {
+        this.nativeCompileJobs = nativeCompileJobs;
+    }
+
+    public int getNativeCompileJobs() {
+        return nativeCompileJobs;
+    }
+
+    /**
+     * Sets whether the heap size and the number of threads of native-image are
+     * derived from the memory and processors available on the host, including
+     * the limits of the container, if any. Explicit -J-Xmx and -H:NumberOfThreads
+     * compiler arguments always take precedence.
+     *
+     * @param nativeImageAutoSizing true to size native-image automatically
+     */
+    public void setNativeImageAutoSizing(boolean nativeImageAutoSizing) {
+        this.nativeImageAutoSizing = nativeImageAutoSizing;
+    }
+
+    public boolean isNativeImageAutoSizing() {
+        return nativeImageAutoSizing;
+    }
+
+    /**
+     * Sets whether the classes of the reflection list are registered only with
+     * the members that are found to be accessed reflectively, like FXML
+     * controller fields and handlers, instead of all their members. Classes
+     * without such evidence are still registered with all their members.
+     *
+     * @param reflectionTrimming true to trim the reflection registrations
+     */
+    public void setReflectionTrimming(boolean reflectionTrimming) {
+        this.reflectionTrimming = reflectionTrimming;
+    }
+
+    public boolean isReflectionTrimming() {
+        return reflectionTrimming;
+    }
+
+    /**
+     * Sets whether the resources included in the image are listed by their
+     * exact names, found when scanning the classpath, instead of by patterns
+     * that match their extensions. The resources of the JDK modules are listed
+     * from the module image of GraalVM, or matched by the patterns per extension
+     * if it can't be read.
+     *
+     * @param resourceScanning true to list the resources by their names
+     */
+    public void setResourceScanning(boolean resourceScanning) {
+        this.resourceScanning = resourceScanning;
+    }
+
+    public boolean isResourceScanning() {
+        return resourceScanning;
+    }
+
+    /**
+     * Sets the minimal size of the resources from the dependencies that are
+     * left out of the image, when their names are not referenced from any
+     * class or text resource of the classpath. It only applies when
+     * {@link #setResourceScanning(boolean)} is enabled.
+     *
+     * @param resourceSizeThreshold the size in bytes, or a negative value
+     *                              to include all the resources (default)
+     */
+    public void setResourceSizeThreshold(long resourceSizeThreshold) {
+        this.resourceSizeThreshold = resourceSizeThreshold;
+    }
+
+    public long getResourceSizeThreshold() {
+        return resourceSizeThreshold;
+    }
+
     public Triplet getTargetTriplet() {
         return targetTriplet;
     }
@@ -349,6 +436,11 @@ public class ProjectConfiguration {
                 ", javafxStaticSdkVersion='" + javafxStaticSdkVersion + '\'' +
                 ", usePrismSW=" + usePrismSW +
                 ", verbose=" + verbose +
+                ", nativeCompileJobs=" + nativeCompileJobs +
+                ", nativeImageAutoSizing=" + nativeImageAutoSizing +
+                ", reflectionTrimming=" + reflectionTrimming +
+                ", resourceScanning=" + resourceScanning +
+                ", resourceSizeThreshold=" + resourceSizeThreshold +
                 ", targetTriplet=" + targetTriplet +
                 ", hostTriplet=" + hostTriplet +
                 ", bundlesList=" + bundlesList +
@@ -0,0 +1,570 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate;
+
+import com.gluonhq.substrate.util.FileOps;
+import com.gluonhq.substrate.util.Fingerprint;
+import com.gluonhq.substrate.util.Logger;
+import com.gluonhq.substrate.util.ProcessRunner;
+import com.gluonhq.substrate.util.Strings;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+import java.util.stream.Collectors;
+
+/**
+ * Long-lived process that runs builds on behalf of {@link SubstrateDispatcher},
+ * similar to the Gradle daemon.
+ *
+ * Every build that runs in a new JVM has to detect the GraalVM version and the
+ * native toolchain again, and read the jar scan cache from disk, before any
+ * real work starts. The daemon keeps all of this in memory between builds.
+ *
+ * When the dispatcher runs with <code>-Ddaemon=true</code>, it connects to a
+ * running daemon, or starts a new one, and sends it its system properties. The
+ * daemon runs the build with these properties, and streams the log messages
+ * back to the client, followed by the exit code of the build.
+ *
+ * The daemon only listens on the loopback interface, and writes its port and a
+ * random token, that clients have to send with every request, to a file that is
+ * only readable by the current user. Builds are run one at a time, with the
+ * relative paths of the client resolved against its working directory, which
+ * is also the working directory of the processes of the build. A client that
+ * gets no response from a busy or stuck daemon in time builds in its own process.
+ *
+ * A daemon started with a different JVM, classpath or build environment, like
+ * the PATH or the location of the SDKs, than the client's refuses the request
+ * and stops, and the client starts a new daemon. The daemon stops as well after
+ * being idle for <code>daemonIdleTimeout</code> minutes (180 by default).
+ */
+public final class SubstrateDaemon {
+
+    private static final Path DAEMON_PATH = Constants.USER_SUBSTRATE_PATH.resolve("daemon");
+    private static final String STATE_FILE = "daemon.properties";
+    private static final String LOG_FILE = "daemon.log";
+
+    private static final String KEY_PORT = "port";
+    private static final String KEY_TOKEN = "token";
+    private static final String KEY_PID = "pid";
+    private static final String KEY_ENVIRONMENT = "environment";
+    private static final String KEY_BUILD_ROOT = "buildRoot";
+    private static final String KEY_WORKING_DIR = "workingDir";
+    private static final String PROPERTY_PREFIX = "property.";
+
+    private static final String LOG_PREFIX = "log:";
+    private static final String RESULT_PREFIX = "result:";
+    private static final String REFUSED = "refused";
+    private static final String HEARTBEAT = "alive:";
+
+    // the largest request a client can send, far above the size of the system properties of a build
+    private static final int MAX_REQUEST_SIZE = 1024 * 1024;
+    // time a connected client has to send its request
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    // the daemon sends a heartbeat while building, so the client can tell a slow build from a stuck daemon
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(30);
+    private static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 180;
+
+    // system properties that belong to the JVM, and not to the build
+    private static final List<String> JVM_PROPERTY_PREFIXES = List.of("java.", "jdk.", "sun.", "os.", "file.",
+            "path.", "line.", "user.", "native.", "awt.", "stdout.", "stderr.", "daemon");
+
+    // system properties of the build with a path, or a list of paths, as value
+    private static final List<String> PATH_PROPERTIES = List.of("graalvm", "javalibspath");
+    private static final List<String> PATH_LIST_PROPERTIES = List.of("imagecp");
+
+    // environment variables that affect the build, or that start with any of the prefixes
+    private static final List<String> BUILD_ENVIRONMENT = List.of("PATH", "JAVA_HOME", "GRAALVM_HOME",
+            "GRAALVM_COMPILER_BACKEND", "JAVAFX_STATIC_SDK_PATH", "SYSROOT", "INCLUDE", "LIB", "LIBPATH");
+    private static final List<String> BUILD_ENVIRONMENT_PREFIXES = List.of("PKG_CONFIG_", "ANDROID_", "SUBSTRATE_");
+
+    private SubstrateDaemon() {
+    }
+
+    /**
+     * Starts a daemon that accepts build requests until it is idle for
+     * longer than <code>daemonIdleTimeout</code> minutes
+     *
+     * @param args not used
+     * @throws IOException if the daemon can't be started
+     */
+    public static void main(String[] args) throws IOException {
+        Duration idleTimeout = Duration.ofMinutes(Long.getLong("daemonIdleTimeout", DEFAULT_IDLE_TIMEOUT_MINUTES));
+        serve(DAEMON_PATH, idleTimeout);
+    }
+
+    /**
+     * Runs the build defined by the system properties of this process in a
+     * daemon, starting the daemon if it isn't running yet.
+     *
+     * @return an optional with the exit code of the build, or empty if the
+     * build couldn't be run by a daemon, and has to run in this process instead
+     */
+    static Optional<Integer> runInDaemon() {
+        try {
+            Path buildRoot = Paths.get(System.getProperty("user.dir"), "build", "autoclient");
+            // a daemon with a different environment stops, and a new one is started once
+            for (int attempt = 0; attempt < 2; attempt++) {
+                Optional<Properties> state = readState(DAEMON_PATH);
+                if (state.isEmpty() || !isAlive(state.get())) {
+                    state = startDaemon(DAEMON_PATH);
+                }
+                if (state.isEmpty()) {
+                    Logger.logInfo("The build daemon couldn't be started, building without it");
+                    return Optional.empty();
+                }
+                Optional<Integer> exitCode = request(state.get(), buildRoot, System.getProperties(), new OutputStreamWriter(System.err));
+                if (exitCode.isPresent()) {
+                    return exitCode;
+                }
+                Logger.logInfo("The build daemon runs with a different environment, starting a new one");
+                awaitStop(state.get());
+            }
+            Logger.logInfo("The build daemon refused the build, building without it");
+            return Optional.empty();
+        } catch (IOException e) {
+            Logger.logInfo("Error connecting to the build daemon, building without it: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Accepts build requests until the daemon is idle for longer than the given timeout
+     *
+     * @param daemonPath the folder where the state of the daemon is stored
+     * @param idleTimeout the time after which an idle daemon stops
+     * @throws IOException if the daemon can't be started
+     */
+    static void serve(Path daemonPath, Duration idleTimeout) throws IOException {
+        String token = createToken();
+        String environment = getEnvironmentFingerprint();
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            serverSocket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, idleTimeout.toMillis()));
+
+            Properties state = new Properties();
+            state.setProperty(KEY_PORT, Integer.toString(serverSocket.getLocalPort()));
+            state.setProperty(KEY_TOKEN, token);
+            state.setProperty(KEY_PID, Long.toString(ProcessHandle.current().pid()));
+            writeState(daemonPath, state);
+            Logger.logInfo("Build daemon listening on port " + serverSocket.getLocalPort());
+
+            try {
+                while (true) {
+                    try (Socket socket = serverSocket.accept()) {
+                        if (!handle(socket, token, environment)) {
+                            Logger.logInfo("Build daemon refused a client with a different environment, stopping");
+                            return;
+                        }
+                    } catch (SocketTimeoutException e) {
+                        Logger.logInfo("Build daemon idle for " + idleTimeout.toMinutes() + " minutes, stopping");
+                        return;
+                    } catch (IOException | RuntimeException e) {
+                        Logger.logDebug("Error handling build request: " + e);
+                    }
+                }
+            } finally {
+                deleteState(daemonPath, token);
+            }
+        }
+    }
+
+    /**
+     * Handles a build request
+     *
+     * @return false if the request was refused, and the daemon has to stop
+     * @throws IOException
+     */
+    private static boolean handle(Socket socket, String token, String environment) throws IOException {
+        socket.setSoTimeout((int) REQUEST_TIMEOUT.toMillis());
+        DataInputStream dis = new DataInputStream(socket.getInputStream());
+        int size = dis.readInt();
+        if (size < 0 || size > MAX_REQUEST_SIZE) {
+            throw new IOException("Invalid build request size: " + size);
+        }
+        byte[] payload = new byte[size];
+        dis.readFully(payload);
+        Properties request = new Properties();
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8)) {
+            request.load(reader);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        if (!token.equals(request.getProperty(KEY_TOKEN))) {
+            Logger.logInfo("Ignoring build request with an invalid token");
+            return true;
+        }
+        if (!environment.equals(request.getProperty(KEY_ENVIRONMENT))) {
+            writeLine(writer, RESULT_PREFIX + REFUSED);
+            return false;
+        }
+
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "substrate-daemon-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int exitCode;
+        try {
+            heartbeat.scheduleAtFixedRate(() -> {
+                try {
+                    writeLine(writer, HEARTBEAT);
+                } catch (IOException e) {
+                    // the client is gone, the build goes on and is logged to the files
+                }
+            }, HEARTBEAT_INTERVAL.toMillis(), HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+            exitCode = build(request, writer);
+        } finally {
+            heartbeat.shutdownNow();
+        }
+        writeLine(writer, RESULT_PREFIX + exitCode);
+        return true;
+    }
+
+    private static int build(Properties request, Writer writer) {
+        Properties systemProperties = (Properties) System.getProperties().clone();
+        Handler handler = new ClientHandler(writer);
+        handler.setLevel(request.containsKey(PROPERTY_PREFIX + "verbose") ? Level.FINE : Level.INFO);
+        Logger.addHandler(handler);
+        Path workingDir = Path.of(request.getProperty(KEY_WORKING_DIR, "")).toAbsolutePath();
+        try {
+            for (String key : request.stringPropertyNames()) {
+                if (key.startsWith(PROPERTY_PREFIX)) {
+                    String name = key.substring(PROPERTY_PREFIX.length());
+                    System.setProperty(name, resolvePaths(name, request.getProperty(key), workingDir));
+                }
+            }
+            ProcessRunner.setDefaultWorkingDirectory(workingDir.toFile());
+            return SubstrateDispatcher.build(workingDir.resolve(request.getProperty(KEY_BUILD_ROOT))) ? 0 : 1;
+        } catch (Throwable t) {
+            Logger.logInfo("Build failed with an exception: " + t);
+            return 1;
+        } finally {
+            ProcessRunner.setDefaultWorkingDirectory(null);
+            Logger.removeHandler(handler);
+            System.setProperties(systemProperties);
+        }
+    }
+
+    /**
+     * Sends a build request to a daemon, and writes the log messages of the
+     * build to the given writer, as they arrive
+     *
+     * @param state the state of the daemon
+     * @param buildRoot the root of the build, on the client side
+     * @param properties the system properties that define the build
+     * @param output the writer for the log messages of the build
+     * @return an optional with the exit code of the build, or empty if the
+     * daemon refused the request
+     * @throws IOException if the daemon can't be reached, or doesn't respond in time
+     */
+    static Optional<Integer> request(Properties state, Path buildRoot, Properties properties, Writer output) throws IOException {
+        return request(state, buildRoot, properties, getEnvironmentFingerprint(), output);
+    }
+
+    static Optional<Integer> request(Properties state, Path buildRoot, Properties properties, String environment,
+                                     Writer output) throws IOException {
+        Properties request = new Properties();
+        request.setProperty(KEY_TOKEN, state.getProperty(KEY_TOKEN));
+        request.setProperty(KEY_ENVIRONMENT, environment);
+        request.setProperty(KEY_WORKING_DIR, Path.of("").toAbsolutePath().toString());
+        request.setProperty(KEY_BUILD_ROOT, buildRoot.toAbsolutePath().toString());
+        for (String key : properties.stringPropertyNames()) {
+            if (JVM_PROPERTY_PREFIXES.stream().noneMatch(key::startsWith)) {
+                request.setProperty(PROPERTY_PREFIX + key, properties.getProperty(key));
+            }
+        }
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(payload, StandardCharsets.UTF_8)) {
+            request.store(writer, null);
+        }
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(state.getProperty(KEY_PORT))),
+                    (int) CONNECT_TIMEOUT.toMillis());
+            // a busy or stuck daemon sends nothing, while a building one sends log lines or heartbeats
+            socket.setSoTimeout((int) RESPONSE_TIMEOUT.toMillis());
+            DataOutputStream dos = new DataOutputStream(socket.getOutputStream());
+            dos.writeInt(payload.size());
+            payload.writeTo(dos);
+            dos.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(LOG_PREFIX)) {
+                    output.write(line.substring(LOG_PREFIX.length()));
+                    output.write(System.lineSeparator());
+                    output.flush();
+                } else if (line.startsWith(RESULT_PREFIX)) {
+                    String result = line.substring(RESULT_PREFIX.length());
+                    return REFUSED.equals(result) ? Optional.empty() : Optional.of(Integer.parseInt(result));
+                }
+            }
+        }
+        throw new IOException("The build daemon closed the connection before the build ended");
+    }
+
+    /**
+     * The daemon would resolve relative paths against its own working directory,
+     * so the paths given by the client are resolved against the client's one
+     *
+     * @param key the name of a system property of the build
+     * @param value the value of the property
+     * @param workingDir the working directory of the client
+     * @return the value, with its paths resolved if it is a path-valued property
+     */
+    static String resolvePaths(String key, String value, Path workingDir) {
+        if (PATH_PROPERTIES.contains(key) && !value.isEmpty()) {
+            return workingDir.resolve(value).toString();
+        }
+        if (PATH_LIST_PROPERTIES.contains(key)) {
+            StringBuilder paths = new StringBuilder();
+            for (String entry : value.split(File.pathSeparator)) {
+                if (paths.length() > 0) {
+                    paths.append(File.pathSeparator);
+                }
+                paths.append(entry.isEmpty() ? entry : workingDir.resolve(entry).toString());
+            }
+            return paths.toString();
+        }
+        return value;
+    }
+
+    /**
+     * The environment variables that affect the build, the JVM and the classpath
+     * of the daemon, so a daemon is only used by clients that share them. Other
+     * variables, like the working directory of the shell, are not included, as
+     * they change between shells, and would prevent reusing the daemon.
+     */
+    static String getEnvironmentFingerprint() {
+        return new Fingerprint()
+                .addAll("environment", new TreeMap<>(System.getenv()).entrySet().stream()
+                        .filter(e -> BUILD_ENVIRONMENT.contains(e.getKey()) ||
+                                BUILD_ENVIRONMENT_PREFIXES.stream().anyMatch(e.getKey()::startsWith))
+                        .map(Map.Entry::toString)
+                        .collect(Collectors.toList()))
+                .add("java.home", System.getProperty("java.home"))
+                .add("java.class.path", System.getProperty("java.class.path"))
+                .getValue();
+    }
+
+    private static Optional<Properties> startDaemon(Path daemonPath) throws IOException {
+        Files.createDirectories(daemonPath);
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        ProcessBuilder processBuilder = new ProcessBuilder(java.toString(),
+                "-DdaemonIdleTimeout=" + Long.getLong("daemonIdleTimeout", DEFAULT_IDLE_TIMEOUT_MINUTES),
+                "-cp", System.getProperty("java.class.path"),
+                SubstrateDaemon.class.getName());
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(daemonPath.resolve(LOG_FILE).toFile()));
+        Process process = processBuilder.start();
+        Logger.logInfo("Starting build daemon, pid " + process.pid());
+
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (process.isAlive() && System.nanoTime() < deadline) {
+            Optional<Properties> state = readState(daemonPath);
+            if (state.isPresent() && Long.toString(process.pid()).equals(state.get().getProperty(KEY_PID))) {
+                return state;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Waits for a daemon that refused a request to stop, or stops it if it takes too long
+     */
+    private static void awaitStop(Properties state) {
+        try {
+            Optional<ProcessHandle> process = ProcessHandle.of(Long.parseLong(state.getProperty(KEY_PID, "")));
+            if (process.isEmpty()) {
+                return;
+            }
+            try {
+                process.get().onExit().get(START_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                process.get().destroy();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (NumberFormatException e) {
+            // not a valid daemon
+        }
+    }
+
+    private static boolean isAlive(Properties state) {
+        try {
+            return ProcessHandle.of(Long.parseLong(state.getProperty(KEY_PID, "")))
+                    .map(ProcessHandle::isAlive)
+                    .orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static Optional<Properties> readState(Path daemonPath) {
+        Path file = daemonPath.resolve(STATE_FILE);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            state.load(reader);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (state.getProperty(KEY_PORT) == null || state.getProperty(KEY_TOKEN) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(state);
+    }
+
+    private static void writeState(Path daemonPath, Properties state) throws IOException {
+        FileOps.writeAtomically(daemonPath.resolve(STATE_FILE), tmpFile -> {
+            // the token is restricted to the user before it is written
+            try {
+                Files.setPosixFilePermissions(tmpFile, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                Logger.logDebug("Can't restrict the permissions of " + tmpFile);
+            }
+            try (Writer writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+                state.store(writer, "Substrate build daemon");
+            }
+        });
+    }
+
+    private static void deleteState(Path daemonPath, String token) {
+        // another daemon might have replaced the file in the meantime
+        Optional<Properties> state = readState(daemonPath);
+        if (state.isPresent() && token.equals(state.get().getProperty(KEY_TOKEN))) {
+            try {
+                Files.deleteIfExists(daemonPath.resolve(STATE_FILE));
+            } catch (IOException e) {
+                Logger.logDebug("Error deleting " + daemonPath.resolve(STATE_FILE) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String createToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Strings.toHex(bytes);
+    }
+
+    private static void writeLine(Writer writer, String line) throws IOException {
+        synchronized (writer) {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /**
+     * Forwards the log messages of a build to the client that requested it
+     */
+    private static class ClientHandler extends Handler {
+
+        private final Writer writer;
+        private final Formatter formatter = new SimpleFormatter();
+
+        ClientHandler(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            if (!isLoggable(record)) {
+                return;
+            }
+            String message = formatter.format(record);
+            try {
+                synchronized (writer) {
+                    for (String line : message.split("\\R")) {
+                        writeLine(writer, LOG_PREFIX + line);
+                    }
+                }
+            } catch (IOException e) {
+                // the client is gone, the build goes on and is logged to the files
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
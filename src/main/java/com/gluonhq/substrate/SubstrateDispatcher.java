@@ -27,6 +27,7 @@
  */
 package com.gluonhq.substrate;
 
+import com.gluonhq.substrate.config.SharedBuildInputs;
 import com.gluonhq.substrate.model.InternalProjectConfiguration;
 import com.gluonhq.substrate.model.ProcessPaths;
 import com.gluonhq.substrate.model.Triplet;
@@ -37,9 +38,12 @@ import com.gluonhq.substrate.target.MacOSTargetConfiguration;
 import com.gluonhq.substrate.target.TargetConfiguration;
 import com.gluonhq.substrate.target.WebTargetConfiguration;
 import com.gluonhq.substrate.target.WindowsTargetConfiguration;
+import com.gluonhq.substrate.util.BuildMetrics;
 import com.gluonhq.substrate.util.Logger;
+import com.gluonhq.substrate.util.NativeImageReport;
 import com.gluonhq.substrate.util.ProcessRunner;
 import com.gluonhq.substrate.util.Strings;
+import com.gluonhq.substrate.util.TaskGraph;
 import com.gluonhq.substrate.util.Version;
 
 import java.io.BufferedReader;
@@ -52,11 +56,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class SubstrateDispatcher {
 
@@ -123,32 +129,87 @@ public class SubstrateDispatcher {
     private static volatile boolean messagePrinted = false;
 
     public static void main(String[] args) throws IOException {
-        Step step = getStepToExecute();
+        if (Boolean.getBoolean("daemon")) {
+            Optional<Integer> exitCode = SubstrateDaemon.runInDaemon();
+            if (exitCode.isPresent()) {
+                if (exitCode.get() != 0) {
+                    System.exit(exitCode.get());
+                }
+                return;
+            }
+        }
 
         Path buildRoot = Paths.get(System.getProperty("user.dir"), "build", "autoclient");
-        ProjectConfiguration configuration = createProjectConfiguration();
-        SubstrateDispatcher dispatcher = new SubstrateDispatcher(buildRoot, configuration);
+        if (!build(buildRoot)) {
+            System.exit(1);
+        }
+    }
 
-        executeCompileStep(dispatcher);
+    /**
+     * Runs the steps of the build defined by the system properties, as described
+     * in {@link #printUsage()}, up to the one given by the <code>step</code> property
+     *
+     * @param buildRoot the root, relative to which the compilation step can create object files and temporary files
+     * @return true if all the steps succeeded, false otherwise
+     * @throws IOException
+     */
+    static boolean build(Path buildRoot) throws IOException {
+        Step step = getStepToExecute();
+        compiling = true;
 
-        if (step.requires(Step.LINK)) {
-            executeLinkStep(dispatcher);
+        List<String> targetProfiles = Strings.split(System.getProperty("targetProfiles"));
+        if (!targetProfiles.isEmpty()) {
+            return executeMultiTargetBuild(step, buildRoot, targetProfiles);
         }
 
-        if (step.requires(Step.PACKAGE)) {
-            executePackageStep(dispatcher);
-        }
+        String targetProfile = System.getProperty("targetProfile");
+        ProjectConfiguration configuration = createProjectConfiguration(targetProfile != null ?
+                getTriplet(targetProfile) : Triplet.fromCurrentOS());
+        SubstrateDispatcher dispatcher = new SubstrateDispatcher(buildRoot, configuration);
+
+        return compile(dispatcher) &&
+                (!step.requires(Step.LINK) || executeLinkStep(dispatcher)) &&
+                (!step.requires(Step.PACKAGE) || executePackageStep(dispatcher)) &&
+                (!step.requires(Step.INSTALL) || executeInstallStep(dispatcher)) &&
+                (!step.requires(Step.RUN) || executeRunStep(dispatcher));
+    }
 
+    private static boolean executeMultiTargetBuild(Step step, Path buildRoot, List<String> targetProfiles) {
         if (step.requires(Step.INSTALL)) {
-            executeInstallStep(dispatcher);
+            Logger.logInfo("Building several targets, the install and run steps will be skipped");
         }
-
-        if (step.requires(Step.RUN)) {
-            executeRunStep(dispatcher);
+        int targetJobs = Integer.getInteger("targetJobs", getDefaultTargetJobs(targetProfiles.size()));
+        startNativeCompileTimer();
+        try {
+            List<ProjectConfiguration> configurations = new ArrayList<>();
+            for (String targetProfile : targetProfiles) {
+                configurations.add(createProjectConfiguration(getTriplet(targetProfile.trim())));
+            }
+            boolean success = nativeBuildTargets(buildRoot, configurations, targetJobs, step.requires(Step.PACKAGE));
+            compiling = false;
+            if (!success) {
+                Logger.logSevere("Building failed.");
+                return false;
+            }
+        } catch (Throwable t) {
+            Logger.logFatal(t, "Building failed with an exception.");
         }
+        return true;
+    }
+
+    /**
+     * Each native-image process already uses all the available processors,
+     * so by default only a few targets are built at the same time
+     */
+    private static int getDefaultTargetJobs(int targets) {
+        return Math.max(1, Math.min(targets, Runtime.getRuntime().availableProcessors() / 4));
     }
 
-    private static ProjectConfiguration createProjectConfiguration() {
+    private static Triplet getTriplet(String targetProfile) {
+        return new Triplet(Constants.Profile.valueOf(targetProfile.toUpperCase(Locale.ROOT)));
+    }
+
+    private static ProjectConfiguration createProjectConfiguration(Triplet targetTriplet) {
         String classpath = requireSystemProperty("imagecp", "Use -Dimagecp=/path/to/classes");
         String graalVM = requireSystemProperty("graalvm", "Use -Dgraalvm=/path/to/graalvm");
         String mainClass = requireSystemProperty("mainclass", "Use -Dmainclass=main.class.name");
@@ -159,11 +220,12 @@ public class SubstrateDispatcher {
 
         boolean usePrismSW = Boolean.parseBoolean(System.getProperty("prism.sw", "false"));
         boolean usePrecompiledCode = Boolean.parseBoolean(System.getProperty("usePrecompiledCode", "true"));
+        int nativeCompileJobs = Integer.getInteger("nativeCompileJobs", 0);
+        boolean nativeImageAutoSizing = Boolean.getBoolean("nativeImageAutoSizing");
+        boolean reflectionTrimming = Boolean.getBoolean("reflectionTrimming");
+        boolean resourceScanning = Boolean.getBoolean("resourceScanning");
+        long resourceSizeThreshold = Long.getLong("resourceSizeThreshold", -1);
         List<String> nativeImageArgs = Arrays.asList(System.getProperty("nativeImageArgs", "").split(","));
-        String targetProfile = System.getProperty("targetProfile");
-        Triplet targetTriplet = targetProfile != null ?
-                new Triplet(Constants.Profile.valueOf(targetProfile.toUpperCase())) :
-                Triplet.fromCurrentOS();
 
         ProjectConfiguration config = new ProjectConfiguration(mainClass, classpath);
         config.setGraalPath(Path.of(graalVM));
@@ -176,6 +238,11 @@ public class SubstrateDispatcher {
         config.setVerbose(verbose);
         config.setUsePrismSW(usePrismSW);
         config.setUsePrecompiledCode(usePrecompiledCode);
+        config.setNativeCompileJobs(nativeCompileJobs);
+        config.setNativeImageAutoSizing(nativeImageAutoSizing);
+        config.setReflectionTrimming(reflectionTrimming);
+        config.setResourceScanning(resourceScanning);
+        config.setResourceSizeThreshold(resourceSizeThreshold);
         if (!nativeImageArgs.isEmpty()) {
             config.setCompilerArgs(nativeImageArgs);
         }
@@ -196,6 +263,12 @@ public class SubstrateDispatcher {
     }
 
     public static void executeCompileStep(SubstrateDispatcher dispatcher) {
+        if (!compile(dispatcher)) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean compile(SubstrateDispatcher dispatcher) {
         startNativeCompileTimer();
 
         try {
@@ -204,11 +277,13 @@ public class SubstrateDispatcher {
 
             if (!nativeCompileSucceeded) {
                 Logger.logSevere("Compiling failed.");
-                System.exit(1);
+                return false;
             }
         } catch (Throwable t) {
+            compiling = false;
             Logger.logFatal(t, "Compiling failed with an exception.");
         }
+        return true;
     }
 
     private static void startNativeCompileTimer() {
@@ -227,15 +302,16 @@ public class SubstrateDispatcher {
         timer.start();
     }
 
-    private static void executeLinkStep(SubstrateDispatcher dispatcher) {
+    private static boolean executeLinkStep(SubstrateDispatcher dispatcher) {
         try {
             if (!dispatcher.nativeLink()) {
                 Logger.logSevere("Linking failed.");
-                System.exit(1);
+                return false;
             }
         } catch (Throwable t) {
             Logger.logFatal(t, "Linking failed with an exception.");
         }
+        return true;
     }
 
     private void printMessage(String task) {
@@ -298,29 +374,31 @@ public class SubstrateDispatcher {
         }
     }
 
-    private static void executePackageStep(SubstrateDispatcher dispatcher) {
+    private static boolean executePackageStep(SubstrateDispatcher dispatcher) {
         try {
             if (!dispatcher.nativePackage()) {
                 Logger.logSevere("Packaging failed.");
-                System.exit(1);
+                return false;
             }
         } catch (Throwable t) {
             Logger.logFatal(t, "Packaging failed with an exception.");
         }
+        return true;
     }
 
-    private static void executeInstallStep(SubstrateDispatcher dispatcher) {
+    private static boolean executeInstallStep(SubstrateDispatcher dispatcher) {
         try {
             if (!dispatcher.nativeInstall()) {
                 Logger.logSevere("Installing failed.");
-                System.exit(1);
+                return false;
             }
         } catch (Throwable t) {
             Logger.logFatal(t, "Installing failed with an exception.");
         }
+        return true;
     }
 
-    private static void executeRunStep(SubstrateDispatcher dispatcher) {
+    private static boolean executeRunStep(SubstrateDispatcher dispatcher) {
         try {
             String expected = System.getProperty("expected");
             if (expected != null) {
@@ -331,7 +409,7 @@ public class SubstrateDispatcher {
                     Logger.logInfo("Run ended successfully, the output: " + expected + " matched the expected result.");
                 } else {
                     Logger.logSevere("Run failed, expected output: " + expected + ", output: " + response);
-                    System.exit(1);
+                    return false;
                 }
             } else {
                 dispatcher.nativeRun();
@@ -339,6 +417,7 @@ public class SubstrateDispatcher {
         } catch (Throwable t) {
             Logger.logFatal(t, "Running failed with an exception");
         }
+        return true;
     }
 
     private static String requireSystemProperty(String argName, String errorMessage ) {
@@ -361,6 +440,7 @@ public class SubstrateDispatcher {
     private final InternalProjectConfiguration config;
     private final ProcessPaths paths;
     private final TargetConfiguration targetConfiguration;
+    private final List<BuildMetrics.Phase> buildPhases = new ArrayList<>();
 
 
     /**
@@ -369,12 +449,31 @@ public class SubstrateDispatcher {
      * @param config the ProjectConfiguration, including the target triplet
      */
     public SubstrateDispatcher(Path buildRoot, ProjectConfiguration config) throws IOException {
+        this(buildRoot, config, null);
+    }
+
+    /**
+     * Dispatches calls to different process steps. Uses shared build root path and project configuration,
+     * and the target independent inputs that are shared with the builds of other targets
+     * @param buildRoot the root, relative to which the compilation step can create object files and temporary files
+     * @param config the ProjectConfiguration, including the target triplet
+     * @param sharedBuildInputs the inputs shared with the builds of other targets, or null if there are none
+     */
+    public SubstrateDispatcher(Path buildRoot, ProjectConfiguration config, SharedBuildInputs sharedBuildInputs) throws IOException {
+        this(buildRoot, config, sharedBuildInputs, true);
+    }
+
+    private SubstrateDispatcher(Path buildRoot, ProjectConfiguration config, SharedBuildInputs sharedBuildInputs,
+                                boolean initLog) throws IOException {
         this.paths = new ProcessPaths(Objects.requireNonNull(buildRoot),
                 Objects.requireNonNull(config).getTargetTriplet().getArchOs());
         ProcessRunner.setProcessLogPath(paths.getClientPath().resolve(Constants.LOG_PATH));
         ProcessRunner.setConsoleProcessLog(Boolean.getBoolean("consoleProcessLog"));
 
         this.config = new InternalProjectConfiguration(config);
+        if (sharedBuildInputs != null) {
+            this.config.setSharedBuildInputs(sharedBuildInputs);
+        }
         if (this.config.isVerbose()) {
             System.out.println("Configuration: " + this.config);
         }
@@ -384,7 +483,9 @@ public class SubstrateDispatcher {
         this.targetConfiguration = Objects.requireNonNull(getTargetConfiguration(targetTriplet),
                 "Error: Target Configuration was not found for " + targetTriplet);
 
-        Logger.logInit(paths.getLogPath().toString(), this.config.isVerbose());
+        if (initLog) {
+            Logger.logInit(paths.getLogPath().toString(), this.config.isVerbose());
+        }
     }
 
     private TargetConfiguration getTargetConfiguration(Triplet targetTriplet) throws IOException {
@@ -403,6 +504,76 @@ public class SubstrateDispatcher {
     }
 
 
+    /**
+     * This method builds the application for several targets in one invocation. Each target
+     * is compiled and linked, and packaged if requested, and up to <code>parallelism</code>
+     * targets are built at the same time.
+     * The target independent inputs, like the index of the classpath and the pathing jar,
+     * are created only once, and shared by all the targets.
+     * This method returns <code>true</code> when all the targets are built successfully. If the
+     * build of one target fails, the builds of the other targets are cancelled.
+     * The messages of each target are logged into its own log folder, and its process logs
+     * are prefixed with its name, see {@link Logger#openTargetLog(String, String, boolean)}.
+     * @param buildRoot the root, relative to which the compilation step can create object files and temporary files
+     * @param configurations the ProjectConfigurations, each one with a different target triplet
+     * @param parallelism the maximum number of targets that are built at the same time
+     * @param packageApp true if the application has to be packaged after linking it
+     * @return true if the build of all the targets succeeded, false otherwise
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static boolean nativeBuildTargets(Path buildRoot, List<ProjectConfiguration> configurations,
+                                             int parallelism, boolean packageApp) throws IOException, InterruptedException {
+        SharedBuildInputs sharedBuildInputs = new SharedBuildInputs(
+                Objects.requireNonNull(buildRoot).resolve(Constants.SHARED_PATH));
+        TaskGraph graph = new TaskGraph("targets");
+        for (ProjectConfiguration configuration : configurations) {
+            String target = configuration.getTargetTriplet().getArchOs();
+            graph.add(configuration.getTargetTriplet().toString(), () -> {
+                Path logPath = new ProcessPaths(buildRoot, target).getLogPath();
+                try (Logger.TargetLog targetLog = Logger.openTargetLog(target, logPath.toString(), configuration.isVerbose())) {
+                    Logger.logInfo("Building target " + targetLog.getTarget());
+                    SubstrateDispatcher dispatcher = new SubstrateDispatcher(buildRoot, configuration, sharedBuildInputs, false);
+                    return dispatcher.nativeCompile() && dispatcher.nativeLink() &&
+                            (!packageApp || dispatcher.nativePackage());
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException("Error building " + configuration.getTargetTriplet(), e);
+                }
+            });
+        }
+        boolean success = graph.run(parallelism);
+        graph.getDurations().forEach((target, duration) ->
+                Logger.logInfo("Target " + target + " built in " + duration.toSeconds() + " s"));
+        return success;
+    }
+
+    /**
+     * Starts a top level phase of the build of this dispatcher, see {@link BuildMetrics}
+     */
+    private BuildMetrics.Phase startPhase(String name) {
+        BuildMetrics.Phase phase = BuildMetrics.start(config.getTargetTriplet().getArchOs(), name);
+        buildPhases.add(phase);
+        return phase;
+    }
+
+    /**
+     * Writes the report of the phases of the build of this dispatcher that have ended,
+     * see {@link BuildMetrics}, next to the logs of the processes
+     */
+    private void writeBuildMetrics() {
+        String target = config.getTargetTriplet().getArchOs();
+        Path reportPath = paths.getClientPath().resolve(Constants.LOG_PATH).resolve(BuildMetrics.getReportFile(target));
+        try {
+            BuildMetrics.writeReport(reportPath, target, buildPhases.stream()
+                    .flatMap(phase -> phase.getPhases().stream())
+                    .collect(Collectors.toList()));
+        } catch (IOException e) {
+            Logger.logDebug("Error writing build metrics to " + reportPath + ": " + e.getMessage());
+        }
+    }
+
     /**
      * This method will start native compilation for the specified configuration.
      * The result of compilation is a at least one native file (2 files in case LLVM backend is used).
@@ -419,13 +590,29 @@ public class SubstrateDispatcher {
         config.canRunLLVM(targetTriplet);
 
         Logger.logInfo("We will now compile your code for " + targetTriplet + ". This may take some time.");
-        boolean compilingSucceeded = targetConfiguration.compile();
+        boolean compilingSucceeded;
+        try (BuildMetrics.Phase phase = startPhase("compile")) {
+            compilingSucceeded = phase.setSuccess(targetConfiguration.compile());
+        } finally {
+            writeBuildMetrics();
+        }
         if (!compilingSucceeded) {
             Logger.logSevere("Compiling failed.");
         }
         return compilingSucceeded;
     }
 
+    /**
+     * Returns the statistics printed by native-image during the last {@link #nativeCompile()},
+     * like the duration of its phases, the number of reachable types and methods, its peak
+     * memory and the size of the image. The report of each compilation is compared with the
+     * one of the previous compilation, and the regressions found are logged.
+     * @return an optional with the report, or empty if it is not available
+     */
+    public Optional<NativeImageReport> getNativeImageReport() {
+        return targetConfiguration.getNativeImageReport();
+    }
+
     /**
      * This method will start native linking for the specified configuration, after {@link #nativeCompile()}
      * was called and ended successfully.
@@ -437,7 +624,12 @@ public class SubstrateDispatcher {
      */
     public boolean nativeLink() throws IOException, InterruptedException {
         Logger.logInfo(logTitle("LINK TASK"));
-        boolean linkingSucceeded = targetConfiguration.link();
+        boolean linkingSucceeded;
+        try (BuildMetrics.Phase phase = startPhase("link")) {
+            linkingSucceeded = phase.setSuccess(targetConfiguration.link());
+        } finally {
+            writeBuildMetrics();
+        }
         if (!linkingSucceeded) {
             Logger.logSevere("Linking failed.");
         }
@@ -455,7 +647,12 @@ public class SubstrateDispatcher {
      */
     public boolean nativePackage() throws IOException, InterruptedException {
         Logger.logInfo(logTitle("PACKAGE TASK"));
-        boolean packagingSucceeded = targetConfiguration.packageApp();
+        boolean packagingSucceeded;
+        try (BuildMetrics.Phase phase = startPhase("package")) {
+            packagingSucceeded = phase.setSuccess(targetConfiguration.packageApp());
+        } finally {
+            writeBuildMetrics();
+        }
         if (!packagingSucceeded) {
             Logger.logSevere("Packaging failed.");
         }
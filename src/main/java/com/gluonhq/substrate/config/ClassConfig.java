@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.util.Json;
+import com.gluonhq.substrate.util.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Model of a reflection or JNI configuration file, which both share the same
+ * format: an array with one entry per class.
+ *
+ * Configuration from different sources is merged per class: the boolean flags
+ * are combined, and the methods and fields are the union of all the ones
+ * registered for the class, merged by name and parameter types, and by name.
+ * Entries with a condition are only merged with entries with the same
+ * condition. The class is given by <code>name</code> or by <code>type</code>,
+ * and it is always written as <code>name</code>, which all the supported
+ * GraalVM versions read. The result is written with the classes, keys and
+ * members sorted, so the same inputs always produce the same file.
+ */
+public class ClassConfig {
+
+    private static final String NAME = "name";
+    private static final String TYPE = "type";
+    private static final String CONDITION = "condition";
+    private static final String PARAMETER_TYPES = "parameterTypes";
+    private static final String FIELDS = "fields";
+    private static final Set<String> METHOD_LISTS = Set.of("methods", "queriedMethods");
+
+    private static final List<String> ALL_MEMBERS = List.of(
+            "allDeclaredConstructors", "allPublicConstructors",
+            "allDeclaredFields", "allPublicFields",
+            "allDeclaredMethods", "allPublicMethods");
+
+    private final Map<String, ClassEntry> entries = new TreeMap<>();
+    private int addedEntries;
+
+    /**
+     * Registers a class by name
+     *
+     * @param className the fully qualified name of the class
+     * @param allMembers if true, all the constructors, fields and methods
+     *                   of the class are registered too
+     */
+    public void addClass(String className, boolean allMembers) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put(NAME, className);
+        if (allMembers) {
+            ALL_MEMBERS.forEach(flag -> entry.put(flag, Boolean.TRUE));
+        }
+        addEntry(entry);
+    }
+
+    /**
+     * Adds all the entries of a configuration. Besides complete files, the
+     * text can be a comma separated list of entries, without the surrounding
+     * brackets.
+     *
+     * @param json the configuration text
+     * @param source a description of where the configuration comes from
+     * @throws IOException if the configuration can't be parsed
+     */
+    public void add(String json, String source) throws IOException {
+        String text = json.trim();
+        if (text.isEmpty()) {
+            return;
+        }
+        if (!text.startsWith("[")) {
+            text = "[" + text + "]";
+        }
+        Object value;
+        try {
+            value = Json.parse(text);
+        } catch (IOException e) {
+            throw new IOException("Error parsing configuration from " + source + ": " + e.getMessage(), e);
+        }
+        if (!(value instanceof List)) {
+            throw new IOException("Error parsing configuration from " + source + ": expected an array of classes");
+        }
+        for (Object entry : (List<?>) value) {
+            if (!(entry instanceof Map)) {
+                throw new IOException("Error parsing configuration from " + source + ": expected a class entry, but found " + Json.toJson(entry));
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) entry;
+            if (!(map.get(NAME) instanceof String) && !(map.get(TYPE) instanceof String)) {
+                throw new IOException("Error parsing configuration from " + source + ": class entry without name " + Json.toJson(entry));
+            }
+            addEntry(map);
+        }
+    }
+
+    /**
+     * Adds a single class entry
+     *
+     * @param entry the entry, as a map with the keys and values of its JSON
+     *              object, that contains at least the name of the class
+     */
+    public void add(Map<String, Object> entry) {
+        Objects.requireNonNull(entry.get(NAME), "entry without name");
+        addEntry(entry);
+    }
+
+    /**
+     * @return the number of distinct class entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the merged configuration to a file
+     *
+     * @param file the path of the file
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file) throws IOException {
+        Logger.logDebug("Writing " + entries.size() + " class entries, merged from " + addedEntries + " entries, to " + file);
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            bw.write(toJson());
+        }
+    }
+
+    /**
+     * @return the merged configuration, in its canonical form
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("[\n");
+        boolean first = true;
+        for (ClassEntry entry : entries.values()) {
+            if (!first) {
+                sb.append(",\n");
+            }
+            first = false;
+            entry.write(sb);
+        }
+        return sb.append("\n]\n").toString();
+    }
+
+    private void addEntry(Map<String, Object> map) {
+        addedEntries++;
+        String name = (String) (map.get(NAME) instanceof String ? map.get(NAME) : map.get(TYPE));
+        Object condition = canonical(map.get(CONDITION));
+        String key = name + '\u0000' + (condition == null ? "" : Json.toJson(condition));
+        entries.computeIfAbsent(key, k -> new ClassEntry(name, condition)).merge(map);
+    }
+
+    /**
+     * Copy of a value with the keys of all the objects sorted
+     */
+    private static Object canonical(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> map = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(String.valueOf(k), canonical(v)));
+            return map;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            ((List<?>) value).forEach(v -> list.add(canonical(v)));
+            return list;
+        }
+        return value;
+    }
+
+    /**
+     * Copy of a member object, with its name first and the other keys sorted
+     */
+    private static Map<String, Object> nameFirst(Map<String, Object> member) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (member.containsKey(NAME)) {
+            map.put(NAME, member.get(NAME));
+        }
+        member.forEach(map::putIfAbsent);
+        return map;
+    }
+
+    private static class ClassEntry {
+
+        private final String name;
+        private final Object condition;
+        private final Map<String, Boolean> flags = new TreeMap<>();
+        private final Map<String, Map<String, Map<String, Object>>> methods = new TreeMap<>();
+        private final Map<String, Map<String, Object>> fields = new TreeMap<>();
+        private final Map<String, Object> others = new TreeMap<>();
+
+        ClassEntry(String name, Object condition) {
+            this.name = name;
+            this.condition = condition;
+        }
+
+        @SuppressWarnings("unchecked")
+        void merge(Map<String, Object> map) {
+            for (Map.Entry<String, Object> e : map.entrySet()) {
+                String key = e.getKey();
+                Object value = e.getValue();
+                if (key.equals(NAME) || key.equals(TYPE) || key.equals(CONDITION)) {
+                    continue;
+                }
+                if (value instanceof Boolean) {
+                    flags.merge(key, (Boolean) value, Boolean::logicalOr);
+                } else if (METHOD_LISTS.contains(key) && value instanceof List) {
+                    Map<String, Map<String, Object>> list = methods.computeIfAbsent(key, k -> new TreeMap<>());
+                    for (Object method : (List<?>) value) {
+                        Object canonical = canonical(method);
+                        if (canonical instanceof Map && ((Map<?, ?>) canonical).get(NAME) instanceof String) {
+                            Map<String, Object> methodMap = (Map<String, Object>) canonical;
+                            Object parameterTypes = methodMap.get(PARAMETER_TYPES);
+                            String methodKey = methodMap.get(NAME) + "\u0000" +
+                                    (parameterTypes == null ? "" : Json.toJson(parameterTypes));
+                            list.merge(methodKey, methodMap, ClassEntry::mergeMember);
+                        }
+                    }
+                } else if (FIELDS.equals(key) && value instanceof List) {
+                    for (Object field : (List<?>) value) {
+                        Object canonical = canonical(field);
+                        if (canonical instanceof Map && ((Map<?, ?>) canonical).get(NAME) instanceof String) {
+                            Map<String, Object> fieldMap = (Map<String, Object>) canonical;
+                            fields.merge((String) fieldMap.get(NAME), fieldMap, ClassEntry::mergeMember);
+                        }
+                    }
+                } else {
+                    Object canonical = canonical(value);
+                    Object previous = others.putIfAbsent(key, canonical);
+                    if (previous != null && !Objects.equals(previous, canonical)) {
+                        Logger.logDebug("Conflicting values for '" + key + "' of " + name +
+                                ", keeping " + Json.toJson(previous) + " and ignoring " + Json.toJson(canonical));
+                    }
+                }
+            }
+        }
+
+        private static Map<String, Object> mergeMember(Map<String, Object> previous, Map<String, Object> member) {
+            Map<String, Object> merged = new TreeMap<>(previous);
+            member.forEach((k, v) -> {
+                if (v instanceof Boolean && merged.get(k) instanceof Boolean) {
+                    merged.put(k, (Boolean) merged.get(k) || (Boolean) v);
+                } else {
+                    merged.putIfAbsent(k, v);
+                }
+            });
+            return merged;
+        }
+
+        void write(StringBuilder sb) {
+            Map<String, String> values = new TreeMap<>();
+            flags.forEach((k, v) -> {
+                if (v) {
+                    values.put(k, "true");
+                }
+            });
+            others.forEach((k, v) -> values.put(k, Json.toJson(v)));
+            methods.forEach((k, v) -> {
+                if (!v.isEmpty()) {
+                    values.put(k, members(v.values()));
+                }
+            });
+            if (!fields.isEmpty()) {
+                values.put(FIELDS, members(fields.values()));
+            }
+
+            sb.append("  {\n");
+            sb.append("    ").append(Json.quote(NAME)).append(" : ").append(Json.quote(name));
+            if (condition != null) {
+                sb.append(",\n    ").append(Json.quote(CONDITION)).append(" : ").append(Json.toJson(condition));
+            }
+            values.forEach((k, v) -> sb.append(",\n    ").append(Json.quote(k)).append(" : ").append(v));
+            sb.append("\n  }");
+        }
+
+        private static String members(Iterable<Map<String, Object>> members) {
+            StringBuilder sb = new StringBuilder("[");
+            boolean first = true;
+            for (Map<String, Object> member : members) {
+                sb.append(first ? "\n" : ",\n").append("      ").append(Json.toJson(nameFirst(member)));
+                first = false;
+            }
+            return sb.append("\n    ]").toString();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The parts of a class file that {@link ReflectionTrimmer} needs: the
+ * declared members with their annotations, and from the constant pool, the
+ * string constants and the classes and methods that are referenced.
+ */
+final class ClassFileInfo {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final String className;
+    private final List<Member> fields = new ArrayList<>();
+    private final List<Member> methods = new ArrayList<>();
+    private final Set<String> strings = new HashSet<>();
+    private final Set<String> classRefs = new HashSet<>();
+    private final Set<String> methodRefs = new HashSet<>();
+
+    private ClassFileInfo(String className) {
+        this.className = className;
+    }
+
+    /**
+     * Reads a class file
+     *
+     * @param inputStream the content of the class file
+     * @return the information of the class
+     * @throws IOException if the content is not a valid class file
+     */
+    static ClassFileInfo read(InputStream inputStream) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(inputStream));
+        if (dis.readInt() != MAGIC) {
+            throw new IOException("Invalid class file");
+        }
+        dis.readUnsignedShort(); // minor version
+        dis.readUnsignedShort(); // major version
+
+        int count = dis.readUnsignedShort();
+        Object[] pool = new Object[count];
+        int[][] refs = new int[count][];
+        int[] tags = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = dis.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case 1: pool[i] = dis.readUTF(); break;
+                case 3: case 4: dis.readInt(); break;
+                case 5: case 6: dis.readLong(); i++; break;
+                case 7: case 8: case 16: case 19: case 20: refs[i] = new int[]{dis.readUnsignedShort()}; break;
+                case 9: case 10: case 11: case 12: case 17: case 18:
+                    refs[i] = new int[]{dis.readUnsignedShort(), dis.readUnsignedShort()};
+                    break;
+                case 15: dis.readUnsignedByte(); dis.readUnsignedShort(); break;
+                default: throw new IOException("Invalid constant pool tag " + tag);
+            }
+        }
+
+        dis.readUnsignedShort(); // access flags
+        ClassFileInfo info = new ClassFileInfo(toClassName(utf8(pool, refs[dis.readUnsignedShort()][0])));
+        dis.readUnsignedShort(); // super class
+        int interfaces = dis.readUnsignedShort();
+        for (int i = 0; i < interfaces; i++) {
+            dis.readUnsignedShort();
+        }
+
+        for (int i = 1; i < count; i++) {
+            if (tags[i] == 8) {
+                info.strings.add(utf8(pool, refs[i][0]));
+            } else if (tags[i] == 7) {
+                String name = utf8(pool, refs[i][0]);
+                if (!name.startsWith("[")) {
+                    info.classRefs.add(toClassName(name));
+                }
+            } else if (tags[i] == 10 || tags[i] == 11) {
+                String owner = utf8(pool, refs[refs[i][0]][0]);
+                String name = utf8(pool, refs[refs[i][1]][0]);
+                info.methodRefs.add(toClassName(owner) + "." + name);
+            }
+        }
+
+        readMembers(dis, pool, info.fields);
+        readMembers(dis, pool, info.methods);
+        return info;
+    }
+
+    /**
+     * @return the fully qualified name of the class, with '$' for nested classes
+     */
+    String getClassName() {
+        return className;
+    }
+
+    List<Member> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * @return the declared methods, including the constructors
+     */
+    List<Member> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * @return the string constants used by the class
+     */
+    Set<String> getStrings() {
+        return Collections.unmodifiableSet(strings);
+    }
+
+    /**
+     * @return the fully qualified names of the classes the class refers to
+     */
+    Set<String> getClassRefs() {
+        return Collections.unmodifiableSet(classRefs);
+    }
+
+    /**
+     * @return the methods the class invokes, as the fully qualified name
+     * of the owner, followed by a '.' and the name of the method
+     */
+    Set<String> getMethodRefs() {
+        return Collections.unmodifiableSet(methodRefs);
+    }
+
+    private static void readMembers(DataInputStream dis, Object[] pool, List<Member> members) throws IOException {
+        int count = dis.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            int access = dis.readUnsignedShort();
+            String name = utf8(pool, dis.readUnsignedShort());
+            String descriptor = utf8(pool, dis.readUnsignedShort());
+            Set<String> annotations = new HashSet<>();
+            int attributes = dis.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                String attribute = utf8(pool, dis.readUnsignedShort());
+                int length = dis.readInt();
+                if ("RuntimeVisibleAnnotations".equals(attribute)) {
+                    int annotationCount = dis.readUnsignedShort();
+                    for (int k = 0; k < annotationCount; k++) {
+                        annotations.add(readAnnotation(dis, pool));
+                    }
+                } else {
+                    dis.readFully(new byte[length]);
+                }
+            }
+            members.add(new Member(access, name, descriptor, annotations));
+        }
+    }
+
+    private static String readAnnotation(DataInputStream dis, Object[] pool) throws IOException {
+        String type = utf8(pool, dis.readUnsignedShort());
+        int pairs = dis.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            dis.readUnsignedShort();
+            skipElementValue(dis, pool);
+        }
+        return type;
+    }
+
+    private static void skipElementValue(DataInputStream dis, Object[] pool) throws IOException {
+        int tag = dis.readUnsignedByte();
+        switch (tag) {
+            case 'e': dis.readUnsignedShort(); dis.readUnsignedShort(); break;
+            case '@': readAnnotation(dis, pool); break;
+            case '[':
+                int values = dis.readUnsignedShort();
+                for (int i = 0; i < values; i++) {
+                    skipElementValue(dis, pool);
+                }
+                break;
+            default: dis.readUnsignedShort();
+        }
+    }
+
+    private static String utf8(Object[] pool, int index) throws IOException {
+        if (index <= 0 || index >= pool.length || !(pool[index] instanceof String)) {
+            throw new IOException("Invalid constant pool reference " + index);
+        }
+        return (String) pool[index];
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * A field or method declared by the class
+     */
+    static final class Member {
+
+        private final int access;
+        private final String name;
+        private final String descriptor;
+        private final Set<String> annotations;
+
+        Member(int access, String name, String descriptor, Set<String> annotations) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.annotations = annotations;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isPublic() {
+            return Modifier.isPublic(access);
+        }
+
+        boolean isSynthetic() {
+            return (access & 0x1000) != 0;
+        }
+
+        boolean isAnnotatedWith(String annotationDescriptor) {
+            return annotations.contains(annotationDescriptor);
+        }
+
+        /**
+         * @return the parameter types of a method, in the format of the
+         * reflection configuration, like "int" or "java.lang.String[]"
+         */
+        List<String> getParameterTypes() {
+            List<String> types = new ArrayList<>();
+            int i = 1;
+            while (descriptor.charAt(i) != ')') {
+                int start = i;
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                int end = descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+                types.add(toTypeName(descriptor.substring(start, end)));
+                i = end;
+            }
+            return types;
+        }
+
+        private static String toTypeName(String descriptor) {
+            if (descriptor.startsWith("[")) {
+                return toTypeName(descriptor.substring(1)) + "[]";
+            }
+            switch (descriptor) {
+                case "Z": return "boolean";
+                case "B": return "byte";
+                case "C": return "char";
+                case "S": return "short";
+                case "I": return "int";
+                case "J": return "long";
+                case "F": return "float";
+                case "D": return "double";
+                default: return toClassName(descriptor.substring(1, descriptor.length() - 1));
+            }
+        }
+    }
+}
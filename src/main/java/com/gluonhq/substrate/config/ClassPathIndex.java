@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.model.ClassPath;
+import com.gluonhq.substrate.model.ClassPathEntry;
+import com.gluonhq.substrate.util.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_CONFIG;
+import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_DALVIK;
+import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_WEB;
+
+/**
+ * Index of the jars in the classpath, and of the compiled classes and
+ * resources of the current project, created with a single pass over all
+ * of them. The project classes are read in place from their directories.
+ *
+ * It holds the content of the files found under META-INF/substrate/config,
+ * META-INF/substrate/dalvik and META-INF/substrate/web, and the names of the
+ * static libraries (*.a or *.lib files) that each jar contains, so the
+ * different consumers (config resolvers, native libraries extraction, ...)
+ * don't need to open every jar again.
+ *
+ * Optionally, the scan results of the dependency jars can be persisted in a
+ * {@link JarScanCache}, so unchanged jars are not opened in later builds either.
+ */
+public class ClassPathIndex {
+
+    private static final List<String> INDEXED_PREFIXES = List.of(
+            META_INF_SUBSTRATE_CONFIG, META_INF_SUBSTRATE_DALVIK, META_INF_SUBSTRATE_WEB);
+    private static final List<String> STATIC_LIBRARY_EXTENSIONS = List.of(".a", ".lib");
+
+    private final List<JarIndex> jarIndexes = new ArrayList<>();
+
+    /**
+     * Creates the index of the jars found in the classpath, including the
+     * compiled classes and resources of the current project
+     *
+     * @param classpath a string with the full classpath of the user's project
+     * @throws IOException
+     */
+    public ClassPathIndex(String classpath) throws IOException {
+        this(classpath, null);
+    }
+
+    /**
+     * Creates the index of the jars found in the classpath, including the
+     * compiled classes and resources of the current project.
+     *
+     * The scan results of the dependency jars are read from and stored into
+     * a persistent cache at the given path, when it is not null.
+     *
+     * @param classpath a string with the full classpath of the user's project
+     * @param cachePath the path of the folder for the jar scan cache, can be null
+     * @throws IOException
+     */
+    public ClassPathIndex(String classpath, Path cachePath) throws IOException {
+        JarScanCache cache = cachePath == null ? null : new JarScanCache(cachePath);
+        for (ClassPathEntry entry : new ClassPath(classpath).getEntries(true)) {
+            if (!entry.exists()) {
+                continue;
+            }
+            // the project classes are read in place, and never cached
+            boolean dependency = !entry.isDirectory();
+            File jar = entry.getFile();
+            JarScanCache.Result result = null;
+            if (dependency && cache != null) {
+                result = cache.load(jar).orElse(null);
+            }
+            if (result == null) {
+                result = scan(entry);
+                if (dependency && cache != null) {
+                    cache.store(jar, result);
+                }
+            }
+            jarIndexes.add(new JarIndex(jar, dependency, result));
+        }
+    }
+
+    /**
+     * Returns the list of jars that have been indexed, in classpath order,
+     * followed by the directory of the project classes, if any
+     *
+     * @return a list of jar files and directories
+     */
+    public List<File> getJars() {
+        return jarIndexes.stream()
+                .map(JarIndex::getJar)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the entries with any of the given names, in classpath order,
+     * and for each jar, in the order they were found in that jar.
+     * Only files under META-INF/substrate/config, META-INF/substrate/dalvik or
+     * META-INF/substrate/web are indexed.
+     *
+     * @param names the full names of the entries, null values are ignored
+     * @return a list of entries
+     */
+    public List<Entry> getEntries(String... names) {
+        Set<String> nameSet = Arrays.stream(names)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return getEntries(e -> nameSet.contains(e.getName()));
+    }
+
+    /**
+     * Returns the entries that start with a given prefix, in classpath order,
+     * and for each jar, in the order they were found in that jar.
+     * Only files under META-INF/substrate/config, META-INF/substrate/dalvik or
+     * META-INF/substrate/web are indexed.
+     *
+     * @param prefix the prefix of the names of the entries
+     * @return a list of entries
+     */
+    public List<Entry> getEntriesWithPrefix(String prefix) {
+        Objects.requireNonNull(prefix, "prefix can't be null");
+        return getEntries(e -> e.getName().startsWith(prefix));
+    }
+
+    /**
+     * Returns the resources, all the files that are not classes, found in the
+     * classpath, in classpath order, followed by the ones of the project classes
+     *
+     * @return a list of resources
+     */
+    public List<Resource> getResources() {
+        return jarIndexes.stream()
+                .flatMap(j -> j.getResources().stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns whether the given jar or directory, as returned by {@link #getJars()},
+     * is a dependency of the project, or it contains the project classes
+     *
+     * @param jar a jar file or directory
+     * @return true if the jar is a dependency
+     */
+    public boolean isDependency(File jar) {
+        return jarIndexes.stream()
+                .filter(j -> j.getJar().equals(jar))
+                .anyMatch(JarIndex::isDependency);
+    }
+
+    /**
+     * Returns the list of jars from the project dependencies that contain
+     * static libraries with the given extension
+     *
+     * @param extension the extension of the static libraries, like ".a" or ".lib"
+     * @return a list of jar files
+     */
+    public List<File> getJarsWithStaticLibraries(String extension) {
+        return jarIndexes.stream()
+                .filter(JarIndex::isDependency)
+                .filter(j -> j.getStaticLibraries().stream().anyMatch(s -> s.endsWith(extension)))
+                .map(JarIndex::getJar)
+                .collect(Collectors.toList());
+    }
+
+    private static JarScanCache.Result scan(ClassPathEntry classPathEntry) throws IOException {
+        File file = classPathEntry.getFile();
+        List<Entry> entries = new ArrayList<>();
+        List<String> staticLibraries = new ArrayList<>();
+        List<Resource> resources = new ArrayList<>();
+        Logger.logDebug("Indexing " + classPathEntry);
+        try {
+            classPathEntry.visit((name, content) -> {
+                if (INDEXED_PREFIXES.stream().anyMatch(name::startsWith)) {
+                    try (InputStream is = content.open()) {
+                        entries.add(new Entry(file, name, is.readAllBytes()));
+                    }
+                } else if (STATIC_LIBRARY_EXTENSIONS.stream().anyMatch(name::endsWith)) {
+                    staticLibraries.add(name);
+                }
+                if (!name.endsWith(".class")) {
+                    resources.add(new Resource(file, name, content.size()));
+                }
+            });
+        } catch (IOException e) {
+            throw new IOException("Error indexing " + classPathEntry + ": " + e.getMessage(), e);
+        }
+        return new JarScanCache.Result(entries, staticLibraries, resources);
+    }
+
+    private List<Entry> getEntries(Predicate<Entry> predicate) {
+        return jarIndexes.stream()
+                .flatMap(j -> j.getEntries().stream())
+                .filter(predicate)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Holds the content of an indexed entry
+     */
+    public static class Entry {
+
+        private final File jar;
+        private final String name;
+        private final byte[] content;
+
+        Entry(File jar, String name, byte[] content) {
+            this.jar = jar;
+            this.name = name;
+            this.content = content;
+        }
+
+        /**
+         * @return the jar that contains this entry, or the classes directory
+         * for entries of the current project
+         */
+        public File getJar() {
+            return jar;
+        }
+
+        /**
+         * @return the full name of the entry
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return a new input stream with the content of this entry
+         */
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+    }
+
+    /**
+     * Describes a resource found in the classpath
+     */
+    public static class Resource {
+
+        private final File jar;
+        private final String name;
+        private final long size;
+
+        Resource(File jar, String name, long size) {
+            this.jar = jar;
+            this.name = name;
+            this.size = size;
+        }
+
+        /**
+         * @return the jar that contains this resource, or the classes directory
+         * for resources of the current project
+         */
+        public File getJar() {
+            return jar;
+        }
+
+        /**
+         * @return the full name of the resource, using '/' as separator
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the size of the resource in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private static class JarIndex {
+
+        private final File jar;
+        private final boolean dependency;
+        private final List<Entry> entries;
+        private final List<String> staticLibraries;
+        private final List<Resource> resources;
+
+        JarIndex(File jar, boolean dependency, JarScanCache.Result result) {
+            this.jar = jar;
+            this.dependency = dependency;
+            this.entries = result.getEntries();
+            this.staticLibraries = result.getLibraries();
+            this.resources = result.getResources();
+        }
+
+        File getJar() {
+            return jar;
+        }
+
+        boolean isDependency() {
+            return dependency;
+        }
+
+        List<Entry> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+
+        List<String> getStaticLibraries() {
+            return Collections.unmodifiableList(staticLibraries);
+        }
+
+        List<Resource> getResources() {
+            return Collections.unmodifiableList(resources);
+        }
+    }
+}
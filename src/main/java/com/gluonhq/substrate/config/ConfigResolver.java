@@ -27,23 +27,20 @@
  */
 package com.gluonhq.substrate.config;
 
-import com.gluonhq.substrate.model.ClassPath;
 import com.gluonhq.substrate.util.FileOps;
 import com.gluonhq.substrate.util.Logger;
 import com.gluonhq.substrate.util.Strings;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_CONFIG;
 import static com.gluonhq.substrate.Constants.RESOURCE_BUNDLES_ARCHOS_FILE;
@@ -64,7 +61,7 @@ import static com.gluonhq.substrate.Constants.USER_RESOURCE_FILE;
  */
 public class ConfigResolver {
 
-    private final List<File> jars;
+    private final ClassPathIndex classPathIndex;
 
     /**
      * ConfigResolver constructor
@@ -74,7 +71,16 @@ public class ConfigResolver {
      * @throws InterruptedException
      */
     public ConfigResolver(String classpath) throws IOException, InterruptedException {
-        this.jars = new ClassPath(classpath).getJars(true);
+        this(new ClassPathIndex(classpath));
+    }
+
+    /**
+     * ConfigResolver constructor
+     *
+     * @param classPathIndex the index of the jars in the classpath of the user's project
+     */
+    public ConfigResolver(ClassPathIndex classPathIndex) {
+        this.classPathIndex = Objects.requireNonNull(classPathIndex);
     }
 
     /**
@@ -153,6 +159,36 @@ public class ConfigResolver {
                 line -> !line.startsWith("[") && !line.startsWith("]"));
     }
 
+    /**
+     * Walks through the jars in the classpath,
+     * and adds the META-INF/substrate/config/reflectionconfig or
+     * META-INF/substrate/config/reflectionconfig-${archos} files found
+     * to the given configuration.
+     *
+     * @param config the reflection configuration
+     * @param archOs a string with the arch and os, it can be null
+     * @throws IOException
+     */
+    public void addUserReflectionConfig(ClassConfig config, String archOs) throws IOException {
+        Logger.logDebug("Scanning for reflection files");
+        addConfig(config, USER_REFLECTION_FILE, getFileNameForArchOs(USER_REFLECTION_ARCHOS_FILE, archOs));
+    }
+
+    /**
+     * Walks through the jars in the classpath,
+     * and adds the META-INF/substrate/config/jniconfig or
+     * META-INF/substrate/config/jniconfig-${archos} files found
+     * to the given configuration.
+     *
+     * @param config the JNI configuration
+     * @param archOs a string with the arch and os, it can be null
+     * @throws IOException
+     */
+    public void addUserJNIConfig(ClassConfig config, String archOs) throws IOException {
+        Logger.logDebug("Scanning for JNI files");
+        addConfig(config, USER_JNI_FILE, getFileNameForArchOs(USER_JNI_ARCHOS_FILE, archOs));
+    }
+
     /**
      * Walks through the jars in the classpath,
      * and looks for META-INF/substrate/config/resourceconfig or
@@ -180,31 +216,28 @@ public class ConfigResolver {
     private List<String> scanJars(String configName, String configArchosName, String initLine, Predicate<String> filter) throws IOException {
         Objects.requireNonNull(configName, "configName can't be null");
         List<String> list = new ArrayList<>();
-        for (File jar : jars) {
-            if (!jar.exists()) {
-                continue;
-            }
-            try (ZipFile zip = new ZipFile(jar)) {
-                Logger.logDebug("Scanning " + jar);
-                for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
-                    ZipEntry zipEntry = e.nextElement();
-                    String name = zipEntry.getName();
-                    if (!zipEntry.isDirectory() &&
-                            ((META_INF_SUBSTRATE_CONFIG + configName).equals(name) ||
-                                (configArchosName != null && (META_INF_SUBSTRATE_CONFIG + configArchosName).equals(name)))) {
-                        if (initLine != null) {
-                            // first line content before adding the file's content
-                            list.add(initLine);
-                        }
-                        Logger.logDebug("Adding classes from " + zip.getName() + "::" + zipEntry.getName());
-                        list.addAll(FileOps.readFileLines(zip.getInputStream(zipEntry), filter));
-                    }
-                }
+        String archosName = configArchosName == null ? null : META_INF_SUBSTRATE_CONFIG + configArchosName;
+        for (ClassPathIndex.Entry entry : classPathIndex.getEntries(META_INF_SUBSTRATE_CONFIG + configName, archosName)) {
+            if (initLine != null) {
+                // first line content before adding the file's content
+                list.add(initLine);
             }
+            Logger.logDebug("Adding classes from " + entry.getJar() + "::" + entry.getName());
+            list.addAll(FileOps.readFileLines(entry.getInputStream(), filter));
         }
         return list;
     }
 
+    private void addConfig(ClassConfig config, String configName, String configArchosName) throws IOException {
+        String archosName = configArchosName == null ? null : META_INF_SUBSTRATE_CONFIG + configArchosName;
+        for (ClassPathIndex.Entry entry : classPathIndex.getEntries(META_INF_SUBSTRATE_CONFIG + configName, archosName)) {
+            Logger.logDebug("Adding classes from " + entry.getJar() + "::" + entry.getName());
+            try (InputStream is = entry.getInputStream()) {
+                config.add(new String(is.readAllBytes(), StandardCharsets.UTF_8), entry.getJar() + "::" + entry.getName());
+            }
+        }
+    }
+
     private String getFileNameForArchOs(String userFileName, String archOs) {
         return archOs == null ?
                 null : Strings.substitute(userFileName, Map.of("archOs", archOs));
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.util.FileOps;
+import com.gluonhq.substrate.util.Logger;
+import com.gluonhq.substrate.util.Strings;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Persistent cache of the result of scanning jars for {@link ClassPathIndex}.
+ *
+ * For every jar, a file is created in the cache folder, with the substrate
+ * config payloads, the names of the native libraries, and the names and sizes
+ * of the resources found inside the jar.
+ * A cached result is only reused if the path, size and last modified time of
+ * the jar still match the ones recorded when the jar was scanned, so unchanged
+ * jars don't need to be opened again in subsequent builds.
+ *
+ * The most recently used results are also kept in memory, so a long-lived
+ * process, like the build daemon, doesn't need to read the cache files again.
+ */
+class JarScanCache {
+
+    private static final int VERSION = 2;
+    private static final String EXTENSION = ".idx";
+    private static final int MEMORY_ENTRIES = 4096;
+
+    private static final Map<String, MemoryEntry> MEMORY = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+
+    private final Path cachePath;
+
+    /**
+     * Creates a cache that stores its files in the given folder
+     *
+     * @param cachePath the path to the folder of the cache
+     */
+    JarScanCache(Path cachePath) {
+        this.cachePath = Objects.requireNonNull(cachePath);
+    }
+
+    /**
+     * Returns the cached scan result for the given jar, as long as the jar
+     * hasn't changed since it was stored
+     *
+     * @param jar the jar file
+     * @return an optional with the cached result, or empty if there is none
+     * or it is no longer valid
+     */
+    Optional<Result> load(File jar) {
+        synchronized (MEMORY) {
+            MemoryEntry memoryEntry = MEMORY.get(jar.getAbsolutePath());
+            if (memoryEntry != null && memoryEntry.matches(jar)) {
+                Logger.logDebug("Using in-memory scan for " + jar);
+                return Optional.of(memoryEntry.result);
+            }
+        }
+        Path file = getCacheFile(jar);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (dis.readInt() != VERSION ||
+                    !jar.getAbsolutePath().equals(dis.readUTF()) ||
+                    dis.readLong() != jar.length() ||
+                    dis.readLong() != jar.lastModified()) {
+                return Optional.empty();
+            }
+            int entriesSize = dis.readInt();
+            List<ClassPathIndex.Entry> entries = new ArrayList<>(entriesSize);
+            for (int i = 0; i < entriesSize; i++) {
+                String name = dis.readUTF();
+                byte[] content = new byte[dis.readInt()];
+                dis.readFully(content);
+                entries.add(new ClassPathIndex.Entry(jar, name, content));
+            }
+            int librariesSize = dis.readInt();
+            List<String> libraries = new ArrayList<>(librariesSize);
+            for (int i = 0; i < librariesSize; i++) {
+                libraries.add(dis.readUTF());
+            }
+            int resourcesSize = dis.readInt();
+            List<ClassPathIndex.Resource> resources = new ArrayList<>(resourcesSize);
+            for (int i = 0; i < resourcesSize; i++) {
+                resources.add(new ClassPathIndex.Resource(jar, dis.readUTF(), dis.readLong()));
+            }
+            Logger.logDebug("Using cached scan for " + jar);
+            Result result = new Result(entries, libraries, resources);
+            remember(jar, result);
+            return Optional.of(result);
+        } catch (IOException e) {
+            Logger.logDebug("Error reading cached scan for " + jar + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the scan result of the given jar
+     *
+     * @param jar the jar file
+     * @param result the result of scanning the jar
+     */
+    void store(File jar, Result result) {
+        remember(jar, result);
+        Path file = getCacheFile(jar);
+        try {
+            FileOps.writeAtomically(file, tmpFile -> {
+                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                    dos.writeInt(VERSION);
+                    dos.writeUTF(jar.getAbsolutePath());
+                    dos.writeLong(jar.length());
+                    dos.writeLong(jar.lastModified());
+                    dos.writeInt(result.getEntries().size());
+                    for (ClassPathIndex.Entry entry : result.getEntries()) {
+                        byte[] content = entry.getInputStream().readAllBytes();
+                        dos.writeUTF(entry.getName());
+                        dos.writeInt(content.length);
+                        dos.write(content);
+                    }
+                    dos.writeInt(result.getLibraries().size());
+                    for (String library : result.getLibraries()) {
+                        dos.writeUTF(library);
+                    }
+                    dos.writeInt(result.getResources().size());
+                    for (ClassPathIndex.Resource resource : result.getResources()) {
+                        dos.writeUTF(resource.getName());
+                        dos.writeLong(resource.getSize());
+                    }
+                }
+            });
+        } catch (IOException e) {
+            Logger.logDebug("Error caching scan for " + jar + ": " + e.getMessage());
+        }
+    }
+
+    private static void remember(File jar, Result result) {
+        synchronized (MEMORY) {
+            MEMORY.put(jar.getAbsolutePath(), new MemoryEntry(jar.length(), jar.lastModified(), result));
+        }
+    }
+
+    private Path getCacheFile(File jar) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(jar.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+            return cachePath.resolve(Strings.toHex(hash) + EXTENSION);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class MemoryEntry {
+
+        private final long length;
+        private final long lastModified;
+        private final Result result;
+
+        MemoryEntry(long length, long lastModified, Result result) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.result = result;
+        }
+
+        boolean matches(File jar) {
+            return jar.length() == length && jar.lastModified() == lastModified;
+        }
+    }
+
+    /**
+     * Holds the result of scanning a jar
+     */
+    static class Result {
+
+        private final List<ClassPathIndex.Entry> entries;
+        private final List<String> libraries;
+        private final List<ClassPathIndex.Resource> resources;
+
+        Result(List<ClassPathIndex.Entry> entries, List<String> libraries, List<ClassPathIndex.Resource> resources) {
+            this.entries = entries;
+            this.libraries = libraries;
+            this.resources = resources;
+        }
+
+        List<ClassPathIndex.Entry> getEntries() {
+            return entries;
+        }
+
+        List<String> getLibraries() {
+            return libraries;
+        }
+
+        List<ClassPathIndex.Resource> getResources() {
+            return resources;
+        }
+    }
+}
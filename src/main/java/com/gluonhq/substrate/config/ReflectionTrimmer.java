@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.model.ClassPath;
+import com.gluonhq.substrate.model.ClassPathEntry;
+import com.gluonhq.substrate.util.Logger;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Registers classes for reflection with only the members that are found to
+ * be accessed reflectively, instead of all their constructors, fields and
+ * methods.
+ *
+ * The classes, FXML files and resources of the classpath are scanned for:
+ * <ul>
+ *     <li>FXML controllers: the no-arg constructor, the <code>initialize</code>
+ *     method, the fields and methods annotated with <code>@FXML</code>, the fields
+ *     injected by their <code>fx:id</code>, and the event handlers referenced from
+ *     the FXML files are registered.</li>
+ *     <li>Classes instantiated from FXML files: their public members are registered.</li>
+ *     <li>Classes loaded with <code>Class.forName</code> or <code>ClassLoader.loadClass</code>
+ *     and a constant name: their no-arg constructor is registered.</li>
+ *     <li>Members looked up with <code>Class.getMethod</code>, <code>getField</code> or their
+ *     declared variants and a constant name: all the members with that name, of the
+ *     classes the caller refers to, are registered.</li>
+ *     <li>Constructors looked up with <code>Class.getConstructor</code> or
+ *     <code>getDeclaredConstructor</code>: the argument types can't be resolved, so all
+ *     the constructors of the classes referred to by the caller, and of the classes
+ *     loaded by name, are registered.</li>
+ * </ul>
+ *
+ * The analysis works at the level of the constant pool of each class, not
+ * its bytecode, so it overestimates what is reachable. Classes that are not
+ * part of the classpath, classes that are inspected with methods like
+ * <code>Class.getDeclaredMethods</code>, and classes that are not controllers,
+ * instantiated from FXML files or loaded by name, are still registered with all
+ * their members, since they could be used in ways this analysis doesn't detect,
+ * like through the JavaFX jars, which are not scanned.
+ */
+public class ReflectionTrimmer {
+
+    private static final String FXML_ANNOTATION = "Ljavafx/fxml/FXML;";
+    private static final String CONSTRUCTOR = "<init>";
+    private static final String INITIALIZE = "initialize";
+
+    private static final Set<String> CLASS_LOADING_METHODS = Set.of(
+            "java.lang.Class.forName", "java.lang.ClassLoader.loadClass");
+    private static final Set<String> MEMBER_LOOKUP_METHODS = Set.of(
+            "java.lang.Class.getMethod", "java.lang.Class.getDeclaredMethod",
+            "java.lang.Class.getField", "java.lang.Class.getDeclaredField");
+    private static final Set<String> CONSTRUCTOR_LOOKUP_METHODS = Set.of(
+            "java.lang.Class.getConstructor", "java.lang.Class.getDeclaredConstructor");
+    private static final Set<String> MEMBER_QUERY_METHODS = Set.of(
+            "java.lang.Class.getMethods", "java.lang.Class.getDeclaredMethods",
+            "java.lang.Class.getFields", "java.lang.Class.getDeclaredFields",
+            "java.lang.Class.getConstructors", "java.lang.Class.getDeclaredConstructors");
+
+    // the JavaFX jars only access user classes through FXMLLoader, which is modelled from the FXML files
+    private static final Predicate<String> SKIPPED_JARS = name -> name.startsWith("javafx-");
+
+    private final List<ClassPathEntry> entries;
+
+    private final Map<String, ClassFileInfo> classes = new HashMap<>();
+    private final Set<String> loadedClasses = new HashSet<>();
+    private final Set<String> queriedClasses = new HashSet<>();
+    private final Map<String, Set<String>> memberNames = new HashMap<>();
+    private final Set<String> constructedClasses = new HashSet<>();
+    private final Map<String, Set<String>> controllers = new HashMap<>();
+    private final Map<String, Set<String>> controllerIds = new HashMap<>();
+    private final Set<String> fxmlClasses = new HashSet<>();
+
+    private boolean constructorLookups;
+    private int trimmedClasses;
+    private int fullClasses;
+    private int keptMembers;
+    private int droppedMembers;
+
+    /**
+     * Creates a trimmer for the classes of the given classpath
+     *
+     * @param classpath a string with the full classpath of the user's project
+     */
+    public ReflectionTrimmer(String classpath) {
+        this(new ClassPath(classpath).getEntries(true));
+    }
+
+    ReflectionTrimmer(List<ClassPathEntry> entries) {
+        this.entries = Objects.requireNonNull(entries);
+    }
+
+    /**
+     * Adds the given classes to the reflection configuration, with only the
+     * members that are accessed reflectively, if that can be determined,
+     * or with all their members otherwise.
+     *
+     * @param config the reflection configuration
+     * @param classNames the fully qualified names of the classes
+     * @throws IOException if the classpath can't be scanned
+     */
+    public void addClasses(ClassConfig config, List<String> classNames) throws IOException {
+        Set<String> names = new HashSet<>(classNames);
+        scan(names);
+        for (String className : classNames) {
+            ClassFileInfo info = classes.get(className);
+            Map<String, Object> entry = info == null || queriedClasses.contains(className) ? null : getTrimmedEntry(info);
+            if (entry == null) {
+                config.addClass(className, true);
+                fullClasses++;
+            } else {
+                config.add(entry);
+                trimmedClasses++;
+            }
+        }
+        Logger.logDebug("Reflection trimming: " + trimmedClasses + " classes trimmed, " + fullClasses + " kept with all their members");
+    }
+
+    /**
+     * @return the number of classes that are registered with a subset of their members
+     */
+    public int getTrimmedClasses() {
+        return trimmedClasses;
+    }
+
+    /**
+     * @return the number of classes that are registered with all their members
+     */
+    public int getFullClasses() {
+        return fullClasses;
+    }
+
+    /**
+     * @return the number of declared members of the trimmed classes that are registered
+     */
+    public int getKeptMembers() {
+        return keptMembers;
+    }
+
+    /**
+     * @return the number of declared members of the trimmed classes that are not registered
+     */
+    public int getDroppedMembers() {
+        return droppedMembers;
+    }
+
+    private void scan(Set<String> names) throws IOException {
+        for (ClassPathEntry entry : entries) {
+            if (!entry.exists() || (!entry.isDirectory() && SKIPPED_JARS.test(entry.getName()))) {
+                continue;
+            }
+            try {
+                entry.visit((name, content) -> {
+                    if (name.endsWith(".class") && !name.endsWith("module-info.class")) {
+                        try (InputStream is = content.open()) {
+                            scanClass(ClassFileInfo.read(is), names);
+                        } catch (IOException e) {
+                            Logger.logDebug("Error reading class " + name + " from " + entry + ": " + e.getMessage());
+                        }
+                    } else if (name.endsWith(".fxml")) {
+                        try (InputStream is = content.open()) {
+                            scanFxml(is, names);
+                        } catch (IOException | SAXException e) {
+                            Logger.logDebug("Error reading " + name + " from " + entry + ": " + e.getMessage());
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                throw new IOException("Error scanning " + entry + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void scanClass(ClassFileInfo info, Set<String> names) {
+        if (names.contains(info.getClassName())) {
+            classes.putIfAbsent(info.getClassName(), info);
+        }
+        Set<String> methodRefs = info.getMethodRefs();
+        if (methodRefs.stream().anyMatch(CLASS_LOADING_METHODS::contains)) {
+            info.getStrings().stream().filter(names::contains).forEach(loadedClasses::add);
+        }
+        if (methodRefs.stream().anyMatch(MEMBER_LOOKUP_METHODS::contains)) {
+            // the names could refer to members of any of the classes this class refers to, or loads by name
+            info.getClassRefs().stream().filter(names::contains).forEach(c ->
+                    memberNames.computeIfAbsent(c, k -> new HashSet<>()).addAll(info.getStrings()));
+            info.getStrings().stream().filter(names::contains).forEach(c ->
+                    memberNames.computeIfAbsent(c, k -> new HashSet<>()).addAll(info.getStrings()));
+        }
+        if (methodRefs.stream().anyMatch(CONSTRUCTOR_LOOKUP_METHODS::contains)) {
+            constructorLookups = true;
+            info.getClassRefs().stream().filter(names::contains).forEach(constructedClasses::add);
+            info.getStrings().stream().filter(names::contains).forEach(constructedClasses::add);
+        }
+        if (methodRefs.stream().anyMatch(MEMBER_QUERY_METHODS::contains)) {
+            // the classes this class refers to, or loads by name, could be inspected in full
+            info.getClassRefs().stream().filter(names::contains).forEach(queriedClasses::add);
+            info.getStrings().stream().filter(names::contains).forEach(queriedClasses::add);
+        }
+    }
+
+    private void scanFxml(InputStream inputStream, Set<String> names) throws IOException, SAXException {
+        SAXParser parser;
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            parser = factory.newSAXParser();
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+        List<String> imports = new ArrayList<>(List.of("java.lang.*"));
+        List<String> tags = new ArrayList<>();
+        Set<String> handlers = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        List<String> fileControllers = new ArrayList<>();
+        parser.parse(inputStream, new DefaultHandler() {
+            @Override
+            public void processingInstruction(String target, String data) {
+                if ("import".equals(target)) {
+                    imports.add(data.trim());
+                }
+            }
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if ("fx:root".equals(qName)) {
+                    if (attributes.getValue("type") != null) {
+                        tags.add(attributes.getValue("type"));
+                    }
+                } else if (!qName.contains(":") && Character.isUpperCase(qName.charAt(qName.lastIndexOf('.') + 1))) {
+                    tags.add(qName);
+                }
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    String value = attributes.getValue(i);
+                    if ("fx:controller".equals(attributes.getQName(i))) {
+                        fileControllers.add(value.trim());
+                    } else if ("fx:id".equals(attributes.getQName(i))) {
+                        ids.add(value.trim());
+                    } else if (value.startsWith("#")) {
+                        handlers.add(value.substring(1).trim());
+                    }
+                }
+            }
+        });
+
+        for (String controller : fileControllers) {
+            controllers.computeIfAbsent(controller, c -> new HashSet<>()).addAll(handlers);
+            controllerIds.computeIfAbsent(controller, c -> new HashSet<>()).addAll(ids);
+        }
+        for (String tag : tags) {
+            resolve(tag, imports, names).ifPresent(fxmlClasses::add);
+        }
+    }
+
+    private static Optional<String> resolve(String tag, List<String> imports, Set<String> names) {
+        if (names.contains(tag)) {
+            return Optional.of(tag);
+        }
+        // nested classes are written as Outer.Inner in FXML
+        int dot = tag.indexOf('.');
+        String outer = dot < 0 ? tag : tag.substring(0, dot);
+        String nested = dot < 0 ? "" : tag.substring(dot).replace('.', '$');
+        for (String imported : imports) {
+            String candidate;
+            if (imported.endsWith(".*")) {
+                candidate = imported.substring(0, imported.length() - 1) + outer + nested;
+            } else if (imported.endsWith("." + outer)) {
+                candidate = imported + nested;
+            } else {
+                continue;
+            }
+            if (names.contains(candidate)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the entry for a class, with the members that are accessed
+     * reflectively, or null if the class is not a controller, instantiated
+     * from FXML files or loaded by name
+     */
+    private Map<String, Object> getTrimmedEntry(ClassFileInfo info) {
+        String className = info.getClassName();
+        boolean instantiatedFromFxml = fxmlClasses.contains(className);
+        Set<String> handlers = controllers.get(className);
+        Set<String> ids = controllerIds.getOrDefault(className, Set.of());
+        boolean loaded = loadedClasses.contains(className);
+        if (!instantiatedFromFxml && handlers == null && !loaded) {
+            return null;
+        }
+        Set<String> names = memberNames.getOrDefault(className, Set.of());
+        // the arguments of the constructors that are looked up are unknown
+        boolean constructed = constructedClasses.contains(className) || (loaded && constructorLookups);
+
+        List<ClassFileInfo.Member> methods = new ArrayList<>();
+        List<ClassFileInfo.Member> fields = new ArrayList<>();
+        for (ClassFileInfo.Member method : info.getMethods()) {
+            String name = method.getName();
+            boolean noArgs = method.getParameterTypes().isEmpty();
+            if ((handlers != null && (method.isAnnotatedWith(FXML_ANNOTATION) || handlers.contains(name) ||
+                    (noArgs && (CONSTRUCTOR.equals(name) || INITIALIZE.equals(name))))) ||
+                    (loaded && noArgs && CONSTRUCTOR.equals(name)) ||
+                    (constructed && CONSTRUCTOR.equals(name)) ||
+                    names.contains(name)) {
+                methods.add(method);
+            }
+        }
+        for (ClassFileInfo.Member field : info.getFields()) {
+            if ((handlers != null && (field.isAnnotatedWith(FXML_ANNOTATION) || ids.contains(field.getName()))) ||
+                    names.contains(field.getName())) {
+                fields.add(field);
+            }
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("name", className);
+        int kept = 0;
+        int total = 0;
+        if (instantiatedFromFxml) {
+            // FXMLLoader creates the instance and sets its properties through the public API
+            entry.put("allPublicConstructors", Boolean.TRUE);
+            entry.put("allPublicMethods", Boolean.TRUE);
+            entry.put("allPublicFields", Boolean.TRUE);
+        }
+        List<Object> methodList = new ArrayList<>();
+        for (ClassFileInfo.Member method : info.getMethods()) {
+            if (method.isSynthetic() || "<clinit>".equals(method.getName())) {
+                continue;
+            }
+            total++;
+            if (methods.contains(method) || (instantiatedFromFxml && method.isPublic())) {
+                kept++;
+            }
+            if (methods.contains(method)) {
+                methodList.add(Map.of("name", method.getName(), "parameterTypes", method.getParameterTypes()));
+            }
+        }
+        List<Object> fieldList = new ArrayList<>();
+        for (ClassFileInfo.Member field : info.getFields()) {
+            if (field.isSynthetic()) {
+                continue;
+            }
+            total++;
+            if (fields.contains(field) || (instantiatedFromFxml && field.isPublic())) {
+                kept++;
+            }
+            if (fields.contains(field)) {
+                fieldList.add(Map.of("name", field.getName()));
+            }
+        }
+        if (!methodList.isEmpty()) {
+            entry.put("methods", methodList);
+        }
+        if (!fieldList.isEmpty()) {
+            entry.put("fields", fieldList);
+        }
+        keptMembers += kept;
+        droppedMembers += total - kept;
+        return entry;
+    }
+}
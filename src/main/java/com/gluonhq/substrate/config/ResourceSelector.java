@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.model.ClassPath;
+import com.gluonhq.substrate.model.ClassPathEntry;
+import com.gluonhq.substrate.util.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Selects the resources of the classpath that are included in the image, by
+ * their exact names, instead of using a regular expression per extension that
+ * native-image has to match against every resource.
+ *
+ * The resources with any of the given extensions are selected. Optionally,
+ * resources from the dependencies that are at least as large as a given
+ * threshold are left out, when their names are not referenced from any class
+ * constant or text resource of the classpath.
+ *
+ * The resources of the JDK modules, which are not part of the classpath, are
+ * listed from the module image of the given Java home. If it can't be read,
+ * the patterns per extension are used for them instead, which match all the
+ * resources of the classpath as well, so none of them is left out.
+ */
+public class ResourceSelector {
+
+    private static final long MAX_TEXT_SIZE = 1024 * 1024;
+    // the resources of each module image, with their sizes, kept for the lifetime of the process
+    private static final Map<String, Map<String, Long>> MODULE_RESOURCES = new ConcurrentHashMap<>();
+    private static final Set<String> TEXT_EXTENSIONS = Set.of(
+            "fxml", "css", "xml", "json", "properties", "js", "html", "txt");
+
+    private final ClassPathIndex classPathIndex;
+    private final List<String> extensions;
+
+    private long sizeThreshold = -1;
+    private String classpath;
+    private Path javaHome;
+
+    private int includedResources;
+    private int excludedResources;
+    private long includedBytes;
+    private long excludedBytes;
+
+    /**
+     * Creates a selector for the resources of the given index
+     *
+     * @param classPathIndex the index of the classpath
+     * @param extensions the extensions of the resources to include, without the dot
+     */
+    public ResourceSelector(ClassPathIndex classPathIndex, List<String> extensions) {
+        this.classPathIndex = Objects.requireNonNull(classPathIndex);
+        this.extensions = List.copyOf(extensions);
+    }
+
+    /**
+     * Leaves out the resources of the dependencies with a size of at least the
+     * given number of bytes, that are not referenced from the classpath
+     *
+     * @param sizeThreshold the minimal size in bytes of the resources that can
+     *                      be left out, or a negative value to include them all
+     * @param classpath a string with the full classpath of the user's project,
+     *                  that is scanned for references to the resources
+     */
+    public void setUsageThreshold(long sizeThreshold, String classpath) {
+        this.sizeThreshold = sizeThreshold;
+        this.classpath = classpath;
+    }
+
+    /**
+     * Includes the resources of the modules of the given JDK
+     *
+     * @param javaHome the path of the JDK, like the one of GraalVM, that
+     *                 provides the modules of the image
+     */
+    public void setJavaHome(Path javaHome) {
+        this.javaHome = javaHome;
+    }
+
+    /**
+     * Returns the patterns that match the selected resources by their exact
+     * name. The patterns are grouped per jar, in classpath order, followed by
+     * the resources of the project, and sorted by name within each group. The
+     * resources of the JDK modules, if any, come last.
+     *
+     * @return a list of regular expressions
+     * @throws IOException if the classpath can't be scanned
+     */
+    public List<String> getPatterns() throws IOException {
+        Set<String> references = sizeThreshold < 0 ? Set.of() : findReferences();
+        Map<File, List<ClassPathIndex.Resource>> resourcesByJar = classPathIndex.getResources().stream()
+                .filter(r -> extensions.contains(getExtension(r.getName())))
+                .collect(Collectors.groupingBy(ClassPathIndex.Resource::getJar, LinkedHashMap::new, Collectors.toList()));
+
+        // names that are included from one jar match the copies in other jars too
+        Set<String> includedNames = new HashSet<>();
+        Map<File, Set<String>> includedByJar = new LinkedHashMap<>();
+        for (Map.Entry<File, List<ClassPathIndex.Resource>> entry : resourcesByJar.entrySet()) {
+            boolean dependency = classPathIndex.isDependency(entry.getKey());
+            for (ClassPathIndex.Resource resource : entry.getValue()) {
+                if (!dependency || sizeThreshold < 0 || resource.getSize() < sizeThreshold ||
+                        isReferenced(resource.getName(), references)) {
+                    includedNames.add(resource.getName());
+                    includedByJar.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).add(resource.getName());
+                }
+            }
+        }
+
+        List<String> patterns = new ArrayList<>();
+        Set<String> written = new HashSet<>();
+        for (Map.Entry<File, Set<String>> entry : includedByJar.entrySet()) {
+            entry.getValue().stream()
+                    .sorted()
+                    .filter(written::add)
+                    .map(Pattern::quote)
+                    .forEach(patterns::add);
+        }
+        for (List<ClassPathIndex.Resource> resources : resourcesByJar.values()) {
+            for (ClassPathIndex.Resource resource : resources) {
+                if (includedNames.contains(resource.getName())) {
+                    includedResources++;
+                    includedBytes += resource.getSize();
+                } else {
+                    Logger.logDebug("Excluding unreferenced resource " + resource.getName() + " from " + resource.getJar());
+                    excludedResources++;
+                    excludedBytes += resource.getSize();
+                }
+            }
+        }
+        if (javaHome != null) {
+            addModulePatterns(patterns, written);
+        }
+        return patterns;
+    }
+
+    private void addModulePatterns(List<String> patterns, Set<String> written) {
+        Optional<Map<String, Long>> moduleResources = getModuleResources(javaHome);
+        if (moduleResources.isEmpty()) {
+            extensions.forEach(extension -> patterns.add(".*\\." + extension + "$"));
+            // these patterns match the resources of the classpath that were left out too
+            if (excludedResources > 0) {
+                Logger.logDebug("Including the " + excludedResources + " unreferenced resources, matched by the patterns per extension");
+            }
+            includedResources += excludedResources;
+            includedBytes += excludedBytes;
+            excludedResources = 0;
+            excludedBytes = 0;
+            return;
+        }
+        moduleResources.get().forEach((name, size) -> {
+            if (extensions.contains(getExtension(name)) && written.add(name)) {
+                patterns.add(Pattern.quote(name));
+                includedResources++;
+                includedBytes += size;
+            }
+        });
+    }
+
+    /**
+     * Lists the resources, other than classes, of the modules of a JDK, sorted by name
+     *
+     * @return the resources with their sizes, or empty if the module image can't be read
+     */
+    private static Optional<Map<String, Long>> getModuleResources(Path javaHome) {
+        Path image = javaHome.resolve("lib").resolve("modules");
+        String key;
+        try {
+            key = image.toRealPath() + File.pathSeparator + Files.size(image) + File.pathSeparator +
+                    Files.getLastModifiedTime(image).toMillis();
+        } catch (IOException e) {
+            Logger.logDebug("Module image not found at " + image + ", including JDK resources by extension");
+            return Optional.empty();
+        }
+        Map<String, Long> cached = MODULE_RESOURCES.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Map<String, Long> resources = new TreeMap<>();
+        try (FileSystem jrt = FileSystems.newFileSystem(URI.create("jrt:/"), Map.of("java.home", javaHome.toString()));
+             DirectoryStream<Path> modules = Files.newDirectoryStream(jrt.getPath("/modules"))) {
+            for (Path module : modules) {
+                try (Stream<Path> walk = Files.walk(module)) {
+                    for (Path file : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+                        String name = module.relativize(file).toString();
+                        if (!name.endsWith(".class")) {
+                            resources.put(name, Files.size(file));
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.logDebug("Error reading the module image of " + javaHome + ", including JDK resources by extension: " + e);
+            return Optional.empty();
+        }
+        Map<String, Long> result = Collections.unmodifiableMap(resources);
+        MODULE_RESOURCES.put(key, result);
+        return Optional.of(result);
+    }
+
+    /**
+     * @return the number of resources included
+     */
+    public int getIncludedResources() {
+        return includedResources;
+    }
+
+    /**
+     * @return the number of resources left out
+     */
+    public int getExcludedResources() {
+        return excludedResources;
+    }
+
+    /**
+     * @return the total size in bytes of the resources included
+     */
+    public long getIncludedBytes() {
+        return includedBytes;
+    }
+
+    /**
+     * @return the total size in bytes of the resources left out, that would
+     * have been included by a pattern per extension
+     */
+    public long getExcludedBytes() {
+        return excludedBytes;
+    }
+
+    private static boolean isReferenced(String name, Set<String> references) {
+        return references.contains(name) || references.contains("/" + name) ||
+                references.contains(name.substring(name.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Collects the string constants of all the classes, and the file names
+     * that appear in the text resources, of the classpath
+     */
+    private Set<String> findReferences() throws IOException {
+        Pattern fileName = Pattern.compile("[\\w\\-.$/]+\\.(?:" +
+                extensions.stream().map(Pattern::quote).collect(Collectors.joining("|")) + ")\\b");
+        Set<String> references = new HashSet<>();
+        for (ClassPathEntry entry : new ClassPath(classpath).getEntries(true)) {
+            if (!entry.exists()) {
+                continue;
+            }
+            entry.visit((name, content) -> {
+                if (name.endsWith(".class")) {
+                    try (InputStream is = content.open()) {
+                        for (String string : ClassFileInfo.read(is).getStrings()) {
+                            references.add(string);
+                            references.add(string.substring(string.lastIndexOf('/') + 1));
+                        }
+                    } catch (IOException e) {
+                        Logger.logDebug("Error reading class " + name + " from " + entry + ": " + e.getMessage());
+                    }
+                } else if (TEXT_EXTENSIONS.contains(getExtension(name)) && content.size() <= MAX_TEXT_SIZE) {
+                    String text;
+                    try (InputStream is = content.open()) {
+                        text = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+                    }
+                    Matcher matcher = fileName.matcher(text);
+                    while (matcher.find()) {
+                        String reference = matcher.group();
+                        references.add(reference);
+                        references.add(reference.substring(reference.lastIndexOf('/') + 1));
+                    }
+                }
+            });
+        }
+        return references;
+    }
+
+    private static String getExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 || dot < name.lastIndexOf('/') ? "" : name.substring(dot + 1);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.Constants;
+import com.gluonhq.substrate.util.FileOps;
+import com.gluonhq.substrate.util.Fingerprint;
+import com.gluonhq.substrate.util.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Target independent inputs of a build, that can be shared by the builds of
+ * different target triplets of the same project.
+ *
+ * The index of a given classpath, see {@link ClassPathIndex}, and its pathing
+ * jar are created only once, by the first build that requests them, while the
+ * builds that request them at the same time wait for that result.
+ *
+ * Note that the classpath of a JavaFX project depends on the target, as the
+ * JavaFX jars of the host are replaced by those of the target, so in that case
+ * each target gets its own index and pathing jar.
+ */
+public class SharedBuildInputs {
+
+    private final Path sharedPath;
+    private final Map<String, CompletableFuture<ClassPathIndex>> classPathIndexes = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> pathingJars = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the shared inputs of a build, which are created under the
+     * given folder
+     *
+     * @param sharedPath the path of the folder for the files shared between
+     *                   targets, or null if the files of each target are
+     *                   created in the target's own folders
+     */
+    public SharedBuildInputs(Path sharedPath) {
+        this.sharedPath = sharedPath;
+    }
+
+    /**
+     * Returns the index of the jars found in the given classpath, creating it
+     * if no other build has requested it before
+     *
+     * @param classpath a string with the classpath
+     * @param cachePath the path of the folder for the jar scan cache, can be null
+     * @return the index of the classpath
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public ClassPathIndex getClassPathIndex(String classpath, Path cachePath) throws IOException, InterruptedException {
+        return get(classPathIndexes, Objects.requireNonNull(classpath), () -> new ClassPathIndex(classpath, cachePath));
+    }
+
+    /**
+     * Returns the path of the pathing jar of the given classpath, creating it
+     * if no other build has requested it before
+     *
+     * @param classpath a string with the classpath
+     * @param targetPath the folder of the target where the pathing jar is
+     *                   created when the inputs are not shared
+     * @return a String with the path of the pathing jar
+     * @throws IOException
+     * @throws InterruptedException
+     * @see FileOps#createPathingJar(Path, String)
+     */
+    public String getPathingJar(String classpath, Path targetPath) throws IOException, InterruptedException {
+        Objects.requireNonNull(classpath);
+        Path path = sharedPath == null ? Objects.requireNonNull(targetPath) :
+                sharedPath.resolve(Constants.PATHING_JAR_PATH).resolve(new Fingerprint().add("classpath", classpath).getValue());
+        return get(pathingJars, classpath, () -> FileOps.createPathingJar(path, classpath));
+    }
+
+    @FunctionalInterface
+    private interface Producer<T> {
+        T produce() throws IOException;
+    }
+
+    private static <T> T get(Map<String, CompletableFuture<T>> results, String key, Producer<T> producer)
+            throws IOException, InterruptedException {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = results.putIfAbsent(key, future);
+        if (existing == null) {
+            try {
+                future.complete(producer.produce());
+            } catch (IOException | RuntimeException e) {
+                // let a later request try again
+                results.remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+            return future.join();
+        }
+        Logger.logDebug("Reusing shared build input for " + key);
+        try {
+            return existing.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
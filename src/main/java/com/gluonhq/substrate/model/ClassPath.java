@@ -1,15 +1,18 @@
 package com.gluonhq.substrate.model;
 
-import com.gluonhq.substrate.util.FileOps;
-import com.gluonhq.substrate.util.ProcessRunner;
+import com.gluonhq.substrate.util.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -21,6 +24,8 @@ import java.util.stream.Stream;
  */
 public class ClassPath {
 
+    private static final Map<String, File> CLASSES_JARS = new HashMap<>();
+
     private final String classPath;
 
     /**
@@ -126,64 +131,99 @@ public class ClassPath {
                 .orElse(s));
     }
 
+    /**
+     * Returns a list with all the entries of the classpath that can be scanned:
+     * the jar files, and optionally, the directories with the compiled classes
+     * and resources of the current project, that are read in place.
+     *
+     * @param includeClasses if true, an entry with the compiled classes and
+     *                       resources of the current project is added to the list
+     * @return a list of classpath entries
+     */
+    public List<ClassPathEntry> getEntries(boolean includeClasses) {
+        List<ClassPathEntry> entries = getJarFiles().stream()
+                .map(ClassPathEntry::ofJar)
+                .collect(Collectors.toList());
+        if (includeClasses) {
+            getClassesEntry().ifPresent(entries::add);
+        }
+        return entries;
+    }
+
     /**
      * Returns a list with all the jar files that are found in the classpath.
      *
+     * When the compiled classes and resources of the current project are
+     * included, they are packaged in-process into a classes.jar file. This
+     * jar is created only once, and it is reused as long as none of the
+     * classes or resources change.
+     *
+     * Note that, for scanning purposes, {@link #getEntries(boolean)} should be
+     * preferred, as it doesn't need to create such jar.
+     *
      * @param includeClasses if true, a jar will be created and added to the list,
      *                       containing the compiled classes and resources of the
      *                       current project
      * @return a list of jar files
      * @throws IOException
-     * @throws InterruptedException
      */
-    public List<File> getJars(boolean includeClasses) throws IOException, InterruptedException {
-        List<File> jars = filter(s -> s.endsWith(".jar")).stream()
+    public List<File> getJars(boolean includeClasses) throws IOException {
+        List<File> jars = getJarFiles();
+        if (includeClasses) {
+            // Add project's classes as a jar to the list so it can be used as well
+            Optional<ClassPathEntry> classes = getClassesEntry();
+            if (classes.isPresent()) {
+                jars.add(getClassesJar(classes.get()));
+            }
+        }
+        return jars;
+    }
+
+    private List<File> getJarFiles() {
+        return filter(s -> s.endsWith(".jar")).stream()
                 .map(File::new)
                 .distinct()
                 .collect(Collectors.toList());
+    }
 
-        if (includeClasses) {
-            // Add project's classes as a jar to the list so it can be scanned as well
-            String classes = filter(s -> s.endsWith("classes") ||
-                            s.endsWith("classes" + File.separator + "java" + File.separator + "main")).stream()
-                    .findFirst()
-                    .orElse(null);
-            if (classes != null) {
-                Path classesPath = Files.createTempDirectory("classes");
-                FileOps.copyDirectory(Path.of(classes), classesPath);
-                Path resourcesPath = filter(s -> s.endsWith("resources" + File.separator + "main")).stream()
-                        .findFirst()
-                        .map(Path::of)
-                        .orElse(null);
-                if (resourcesPath != null && Files.exists(resourcesPath)) {
-                    FileOps.copyDirectory(resourcesPath, classesPath);
-                }
-
-                String javaPath = System.getenv("JAVA_HOME");
-                if (javaPath == null || javaPath.isEmpty()) {
-                    javaPath = System.getenv("GRAALVM_HOME");
-                    if (javaPath == null || javaPath.isEmpty()) {
-                        throw new IOException("Error: $JAVA_HOME and $GRAALVM_HOME are undefined");
-                    }
-                }
-                Path jarPath = Path.of(javaPath, "bin", Triplet.isWindowsHost() ? "jar.exe" : "jar");
-                if (!Files.exists(jarPath)) {
-                    throw new IOException("Error: " + jarPath + " doesn't exist");
-                }
-
-                Path classesJar = classesPath.resolve("classes.jar");
-
-                ProcessRunner runner = new ProcessRunner(jarPath.toString(),
-                        "cf", classesJar.toString(), "-C", classesPath.toString(), ".");
-
-                if (runner.runProcess("jar") == 0 && Files.exists(classesJar)) {
-                    jars.add(classesJar.toFile());
-                } else {
-                    throw new IOException("Error creating classes.jar");
-                }
-            }
+    private Optional<ClassPathEntry> getClassesEntry() {
+        String classes = filter(s -> s.endsWith("classes") ||
+                        s.endsWith("classes" + File.separator + "java" + File.separator + "main")).stream()
+                .findFirst()
+                .orElse(null);
+        if (classes == null || !Files.isDirectory(Path.of(classes))) {
+            return Optional.empty();
         }
+        List<Path> directories = new ArrayList<>();
+        directories.add(Path.of(classes));
+        filter(s -> s.endsWith("resources" + File.separator + "main")).stream()
+                .findFirst()
+                .map(Path::of)
+                .filter(Files::isDirectory)
+                .ifPresent(directories::add);
+        return Optional.of(ClassPathEntry.ofDirectories(directories));
+    }
 
-        return jars;
+    private static synchronized File getClassesJar(ClassPathEntry classes) throws IOException {
+        String key = classes.toString();
+        File classesJar = CLASSES_JARS.get(key);
+        if (classesJar != null && classesJar.exists() && classesJar.lastModified() >= classes.lastModified()) {
+            Logger.logDebug("Reusing " + classesJar + " for " + key);
+            return classesJar;
+        }
+
+        Path classesPath = Files.createTempDirectory("classes");
+        classesPath.toFile().deleteOnExit();
+        Path jarPath = classesPath.resolve("classes.jar");
+        try {
+            classes.writeJar(jarPath);
+        } catch (IOException e) {
+            throw new IOException("Error creating classes.jar: " + e.getMessage(), e);
+        }
+        classesJar = jarPath.toFile();
+        classesJar.deleteOnExit();
+        Logger.logDebug("Created " + classesJar + " for " + key);
+        CLASSES_JARS.put(key, classesJar);
+        return classesJar;
     }
 }
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Represents an element of the classpath that can be scanned for files:
+ * either a jar, or the exploded directories with the compiled classes and
+ * resources of the current project.
+ *
+ * Both kinds are read in place, so scanning the project classes doesn't
+ * require copying them or packaging them into a jar first.
+ */
+public abstract class ClassPathEntry {
+
+    /**
+     * Receives the files found while scanning an entry
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Called for every file of the entry
+         *
+         * @param name the name of the file, relative to the root of the entry
+         *             and using '/' as separator, like in a jar
+         * @param content provides the content of the file, only if needed
+         * @throws IOException
+         */
+        void visit(String name, Content content) throws IOException;
+    }
+
+    /**
+     * Provides the content of a file from an entry
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * @return a new input stream with the content of the file
+         * @throws IOException
+         */
+        InputStream open() throws IOException;
+
+        /**
+         * @return the size of the file in bytes
+         * @throws IOException
+         */
+        default long size() throws IOException {
+            try (InputStream is = open()) {
+                return is.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Creates an entry for a jar file
+     *
+     * @param jar the jar file
+     * @return the classpath entry
+     */
+    public static ClassPathEntry ofJar(File jar) {
+        return new JarClassPathEntry(jar);
+    }
+
+    /**
+     * Creates an entry for the exploded classes of a project, that can be
+     * spread over several directories, like the output folders of classes and
+     * resources. If a file exists in more than one of them, the last one wins.
+     *
+     * @param directories the list of directories, the first one being the classes directory
+     * @return the classpath entry
+     */
+    public static ClassPathEntry ofDirectories(List<Path> directories) {
+        return new DirectoryClassPathEntry(directories);
+    }
+
+    /**
+     * @return the jar file, or the classes directory
+     */
+    public abstract File getFile();
+
+    /**
+     * @return the name of the entry: the jar name without extension, or
+     * "classes" for the project classes
+     */
+    public abstract String getName();
+
+    /**
+     * @return true if this entry holds the exploded classes of the project
+     */
+    public abstract boolean isDirectory();
+
+    /**
+     * @return true if the underlying jar or directories exist
+     */
+    public abstract boolean exists();
+
+    /**
+     * Returns the most recent modification time of this entry, including,
+     * for directories, all the files and subdirectories
+     *
+     * @return the time in milliseconds
+     * @throws IOException
+     */
+    public abstract long lastModified() throws IOException;
+
+    /**
+     * Visits all the files of this entry, skipping directories
+     *
+     * @param visitor the visitor that receives the files
+     * @throws IOException
+     */
+    public abstract void visit(Visitor visitor) throws IOException;
+
+    /**
+     * Writes the content of this entry into a jar, in-process.
+     *
+     * @param jarPath the path of the jar that will be created
+     * @throws IOException
+     */
+    abstract void writeJar(Path jarPath) throws IOException;
+
+    /**
+     * Wraps a content whose size is already known, if it is not negative
+     */
+    private static Content content(Content content, long size) {
+        return new Content() {
+            @Override
+            public InputStream open() throws IOException {
+                return content.open();
+            }
+
+            @Override
+            public long size() throws IOException {
+                return size >= 0 ? size : Content.super.size();
+            }
+        };
+    }
+
+    private static class JarClassPathEntry extends ClassPathEntry {
+
+        private final File jar;
+
+        JarClassPathEntry(File jar) {
+            this.jar = Objects.requireNonNull(jar);
+        }
+
+        @Override
+        public File getFile() {
+            return jar;
+        }
+
+        @Override
+        public String getName() {
+            String name = jar.getName();
+            return name.endsWith(".jar") ? name.substring(0, name.length() - 4) : name;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public boolean exists() {
+            return jar.exists();
+        }
+
+        @Override
+        public long lastModified() {
+            return jar.lastModified();
+        }
+
+        @Override
+        public void visit(Visitor visitor) throws IOException {
+            try (ZipFile zip = new ZipFile(jar)) {
+                for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+                    ZipEntry zipEntry = e.nextElement();
+                    if (!zipEntry.isDirectory()) {
+                        visitor.visit(zipEntry.getName(), content(() -> zip.getInputStream(zipEntry), zipEntry.getSize()));
+                    }
+                }
+            }
+        }
+
+        @Override
+        void writeJar(Path jarPath) throws IOException {
+            Files.copy(jar.toPath(), jarPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Override
+        public String toString() {
+            return jar.toString();
+        }
+    }
+
+    private static class DirectoryClassPathEntry extends ClassPathEntry {
+
+        private final List<Path> directories;
+
+        DirectoryClassPathEntry(List<Path> directories) {
+            if (Objects.requireNonNull(directories).isEmpty()) {
+                throw new IllegalArgumentException("At least one directory is required");
+            }
+            this.directories = List.copyOf(directories);
+        }
+
+        @Override
+        public File getFile() {
+            return directories.get(0).toFile();
+        }
+
+        @Override
+        public String getName() {
+            return "classes";
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return true;
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.isDirectory(directories.get(0));
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            long lastModified = 0;
+            for (Path directory : existingDirectories()) {
+                try (Stream<Path> walk = Files.walk(directory)) {
+                    for (Path p : walk.collect(Collectors.toList())) {
+                        lastModified = Math.max(lastModified, Files.getLastModifiedTime(p).toMillis());
+                    }
+                }
+            }
+            return lastModified;
+        }
+
+        @Override
+        public void visit(Visitor visitor) throws IOException {
+            for (Map.Entry<String, Path> file : listFiles().entrySet()) {
+                Path path = file.getValue();
+                visitor.visit(file.getKey(), content(() -> Files.newInputStream(path), Files.size(path)));
+            }
+        }
+
+        /**
+         * If there is a META-INF/MANIFEST.MF file, it is used as the manifest of the jar.
+         */
+        @Override
+        void writeJar(Path jarPath) throws IOException {
+            Map<String, Path> files = listFiles();
+            Manifest manifest;
+            Path manifestPath = files.remove(JarFile.MANIFEST_NAME);
+            if (manifestPath != null) {
+                try (InputStream is = Files.newInputStream(manifestPath)) {
+                    manifest = new Manifest(is);
+                }
+            } else {
+                manifest = new Manifest();
+            }
+            manifest.getMainAttributes().putIfAbsent(Attributes.Name.MANIFEST_VERSION, "1.0");
+
+            try (OutputStream os = Files.newOutputStream(jarPath);
+                 JarOutputStream jos = new JarOutputStream(os, manifest)) {
+                Set<String> dirs = new HashSet<>();
+                for (Map.Entry<String, Path> file : files.entrySet()) {
+                    String name = file.getKey();
+                    // add the parent directories, as the jar tool does
+                    for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) {
+                        String dir = name.substring(0, i + 1);
+                        if (dirs.add(dir)) {
+                            jos.putNextEntry(new ZipEntry(dir));
+                            jos.closeEntry();
+                        }
+                    }
+                    ZipEntry zipEntry = new ZipEntry(name);
+                    zipEntry.setTime(Files.getLastModifiedTime(file.getValue()).toMillis());
+                    jos.putNextEntry(zipEntry);
+                    Files.copy(file.getValue(), jos);
+                    jos.closeEntry();
+                }
+            }
+        }
+
+        private List<Path> existingDirectories() {
+            return directories.stream()
+                    .filter(Files::isDirectory)
+                    .collect(Collectors.toList());
+        }
+
+        private Map<String, Path> listFiles() throws IOException {
+            Map<String, Path> files = new TreeMap<>();
+            for (Path directory : existingDirectories()) {
+                try (Stream<Path> walk = Files.walk(directory)) {
+                    for (Path p : walk.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                        String name = directory.relativize(p).toString().replace(File.separatorChar, '/');
+                        files.put(name, p);
+                    }
+                }
+            }
+            return files;
+        }
+
+        @Override
+        public String toString() {
+            return directories.toString();
+        }
+    }
+}
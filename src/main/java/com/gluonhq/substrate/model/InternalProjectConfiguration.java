@@ -29,6 +29,7 @@ package com.gluonhq.substrate.model;
 
 import com.gluonhq.substrate.Constants;
 import com.gluonhq.substrate.ProjectConfiguration;
+import com.gluonhq.substrate.config.SharedBuildInputs;
 import com.gluonhq.substrate.util.Logger;
 import com.gluonhq.substrate.util.ProcessRunner;
 import com.gluonhq.substrate.util.Strings;
@@ -40,8 +41,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,6 +62,9 @@ import static com.gluonhq.substrate.target.AndroidTargetConfiguration.ANDROID_ND
  */
 public class InternalProjectConfiguration {
 
+    // output of 'java -version' for each GraalVM java binary, kept for the lifetime of the process
+    private static final Map<String, String> JAVA_VERSIONS = new ConcurrentHashMap<>();
+
     private String javaStaticLibs;
     private String javaFXStaticSDK;
 
@@ -66,6 +72,7 @@ public class InternalProjectConfiguration {
     private boolean useJavaFX = false;
     private boolean usePrismSW = false;
     private boolean enableCheckHash = true;
+    private boolean fullCheckHash = false;
     private boolean sharedLibrary = false;
     private boolean staticLibrary = false;
 
@@ -73,6 +80,8 @@ public class InternalProjectConfiguration {
     private List<String> initBuildTimeList;
     private List<String> releaseSymbolsList;
 
+    private SharedBuildInputs sharedBuildInputs = new SharedBuildInputs(null);
+
     private final ProjectConfiguration publicConfig;
     private final Version javaVersion;
     private final Version graalVersion;
@@ -90,6 +99,7 @@ public class InternalProjectConfiguration {
             // override value from client plugin when system property is set:
             getReleaseConfiguration().setSkipSigning(true);
         }
+        setFullCheckHash(Boolean.getBoolean("fullcheckhash"));
         setJavaStaticLibs(System.getProperty("javalibspath")); // this can be safely set even if null. Default will be used in that case
         String javafxStaticSdkPath = System.getenv("JAVAFX_STATIC_SDK_PATH");
         if (javafxStaticSdkPath != null) {
@@ -337,6 +347,34 @@ public class InternalProjectConfiguration {
         return publicConfig.isUsePrecompiledCode();
     }
 
+    public boolean isNativeImageAutoSizing() {
+        return publicConfig.isNativeImageAutoSizing();
+    }
+
+    public boolean isReflectionTrimming() {
+        return publicConfig.isReflectionTrimming();
+    }
+
+    public boolean isResourceScanning() {
+        return publicConfig.isResourceScanning();
+    }
+
+    public long getResourceSizeThreshold() {
+        return publicConfig.getResourceSizeThreshold();
+    }
+
+    /**
+     * Returns the maximum number of native source files that are compiled in parallel,
+     * or JavaScript libraries that are generated in parallel for the web target.
+     * If not set in the public configuration, the number of available processors is used.
+     *
+     * @return the number of parallel native compile jobs, at least 1
+     */
+    public int getNativeCompileJobs() {
+        int jobs = publicConfig.getNativeCompileJobs();
+        return jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Enables hash checking to verify integrity of Graal and Java/JavaFX files
      * @param enableCheckHash boolean to enable hash checking
@@ -345,6 +383,19 @@ public class InternalProjectConfiguration {
         this.enableCheckHash = enableCheckHash;
     }
 
+    public boolean isFullCheckHash() {
+        return fullCheckHash;
+    }
+
+    /**
+     * When hash checking is enabled, computes the checksums of all the Java/JavaFX files,
+     * instead of only those of the files that changed since they were last verified
+     * @param fullCheckHash boolean to enable full hash checking
+     */
+    public void setFullCheckHash(boolean fullCheckHash) {
+        this.fullCheckHash = fullCheckHash;
+    }
+
     public boolean isSharedLibrary() {
         return sharedLibrary;
     }
@@ -361,6 +412,19 @@ public class InternalProjectConfiguration {
         this.staticLibrary = staticLibrary;
     }
 
+    /**
+     * Returns the target independent inputs of the build, which are shared
+     * with the builds of other targets of the same project, if any
+     * @return the shared build inputs
+     */
+    public SharedBuildInputs getSharedBuildInputs() {
+        return sharedBuildInputs;
+    }
+
+    public void setSharedBuildInputs(SharedBuildInputs sharedBuildInputs) {
+        this.sharedBuildInputs = Objects.requireNonNull(sharedBuildInputs);
+    }
+
     public Triplet getTargetTriplet() {
         return Objects.requireNonNull( publicConfig.getTargetTriplet(), "Target triplet is required");
     }
@@ -656,6 +720,7 @@ public class InternalProjectConfiguration {
         Logger.logDebug("Checking execution permissions for " + graalvmRoot);
         try {
             ProcessRunner xattrRunner = new ProcessRunner("xattr", graalvmRoot);
+            xattrRunner.setCaptureAllLines(true);
             xattrRunner.runProcess("check xattr");
             if (xattrRunner.getResponses().stream().anyMatch("com.apple.quarantine"::equals)) {
                 Logger.logInfo("Removing quarantine attributes from GraalVM files at " + graalvmRoot +
@@ -682,7 +747,13 @@ public class InternalProjectConfiguration {
      */
     private String getJavaVersionString() throws IOException {
         try {
-            ProcessRunner graalJava = new ProcessRunner(getGraalVMBinPath().resolve("java").toString(), "-version");
+            Path java = getGraalVMBinPath().resolve("java");
+            String key = java.toAbsolutePath() + ":" + java.toFile().lastModified();
+            String cached = JAVA_VERSIONS.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            ProcessRunner graalJava = new ProcessRunner(java.toString(), "-version");
             if (graalJava.runProcess("check version") != 0) {
                 throw new IllegalArgumentException("$GRAALVM_HOME/bin/java -version process failed");
             }
@@ -690,6 +761,7 @@ public class InternalProjectConfiguration {
             if (response == null || response.isEmpty()) {
                 throw new IOException("Couldn't determine GraalVM's Java version");
             }
+            JAVA_VERSIONS.put(key, response);
             return response;
         } catch (InterruptedException e) {
             throw new IllegalArgumentException("$GRAALVM_HOME/bin/java -version process failed");
@@ -719,6 +791,7 @@ public class InternalProjectConfiguration {
                 ", useJavaFX=" + useJavaFX +
                 ", usePrismSW=" + usePrismSW +
                 ", enableCheckHash=" + enableCheckHash +
+                ", fullCheckHash=" + fullCheckHash +
                 ", targetTriplet=" + getTargetTriplet() +
                 ", hostTriplet=" + getHostTriplet() +
                 ", backend='" + backend + '\'' +
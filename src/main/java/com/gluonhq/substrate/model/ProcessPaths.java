@@ -42,6 +42,7 @@ public class ProcessPaths {
     private final Path genPath;
     private final Path tmpPath;
     private final Path logPath;
+    private final Path cachePath;
     private final Path sourcePath;
     private final Path nativeCodePath;
 
@@ -49,12 +50,14 @@ public class ProcessPaths {
      * |-- target/build
      *     |-- gluonfx                   <!-- buildRoot  -->
      *         |-- log
+     *         |-- shared               <!-- inputs shared by several targets  -->
      *         |-- $arch-$os            <!-- $ARCH-$OS  -->
      *             |-- gvm
      *                 |-- $appName
      *                 |-- lib
      *                 |-- log
      *                 |-- tmp
+     *                 |-- cache
      *                 |-- android_project
      *                     |-- app
      *                 |-- $appName.apk
@@ -79,6 +82,7 @@ public class ProcessPaths {
         genPath = Files.createDirectories(appPath.resolve(Constants.GEN_PATH));
         tmpPath = Files.createDirectories(gvmPath.resolve(Constants.TMP_PATH));
         logPath = Files.createDirectories(gvmPath.resolve(Constants.LOG_PATH));
+        cachePath = Files.createDirectories(gvmPath.resolve(Constants.CACHE_PATH));
         sourcePath = clientPath.getParent().getParent().resolve(Constants.SOURCE_PATH);
         nativeCodePath = sourcePath.getParent().resolve(Constants.NATIVE_CODE_PATH);
     }
@@ -111,6 +115,10 @@ public class ProcessPaths {
         return logPath;
     }
 
+    public Path getCachePath() {
+        return cachePath;
+    }
+
     public Path getNativeCodePath() {
         return nativeCodePath;
     }
@@ -28,17 +28,29 @@
 package com.gluonhq.substrate.target;
 
 import com.gluonhq.substrate.Constants;
+import com.gluonhq.substrate.config.ClassConfig;
+import com.gluonhq.substrate.config.ClassPathIndex;
 import com.gluonhq.substrate.config.ConfigResolver;
+import com.gluonhq.substrate.config.ReflectionTrimmer;
+import com.gluonhq.substrate.config.ResourceSelector;
+import com.gluonhq.substrate.config.SharedBuildInputs;
 import com.gluonhq.substrate.model.ClassPath;
 import com.gluonhq.substrate.model.InternalProjectConfiguration;
 import com.gluonhq.substrate.model.ProcessPaths;
 import com.gluonhq.substrate.model.Triplet;
+import com.gluonhq.substrate.util.ArchitectureFilter;
+import com.gluonhq.substrate.util.BuildMetrics;
 import com.gluonhq.substrate.util.FileDeps;
 import com.gluonhq.substrate.util.FileOps;
+import com.gluonhq.substrate.util.Fingerprint;
+import com.gluonhq.substrate.util.HostResources;
+import com.gluonhq.substrate.util.Json;
 import com.gluonhq.substrate.util.Lib;
 import com.gluonhq.substrate.util.Logger;
+import com.gluonhq.substrate.util.NativeImageReport;
 import com.gluonhq.substrate.util.ProcessRunner;
 import com.gluonhq.substrate.util.Strings;
+import com.gluonhq.substrate.util.TaskGraph;
 import com.gluonhq.substrate.util.Version;
 
 import java.io.BufferedWriter;
@@ -48,16 +60,29 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -70,6 +95,8 @@ import java.util.stream.Stream;
  */
 public abstract class AbstractTargetConfiguration implements TargetConfiguration {
 
+    // prefix of the folders that native-image creates in its temporary folder
+    private static final String NATIVE_IMAGE_TEMP_PREFIX = "SVM-";
     private static final String URL_CLIBS_ZIP = "https://download2.gluonhq.com/substrate/clibs/${osarch}${version}.zip";
     private static final List<String> RESOURCES_BY_EXTENSION = Arrays.asList(
             "png", "jpg", "jpeg", "gif", "bmp", "ttf", "raw",
@@ -99,6 +126,13 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
     final InternalProjectConfiguration projectConfiguration;
     final ProcessPaths paths;
     protected final boolean crossCompile;
+    /**
+     * The task of the compile step that resolves and indexes the classpath
+     */
+    static final String CLASSPATH_TASK = "classpath";
+    static final String ADDITIONAL_SOURCES_TASK = "additionalSources";
+
+    private volatile NativeImageReport nativeImageReport;
 
     private final List<String> defaultAdditionalSourceFiles = Collections.singletonList("launcher.c");
     private final List<Lib> defaultStaticJavaLibs = List.of(
@@ -119,7 +153,11 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
 
     /**
      * Compile sets the required command line arguments and runs
-     * native-image
+     * native-image.
+     *
+     * The work is split in tasks, see {@link TaskGraph}, so the native
+     * libraries of the classpath are extracted, the additional sources are
+     * compiled and the C libraries are downloaded while native-image runs.
      *
      * @return true if the process ends successfully, false otherwise
      * @throws IOException
@@ -127,21 +165,50 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
      */
     @Override
     public boolean compile() throws IOException, InterruptedException {
-        String substrateClasspath = "";
+        String substrateClasspath;
         try {
             substrateClasspath = new File(AbstractTargetConfiguration.class.getProtectionDomain()
                     .getCodeSource().getLocation().toURI()).getPath();
         } catch (URISyntaxException ex) {
             throw new IOException("Can't locate Substrate.jar", ex);
         }
-        String processedClasspath = validateCompileRequirements();
+        AtomicReference<String> processedClasspath = new AtomicReference<>();
+        AtomicReference<ClassPathIndex> classPathIndex = new AtomicReference<>();
 
-        extractNativeLibs(processedClasspath);
-
-        if (!compileAdditionalSources()) {
-            return false;
-        }
+        TaskGraph graph = new TaskGraph("compile");
+        graph.add(CLASSPATH_TASK, () -> {
+            processedClasspath.set(validateCompileRequirements());
+            classPathIndex.set(getClassPathIndex(processedClasspath.get()));
+            return true;
+        });
+        graph.add("nativeLibs", () -> {
+            extractNativeLibs(classPathIndex.get());
+            return true;
+        }, CLASSPATH_TASK);
+        graph.add(ADDITIONAL_SOURCES_TASK, this::compileAdditionalSources);
+        graph.add("prefetchClibs", () -> {
+            prefetchClibs();
+            return true;
+        });
+        graph.add("nativeImage", () -> runNativeImage(substrateClasspath, processedClasspath.get(), classPathIndex.get()),
+                CLASSPATH_TASK);
+        addCompileTasks(graph);
+        return graph.run();
+    }
 
+    /**
+     * Runs native-image to compile the application into an object file,
+     * unless its inputs haven't changed since the last successful compile
+     *
+     * @param substrateClasspath the path of the Substrate jar
+     * @param processedClasspath the classpath of the application
+     * @param classPathIndex the index of the classpath
+     * @return true if the object file was compiled or is up to date
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private boolean runNativeImage(String substrateClasspath, String processedClasspath, ClassPathIndex classPathIndex)
+            throws IOException, InterruptedException {
         ProcessRunner compileRunner = new ProcessRunner(getNativeImagePath());
 
         baseNativeImageArguments.forEach(compileRunner::addArg);
@@ -165,17 +232,23 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
             verboseNativeImageArguments.forEach(compileRunner::addArg);
         }
 
-        compileRunner.addArgs(getConfigurationFileArgs(processedClasspath));
+        ConfigResolver configResolver = new ConfigResolver(classPathIndex);
+        compileRunner.addArgs(BuildMetrics.measure("configFiles",
+                () -> getConfigurationFileArgs(configResolver, classPathIndex, processedClasspath)));
 
         compileRunner.addArgs(getTargetSpecificAOTCompileFlags());
-        List<String> bundlesList = getBundlesList(processedClasspath);
+        List<String> bundlesList = getBundlesList(configResolver);
         if (!bundlesList.isEmpty()) {
             String bundles = String.join(",", bundlesList);
             compileRunner.addArg("-H:IncludeResourceBundles=" + bundles);
         }
         compileRunner.addArg(getJniPlatformArg());
         compileRunner.addArg(Constants.NATIVE_IMAGE_ARG_CLASSPATH);
-        compileRunner.addArg(substrateClasspath + File.pathSeparator + FileOps.createPathingJar(paths.getTmpPath(), processedClasspath));
+        // not under the temporary folder, so the linked jars are kept between builds
+        compileRunner.addArg(substrateClasspath + File.pathSeparator + projectConfiguration.getSharedBuildInputs()
+                .getPathingJar(processedClasspath, paths.getGvmPath().resolve(Constants.PATHING_JAR_PATH)));
+        List<String> sizingArgs = getNativeImageSizingArgs();
+        compileRunner.addArgs(sizingArgs);
         projectConfiguration.getCompilerArgs().stream()
             .filter(arg -> arg != null && !arg.isEmpty())
             .forEach(compileRunner::addArg);
@@ -188,15 +261,137 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
 
         Path gvmPath = paths.getGvmPath();
         Path workDir = gvmPath.resolve(projectConfiguration.getAppName());
-        int result = compileRunner.runProcess("compile", workDir.toFile());
 
-        return validateCompileResult(result);
+        Path compileCachePath = paths.getCachePath().resolve("compile");
+        Path fingerprintPath = compileCachePath.resolve(projectConfiguration.getAppName() + ".fingerprint");
+        Path reportPath = compileCachePath.resolve(projectConfiguration.getAppName() + ".native-image.properties");
+        // the sizing depends on the memory in use, which must not invalidate the compiled image
+        List<String> fingerprintArgs = new ArrayList<>(compileRunner.getCmdList());
+        fingerprintArgs.removeAll(sizingArgs);
+        Fingerprint fingerprint = getCompileFingerprint(fingerprintArgs,
+                substrateClasspath + File.pathSeparator + processedClasspath);
+        if (isCompileUpToDate(fingerprintPath, fingerprint, gvmPath, getProjectObjectFileName())) {
+            Logger.logInfo("Skipping compile step: inputs haven't changed since the last successful compile");
+            nativeImageReport = NativeImageReport.load(reportPath).orElse(null);
+            return true;
+        }
+        Files.deleteIfExists(fingerprintPath);
+        // the object file of the previous compile is only removed when a new one is compiled
+        cleanNativeImageTempDirectories(paths.getTmpPath());
+
+        NativeImageReport.Parser reportParser = new NativeImageReport.Parser();
+        compileRunner.addLineListener(line -> true, reportParser);
+
+        boolean success;
+        try (BuildMetrics.Phase phase = BuildMetrics.start("nativeImageProcess")) {
+            int result = compileRunner.runProcess("compile", workDir.toFile());
+            success = phase.setSuccess(validateCompileResult(result));
+            if (success) {
+                long imageSize = FileOps.findFile(gvmPath, getProjectObjectFileName())
+                        .map(p -> p.toFile().length())
+                        .orElse(NativeImageReport.UNKNOWN);
+                updateNativeImageReport(reportParser.getReport(imageSize), reportPath, phase);
+            }
+        }
+        if (success) {
+            fingerprint.write(fingerprintPath);
+        }
+        return success;
+    }
+
+    /**
+     * Returns the arguments that set the maximum heap size and the number of
+     * threads of native-image, derived from the memory and processors of the
+     * host, when {@link InternalProjectConfiguration#isNativeImageAutoSizing()}
+     * is enabled. The heap size or the number of threads are not set when the
+     * compiler arguments of the project already set them.
+     *
+     * @return a list with the sizing arguments, that can be empty
+     */
+    private List<String> getNativeImageSizingArgs() {
+        if (!projectConfiguration.isNativeImageAutoSizing()) {
+            return Collections.emptyList();
+        }
+        List<String> compilerArgs = projectConfiguration.getCompilerArgs();
+        boolean userHeapSize = compilerArgs.stream()
+                .anyMatch(arg -> arg != null && (arg.startsWith("-J-Xmx") || arg.startsWith("-J-XX:MaxRAM")));
+        boolean userThreads = compilerArgs.stream()
+                .anyMatch(arg -> arg != null && (arg.startsWith("-H:NumberOfThreads=") || arg.startsWith("--parallelism=")));
+
+        HostResources resources = HostResources.detect();
+        List<String> args = new ArrayList<>();
+        long heapSize = userHeapSize ? HostResources.UNKNOWN : resources.getNativeImageHeapSize();
+        if (heapSize != HostResources.UNKNOWN) {
+            args.add("-J-Xmx" + heapSize / (1024 * 1024) + "m");
+        }
+        if (!userThreads) {
+            args.add("-H:NumberOfThreads=" + resources.getNativeImageThreads(heapSize));
+        }
+        Logger.logInfo("Sizing native-image for " + resources + ": " +
+                (args.isEmpty() ? "using the compiler arguments of the project" : String.join(" ", args)) +
+                (userHeapSize || userThreads ? " (the compiler arguments of the project take precedence)" : ""));
+        return args;
+    }
+
+    /**
+     * Keeps the report of the native-image run that just ended, adds its values
+     * to the build metrics, and logs the regressions found when comparing it with
+     * the report of the previous run, which is then replaced
+     *
+     * @param report the report of native-image
+     * @param reportPath the path of the stored report
+     * @param phase the phase of the build metrics of the native-image process
+     * @throws IOException
+     */
+    private void updateNativeImageReport(NativeImageReport report, Path reportPath, BuildMetrics.Phase phase)
+            throws IOException {
+        nativeImageReport = report;
+        Logger.logDebug("Native image report: " + report);
+        report.getPhases().forEach((name, duration) -> phase.setValue(name + "Millis", duration.toMillis()));
+        for (String kind : List.of(NativeImageReport.TYPES, NativeImageReport.FIELDS, NativeImageReport.METHODS)) {
+            if (report.getReachable(kind) != NativeImageReport.UNKNOWN) {
+                phase.setValue("reachable" + Character.toUpperCase(kind.charAt(0)) + kind.substring(1),
+                        report.getReachable(kind));
+            }
+        }
+        if (report.getPeakRss() != NativeImageReport.UNKNOWN) {
+            phase.setValue("peakRssBytes", report.getPeakRss());
+        }
+        if (report.getImageSize() != NativeImageReport.UNKNOWN) {
+            phase.setValue("imageBytes", report.getImageSize());
+        }
+
+        NativeImageReport.load(reportPath)
+                .map(report::findRegressions)
+                .orElse(List.of())
+                .forEach(regression -> Logger.logInfo("Warning: possible native-image regression, " + regression));
+        report.store(reportPath);
+    }
+
+    /**
+     * Returns the statistics of the last native-image run, either from the
+     * compile step of this build, or from the last compile step that ran,
+     * if its inputs haven't changed since then
+     *
+     * @return an optional with the report of native-image, or empty if there is none
+     */
+    @Override
+    public Optional<NativeImageReport> getNativeImageReport() {
+        return Optional.ofNullable(nativeImageReport);
     }
 
     @Override
     public boolean link() throws IOException, InterruptedException {
-        compileAdditionalSources();
-        ensureClibs();
+        TaskGraph graph = new TaskGraph("link");
+        graph.add(ADDITIONAL_SOURCES_TASK, this::compileAdditionalSources);
+        graph.add("clibs", () -> {
+            ensureClibs();
+            return true;
+        });
+        addLinkTasks(graph);
+        if (!graph.run()) {
+            return false;
+        }
 
         String appName = projectConfiguration.getAppName();
         Path gvmPath = paths.getGvmPath();
@@ -230,8 +425,32 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         linkRunner.addArgs(projectConfiguration.getLinkerArgs());
         linkRunner.setInfo(true);
         linkRunner.setLogToFile(true);
-        int result = linkRunner.runProcess("link");
-        return result == 0;
+        try (BuildMetrics.Phase phase = BuildMetrics.start("linker")) {
+            return phase.setSuccess(linkRunner.runProcess("link") == 0);
+        }
+    }
+
+    /**
+     * Adds target specific tasks to the compile step. They run in parallel
+     * with native-image and the other tasks, unless they depend on them.
+     * Tasks that need the classpath of the project can depend on
+     * {@link #CLASSPATH_TASK}.
+     *
+     * @param graph the tasks of the compile step
+     */
+    void addCompileTasks(TaskGraph graph) {
+        // empty, override by subclasses
+    }
+
+    /**
+     * Adds target specific tasks that have to finish before the linker runs.
+     * They run in parallel with the compilation of the additional sources and
+     * the verification of the C libraries.
+     *
+     * @param graph the tasks that run before linking
+     */
+    void addLinkTasks(TaskGraph graph) {
+        // empty, override by subclasses
     }
 
     /**
@@ -340,32 +559,114 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
             return true;
         }
 
-        ProcessRunner processRunner = new ProcessRunner(getCompiler());
-        processRunner.addArg("-c");
+        List<String> compileFlags = new ArrayList<>();
+        compileFlags.add("-c");
         if (projectConfiguration.isVerbose()) {
-            processRunner.addArg("-DGVM_VERBOSE");
+            compileFlags.add("-DGVM_VERBOSE");
         }
-        processRunner.addArg("-DSUBSTRATE");
-        processRunner.addArgs(getTargetSpecificCCompileFlags());
+        compileFlags.add("-DSUBSTRATE");
+        compileFlags.addAll(getTargetSpecificCCompileFlags());
 
-        processRunner.addArg("-I" + workDir.toString());
+        compileFlags.add("-I" + workDir.toString());
 
-        processRunner.addArgs(copyAdditionalSourceFiles(workDir));
+        List<String> sourceFiles = new ArrayList<>(copyAdditionalSourceFiles(workDir));
 
         Path nativeCodeDir = paths.getNativeCodePath();
         if (Files.isDirectory(nativeCodeDir)) {
             FileOps.copyDirectory(nativeCodeDir, workDir);
         }
 
-        processRunner.addArgs(getNativeCodeList());
+        sourceFiles.addAll(getNativeCodeList());
 
         for (String fileName : getAdditionalHeaderFiles()) {
             FileOps.copyResource(getAdditionalSourceFileLocation()  + fileName, workDir.resolve(fileName));
         }
-  
-        int result = processRunner.runProcess("compile-additional-sources", workDir.toFile());
-        // we need more checks (e.g. do launcher.o and thread.o exist?)
-        return result == 0;
+
+        return compileSourceFiles(workDir, compileFlags, sourceFiles);
+    }
+
+    /**
+     * Compiles each source file with its own compiler process, running up to
+     * {@link InternalProjectConfiguration#getNativeCompileJobs()} processes in parallel.
+     *
+     * A source file is skipped if its object file exists, and neither its content,
+     * nor the content of the headers in the working directory, nor the compiler
+     * flags have changed since that object file was produced.
+     *
+     * @param workDir the working directory, where sources, headers and object files are
+     * @param compileFlags the flags passed to the compiler, before the name of the source file
+     * @param sourceFiles the names of the source files, relative to the working directory
+     * @return true if all the source files were compiled successfully or were up to date
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private boolean compileSourceFiles(Path workDir, List<String> compileFlags, List<String> sourceFiles)
+            throws IOException, InterruptedException {
+        Path fingerprintsPath = paths.getCachePath().resolve("native").resolve(projectConfiguration.getAppName());
+        Fingerprint common = new Fingerprint()
+                .add("compiler", getCompiler())
+                .addAll("flags", compileFlags);
+        try (Stream<Path> files = Files.list(workDir)) {
+            for (Path header : files.filter(p -> p.getFileName().toString().matches(".*\\.(h|hpp)$"))
+                    .sorted()
+                    .collect(Collectors.toList())) {
+                common.addFile("header", header);
+            }
+        }
+        String commonValue = common.getValue();
+
+        List<Callable<Boolean>> jobs = new ArrayList<>();
+        for (String sourceFile : new LinkedHashSet<>(sourceFiles)) {
+            Path objectFile = workDir.resolve(sourceFile.replaceAll("\\..*", "." + getObjectFileExtension()));
+            Path fingerprintPath = fingerprintsPath.resolve(sourceFile + ".fingerprint");
+            Fingerprint fingerprint = new Fingerprint()
+                    .add("common", commonValue)
+                    .addFile("source", workDir.resolve(sourceFile));
+            if (Files.exists(objectFile) &&
+                    Fingerprint.read(fingerprintPath).filter(fingerprint.getValue()::equals).isPresent()) {
+                Logger.logDebug("Skipping compilation of " + sourceFile + ", it is up to date");
+                continue;
+            }
+            jobs.add(() -> {
+                Files.deleteIfExists(fingerprintPath);
+                ProcessRunner processRunner = new ProcessRunner(getCompiler());
+                processRunner.addArgs(compileFlags);
+                processRunner.addArg(sourceFile);
+                int result = processRunner.runProcess("compile-additional-sources-" + sourceFile, workDir.toFile());
+                if (result != 0 || !Files.exists(objectFile)) {
+                    Logger.logSevere("Error compiling " + sourceFile);
+                    return false;
+                }
+                fingerprint.write(fingerprintPath);
+                return true;
+            });
+        }
+        if (jobs.isEmpty()) {
+            return true;
+        }
+
+        int nJobs = Math.min(jobs.size(), projectConfiguration.getNativeCompileJobs());
+        Logger.logDebug("Compiling " + jobs.size() + " source files using " + nJobs + " parallel jobs");
+        ExecutorService executor = Executors.newFixedThreadPool(nJobs);
+        try {
+            boolean success = true;
+            for (Future<Boolean> future : executor.invokeAll(jobs)) {
+                try {
+                    success &= future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof InterruptedException) {
+                        throw (InterruptedException) cause;
+                    }
+                    throw new IOException("Error compiling additional sources", cause);
+                }
+            }
+            return success;
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     private String validateCompileRequirements() throws IOException {
@@ -435,23 +736,69 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
      * not exist. In that case, retrieve the libs from our download site.
      */
     private void ensureClibs() throws IOException {
-        Triplet target = projectConfiguration.getTargetTriplet();
+        downloadClibs();
         Path clibPath = getCLibPath();
         if (FileOps.isDirectoryEmpty(clibPath)) {
-            String url = Strings.substitute(URL_CLIBS_ZIP,
-                    Map.of("osarch", target.getOsArch(),
-                            "version", target.getClibsVersion()));
+            throw new IOException("No clibraries found for the required architecture in " + clibPath);
+        }
+        checkPlatformSpecificClibs(clibPath);
+    }
+
+    /**
+     * Downloads the C libraries during the compile step, so they are ready
+     * when linking. Errors are only logged here, as {@link #ensureClibs()}
+     * reports them when linking.
+     */
+    private void prefetchClibs() {
+        try {
+            downloadClibs();
+        } catch (IOException e) {
+            Logger.logDebug("Error downloading clibraries, retrying when linking: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Downloads the C libraries, if they are not installed yet. They are extracted
+     * into a temporary folder next to their final location, and moved into place
+     * only when complete, so a download that fails or is cancelled, like a prefetch
+     * interrupted by a failed compilation, never leaves partial C libraries behind.
+     *
+     * @throws IOException
+     */
+    private void downloadClibs() throws IOException {
+        Triplet target = projectConfiguration.getTargetTriplet();
+        Path clibPath = getCLibPath();
+        if (!FileOps.isDirectoryEmpty(clibPath)) {
+            return;
+        }
+        String url = Strings.substitute(URL_CLIBS_ZIP,
+                Map.of("osarch", target.getOsArch(),
+                        "version", target.getClibsVersion()));
+        Path tmpPath = Files.createTempDirectory(Files.createDirectories(clibPath.getParent()),
+                "." + target.getOsArch2() + "-");
+        try {
             FileOps.downloadAndUnzip(url,
-                    clibPath.getParent().getParent().getParent(),
+                    tmpPath,
                     "clibraries.zip",
                     "clibraries",
                     target.getClibsVersionPath(),
                     target.getOsArch2());
+            Path extractedPath = tmpPath.resolve("clibraries")
+                    .resolve(target.getClibsVersionPath())
+                    .resolve(target.getOsArch2());
+            try {
+                Files.deleteIfExists(clibPath);
+                Files.move(extractedPath, clibPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // installed at the same time by another build
+                if (FileOps.isDirectoryEmpty(clibPath)) {
+                    throw e;
+                }
+            }
+            Logger.logDebug("C libraries installed into " + clibPath);
+        } finally {
+            FileOps.deleteDirectory(tmpPath);
         }
-        if (FileOps.isDirectoryEmpty(clibPath)) {
-            throw new IOException("No clibraries found for the required architecture in " + clibPath);
-        }
-        checkPlatformSpecificClibs(clibPath);
     }
 
     /**
@@ -515,13 +862,50 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         return args;
     }
 
-    private String createTempDirectoryArg() throws IOException {
-        Path tmpPath = paths.getTmpPath();
-        FileOps.rmdir(tmpPath);
-        String tmpDir = tmpPath.toFile().getAbsolutePath();
+    private String createTempDirectoryArg() {
+        String tmpDir = paths.getTmpPath().toFile().getAbsolutePath();
         return "-H:TempDirectory=" + tmpDir;
     }
 
+    /**
+     * Checks if the object file of the last successful compile, which
+     * native-image writes into its temporary folder, can be reused
+     *
+     * @param fingerprintPath the path of the fingerprint of the last successful compile
+     * @param fingerprint the fingerprint of the inputs of the current compile
+     * @param gvmPath the path of the folder with the temporary folder of native-image
+     * @param objectFileName the name of the object file
+     * @return true if the inputs haven't changed and the object file exists
+     * @throws IOException
+     */
+    static boolean isCompileUpToDate(Path fingerprintPath, Fingerprint fingerprint, Path gvmPath,
+                                     String objectFileName) throws IOException {
+        return Fingerprint.read(fingerprintPath).filter(fingerprint.getValue()::equals).isPresent() &&
+                FileOps.findFile(gvmPath, objectFileName).isPresent();
+    }
+
+    /**
+     * Removes the folders that previous runs of native-image created in the
+     * given temporary folder, so only the files of the next run are found there
+     *
+     * @param tmpPath the temporary folder of native-image
+     * @throws IOException
+     */
+    static void cleanNativeImageTempDirectories(Path tmpPath) throws IOException {
+        if (!Files.isDirectory(tmpPath)) {
+            return;
+        }
+        List<Path> previous;
+        try (Stream<Path> list = Files.list(tmpPath)) {
+            previous = list.filter(p -> Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS) &&
+                            p.getFileName().toString().startsWith(NATIVE_IMAGE_TEMP_PREFIX))
+                    .collect(Collectors.toList());
+        }
+        for (Path dir : previous) {
+            FileOps.rmdir(dir);
+        }
+    }
+
     private List<String> getReflectionClassList(String suffix, boolean useJavaFX, boolean usePrismSW) {
         List<String> answer = new LinkedList<>();
         answer.add(Constants.REFLECTION_JAVA_FILE);
@@ -540,28 +924,32 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         return answer;
     }
 
-    private List<String> getBundlesList(String processedClasspath) throws IOException, InterruptedException {
+    private List<String> getBundlesList(ConfigResolver configResolver) throws IOException {
         List<String> list = new ArrayList<>(projectConfiguration.getBundlesList());
         String suffix = projectConfiguration.getTargetTriplet().getArchOs();
-        ConfigResolver configResolver = new ConfigResolver(processedClasspath);
         list.addAll(configResolver.getResourceBundlesList(suffix));
         return list;
     }
 
-    private List<String> getConfigurationFileArgs(String processedClasspath) throws IOException, InterruptedException {
+    private List<String> getConfigurationFileArgs(ConfigResolver configResolver, ClassPathIndex classPathIndex,
+                                                  String processedClasspath) throws IOException {
         List<String> arguments = new ArrayList<>();
 
         String suffix = projectConfiguration.getTargetTriplet().getArchOs();
-        ConfigResolver configResolver = new ConfigResolver(processedClasspath);
 
         List<String> buildTimeList = getInitializeAtBuildTimeList(suffix, configResolver);
         if (!buildTimeList.isEmpty()) {
             arguments.add("--initialize-at-build-time=" + String.join(",", buildTimeList));
         }
 
-        arguments.add("-H:ReflectionConfigurationFiles=" + createReflectionConfig(suffix, configResolver));
-        arguments.add("-H:JNIConfigurationFiles=" + createJNIConfig(suffix, configResolver));
-        arguments.add("-H:ResourceConfigurationFiles=" + createResourceConfig(suffix, configResolver));
+        try (BuildMetrics.Phase phase = BuildMetrics.start("reflectionConfig")) {
+            arguments.add("-H:ReflectionConfigurationFiles=" + createReflectionConfig(suffix, configResolver, processedClasspath, phase));
+        }
+        arguments.add("-H:JNIConfigurationFiles=" + BuildMetrics.measure("jniConfig",
+                () -> createJNIConfig(suffix, configResolver)));
+        try (BuildMetrics.Phase phase = BuildMetrics.start("resourceConfig")) {
+            arguments.add("-H:ResourceConfigurationFiles=" + createResourceConfig(suffix, configResolver, classPathIndex, processedClasspath, phase));
+        }
 
         return arguments;
     }
@@ -578,85 +966,99 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         return list;
     }
 
-    private Path createReflectionConfig(String suffix, ConfigResolver configResolver) throws IOException {
+    private Path createReflectionConfig(String suffix, ConfigResolver configResolver, String processedClasspath,
+                                        BuildMetrics.Phase phase) throws IOException {
         Path gvmPath = paths.getGvmPath();
         Path reflectionPath = gvmPath.resolve(
                 Strings.substitute(Constants.REFLECTION_ARCH_FILE, Map.of("archOs", suffix)));
-        Files.deleteIfExists(reflectionPath);
-        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reflectionPath.toFile())))) {
-            bw.write("[\n");
-            writeSingleEntry(bw, projectConfiguration.getMainClassName(), false);
-            for (String javaFile : getReflectionClassList(suffix, projectConfiguration.isUseJavaFX(), projectConfiguration.isUsePrismSW())) {
-                InputStream inputStream = AbstractTargetConfiguration.class.getResourceAsStream(Constants.CONFIG_FILES + javaFile);
-                if (inputStream != null) {
-                    bw.write(",\n");
-                    List<String> lines = FileOps.readFileLines(inputStream,
-                            line -> !line.startsWith("[") && !line.startsWith("]"));
-                    for (String line : lines) {
-                        bw.write(line + "\n");
-                    }
-                }
-            }
-
-            for (String line : configResolver.getUserReflectionList(suffix)) {
-                bw.write(line + "\n");
-            }
-
+        ClassConfig config = new ClassConfig();
+        config.addClass(projectConfiguration.getMainClassName(), true);
+        for (String javaFile : getReflectionClassList(suffix, projectConfiguration.isUseJavaFX(), projectConfiguration.isUsePrismSW())) {
+            addConfigResource(config, javaFile);
+        }
+        configResolver.addUserReflectionConfig(config, suffix);
+        if (projectConfiguration.isReflectionTrimming()) {
+            ReflectionTrimmer trimmer = new ReflectionTrimmer(processedClasspath);
+            trimmer.addClasses(config, projectConfiguration.getReflectionList());
+            Logger.logInfo("Reflection trimming: " + trimmer.getDroppedMembers() + " members dropped from " +
+                    trimmer.getTrimmedClasses() + " classes, " + trimmer.getFullClasses() +
+                    " classes registered with all their members");
+            phase.setValue("trimmedClasses", trimmer.getTrimmedClasses());
+            phase.setValue("droppedMembers", trimmer.getDroppedMembers());
+        } else {
             for (String javaClass : projectConfiguration.getReflectionList()) {
-                writeEntry(bw, javaClass);
+                config.addClass(javaClass, true);
             }
-            bw.write("]");
         }
+        Files.deleteIfExists(reflectionPath);
+        config.write(reflectionPath);
         return reflectionPath;
     }
 
     private Path createJNIConfig(String suffix, ConfigResolver configResolver) throws IOException {
         Path gvmPath = paths.getGvmPath();
         Path jniPath = gvmPath.resolve(Strings.substitute(Constants.JNI_ARCH_FILE, Map.of("archOs", suffix)));
+        ClassConfig config = new ClassConfig();
+        config.addClass(projectConfiguration.getMainClassName(), false);
+        for (String javaFile : getJNIClassList(suffix, projectConfiguration.isUseJavaFX(), projectConfiguration.isUsePrismSW())) {
+            addConfigResource(config, javaFile);
+        }
+        configResolver.addUserJNIConfig(config, suffix);
+        for (String javaClass : projectConfiguration.getJniList()) {
+            config.addClass(javaClass, true);
+        }
         Files.deleteIfExists(jniPath);
-        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(jniPath.toFile())))) {
-            bw.write("[\n");
-            bw.write("  {\n    \"name\" : \"" + projectConfiguration.getMainClassName() + "\"\n  }\n");
-            for (String javaFile : getJNIClassList(suffix, projectConfiguration.isUseJavaFX(), projectConfiguration.isUsePrismSW())) {
-                InputStream inputStream = AbstractTargetConfiguration.class.getResourceAsStream(Constants.CONFIG_FILES + javaFile);
-                if (inputStream != null) {
-                    bw.write(",\n");
-                    List<String> lines = FileOps.readFileLines(inputStream,
-                            line -> !line.startsWith("[") && !line.startsWith("]"));
-                    for (String line : lines) {
-                        bw.write(line + "\n");
-                    }
-                }
-            }
-
-            for (String line : configResolver.getUserJNIList(suffix)) {
-                bw.write(line + "\n");
-            }
+        config.write(jniPath);
+        return jniPath;
+    }
 
-            for (String javaClass : projectConfiguration.getJniList()) {
-                writeEntry(bw, javaClass);
+    private static void addConfigResource(ClassConfig config, String javaFile) throws IOException {
+        try (InputStream inputStream = AbstractTargetConfiguration.class.getResourceAsStream(Constants.CONFIG_FILES + javaFile)) {
+            if (inputStream != null) {
+                config.add(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8), javaFile);
             }
-            bw.write("]");
         }
-        return jniPath;
     }
 
-    private Path createResourceConfig(String suffix, ConfigResolver configResolver) throws IOException {
+    private Path createResourceConfig(String suffix, ConfigResolver configResolver, ClassPathIndex classPathIndex,
+                                      String processedClasspath, BuildMetrics.Phase phase) throws IOException {
         Path gvmPath = paths.getGvmPath();
         Path resourcePath = gvmPath.resolve(
                 Strings.substitute(Constants.RESOURCE_ARCH_FILE, Map.of("archOs", suffix)));
+        List<String> patterns = new ArrayList<>();
+        if (projectConfiguration.isResourceScanning()) {
+            ResourceSelector selector = new ResourceSelector(classPathIndex, RESOURCES_BY_EXTENSION);
+            selector.setJavaHome(projectConfiguration.getGraalPath());
+            long sizeThreshold = projectConfiguration.getResourceSizeThreshold();
+            if (sizeThreshold >= 0) {
+                selector.setUsageThreshold(sizeThreshold, processedClasspath);
+            }
+            for (String pattern : selector.getPatterns()) {
+                String quoted = Json.quote(pattern);
+                patterns.add(quoted.substring(1, quoted.length() - 1));
+            }
+            Logger.logInfo("Resources: " + selector.getIncludedResources() + " included (" +
+                    selector.getIncludedBytes() / 1024 + " kB), " + selector.getExcludedResources() +
+                    " unreferenced left out, saving " + selector.getExcludedBytes() / 1024 + " kB");
+            phase.setValue("includedResourceBytes", selector.getIncludedBytes());
+            phase.setValue("excludedResourceBytes", selector.getExcludedBytes());
+        } else {
+            for (String extension : RESOURCES_BY_EXTENSION) {
+                patterns.add(".*\\\\." + extension + "$");
+            }
+        }
         Files.deleteIfExists(resourcePath);
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resourcePath.toFile())))) {
             bw.write("{\n");
             bw.write("  \"resources\": [\n");
             boolean patternHasBeenWritten = false;
-            for (String extension : RESOURCES_BY_EXTENSION) {
+            for (String pattern : patterns) {
                 if (patternHasBeenWritten) {
                     bw.write(",\n");
                 } else {
                     patternHasBeenWritten = true;
                 }
-                writePatternEntry(bw, ".*\\\\." + extension + "$");
+                writePatternEntry(bw, pattern);
             }
             for (String configurationResource : projectConfiguration.getResourcesList()) {
                 if (patternHasBeenWritten) {
@@ -685,32 +1087,6 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         return resourcePath;
     }
 
-    private static void writeEntry(BufferedWriter bw, String javaClass) throws IOException {
-        writeEntry(bw, javaClass, false);
-    }
-
-    private static void writeEntry(BufferedWriter bw, String javaClass, boolean exclude) throws IOException {
-        bw.write(",\n");
-        writeSingleEntry(bw, javaClass, exclude);
-    }
-
-    private static void writeSingleEntry(BufferedWriter bw, String javaClass, boolean exclude) throws IOException {
-        bw.write("  {\n");
-        bw.write("    \"name\" : \"" + javaClass + "\"");
-        if (!exclude) {
-            bw.write(",\n");
-            bw.write("    \"allDeclaredConstructors\" : true,\n");
-            bw.write("    \"allPublicConstructors\" : true,\n");
-            bw.write("    \"allDeclaredFields\" : true,\n");
-            bw.write("    \"allPublicFields\" : true,\n");
-            bw.write("    \"allDeclaredMethods\" : true,\n");
-            bw.write("    \"allPublicMethods\" : true\n");
-        } else {
-            bw.write("\n");
-        }
-        bw.write("  }\n");
-    }
-
     private static void writePatternEntry(BufferedWriter bw, String pattern) throws IOException {
         bw.write("    {\"pattern\": \"" + pattern + "\"}");
     }
@@ -720,21 +1096,27 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
      * if it contains native static libraries (*.a or *.lib files). If found, the
      * libraries are extracted into a temporary folder for use in the link step.
      *
-     * @param classPath The classpath of the project
+     * Only the jars that, according to the classpath index, contain such
+     * libraries are opened.
+     *
+     * @param classPathIndex The index of the classpath of the project
      * @throws IOException
      */
-    private void extractNativeLibs(String classPath) throws IOException {
+    private void extractNativeLibs(ClassPathIndex classPathIndex) throws IOException {
         Path libPath = paths.getGvmPath().resolve(Constants.LIB_PATH);
         if (Files.exists(libPath)) {
             FileOps.deleteDirectory(libPath);
         }
         Logger.logDebug("Extracting native libs to: " + libPath);
 
-        List<String> jars = new ClassPath(classPath).filter(s -> s.endsWith(".jar") && !s.contains("javafx-"));
-        for (String jar : jars) {
+        String extension = "." + getStaticLibraryFileExtension();
+        List<File> jars = classPathIndex.getJarsWithStaticLibraries(extension).stream()
+                .filter(jar -> !jar.getPath().contains("javafx-"))
+                .collect(Collectors.toList());
+        Predicate<Path> filter = getTargetSpecificNativeLibsFilter();
+        for (File jar : jars) {
             Logger.logDebug("Extracting native libs from jar: " + jar);
-            FileOps.extractFilesFromJar("." + getStaticLibraryFileExtension(), Path.of(jar),
-                    libPath, getTargetSpecificNativeLibsFilter());
+            FileOps.extractFilesFromJar(extension, jar.toPath(), libPath, filter);
         }
     }
 
@@ -771,7 +1153,7 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
             Path gvmPath = paths.getGvmPath();
 
             // we will print the output of the process only if we don't have the resulting objectfile
-            String nameSearch = projectConfiguration.getMainClassName().toLowerCase(Locale.ROOT) + "." + getObjectFileExtension();
+            String nameSearch = getProjectObjectFileName();
             if (FileOps.findFile(gvmPath, nameSearch).isEmpty()) {
                 Logger.logInfo("Additional information: Objectfile should be called " + nameSearch + " but we didn't find that under " + gvmPath.toString());
                 return false;
@@ -781,6 +1163,52 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         return success;
     }
 
+    /**
+     * Computes the fingerprint of the inputs of the native-image compilation:
+     * the target triplet, the GraalVM version, the full list of arguments,
+     * the content of the configuration files passed to native-image, and
+     * the content of every element of the classpath.
+     *
+     * @param cmdList the list of arguments of the native-image process
+     * @param classpath the classpath used by native-image, before creating the pathing jar
+     * @return the fingerprint of the compile step
+     * @throws IOException
+     */
+    private Fingerprint getCompileFingerprint(List<String> cmdList, String classpath) throws IOException {
+        Fingerprint fingerprint = new Fingerprint()
+                .add("triplet", projectConfiguration.getTargetTriplet().toString())
+                .add("graalvm", projectConfiguration.getGraalVersion() + " " + projectConfiguration.getJavaVersion())
+                .addFile("graalvm.release", projectConfiguration.getGraalPath().resolve("release"))
+                .addAll("args", cmdList);
+        for (String arg : cmdList) {
+            if (arg.startsWith("-H:") && arg.contains("ConfigurationFiles=")) {
+                for (String file : arg.substring(arg.indexOf('=') + 1).split(",")) {
+                    fingerprint.addFile("config", Path.of(file));
+                }
+            }
+        }
+        for (String element : new ClassPath(classpath).filter(s -> !s.isEmpty())) {
+            fingerprint.addFile("classpath", Path.of(element));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the index of the jars found in the given classpath. The index is
+     * created only once for a given classpath, and then it is reused by the
+     * different steps, and by the builds of other targets that share the
+     * {@link SharedBuildInputs} of this project.
+     *
+     * @param classpath a string with the classpath
+     * @return the index of the classpath
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    ClassPathIndex getClassPathIndex(String classpath) throws IOException, InterruptedException {
+        return projectConfiguration.getSharedBuildInputs()
+                .getClassPathIndex(classpath, paths.getCachePath().resolve("jars"));
+    }
+
     /**
      * If we are not using JavaFX, we immediately return the provided classpath: no further processing
      * is needed. If we do use JavaFX, we will first {@link FileDeps#getJavaFXSDKLibsPath obtain
@@ -1024,6 +1452,20 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
         return null;
     }
 
+    /**
+     * Creates a filter that accepts the native libraries built for the target
+     * architecture, reading their headers in-process. The verdicts are cached,
+     * see {@link ArchitectureFilter}.
+     *
+     * @param fallback a predicate that checks the files that can't be
+     *                 classified, usually with an external tool
+     * @return a thread-safe predicate
+     */
+    Predicate<Path> getArchitectureFilter(Predicate<Path> fallback) {
+        return new ArchitectureFilter(projectConfiguration.getTargetTriplet().getArch(),
+                paths.getCachePath().resolve("archs"), fallback);
+    }
+
     /**
      * It generates the link flags for a given list of native libraries,
      * at a given location
@@ -1089,11 +1531,15 @@ public abstract class AbstractTargetConfiguration implements TargetConfiguration
      */
     final Path getProjectObjectFile() throws IOException {
         Path gvmPath = paths.getGvmPath();
-        String objectFilename = projectConfiguration.getMainClassName().toLowerCase(Locale.ROOT) + "." + getObjectFileExtension();
+        String objectFilename = getProjectObjectFileName();
         Path objectFile = FileOps.findFile(gvmPath, objectFilename).orElseThrow(()
                 -> new IllegalArgumentException(
                         "Linking failed, since there is no objectfile named " + objectFilename + " under " + gvmPath.toString())
         );
         return objectFile;
     }
+
+    private String getProjectObjectFileName() {
+        return projectConfiguration.getMainClassName().toLowerCase(Locale.ROOT) + "." + getObjectFileExtension();
+    }
 }
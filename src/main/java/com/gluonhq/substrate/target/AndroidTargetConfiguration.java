@@ -29,7 +29,9 @@ package com.gluonhq.substrate.target;
 
 import com.gluonhq.substrate.Constants;
 import com.gluonhq.substrate.config.AndroidResolver;
+import com.gluonhq.substrate.config.ClassPathIndex;
 import com.gluonhq.substrate.model.ClassPath;
+import com.gluonhq.substrate.model.ClassPathEntry;
 import com.gluonhq.substrate.model.InternalProjectConfiguration;
 import com.gluonhq.substrate.model.ProcessPaths;
 import com.gluonhq.substrate.model.ReleaseConfiguration;
@@ -37,6 +39,7 @@ import com.gluonhq.substrate.model.Triplet;
 import com.gluonhq.substrate.util.FileOps;
 import com.gluonhq.substrate.util.Logger;
 import com.gluonhq.substrate.util.ProcessRunner;
+import com.gluonhq.substrate.util.TaskGraph;
 
 import java.io.File;
 import java.io.IOException;
@@ -47,15 +50,14 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import static com.gluonhq.substrate.Constants.ANDROID_NATIVE_FOLDER;
 import static com.gluonhq.substrate.Constants.ANDROID_PROJECT_NAME;
@@ -142,15 +144,47 @@ public class AndroidTargetConfiguration extends PosixTargetConfiguration {
 
     @Override
     public boolean packageApp() throws IOException, InterruptedException {
-        prepareAndroidProject();
-        prepareAndroidFiles();
-        prepareAndroidResources();
-        copyAarLibraries();
-        copyOtherDalvikClasses();
-        copySubstrateLibraries();
-        String configuration = generateSigningConfiguration();
+        // the project files are prepared in parallel, while the
+        // Android SDK packages are checked
+        AtomicReference<String> signingConfiguration = new AtomicReference<>();
+        TaskGraph graph = new TaskGraph("package");
+        graph.add("androidPackages", () -> {
+            fileDeps.checkAndroidPackages(sdk);
+            return true;
+        });
+        graph.add("androidProject", () -> {
+            prepareAndroidProject();
+            return true;
+        });
+        graph.add("androidFiles", () -> {
+            prepareAndroidFiles();
+            return true;
+        }, "androidProject");
+        graph.add("androidResources", () -> {
+            prepareAndroidResources();
+            return true;
+        }, "androidProject");
+        graph.add("aarLibraries", () -> {
+            copyAarLibraries();
+            return true;
+        }, "androidProject");
+        graph.add("dalvikClasses", () -> {
+            copyOtherDalvikClasses();
+            return true;
+        }, "androidProject");
+        graph.add("substrateLibraries", () -> {
+            copySubstrateLibraries();
+            return true;
+        }, "androidProject");
+        graph.add("signingConfiguration", () -> {
+            signingConfiguration.set(generateSigningConfiguration());
+            return true;
+        }, "androidProject");
+        if (!graph.run()) {
+            return false;
+        }
+        String configuration = signingConfiguration.get();
 
-        fileDeps.checkAndroidPackages(sdk);
         // create apk for installing on device
         ProcessRunner assembleRunner = new ProcessRunner(
                             getAndroidProjectPath().resolve("gradlew").toString(),
@@ -321,16 +355,20 @@ public class AndroidTargetConfiguration extends PosixTargetConfiguration {
 
     @Override
     Predicate<Path> getTargetSpecificNativeLibsFilter() {
-        return this::checkFileArchitecture;
+        return getArchitectureFilter(this::checkFileArchitecture);
     }
 
     private boolean checkFileArchitecture(Path path) {
         try {
             ProcessRunner pr = new ProcessRunner(objdump.toString(), "-f", path.toString());
             pr.showSevereMessage(false);
+            // archives print one header per member, so match while reading instead of keeping all the output
+            String architecture = "architecture: " + projectConfiguration.getTargetTriplet().getArch();
+            AtomicBoolean matches = new AtomicBoolean();
+            pr.addLineListener(line -> line.contains(architecture), line -> matches.set(true));
             int op = pr.runProcess("objdump");
             if (op == 0) {
-                return pr.getResponses().stream().anyMatch(line -> line.contains("architecture: " + projectConfiguration.getTargetTriplet().getArch()));
+                return matches.get();
             }
         } catch (IOException | InterruptedException e) {
             Logger.logSevere("Unrecoverable error checking file " + path + ": " + e);
@@ -409,23 +447,12 @@ public class AndroidTargetConfiguration extends PosixTargetConfiguration {
         }
 
         Logger.logDebug("Scanning for dalvik classes");
-        final List<File> jars = new ClassPath(projectConfiguration.getClasspath()).getJars(true);
         String prefix = META_INF_SUBSTRATE_DALVIK + DALVIK_PRECOMPILED_CLASSES;
-        for (File jar : jars) {
-            try (ZipFile zip = new ZipFile(jar)) {
-                Logger.logDebug("Scanning " + jar);
-                for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
-                    ZipEntry zipEntry = e.nextElement();
-                    String name = zipEntry.getName();
-                    if (!zipEntry.isDirectory() && name.startsWith(prefix)) {
-                        Path classPath = targetFolder.resolve(name.substring(prefix.length()));
-                        Logger.logDebug("Adding classes from " + zip.getName() + " :: " + name + " into " + classPath);
-                        FileOps.copyStream(zip.getInputStream(zipEntry), classPath);
-                    }
-                }
-            } catch (IOException e) {
-                throw new IOException("Error processing dalvik classes from jar: " + jar + ": " + e.getMessage() + ", " + Arrays.toString(e.getSuppressed()));
-            }
+        for (ClassPathIndex.Entry entry : getClassPathIndex(projectConfiguration.getClasspath()).getEntriesWithPrefix(prefix)) {
+            String name = entry.getName();
+            Path classPath = targetFolder.resolve(name.substring(prefix.length()));
+            Logger.logDebug("Adding classes from " + entry.getJar() + " :: " + name + " into " + classPath);
+            FileOps.copyStream(entry.getInputStream(), classPath);
         }
         ProcessRunner createJar = new ProcessRunner(
                 projectConfiguration.getGraalPath().resolve("bin").resolve("jar").toString(),
@@ -644,7 +671,7 @@ public class AndroidTargetConfiguration extends PosixTargetConfiguration {
     private List<String> requiredPermissions() {
         final AndroidResolver androidResolver;
         try {
-            androidResolver = new AndroidResolver(projectConfiguration.getClasspath());
+            androidResolver = new AndroidResolver(getClassPathIndex(projectConfiguration.getClasspath()));
             final Set<String> androidPermissions = androidResolver.getAndroidPermissions();
             return androidPermissions.stream()
                     .map(permission -> "<uses-permission android:name=\"" + permission + "\"/>")
@@ -663,7 +690,7 @@ public class AndroidTargetConfiguration extends PosixTargetConfiguration {
     private List<String> requiredDependencies() {
         final AndroidResolver androidResolver;
         try {
-            androidResolver = new AndroidResolver(projectConfiguration.getClasspath());
+            androidResolver = new AndroidResolver(getClassPathIndex(projectConfiguration.getClasspath()));
             final Set<String> androidDependencies = androidResolver.getAndroidDependencies();
             return androidDependencies.stream()
                     .sorted()
@@ -676,13 +703,23 @@ public class AndroidTargetConfiguration extends PosixTargetConfiguration {
 
     /**
      * Scans the classpath for Attach Services
-     * and extracts all aar libraries found
+     * and extracts all aar libraries found.
+     * The project classes and resources are scanned in place.
      */
     private void copyAarLibraries() throws IOException, InterruptedException {
         Path libPath = getAndroidProjectPath().resolve("libs");
-        final List<File> jars = new ClassPath(projectConfiguration.getClasspath()).getJars(true);
-        for (File jar : jars) {
-            FileOps.extractFilesFromJar(".aar", jar.toPath(), libPath, null);
+        for (ClassPathEntry entry : new ClassPath(projectConfiguration.getClasspath()).getEntries(true)) {
+            if (!entry.isDirectory()) {
+                FileOps.extractFilesFromJar(".aar", entry.getFile().toPath(), libPath, null);
+            } else if (entry.exists()) {
+                entry.visit((name, content) -> {
+                    Path aarPath = libPath.resolve(Path.of(name).getFileName().toString());
+                    if (name.endsWith(".aar") && !Files.exists(aarPath)) {
+                        Logger.logDebug("Copying " + name + " from " + entry);
+                        FileOps.copyStream(content.open(), aarPath);
+                    }
+                });
+            }
         }
     }
 
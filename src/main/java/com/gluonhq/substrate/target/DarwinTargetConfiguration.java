@@ -55,7 +55,7 @@ abstract class DarwinTargetConfiguration extends PosixTargetConfiguration {
 
     @Override
     Predicate<Path> getTargetSpecificNativeLibsFilter() {
-        return this::checkFileArchitecture;
+        return getArchitectureFilter(this::checkFileArchitecture);
     }
 
     private boolean checkFileArchitecture(Path path) {
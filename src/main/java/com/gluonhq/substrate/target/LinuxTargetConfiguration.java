@@ -39,16 +39,21 @@ import com.gluonhq.substrate.util.VersionParser;
 import com.gluonhq.substrate.util.linux.LinuxLinkerFlags;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -58,6 +63,10 @@ public class LinuxTargetConfiguration extends PosixTargetConfiguration {
     private static final Version COMPILER_MINIMAL_VERSION = new Version(6);
     private static final Version LINKER_MINIMAL_VERSION = new Version(2, 26);
 
+    // the first line of the version output of each tool, keyed by the resolved binary and its
+    // modification time, so an upgraded toolchain is checked again by a long-lived process
+    private static final Map<String, Optional<String>> TOOL_VERSIONS = new ConcurrentHashMap<>();
+
     private static final List<String> linuxLibs = Arrays.asList("z", "dl", "stdc++", "pthread");
 
     private static final List<Lib> staticJavaLibs = List.of(
@@ -308,10 +317,11 @@ public class LinuxTargetConfiguration extends PosixTargetConfiguration {
             if (projectConfiguration.hasWeb()) {
                 answer.addAll(linuxfxWeblibs);
             }
+            Path pkgConfigCache = paths.getCachePath().resolve("pkg-config");
             if (!crossCompile) {
-                answer.addAll(LinuxLinkerFlags.getMediaLinkerFlags());
+                answer.addAll(LinuxLinkerFlags.getMediaLinkerFlags(pkgConfigCache));
             }
-            answer.addAll(LinuxLinkerFlags.getLinkerFlags());
+            answer.addAll(LinuxLinkerFlags.getLinkerFlags(pkgConfigCache));
             if (usePrismSW || crossCompile) {
                 answer.addAll(linuxfxSWlibs);
             }
@@ -422,6 +432,45 @@ public class LinuxTargetConfiguration extends PosixTargetConfiguration {
     }
 
     private String getFirstLineFromProcess(String... command) throws InterruptedException, IOException {
+        Optional<Path> tool = resolveTool(command[0]);
+        if (tool.isEmpty()) {
+            return runFirstLineFromProcess(command);
+        }
+        String key = tool.get() + ":" + Files.getLastModifiedTime(tool.get()).toMillis() + " " +
+                String.join(" ", Arrays.asList(command).subList(1, command.length));
+        Optional<String> cached = TOOL_VERSIONS.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(runFirstLineFromProcess(command));
+            TOOL_VERSIONS.put(key, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * Resolves a tool, given by its path or by its name on the PATH, to its
+     * real path, following the links of alternatives like /usr/bin/gcc
+     */
+    private static Optional<Path> resolveTool(String name) {
+        try {
+            if (name.contains(File.separator)) {
+                return Optional.of(Path.of(name).toRealPath());
+            }
+            String path = System.getenv("PATH");
+            if (path != null) {
+                for (String dir : path.split(File.pathSeparator)) {
+                    Path candidate = Path.of(dir.isEmpty() ? "." : dir, name);
+                    if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                        return Optional.of(candidate.toRealPath());
+                    }
+                }
+            }
+        } catch (IOException | InvalidPathException e) {
+            Logger.logDebug("Error resolving " + name + ": " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private static String runFirstLineFromProcess(String... command) throws InterruptedException, IOException {
         ProcessBuilder compiler = new ProcessBuilder(command);
         compiler.redirectErrorStream(true);
 
@@ -452,7 +501,7 @@ public class LinuxTargetConfiguration extends PosixTargetConfiguration {
 
     @Override
     Predicate<Path> getTargetSpecificNativeLibsFilter() {
-        return this::checkFileArchitecture;
+        return getArchitectureFilter(this::checkFileArchitecture);
     }
 
     private boolean checkFileArchitecture(Path path) {
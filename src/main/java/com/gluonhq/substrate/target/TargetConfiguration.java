@@ -27,7 +27,10 @@
  */
 package com.gluonhq.substrate.target;
 
+import com.gluonhq.substrate.util.NativeImageReport;
+
 import java.io.IOException;
+import java.util.Optional;
 
 public interface TargetConfiguration {
 
@@ -39,6 +42,16 @@ public interface TargetConfiguration {
      */
     boolean compile() throws Exception;
 
+    /**
+     * Returns the statistics printed by native-image during the last
+     * compilation, like the duration of its phases or its peak memory.
+     *
+     * @return an optional with the report, or empty if it is not available
+     */
+    default Optional<NativeImageReport> getNativeImageReport() {
+        return Optional.empty();
+    }
+
     /**
     * Links a previously created objectfile with the required
     * dependencies into a native executable or library
@@ -28,6 +28,7 @@
 package com.gluonhq.substrate.target;
 
 import com.gluonhq.substrate.Constants;
+import com.gluonhq.substrate.config.ClassPathIndex;
 import com.gluonhq.substrate.model.ClassPath;
 import com.gluonhq.substrate.model.InternalProjectConfiguration;
 import com.gluonhq.substrate.model.ProcessPaths;
@@ -41,15 +42,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_WEB;
 import static com.gluonhq.substrate.Constants.WEB_INDEX_HTML;
@@ -79,6 +76,7 @@ public class WebTargetConfiguration extends AbstractTargetConfiguration {
 
     @Override
     public boolean compile() throws IOException, InterruptedException {
+        final ClassPathIndex classPathIndex = getClassPathIndex(projectConfiguration.getClasspath());
         final List<File> jars = new ClassPath(projectConfiguration.getClasspath()).getJars(true);
 
         Path webPath = paths.getGvmPath().resolve("web");
@@ -105,20 +103,12 @@ public class WebTargetConfiguration extends AbstractTargetConfiguration {
             Files.createDirectory(tmpPath);
         }
         for (String s : webFiles) {
-            for (File jar : jars) {
-                try (ZipFile zip = new ZipFile(jar)) {
-                    Logger.logDebug("Scanning " + jar);
-                    for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
-                        ZipEntry zipEntry = e.nextElement();
-                        String name = zipEntry.getName();
-                        if (!zipEntry.isDirectory() && name.equals(META_INF_SUBSTRATE_WEB + s)) {
-                            Logger.logDebug("Adding file from " + zip.getName() + " :: " + name + " into " + tmpPath.resolve(s));
-                            FileOps.copyStream(zip.getInputStream(zipEntry), tmpPath.resolve(s));
-                        }
-                    }
-                } catch (IOException e) {
-                    throw new IOException("Error processing web files from jar: " + jar + ": " + e.getMessage() + ", " + Arrays.toString(e.getSuppressed()));
+            for (ClassPathIndex.Entry entry : classPathIndex.getEntries(META_INF_SUBSTRATE_WEB + s)) {
+                if (!jars.contains(entry.getJar())) {
+                    continue;
                 }
+                Logger.logDebug("Adding file from " + entry.getJar() + " :: " + entry.getName() + " into " + tmpPath.resolve(s));
+                FileOps.copyStream(entry.getInputStream(), tmpPath.resolve(s));
             }
         }
 
@@ -205,6 +195,17 @@ public class WebTargetConfiguration extends AbstractTargetConfiguration {
                 }
             }
 
+            @Override
+            protected int parallelism() {
+                return projectConfiguration.getNativeCompileJobs();
+            }
+
+            @Override
+            protected File fingerprintPath(File js) {
+                return paths.getCachePath().resolve("web").resolve(projectConfiguration.getAppName())
+                        .resolve(js.getParentFile().getName()).resolve(js.getName() + ".fingerprint").toFile();
+            }
+
             @Override
             protected Exception failure(String msg, Throwable cause) {
                 if (cause != null) {
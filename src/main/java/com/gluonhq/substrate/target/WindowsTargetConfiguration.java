@@ -34,6 +34,7 @@ import com.gluonhq.substrate.util.FileOps;
 import com.gluonhq.substrate.util.Lib;
 import com.gluonhq.substrate.util.Logger;
 import com.gluonhq.substrate.util.ProcessRunner;
+import com.gluonhq.substrate.util.TaskGraph;
 import com.gluonhq.substrate.util.windows.MSIBundler;
 
 import java.io.IOException;
@@ -231,9 +232,16 @@ public class WindowsTargetConfiguration extends AbstractTargetConfiguration {
         return linkFlags;
     }
 
+    @Override
+    void addLinkTasks(TaskGraph graph) {
+        graph.add("iconResource", () -> {
+            createIconResource();
+            return true;
+        });
+    }
+
     @Override
     public boolean link() throws IOException, InterruptedException {
-        createIconResource();
         if (super.link()) {
             clearExplorerCache();
             return true;
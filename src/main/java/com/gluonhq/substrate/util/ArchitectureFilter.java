@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A filter that accepts native libraries built for a given architecture.
+ *
+ * The architectures are read in-process with {@link ArchitectureReader}. Only
+ * the files it can't classify are passed to a fallback predicate, that
+ * usually runs an external tool. The verdicts are cached in memory by the path,
+ * size and last modified time of the files, so reading them again is avoided.
+ * The verdicts of the fallback are also cached by the SHA-256 digest of the
+ * files, on disk if a cache directory is given, so the external tool only
+ * checks the same library once, even if it is extracted again by a later build.
+ *
+ * The filter is thread-safe, so it can be applied to several files in parallel.
+ */
+public class ArchitectureFilter implements Predicate<Path> {
+
+    private final String arch;
+    private final Path cacheDir;
+    private final Predicate<Path> fallback;
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a filter for a given architecture
+     *
+     * @param arch the target architecture, like x86_64, aarch64 or arm64
+     * @param cacheDir the directory where the verdicts are stored, or null to keep them only in memory
+     * @param fallback the predicate that checks the files that can't be classified
+     */
+    public ArchitectureFilter(String arch, Path cacheDir, Predicate<Path> fallback) {
+        this.arch = ArchitectureReader.normalize(Objects.requireNonNull(arch));
+        this.cacheDir = cacheDir;
+        this.fallback = Objects.requireNonNull(fallback);
+    }
+
+    @Override
+    public boolean test(Path file) {
+        String stamp;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            stamp = file.toAbsolutePath() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            Logger.logDebug("Error reading " + file + ": " + e.getMessage());
+            return false;
+        }
+        Boolean verdict = verdicts.get(stamp);
+        if (verdict == null) {
+            // not computed inside the map, so slow checks of other files aren't blocked
+            verdict = check(file);
+            verdicts.putIfAbsent(stamp, verdict);
+        }
+        return verdict;
+    }
+
+    private boolean check(Path file) {
+        Optional<Set<String>> architectures;
+        try {
+            architectures = ArchitectureReader.read(file);
+        } catch (IOException e) {
+            Logger.logDebug("Error reading architectures of " + file + ": " + e.getMessage());
+            architectures = Optional.empty();
+        }
+        if (architectures.isPresent()) {
+            boolean matches = architectures.get().contains(arch);
+            Logger.logDebug("File " + file + " has architectures " + architectures.get() +
+                    (matches ? ", it matches " : ", it doesn't match ") + arch);
+            return matches;
+        }
+        String key;
+        try {
+            key = digest(file) + "-" + arch;
+        } catch (IOException e) {
+            Logger.logDebug("Error reading " + file + ": " + e.getMessage());
+            return false;
+        }
+        return readVerdict(key).orElseGet(() -> {
+            Logger.logDebug("Can't read the architecture of " + file + ", using external tool");
+            boolean result = fallback.test(file);
+            writeVerdict(key, result);
+            return result;
+        });
+    }
+
+    private Optional<Boolean> readVerdict(String key) {
+        if (cacheDir == null) {
+            return Optional.empty();
+        }
+        Path file = cacheDir.resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Boolean.parseBoolean(Files.readString(file).trim()));
+        } catch (IOException e) {
+            Logger.logDebug("Error reading " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeVerdict(String key, boolean verdict) {
+        if (cacheDir == null) {
+            return;
+        }
+        try {
+            FileOps.writeAtomically(cacheDir.resolve(key), Boolean.toString(verdict));
+        } catch (IOException e) {
+            Logger.logDebug("Error caching architecture of " + key + ": " + e.getMessage());
+        }
+    }
+
+    private static String digest(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (InputStream is = new DigestInputStream(Files.newInputStream(file), digest)) {
+            is.transferTo(OutputStream.nullOutputStream());
+        }
+        return Strings.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads the architectures of native object files and static libraries from
+ * their headers, without running external tools like objdump or lipo.
+ *
+ * The supported formats are ELF and Mach-O object files, Mach-O universal
+ * (fat) binaries, and ar archives (both GNU and BSD variants) with such
+ * object files. Only the headers are read, so large archives are inspected
+ * without reading all their content.
+ */
+public final class ArchitectureReader {
+
+    public static final String X86 = "x86";
+    public static final String X86_64 = "x86_64";
+    public static final String ARM = "arm";
+    public static final String AARCH64 = "aarch64";
+
+    private static final byte[] AR_MAGIC = "!<arch>\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int AR_HEADER_SIZE = 60;
+    private static final int HEADER_SIZE = 64;
+    // a fat header with more architectures is likely a Java class file, which has the same magic
+    private static final int MAX_FAT_ARCHS = 32;
+
+    private static final int ELF_MAGIC = 0x7F454C46;
+    private static final int MACHO_MAGIC = 0xFEEDFACE;
+    private static final int MACHO_MAGIC_64 = 0xFEEDFACF;
+    private static final int FAT_MAGIC = 0xCAFEBABE;
+    private static final int FAT_MAGIC_64 = 0xCAFEBABF;
+    private static final int CPU_ARCH_ABI64 = 0x01000000;
+
+    private ArchitectureReader() {
+    }
+
+    /**
+     * Reads the architectures of a native object file or static library
+     *
+     * @param file the path of the file
+     * @return an optional with the set of architectures found in the file,
+     * or empty if the format of the file is not supported, or an archive
+     * doesn't contain any supported object file
+     * @throws IOException
+     */
+    public static Optional<Set<String>> read(Path file) throws IOException {
+        Set<String> architectures = new TreeSet<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (!readFile(channel, 0, channel.size(), architectures, true) || architectures.isEmpty()) {
+                return Optional.empty();
+            }
+        } catch (EOFException e) {
+            Logger.logDebug("Unexpected end of file reading " + file);
+            return Optional.empty();
+        }
+        return Optional.of(architectures);
+    }
+
+    /**
+     * Returns the name used by this reader for a given architecture, so
+     * aliases like arm64 and aarch64 can be compared
+     *
+     * @param arch the name of the architecture
+     * @return the normalized name
+     */
+    public static String normalize(String arch) {
+        String name = arch.toLowerCase(Locale.ROOT);
+        switch (name) {
+            case "arm64":
+                return AARCH64;
+            case "amd64":
+            case "x64":
+                return X86_64;
+            case "i386":
+            case "i686":
+                return X86;
+            default:
+                return name;
+        }
+    }
+
+    private static boolean readFile(FileChannel channel, long offset, long size, Set<String> architectures,
+                                    boolean allowContainers) throws IOException {
+        ByteBuffer header = read(channel, offset, (int) Math.min(size, HEADER_SIZE));
+        if (header.remaining() < 8) {
+            return false;
+        }
+        if (allowContainers && startsWith(header, AR_MAGIC)) {
+            return readArchive(channel, offset, size, architectures);
+        }
+        int magic = header.order(ByteOrder.BIG_ENDIAN).getInt(0);
+        if (magic == ELF_MAGIC) {
+            return readElf(header, architectures);
+        }
+        if (magic == MACHO_MAGIC || magic == MACHO_MAGIC_64) {
+            architectures.add(getMachOArchitecture(header.getInt(4)));
+            return true;
+        }
+        int magicLE = header.order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+        if (magicLE == MACHO_MAGIC || magicLE == MACHO_MAGIC_64) {
+            architectures.add(getMachOArchitecture(header.getInt(4)));
+            return true;
+        }
+        if (allowContainers && (magic == FAT_MAGIC || magic == FAT_MAGIC_64)) {
+            return readFat(channel, offset, header.order(ByteOrder.BIG_ENDIAN), magic == FAT_MAGIC_64, architectures);
+        }
+        return false;
+    }
+
+    private static boolean readElf(ByteBuffer header, Set<String> architectures) {
+        if (header.remaining() < 20) {
+            return false;
+        }
+        // e_ident[EI_DATA]: 1 little endian, 2 big endian
+        header.order(header.get(5) == 2 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int machine = header.getShort(18) & 0xFFFF;
+        switch (machine) {
+            case 3:
+                architectures.add(X86);
+                break;
+            case 40:
+                architectures.add(ARM);
+                break;
+            case 62:
+                architectures.add(X86_64);
+                break;
+            case 183:
+                architectures.add(AARCH64);
+                break;
+            default:
+                architectures.add("elf-" + machine);
+                break;
+        }
+        return true;
+    }
+
+    private static String getMachOArchitecture(int cpuType) {
+        switch (cpuType) {
+            case 7:
+                return X86;
+            case 7 | CPU_ARCH_ABI64:
+                return X86_64;
+            case 12:
+                return ARM;
+            case 12 | CPU_ARCH_ABI64:
+                return AARCH64;
+            default:
+                return "mach-o-" + cpuType;
+        }
+    }
+
+    private static boolean readFat(FileChannel channel, long offset, ByteBuffer header, boolean fat64,
+                                   Set<String> architectures) throws IOException {
+        int count = header.getInt(4);
+        if (count <= 0 || count > MAX_FAT_ARCHS) {
+            return false;
+        }
+        int archSize = fat64 ? 32 : 20;
+        ByteBuffer archs = read(channel, offset + 8, count * archSize).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            architectures.add(getMachOArchitecture(archs.getInt(i * archSize)));
+        }
+        return true;
+    }
+
+    private static boolean readArchive(FileChannel channel, long offset, long size, Set<String> architectures) throws IOException {
+        long end = offset + size;
+        long position = offset + AR_MAGIC.length;
+        while (position + AR_HEADER_SIZE <= end) {
+            ByteBuffer header = read(channel, position, AR_HEADER_SIZE);
+            if (header.get(58) != '`' || header.get(59) != '\n') {
+                Logger.logDebug("Invalid archive member header at " + position);
+                return false;
+            }
+            String name = ascii(header, 0, 16).trim();
+            long memberSize;
+            try {
+                memberSize = Long.parseLong(ascii(header, 48, 10).trim());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            long data = position + AR_HEADER_SIZE;
+            long dataSize = memberSize;
+            if (name.startsWith("#1/")) {
+                // BSD archives store long names right before the content
+                try {
+                    int nameLength = Integer.parseInt(name.substring(3));
+                    name = ascii(read(channel, data, nameLength), 0, nameLength).trim();
+                    data += nameLength;
+                    dataSize -= nameLength;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            if (dataSize > 0 && !isSymbolTable(name)) {
+                // members that aren't object files are skipped
+                readFile(channel, data, dataSize, architectures, false);
+            }
+            position = data + dataSize + (memberSize & 1);
+        }
+        return true;
+    }
+
+    private static boolean isSymbolTable(String name) {
+        return "/".equals(name) || "//".equals(name) || "/SYM64/".equals(name) || name.startsWith("__.SYMDEF");
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+        if (buffer.remaining() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII).replace('\0', ' ');
+    }
+}
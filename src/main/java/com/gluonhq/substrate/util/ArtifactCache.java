@@ -0,0 +1,527 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import com.gluonhq.substrate.Constants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of downloaded artifacts, like the static JDK,
+ * the JavaFX static SDK, the sysroot or the C libraries zips.
+ *
+ * Artifacts are stored by their SHA-256 digest under {@code blobs/sha256},
+ * and an index under {@code urls} maps each source URL to the digest of its
+ * content. The cache folder can be shared by several builds or agents on the
+ * same machine: all the files are written to temporary files first and then
+ * atomically moved into place, and the content of an artifact is verified
+ * against its digest every time it is installed. Installed artifacts are
+ * linked to the cached content when possible, instead of being copied.
+ *
+ * Artifacts that are not in the cache are downloaded from a mirror, if one
+ * is defined, or else from their source URL. The location of an artifact
+ * in the mirror is {@code <mirror>/<host>/<path of the source URL>}, and
+ * if the mirror provides a {@code .sha256} file next to it, its content is
+ * verified too. Downloads are done with a {@link Downloader} into
+ * {@code downloads}, so an interrupted download is resumed by the next build,
+ * while holding a lock per source URL, so concurrent builds download each
+ * artifact only once.
+ *
+ * The cache folder defaults to ~/.gluon/substrate/artifacts, and can be set
+ * with the {@value #CACHE_PROPERTY} system property or the
+ * {@value #CACHE_ENV} environment variable. A mirror can be set with the
+ * {@value #MIRROR_PROPERTY} system property or the {@value #MIRROR_ENV}
+ * environment variable.
+ */
+public class ArtifactCache {
+
+    public static final String CACHE_PROPERTY = "substrate.artifactCache";
+    public static final String CACHE_ENV = "SUBSTRATE_ARTIFACT_CACHE";
+    public static final String MIRROR_PROPERTY = "substrate.artifactMirror";
+    public static final String MIRROR_ENV = "SUBSTRATE_ARTIFACT_MIRROR";
+
+    private static final String BLOBS_PATH = "blobs/sha256";
+    private static final String URLS_PATH = "urls";
+    private static final String DOWNLOADS_PATH = "downloads";
+    private static final int TIMEOUT = 30_000;
+
+    /**
+     * Receives the content of an artifact while it is being installed
+     */
+    @FunctionalInterface
+    public interface ContentConsumer {
+
+        /**
+         * Reads the content of the artifact, while it is downloaded or copied
+         * from the cache. The stream doesn't need to be read completely, and
+         * closing it has no effect. If the content turns out to be corrupted,
+         * or the download fails, this method is called again with the content
+         * of a new download.
+         *
+         * @param content the content of the artifact
+         * @throws IOException
+         */
+        void accept(InputStream content) throws IOException;
+    }
+
+    private final Path cachePath;
+    private final String mirrorUrl;
+    private final Downloader downloader;
+
+    /**
+     * Creates an artifact cache
+     *
+     * @param cachePath the path to the folder of the cache
+     * @param mirrorUrl the base URL of a mirror, or null to download from
+     *                  the source URLs
+     */
+    public ArtifactCache(Path cachePath, String mirrorUrl) {
+        this(cachePath, mirrorUrl, new Downloader());
+    }
+
+    /**
+     * Creates an artifact cache that uses the given downloader
+     *
+     * @param cachePath the path to the folder of the cache
+     * @param mirrorUrl the base URL of a mirror, or null to download from
+     *                  the source URLs
+     * @param downloader the downloader for the artifacts that are not cached
+     */
+    public ArtifactCache(Path cachePath, String mirrorUrl, Downloader downloader) {
+        this.cachePath = Objects.requireNonNull(cachePath);
+        this.downloader = Objects.requireNonNull(downloader);
+        this.mirrorUrl = mirrorUrl == null || mirrorUrl.isBlank() ? null :
+                mirrorUrl.endsWith("/") ? mirrorUrl.substring(0, mirrorUrl.length() - 1) : mirrorUrl;
+    }
+
+    /**
+     * Returns the artifact cache defined by the system properties or the
+     * environment variables, or the default one
+     *
+     * @return the artifact cache
+     */
+    public static ArtifactCache getDefault() {
+        String cache = getSetting(CACHE_PROPERTY, CACHE_ENV);
+        Path cachePath = cache != null ? Path.of(cache) : Constants.USER_SUBSTRATE_PATH.resolve("artifacts");
+        return new ArtifactCache(cachePath, getSetting(MIRROR_PROPERTY, MIRROR_ENV));
+    }
+
+    /**
+     * Installs the artifact from the given source URL into the target path.
+     * If the artifact is not cached yet, it is downloaded and added to the cache.
+     *
+     * @param sourceUrl the source URL of the artifact
+     * @param target the path of the file where the artifact will be installed
+     * @return the target path
+     * @throws IOException if the artifact can't be downloaded or installed
+     */
+    public Path fetch(String sourceUrl, Path target) throws IOException {
+        return fetch(sourceUrl, target, null);
+    }
+
+    /**
+     * Installs the artifact from the given source URL into the target path,
+     * verifying that its content matches the expected digest.
+     * If the artifact is not cached yet, it is downloaded and added to the cache.
+     *
+     * @param sourceUrl the source URL of the artifact
+     * @param target the path of the file where the artifact will be installed
+     * @param sha256 the expected SHA-256 digest of the artifact, in hexadecimal,
+     *               or null if it is not known
+     * @return the target path
+     * @throws IOException if the artifact can't be downloaded or installed, or
+     * its content doesn't match the expected digest
+     */
+    public Path fetch(String sourceUrl, Path target, String sha256) throws IOException {
+        return fetch(sourceUrl, target, sha256, null);
+    }
+
+    /**
+     * Installs the artifact from the given source URL into the target path,
+     * passing its content to the consumer at the same time, so it can be processed
+     * while it is downloaded or copied from the cache, instead of reading the
+     * target again once it is installed.
+     *
+     * If the artifact is not cached yet, it is streamed to the consumer by the
+     * {@link Downloader} and added to the cache. If that download fails and can't
+     * be resumed, or its digest doesn't match, the artifact is downloaded again,
+     * and the consumer is called again with its content.
+     *
+     * @param sourceUrl the source URL of the artifact
+     * @param target the path of the file where the artifact will be installed
+     * @param sha256 the expected SHA-256 digest of the artifact, in hexadecimal,
+     *               or null if it is not known
+     * @param consumer the consumer of the content of the artifact, or null
+     * @return the target path
+     * @throws IOException if the artifact can't be downloaded or installed, or
+     * its content doesn't match the expected digest, or the consumer fails
+     */
+    public Path fetch(String sourceUrl, Path target, String sha256, ContentConsumer consumer) throws IOException {
+        Objects.requireNonNull(sourceUrl);
+        Objects.requireNonNull(target);
+        String expected = sha256 == null ? null : sha256.toLowerCase(Locale.ROOT);
+
+        Optional<String> cached = lookup(sourceUrl).filter(d -> expected == null || expected.equals(d));
+        if (cached.isPresent()) {
+            Logger.logDebug("Artifact " + sourceUrl + " found in cache " + cachePath);
+            if (install(cached.get(), target, consumer)) {
+                return target;
+            }
+        }
+
+        Path downloadPath = getDownloadPath(sourceUrl);
+        Files.createDirectories(downloadPath.getParent());
+        // not the lock of the downloader, which is taken again for each download
+        Path lockPath = downloadPath.resolveSibling(downloadPath.getFileName() + ".fetch.lock");
+        return Downloader.withLock(lockPath, () -> {
+            // another build could have added it while waiting for the lock
+            Optional<String> added = lookup(sourceUrl).filter(d -> expected == null || expected.equals(d));
+            if (added.isPresent() && install(added.get(), target, consumer)) {
+                return target;
+            }
+
+            if (consumer != null && stream(sourceUrl, expected, target, consumer)) {
+                return target;
+            }
+
+            String digest = download(sourceUrl, expected);
+            if (!install(digest, target, consumer)) {
+                throw new IOException("Error installing " + sourceUrl + " into " + target);
+            }
+            return target;
+        });
+    }
+
+    /**
+     * Returns the digest of the cached artifact for the given source URL
+     *
+     * @param sourceUrl the source URL of the artifact
+     * @return an optional with the digest, or empty if the artifact is not cached
+     */
+    Optional<String> lookup(String sourceUrl) {
+        Path index = getIndexPath(sourceUrl);
+        if (!Files.isRegularFile(index)) {
+            return Optional.empty();
+        }
+        try {
+            List<String> lines = Files.readAllLines(index);
+            if (lines.size() < 2 || !sourceUrl.equals(lines.get(1))) {
+                return Optional.empty();
+            }
+            String digest = lines.get(0).trim();
+            if (!digest.matches("[0-9a-f]{64}")) {
+                return Optional.empty();
+            }
+            return Files.isRegularFile(getBlobPath(digest)) ? Optional.of(digest) : Optional.empty();
+        } catch (IOException e) {
+            Logger.logDebug("Error reading cache index for " + sourceUrl + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Installs a cached artifact into the target path, verifying its digest.
+     * The target is linked to the cached blob when possible, so the artifact
+     * is not stored twice, see {@link FileOps#linkOrCopyFile(Path, Path)}.
+     * An artifact that doesn't match its digest is removed from the cache.
+     *
+     * @return true if the artifact was installed, false if it was corrupted
+     */
+    private boolean install(String digest, Path target, ContentConsumer consumer) throws IOException {
+        Path blob = getBlobPath(digest);
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        String actual;
+        try (InputStream is = Files.newInputStream(blob)) {
+            actual = copy(new ContentInputStream(is), consumer);
+        }
+        if (!digest.equals(actual)) {
+            Logger.logSevere("Cached artifact " + blob + " is corrupted, it will be removed");
+            Files.deleteIfExists(blob);
+            return false;
+        }
+        link(blob, target);
+        Logger.logDebug("Artifact " + digest + " installed into " + target);
+        return true;
+    }
+
+    /**
+     * Links the target path to a cached blob
+     */
+    private static void link(Path blob, Path target) throws IOException {
+        FileOps.writeAtomically(target, tmpFile -> FileOps.linkOrCopyFile(blob, tmpFile));
+    }
+
+    /**
+     * Downloads an artifact into the cache, from the mirror if possible, or
+     * else from its source URL
+     *
+     * @return the digest of the artifact
+     */
+    private String download(String sourceUrl, String expected) throws IOException {
+        Path tmpFile = getDownloadPath(sourceUrl);
+        try {
+            String digest = null;
+            String mirrorArtifactUrl = getMirrorUrl(sourceUrl);
+            if (mirrorArtifactUrl != null) {
+                try {
+                    String mirrorDigest = readMirrorDigest(mirrorArtifactUrl);
+                    if (expected != null && mirrorDigest != null && !expected.equals(mirrorDigest)) {
+                        throw new IOException("digest " + mirrorDigest + " from the mirror doesn't match the expected one: " + expected);
+                    }
+                    digest = downloader.download(new URL(mirrorArtifactUrl), tmpFile, expected != null ? expected : mirrorDigest);
+                } catch (IOException e) {
+                    Logger.logDebug("Error downloading " + mirrorArtifactUrl + ": " + e.getMessage());
+                    digest = null;
+                }
+            }
+            if (digest == null) {
+                digest = downloader.download(new URL(sourceUrl), tmpFile, expected);
+            }
+            add(sourceUrl, digest, tmpFile);
+            return digest;
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Downloads an artifact with the {@link Downloader}, passing its content to
+     * the consumer while it is written into the cache. The target path is then
+     * linked to the cached content
+     *
+     * @return true if the artifact was installed, false if the download failed
+     * and has to be retried
+     * @throws IOException if the consumer fails
+     */
+    private boolean stream(String sourceUrl, String expected, Path target, ContentConsumer consumer) throws IOException {
+        String mirrorArtifactUrl = getMirrorUrl(sourceUrl);
+        String url = mirrorArtifactUrl != null ? mirrorArtifactUrl : sourceUrl;
+        String expectedDigest = expected != null || mirrorArtifactUrl == null ? expected : readMirrorDigest(mirrorArtifactUrl);
+
+        Path tmpFile = getDownloadPath(sourceUrl);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        try {
+            String digest;
+            try {
+                digest = downloader.download(new URL(url), tmpFile, expectedDigest, consumer);
+            } catch (Downloader.ContentException e) {
+                throw e.getCause();
+            } catch (IOException e) {
+                Logger.logDebug("Error downloading " + url + ": " + e.getMessage() + ", it will be downloaded again");
+                return false;
+            }
+            add(sourceUrl, digest, tmpFile);
+            link(getBlobPath(digest), target);
+            return true;
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Moves a downloaded artifact into the cache, and maps its source URL to it
+     */
+    private void add(String sourceUrl, String digest, Path file) throws IOException {
+        Path blob = getBlobPath(digest);
+        Files.createDirectories(blob.getParent());
+        Files.move(file, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        FileOps.writeAtomically(getIndexPath(sourceUrl), digest + "\n" + sourceUrl + "\n");
+        Logger.logDebug("Artifact " + sourceUrl + " added to cache with digest " + digest);
+    }
+
+    private static String readMirrorDigest(String mirrorArtifactUrl) {
+        try {
+            URLConnection connection = openConnection(mirrorArtifactUrl + ".sha256");
+            try (InputStream is = connection.getInputStream()) {
+                String content = new String(is.readAllBytes(), StandardCharsets.UTF_8).trim();
+                // allow the "<digest>  <file name>" format of sha256sum
+                return content.split("\\s+")[0].toLowerCase(Locale.ROOT);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static URLConnection openConnection(String url) throws IOException {
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        if (connection instanceof HttpURLConnection) {
+            HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            httpConnection.setInstanceFollowRedirects(true);
+            int code = httpConnection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                httpConnection.disconnect();
+                throw new IOException("Error downloading " + url + ": HTTP response code " + code);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Passes the content to the consumer, if any, and then reads the rest of it,
+     * so it is completely written into the outputs of the stream
+     *
+     * @return the digest of the content
+     */
+    private static String copy(ContentInputStream content, ContentConsumer consumer) throws IOException {
+        if (consumer != null) {
+            consumer.accept(content);
+        }
+        content.drain();
+        return content.getDigest();
+    }
+
+    private String getMirrorUrl(String sourceUrl) {
+        if (mirrorUrl == null) {
+            return null;
+        }
+        try {
+            URL url = new URL(sourceUrl);
+            return mirrorUrl + "/" + url.getHost() + url.getPath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Path getBlobPath(String digest) {
+        return cachePath.resolve(BLOBS_PATH).resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    /**
+     * A stable download path per URL, so an interrupted download can be resumed
+     */
+    private Path getDownloadPath(String sourceUrl) {
+        return cachePath.resolve(DOWNLOADS_PATH).resolve(getIndexPath(sourceUrl).getFileName());
+    }
+
+    private Path getIndexPath(String sourceUrl) {
+        MessageDigest digest = newDigest();
+        return cachePath.resolve(URLS_PATH)
+                .resolve(Strings.toHex(digest.digest(sourceUrl.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String getSetting(String property, String env) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(env);
+        }
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * An input stream that computes the digest of all the bytes that are read from it
+     */
+    private static final class ContentInputStream extends InputStream {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final InputStream in;
+        private final MessageDigest digest = newDigest();
+
+        ContentInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                digest.update(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes have to be digested too
+            byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(n, 1))];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        /**
+         * Closing the stream has no effect, the underlying stream is closed by its owner
+         */
+        @Override
+        public void close() {
+        }
+
+        void drain() throws IOException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (read(buffer, 0, buffer.length) != -1) { /* empty loop body is intentional */ }
+        }
+
+        String getDigest() {
+            return Strings.toHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Records the duration and the resources used by the phases of a build, and
+ * writes them to a JSON report, so build time regressions can be tracked.
+ *
+ * A phase is started with {@link #start(String)} and ends when it is closed,
+ * typically with a try-with-resources statement. Phases started while another
+ * phase is open in the same thread are nested in it, and their names are
+ * prefixed with the name of their parent, like "compile/nativeImage". The
+ * resources used by a phase include those of its nested phases and of the
+ * processes started with {@link ProcessRunner} while it was open.
+ *
+ * Phases of tasks running in other threads, like those of a {@link TaskGraph},
+ * are nested by passing their parent explicitly to {@link #start(Phase, String)}.
+ *
+ * The top level phases of a build are started with {@link #start(String, String)},
+ * with the name of the target being built, which labels them and all their nested
+ * phases. Each top level phase keeps the phases nested in it that have ended, see
+ * {@link Phase#getPhases()}, so the metrics of a build are kept only as long as its
+ * top level phases, and the builds of several targets, in parallel or one after the
+ * other in the same process, don't mix their metrics.
+ */
+public final class BuildMetrics {
+
+    /**
+     * The name of the report file of a build without target, written to the folder of the process logs
+     */
+    public static final String REPORT_FILE = "build-metrics.json";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final ThreadLocal<Phase> CURRENT = new ThreadLocal<>();
+
+    private BuildMetrics() {
+    }
+
+    /**
+     * Starts a phase, nested in the phase that is open in the current thread, if any
+     *
+     * @param name the name of the phase
+     * @return the phase, which has to be closed by the current thread when it ends
+     */
+    public static Phase start(String name) {
+        return start(CURRENT.get(), name);
+    }
+
+    /**
+     * Starts a phase, nested in the given phase
+     *
+     * @param parent the parent phase, or null for a top level phase
+     * @param name the name of the phase
+     * @return the phase, which has to be closed by the current thread when it ends
+     */
+    public static Phase start(Phase parent, String name) {
+        Phase phase = new Phase(parent, parent == null ? null : parent.target, name, CURRENT.get());
+        CURRENT.set(phase);
+        return phase;
+    }
+
+    /**
+     * Starts a top level phase of the build of a target
+     *
+     * @param target the name of the target, like x86_64-linux, or null
+     * @param name the name of the phase
+     * @return the phase, which has to be closed by the current thread when it ends
+     */
+    public static Phase start(String target, String name) {
+        Phase phase = new Phase(null, target, name, CURRENT.get());
+        CURRENT.set(phase);
+        return phase;
+    }
+
+    /**
+     * Runs an action in a phase nested in the phase that is open in the current thread, if any
+     *
+     * @param name the name of the phase
+     * @param action the action
+     * @param <T> the type of the result of the action
+     * @return the result of the action
+     * @throws IOException
+     */
+    public static <T> T measure(String name, Action<T> action) throws IOException {
+        Phase phase = start(name);
+        try {
+            return action.run();
+        } finally {
+            phase.close();
+        }
+    }
+
+    /**
+     * Returns the name of the report file of the build of a target
+     *
+     * @param target the name of the target, like x86_64-linux, or null
+     * @return the name of the report file, like build-metrics-x86_64-linux.json,
+     * or {@link #REPORT_FILE} if there is no target
+     */
+    public static String getReportFile(String target) {
+        return target == null ? REPORT_FILE : "build-metrics-" + target + ".json";
+    }
+
+    /**
+     * @return the phase that is open in the current thread, or null if there is none
+     */
+    public static Phase current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Writes the given phases to a JSON report, replacing the previous report, if any
+     *
+     * @param reportPath the path of the report file
+     * @param target the name of the target of the build, or null
+     * @param phases the phases that have ended, see {@link Phase#getPhases()}
+     * @throws IOException
+     */
+    public static void writeReport(Path reportPath, String target, List<Phase> phases) throws IOException {
+        String json = phases.stream()
+                .sorted(Comparator.comparing(Phase::getStart))
+                .map(Phase::toJson)
+                .collect(Collectors.joining(",\n", "[\n", "\n  ]"));
+        FileOps.writeAtomically(reportPath, "{\n" +
+                (target == null ? "" : "  \"target\": \"" + Phase.escape(target) + "\",\n") +
+                "  \"phases\": " + json + "\n}\n");
+        Logger.logDebug("Build metrics written to " + reportPath);
+    }
+
+    private static long currentThreadCpuTime() {
+        try {
+            return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * An action measured in a phase, see {@link #measure(String, Action)}
+     *
+     * @param <T> the type of the result of the action
+     */
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * A phase of the build
+     */
+    public static final class Phase implements AutoCloseable {
+
+        private final Phase parent;
+        private final Phase root;
+        private final String target;
+        private final String name;
+        private final Phase previous;
+        private final Thread thread;
+        private final Instant start;
+        private final long startNanos;
+        private final long startCpu;
+
+        private Duration wallTime;
+        private Duration threadCpuTime = Duration.ZERO;
+        // CPU time of other threads and processes, added by nested phases and processes
+        private ProcessUsage usage = ProcessUsage.NONE;
+        private int processes;
+        private Boolean success;
+        private final Map<String, Long> values = new LinkedHashMap<>();
+        // the phases nested in a top level phase that have ended, including itself
+        private final List<Phase> ended;
+
+        private Phase(Phase parent, String target, String name, Phase previous) {
+            this.parent = parent;
+            this.root = parent == null ? this : parent.root;
+            this.target = target;
+            this.ended = parent == null ? new ArrayList<>() : null;
+            this.name = parent == null ? name : parent.name + "/" + name;
+            this.previous = previous;
+            this.thread = Thread.currentThread();
+            this.start = Instant.now();
+            this.startNanos = System.nanoTime();
+            this.startCpu = currentThreadCpuTime();
+        }
+
+        /**
+         * Sets the outcome of the phase
+         *
+         * @param success true if the phase succeeded
+         * @return the given value
+         */
+        public synchronized boolean setSuccess(boolean success) {
+            this.success = success;
+            return success;
+        }
+
+        /**
+         * Sets a value measured during the phase, which is added to the report
+         *
+         * @param key the name of the value
+         * @param value the value
+         */
+        public synchronized void setValue(String key, long value) {
+            values.put(Objects.requireNonNull(key), value);
+        }
+
+        /**
+         * @return an unmodifiable map with the values set during the phase
+         */
+        public synchronized Map<String, Long> getValues() {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        }
+
+        /**
+         * Adds the resources used by a process started during the phase
+         *
+         * @param processUsage the usage of the process
+         */
+        synchronized void addProcessUsage(ProcessUsage processUsage) {
+            usage = usage.plus(processUsage);
+            processes++;
+        }
+
+        private synchronized void addNested(Phase phase) {
+            // the CPU time of a nested phase in the same thread is already counted
+            ProcessUsage nested = phase.thread == thread ? phase.usage :
+                    phase.usage.plus(new ProcessUsage(phase.threadCpuTime, ProcessUsage.UNKNOWN,
+                            ProcessUsage.UNKNOWN, ProcessUsage.UNKNOWN));
+            usage = usage.plus(nested);
+            processes += phase.processes;
+        }
+
+        /**
+         * Ends the phase
+         */
+        @Override
+        public void close() {
+            if (Thread.currentThread() != thread) {
+                throw new IllegalStateException("Phase " + name + " has to be closed by the thread that started it");
+            }
+            long endCpu = currentThreadCpuTime();
+            synchronized (this) {
+                if (wallTime != null) {
+                    return;
+                }
+                wallTime = Duration.ofNanos(System.nanoTime() - startNanos);
+                if (startCpu >= 0 && endCpu >= 0) {
+                    threadCpuTime = Duration.ofNanos(endCpu - startCpu);
+                }
+            }
+            if (CURRENT.get() == this) {
+                CURRENT.set(previous);
+            }
+            if (parent != null) {
+                parent.addNested(this);
+            }
+            synchronized (root.ended) {
+                root.ended.add(this);
+            }
+        }
+
+        /**
+         * @return this phase, if it has ended, and the phases nested in it that
+         * have ended, in the order they started
+         */
+        public List<Phase> getPhases() {
+            synchronized (root.ended) {
+                return root.ended.stream()
+                        .filter(this::contains)
+                        .sorted(Comparator.comparing(Phase::getStart))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        private boolean contains(Phase phase) {
+            for (Phase p = phase; p != null; p = p.parent) {
+                if (p == this) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the name of the target of the build, or null
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * @return the name of the phase, prefixed with the names of its parents
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the instant when the phase started
+         */
+        public Instant getStart() {
+            return start;
+        }
+
+        /**
+         * @return the wall time of the phase, or null if it hasn't ended
+         */
+        public synchronized Duration getWallTime() {
+            return wallTime;
+        }
+
+        /**
+         * @return the CPU time used by the phase, including the one of its
+         * nested phases and processes
+         */
+        public synchronized Duration getCpuTime() {
+            return threadCpuTime.plus(usage.getCpuTime());
+        }
+
+        /**
+         * @return the resources used by the processes started during the phase
+         */
+        public synchronized ProcessUsage getProcessUsage() {
+            return usage;
+        }
+
+        /**
+         * @return the number of processes started during the phase
+         */
+        public synchronized int getProcesses() {
+            return processes;
+        }
+
+        /**
+         * @return true if the phase succeeded, false if it failed, or null if unknown
+         */
+        public synchronized Boolean getSuccess() {
+            return success;
+        }
+
+        private synchronized String toJson() {
+            return "    {" +
+                    (target == null ? "" : "\"target\": \"" + escape(target) + "\", ") +
+                    "\"name\": \"" + escape(name) + "\", " +
+                    "\"start\": \"" + start + "\", " +
+                    "\"wallTimeMillis\": " + (wallTime == null ? "null" : wallTime.toMillis()) + ", " +
+                    "\"cpuTimeMillis\": " + getCpuTime().toMillis() + ", " +
+                    "\"processes\": " + processes + ", " +
+                    "\"childPeakRssBytes\": " + toJson(usage.getPeakRss()) + ", " +
+                    "\"childBytesRead\": " + toJson(usage.getBytesRead()) + ", " +
+                    "\"childBytesWritten\": " + toJson(usage.getBytesWritten()) + ", " +
+                    "\"success\": " + success +
+                    (values.isEmpty() ? "" : values.entrySet().stream()
+                            .map(e -> "\"" + escape(e.getKey()) + "\": " + e.getValue())
+                            .collect(Collectors.joining(", ", ", \"values\": {", "}"))) +
+                    "}";
+        }
+
+        private static String toJson(long value) {
+            return value == ProcessUsage.UNKNOWN ? "null" : Long.toString(value);
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+
+        @Override
+        public String toString() {
+            return "Phase{" + toJson().trim() + "}";
+        }
+    }
+}
@@ -0,0 +1,813 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Downloads files over HTTP, resuming partial downloads and, when the server
+ * supports range requests, fetching large files in parallel chunks.
+ *
+ * While downloading, the content is written into a {@code <target>.part} file,
+ * and the chunks that are complete are recorded in a {@code <target>.part.properties}
+ * file, so an interrupted download continues from the pending chunks in the
+ * next attempt, as long as the remote file hasn't changed (same length, ETag and
+ * Last-Modified headers). Each chunk is retried with exponential backoff, and
+ * once all of them are done, the SHA-256 digest of the file is computed and,
+ * if an expected digest was given, verified, before moving the file into the
+ * target path.
+ *
+ * Servers without range support, and other protocols, are downloaded with a
+ * single request, restarting from the beginning on retries.
+ *
+ * A download can also be streamed to a consumer: the chunks are then downloaded
+ * in order, with the same part and state files, so the consumer processes the
+ * content while it arrives and an interrupted download still resumes.
+ */
+public class Downloader {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    public static final int DEFAULT_MAX_RETRIES = 5;
+    public static final long DEFAULT_BACKOFF = 500;
+
+    private static final int TIMEOUT = 30_000;
+    private static final long MAX_BACKOFF = 30_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final int parallelism;
+    private final long chunkSize;
+    private final int maxRetries;
+    private final long backoff;
+
+    /**
+     * Creates a downloader with the default settings
+     */
+    public Downloader() {
+        this(DEFAULT_PARALLELISM, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_RETRIES, DEFAULT_BACKOFF);
+    }
+
+    /**
+     * Creates a downloader
+     *
+     * @param parallelism the maximum number of chunks that are downloaded in parallel
+     * @param chunkSize the size in bytes of each chunk
+     * @param maxRetries the number of times a failed request is retried
+     * @param backoff the time in milliseconds to wait before the first retry,
+     *                it is doubled on every new retry
+     */
+    public Downloader(int parallelism, long chunkSize, int maxRetries, long backoff) {
+        if (parallelism < 1 || chunkSize < 1 || maxRetries < 0 || backoff < 0) {
+            throw new IllegalArgumentException("Invalid downloader settings");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxRetries = maxRetries;
+        this.backoff = backoff;
+    }
+
+    /**
+     * Downloads a file from a given URL into a given path
+     *
+     * @param url the URL of the file
+     * @param target the path of the file where the remote file will be downloaded into
+     * @return the SHA-256 digest of the downloaded file, in hexadecimal
+     * @throws IOException if the download fails after all the retries
+     */
+    public String download(URL url, Path target) throws IOException {
+        return download(url, target, null);
+    }
+
+    /**
+     * Downloads a file from a given URL into a given path, verifying that its
+     * content matches the expected digest
+     *
+     * @param url the URL of the file
+     * @param target the path of the file where the remote file will be downloaded into
+     * @param sha256 the expected SHA-256 digest of the file, in hexadecimal, or null
+     * @return the SHA-256 digest of the downloaded file, in hexadecimal
+     * @throws IOException if the download fails after all the retries, or the
+     * digest doesn't match the expected one
+     */
+    public String download(URL url, Path target, String sha256) throws IOException {
+        return download(url, target, sha256, null);
+    }
+
+    /**
+     * Downloads a file from a given URL into a given path, verifying that its
+     * content matches the expected digest, and passing the content to a consumer
+     * in order while it is downloaded.
+     *
+     * The content passed to the consumer continues from the bytes already written
+     * in the part file of a previous attempt, and a failed request is resumed from
+     * the last byte read, when the server supports ranges. Otherwise, a failed
+     * request fails the download.
+     *
+     * @param url the URL of the file
+     * @param target the path of the file where the remote file will be downloaded into
+     * @param sha256 the expected SHA-256 digest of the file, in hexadecimal, or null
+     * @param consumer the consumer of the content, or null
+     * @return the SHA-256 digest of the downloaded file, in hexadecimal
+     * @throws IOException if the download fails after all the retries, or the
+     * digest doesn't match the expected one, or a {@link ContentException} if
+     * the consumer fails
+     */
+    public String download(URL url, Path target, String sha256, ArtifactCache.ContentConsumer consumer) throws IOException {
+        Objects.requireNonNull(url);
+        Objects.requireNonNull(target);
+        Path absoluteTarget = target.toAbsolutePath();
+        Files.createDirectories(absoluteTarget.getParent());
+        Path partPath = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".part");
+        Path statePath = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".part.properties");
+        Path lockPath = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".lock");
+
+        return withLock(lockPath, () -> {
+            Remote remote = probe(url);
+            String digest;
+            if (consumer != null) {
+                digest = downloadStream(url, remote, partPath, statePath, consumer);
+            } else {
+                if (remote.supportsRanges()) {
+                    downloadChunks(url, remote, partPath, statePath);
+                } else {
+                    Files.deleteIfExists(statePath);
+                    downloadSingle(url, remote, partPath);
+                }
+                digest = digest(partPath);
+            }
+
+            if (sha256 != null && !sha256.equalsIgnoreCase(digest)) {
+                Files.deleteIfExists(partPath);
+                Files.deleteIfExists(statePath);
+                throw new IOException("Error downloading " + url + ": expected digest " +
+                        sha256.toLowerCase(Locale.ROOT) + " but found " + digest);
+            }
+            Files.move(partPath, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(statePath);
+            return digest;
+        });
+    }
+
+    /**
+     * Runs an action while holding a lock on a given file, both within this
+     * process and across processes
+     *
+     * @param lockPath the path of the lock file
+     * @param action the action to run
+     * @param <T> the type of the result of the action
+     * @return the result of the action
+     * @throws IOException if the lock can't be taken, or the action fails
+     */
+    static <T> T withLock(Path lockPath, LockedAction<T> action) throws IOException {
+        Path absolutePath = lockPath.toAbsolutePath();
+        // The lock file is never deleted: another process could be waiting for a lock on it,
+        // while a new one creates a new file and locks it too
+        synchronized (LOCKS.computeIfAbsent(absolutePath, p -> new Object())) {
+            try (FileChannel lockChannel = FileChannel.open(absolutePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // released when the channel is closed
+                lockChannel.lock();
+                return action.run();
+            }
+        }
+    }
+
+    private String downloadStream(URL url, Remote remote, Path partPath, Path statePath,
+                                  ArtifactCache.ContentConsumer consumer) throws IOException {
+        Set<Integer> done;
+        long resumed = 0;
+        if (remote.supportsRanges()) {
+            done = readState(statePath, url, remote, partPath);
+            int chunks = 0;
+            while (done.contains(chunks)) {
+                chunks++;
+            }
+            resumed = Math.min(remote.length, chunks * chunkSize);
+        } else {
+            done = new TreeSet<>();
+            Files.deleteIfExists(statePath);
+            Files.deleteIfExists(partPath);
+        }
+        if (resumed > 0) {
+            Logger.logInfo("Resuming download of " + url + ", " + resumed + " of " + remote.length + " bytes already downloaded");
+        } else {
+            Logger.logInfo("Downloading " + url);
+        }
+
+        Progress progress = new Progress(remote.length);
+        progress.add(resumed);
+        try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ContentStream stream = new ContentStream(url, remote, channel, resumed, done, statePath, progress);
+            stream.open();
+            try {
+                consumer.accept(stream);
+                // the consumer might not read the content until the end
+                stream.skipRemaining();
+            } catch (IOException e) {
+                if (stream.failure != null) {
+                    throw stream.failure;
+                }
+                throw new ContentException(e);
+            }
+            channel.truncate(stream.position);
+            if (remote.length >= 0 && stream.position != remote.length) {
+                throw new IOException("Error downloading " + url + ": expected " + remote.length + " bytes, but got " + stream.position);
+            }
+            return Strings.toHex(stream.digest.digest());
+        } finally {
+            progress.done();
+        }
+    }
+
+    private void downloadChunks(URL url, Remote remote, Path partPath, Path statePath) throws IOException {
+        long length = remote.length;
+        int nChunks = (int) ((length + chunkSize - 1) / chunkSize);
+        Set<Integer> done = readState(statePath, url, remote, partPath);
+        if (!done.isEmpty()) {
+            Logger.logInfo("Resuming download of " + url + ", " + done.size() + " of " + nChunks + " chunks already downloaded");
+        } else {
+            Logger.logInfo("Downloading " + url);
+        }
+
+        Progress progress = new Progress(length);
+        progress.add(done.stream().mapToLong(i -> chunkLength(i, length)).sum());
+
+        try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() > length) {
+                channel.truncate(length);
+            }
+            List<Callable<Void>> jobs = new ArrayList<>();
+            for (int i = 0; i < nChunks; i++) {
+                if (done.contains(i)) {
+                    continue;
+                }
+                int chunk = i;
+                jobs.add(() -> {
+                    downloadRange(url, channel, chunk * chunkSize, chunkLength(chunk, length), progress);
+                    synchronized (done) {
+                        done.add(chunk);
+                        writeState(statePath, url, remote, done);
+                    }
+                    return null;
+                });
+            }
+            if (jobs.isEmpty()) {
+                writeState(statePath, url, remote, done);
+            } else {
+                runAll(jobs, Math.min(parallelism, jobs.size()));
+            }
+        } finally {
+            progress.done();
+        }
+        if (Files.size(partPath) != length) {
+            throw new IOException("Error downloading " + url + ": expected " + length + " bytes, but got " + Files.size(partPath));
+        }
+    }
+
+    private void downloadRange(URL url, FileChannel channel, long start, long length, Progress progress) throws IOException {
+        long written = 0;
+        int attempt = 0;
+        while (true) {
+            long from = start + written;
+            long to = start + length - 1;
+            try {
+                HttpURLConnection connection = (HttpURLConnection) openConnection(url);
+                connection.setRequestProperty("Range", "bytes=" + from + "-" + to);
+                int code = connection.getResponseCode();
+                if (code != HttpURLConnection.HTTP_PARTIAL) {
+                    connection.disconnect();
+                    throw new HttpStatusException(url, code);
+                }
+                try (InputStream is = connection.getInputStream()) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while (written < length && (read = is.read(buffer)) != -1) {
+                        int n = (int) Math.min(read, length - written);
+                        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, n);
+                        while (bb.hasRemaining()) {
+                            channel.write(bb, start + written + (n - bb.remaining()));
+                        }
+                        written += n;
+                        progress.add(n);
+                    }
+                }
+                if (written < length) {
+                    throw new IOException("Error downloading " + url + ": connection closed at " + (start + written) + " of range " + start + "-" + to);
+                }
+                return;
+            } catch (IOException e) {
+                attempt = retryOrFail(e, attempt);
+            }
+        }
+    }
+
+    private void downloadSingle(URL url, Remote remote, Path partPath) throws IOException {
+        Logger.logInfo("Downloading " + url);
+        int attempt = 0;
+        while (true) {
+            Progress progress = new Progress(remote.length);
+            try {
+                URLConnection connection = openConnection(url);
+                checkResponse(url, connection);
+                long expectedLength = connection.getContentLengthLong();
+                try (InputStream is = connection.getInputStream();
+                     OutputStream os = Files.newOutputStream(partPath)) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = is.read(buffer)) != -1) {
+                        os.write(buffer, 0, read);
+                        progress.add(read);
+                    }
+                }
+                if (expectedLength >= 0 && Files.size(partPath) != expectedLength) {
+                    throw new IOException("Error downloading " + url + ": expected " + expectedLength + " bytes, but got " + Files.size(partPath));
+                }
+                return;
+            } catch (IOException e) {
+                attempt = retryOrFail(e, attempt);
+            } finally {
+                progress.done();
+            }
+        }
+    }
+
+    private int retryOrFail(IOException e, int attempt) throws IOException {
+        // client errors, like a missing file, won't be fixed by retrying
+        if (attempt >= maxRetries ||
+                (e instanceof HttpStatusException && ((HttpStatusException) e).code < 500)) {
+            throw e;
+        }
+        long wait = Math.min(MAX_BACKOFF, backoff * (1L << Math.min(attempt, 20)));
+        Logger.logDebug("Download failed: " + e.getMessage() + ", retrying in " + wait + " ms");
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted", ie);
+        }
+        return attempt + 1;
+    }
+
+    /**
+     * Requests the headers of the remote file, to find out its length and
+     * whether it can be downloaded in ranges
+     */
+    private Remote probe(URL url) throws IOException {
+        if (!url.getProtocol().startsWith("http")) {
+            return new Remote(-1, false, null, null);
+        }
+        int attempt = 0;
+        while (true) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) openConnection(url);
+                connection.setRequestMethod("HEAD");
+                int code = connection.getResponseCode();
+                if (code >= 400 && code != HttpURLConnection.HTTP_BAD_METHOD) {
+                    connection.disconnect();
+                    throw new HttpStatusException(url, code);
+                }
+                long length = code == HttpURLConnection.HTTP_OK ? connection.getContentLengthLong() : -1;
+                boolean ranges = "bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges"));
+                Remote remote = new Remote(length, ranges, connection.getHeaderField("ETag"),
+                        connection.getHeaderField("Last-Modified"));
+                connection.disconnect();
+                return remote;
+            } catch (IOException e) {
+                attempt = retryOrFail(e, attempt);
+            }
+        }
+    }
+
+    private Set<Integer> readState(Path statePath, URL url, Remote remote, Path partPath) throws IOException {
+        Set<Integer> done = new TreeSet<>();
+        if (Files.exists(statePath) && Files.exists(partPath)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(statePath)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                Logger.logDebug("Error reading download state " + statePath + ": " + e.getMessage());
+            }
+            if (remote.matches(properties, url, chunkSize)) {
+                String chunks = properties.getProperty("done", "");
+                Arrays.stream(chunks.split(","))
+                        .filter(s -> !s.isBlank())
+                        .map(Integer::parseInt)
+                        .forEach(done::add);
+                return done;
+            }
+        }
+        // nothing to resume from
+        Files.deleteIfExists(partPath);
+        writeState(statePath, url, remote, done);
+        return done;
+    }
+
+    private void writeState(Path statePath, URL url, Remote remote, Set<Integer> done) throws IOException {
+        Properties properties = remote.toProperties(url, chunkSize);
+        properties.setProperty("done", done.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        FileOps.writeAtomically(statePath, properties, null);
+    }
+
+    private long chunkLength(int chunk, long length) {
+        return Math.min(chunkSize, length - chunk * chunkSize);
+    }
+
+    private static void runAll(List<Callable<Void>> jobs, int nThreads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            for (Future<Void> future : executor.invokeAll(jobs)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static URLConnection openConnection(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        if (connection instanceof HttpURLConnection) {
+            ((HttpURLConnection) connection).setInstanceFollowRedirects(true);
+        }
+        return connection;
+    }
+
+    private static void checkResponse(URL url, URLConnection connection) throws IOException {
+        if (connection instanceof HttpURLConnection) {
+            HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            int code = httpConnection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                httpConnection.disconnect();
+                throw new HttpStatusException(url, code);
+            }
+        }
+    }
+
+    private static String digest(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream is = new DigestInputStream(Files.newInputStream(path), digest)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (is.read(buffer) != -1) { /* empty loop body is intentional */ }
+        }
+        return Strings.toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An action that runs while a lock is held
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Signals that the consumer of a streamed download failed, as opposed to
+     * the download itself
+     */
+    static final class ContentException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ContentException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * The content of a streamed download: the bytes already in the part file
+     * first, and then the bytes from the network, that are written into the part
+     * file and recorded in the download state as each chunk completes
+     */
+    private final class ContentStream extends InputStream {
+
+        private final URL url;
+        private final Remote remote;
+        private final FileChannel channel;
+        private final long resumed;
+        private final Set<Integer> done;
+        private final Path statePath;
+        private final Progress progress;
+        private final MessageDigest digest = newDigest();
+
+        private InputStream in;
+        private long expectedEnd = -1;
+        private long position;
+        private int attempt;
+        private IOException failure;
+
+        ContentStream(URL url, Remote remote, FileChannel channel, long resumed,
+                      Set<Integer> done, Path statePath, Progress progress) {
+            this.url = url;
+            this.remote = remote;
+            this.channel = channel;
+            this.resumed = resumed;
+            this.done = done;
+            this.statePath = statePath;
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (failure != null) {
+                throw failure;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position < resumed) {
+                int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, resumed - position)), position);
+                if (n <= 0) {
+                    throw fail(new IOException("Error downloading " + url + ": part file is shorter than " + resumed + " bytes"));
+                }
+                digest.update(b, off, n);
+                position += n;
+                return n;
+            }
+            while (true) {
+                try {
+                    if (in == null) {
+                        if (remote.length >= 0 && position >= remote.length) {
+                            return -1;
+                        }
+                        connect();
+                    }
+                    int n = in.read(b, off, len);
+                    if (n == -1) {
+                        if (expectedEnd >= 0 && position < expectedEnd) {
+                            throw new IOException("Error downloading " + url + ": connection closed at " + position + " of " + expectedEnd + " bytes");
+                        }
+                        return -1;
+                    }
+                    write(b, off, n);
+                    return n;
+                } catch (IOException e) {
+                    retry(e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // the stream is owned by the downloader, that reads whatever the consumer left
+        }
+
+        void open() throws IOException {
+            while (position >= resumed && in == null && (remote.length < 0 || position < remote.length)) {
+                try {
+                    connect();
+                } catch (IOException e) {
+                    retry(e);
+                }
+            }
+        }
+
+        private void connect() throws IOException {
+            URLConnection connection = openConnection(url);
+            if (position > 0) {
+                HttpURLConnection httpConnection = (HttpURLConnection) connection;
+                httpConnection.setRequestProperty("Range", "bytes=" + position + "-");
+                int code = httpConnection.getResponseCode();
+                if (code != HttpURLConnection.HTTP_PARTIAL) {
+                    httpConnection.disconnect();
+                    throw new HttpStatusException(url, code);
+                }
+            } else {
+                checkResponse(url, connection);
+            }
+            long length = connection.getContentLengthLong();
+            expectedEnd = length >= 0 ? position + length : -1;
+            in = connection.getInputStream();
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (read(buffer, 0, buffer.length) != -1) { /* empty loop body is intentional */ }
+            disconnect();
+        }
+
+        private void write(byte[] b, int off, int n) throws IOException {
+            ByteBuffer bb = ByteBuffer.wrap(b, off, n);
+            while (bb.hasRemaining()) {
+                channel.write(bb, position + (n - bb.remaining()));
+            }
+            digest.update(b, off, n);
+            position += n;
+            progress.add(n);
+            if (remote.supportsRanges()) {
+                int complete = position == remote.length ?
+                        (int) ((remote.length + chunkSize - 1) / chunkSize) : (int) (position / chunkSize);
+                boolean added = false;
+                for (int i = 0; i < complete; i++) {
+                    added |= done.add(i);
+                }
+                if (added) {
+                    writeState(statePath, url, remote, done);
+                }
+            }
+        }
+
+        private void disconnect() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    Logger.logDebug("Error closing connection to " + url + ": " + e.getMessage());
+                }
+                in = null;
+            }
+        }
+
+        private void retry(IOException e) throws IOException {
+            disconnect();
+            // without ranges, the content already passed to the consumer can't be skipped
+            if (!remote.supportsRanges() && position > 0) {
+                throw fail(e);
+            }
+            try {
+                attempt = retryOrFail(e, attempt);
+            } catch (IOException ex) {
+                throw fail(ex);
+            }
+        }
+
+        private IOException fail(IOException e) {
+            failure = e;
+            return e;
+        }
+    }
+
+    private static final class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int code;
+
+        HttpStatusException(URL url, int code) {
+            super("Error downloading " + url + ": HTTP response code " + code);
+            this.code = code;
+        }
+    }
+
+    private static final class Remote {
+        private final long length;
+        private final boolean ranges;
+        private final String etag;
+        private final String lastModified;
+
+        Remote(long length, boolean ranges, String etag, String lastModified) {
+            this.length = length;
+            this.ranges = ranges;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        boolean supportsRanges() {
+            return ranges && length > 0;
+        }
+
+        Properties toProperties(URL url, long chunkSize) {
+            Properties properties = new Properties();
+            properties.setProperty("url", url.toString());
+            properties.setProperty("length", Long.toString(length));
+            properties.setProperty("chunkSize", Long.toString(chunkSize));
+            properties.setProperty("etag", Objects.toString(etag, ""));
+            properties.setProperty("lastModified", Objects.toString(lastModified, ""));
+            return properties;
+        }
+
+        boolean matches(Properties properties, URL url, long chunkSize) {
+            Properties current = toProperties(url, chunkSize);
+            return current.stringPropertyNames().stream()
+                    .allMatch(k -> current.getProperty(k).equals(properties.getProperty(k)));
+        }
+    }
+
+    /**
+     * Prints the progress of a download, every 10%
+     */
+    private static final class Progress {
+
+        private final long expectedSize;
+        private final AtomicLong readSoFar = new AtomicLong();
+        private int printPercentage = 0;
+        private boolean printed;
+
+        Progress(long expectedSize) {
+            this.expectedSize = expectedSize;
+        }
+
+        void add(long n) {
+            long read = readSoFar.addAndGet(n);
+            double progress = expectedSize > 0 ? (double) read / (double) expectedSize * 100.0 : -1.0;
+            synchronized (this) {
+                if (((int) progress) >= printPercentage) {
+                    printPercentage += 10;
+                    printed = true;
+                    System.out.print("\r" + String.format("Download progress: %.2f / %.2fM", toMB(read), toMB(expectedSize)));
+                    System.out.flush();
+                }
+            }
+        }
+
+        synchronized void done() {
+            if (printed) {
+                System.out.println();
+                printed = false;
+            }
+        }
+
+        private static double toMB(long sizeInBytes) {
+            return (double) sizeInBytes / (1024 * 1024);
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -49,6 +50,10 @@ import static com.gluonhq.substrate.target.AndroidTargetConfiguration.ANDROID_ND
 
 public final class FileDeps {
 
+    // the SDKs verified by this process, with the state of their files, so a long-lived
+    // process, like the build daemon, doesn't verify them again on every build
+    private static final Map<String, String> VERIFIED_SDKS = new ConcurrentHashMap<>();
+
     private static final String JAVA_STATIC_ZIP = "${staticjdk}-${target}-gvm-${version}.zip";
     private static final String JAVA_STATIC_URL = "https://download2.gluonhq.com/substrate/staticjdk/";
     private static final String JAVAFX_STATIC_ZIP = "openjfx-${version}-${target}-static${variant}.zip";
@@ -236,13 +241,7 @@ public final class FileDeps {
                     // when the directory for the libs is found, and it is not a user-supplied one, check for its validity
                     Logger.logDebug("Checking java static sdk hashes");
                     String md5File = getChecksumFileName(defaultJavaStaticPath, "javaStaticSdk", target);
-                    Map<String, String> hashes = FileOps.getHashMap(md5File);
-                    if (hashes == null) {
-                        Logger.logDebug(md5File+" not found");
-                        downloadJavaStatic = true;
-                    } else if (JAVA_FILES.stream()
-                            .map(s -> new File(path, s))
-                            .anyMatch(f -> !hashes.get(f.getName()).equals(FileOps.calculateCheckSum(f)))) {
+                    if (!checkHashes(md5File, path, JAVA_FILES)) {
                         Logger.logDebug("jar file has invalid hashcode");
                         downloadJavaStatic = true;
                     }
@@ -268,13 +267,7 @@ public final class FileDeps {
                     Logger.logDebug("Checking javafx static sdk hashes");
                     String md5File = getChecksumFileName(javafxStatic.getParent(), "javafxStaticSdk",
                             javafxStatic.getParent().getParent().getFileName().toString());
-                    Map<String, String> hashes = FileOps.getHashMap(md5File);
-                    if (hashes == null) {
-                        Logger.logDebug(md5File + " md5 not found");
-                        downloadJavaFXStatic = true;
-                    } else if (JAVAFX_FILES.stream()
-                            .map(s -> new File(path, s))
-                            .anyMatch(f -> !hashes.get(f.getName()).equals(FileOps.calculateCheckSum(f)))) {
+                    if (!checkHashes(md5File, path, JAVAFX_FILES)) {
                         Logger.logDebug("JavaFX jar file has invalid hashcode");
                         downloadJavaFXStatic = true;
                     }
@@ -345,6 +338,55 @@ public final class FileDeps {
         return true;
     }
 
+    /**
+     * Verifies the checksums of the given files against the ones recorded when the SDK
+     * was installed. Files that haven't changed since their last verification, according
+     * to the {@link FileStamp} of the SDK, are not read again, unless a full check is enabled.
+     * @param md5File the path of the checksums file of the SDK
+     * @param path the folder of the files
+     * @param files the names of the files
+     * @return true if all the files match their checksums
+     */
+    private boolean checkHashes(String md5File, String path, List<String> files) {
+        boolean full = configuration.isFullCheckHash();
+        String key = md5File + File.pathSeparator + path;
+        String state = getValidationState(md5File, path, files);
+        if (!full && state.equals(VERIFIED_SDKS.get(key))) {
+            Logger.logDebug("Hashes of " + path + " already verified");
+            return true;
+        }
+        Map<String, String> hashes = FileOps.getHashMap(md5File);
+        if (hashes == null) {
+            Logger.logDebug(md5File + " not found");
+            return false;
+        }
+        FileStamp stamp = FileStamp.load(FileStamp.getStampPath(Path.of(md5File)));
+        boolean valid = files.stream()
+                .map(s -> new File(path, s))
+                .allMatch(f -> stamp.verify(f, hashes.get(f.getName()), full));
+        try {
+            stamp.save();
+        } catch (IOException e) {
+            Logger.logDebug("Error saving stamp for " + md5File + ": " + e.getMessage());
+        }
+        if (valid) {
+            VERIFIED_SDKS.put(key, state);
+        } else {
+            VERIFIED_SDKS.remove(key);
+        }
+        return valid;
+    }
+
+    /**
+     * The size and modification time of the checksum file and of the files
+     * it verifies, that have to be unchanged to skip verifying them again
+     */
+    private static String getValidationState(String md5File, String path, List<String> files) {
+        return Stream.concat(Stream.of(new File(md5File)), files.stream().map(s -> new File(path, s)))
+                .map(f -> f.getName() + ":" + f.length() + ":" + f.lastModified())
+                .collect(Collectors.joining(","));
+    }
+
     /**
      * Generates standardized checksum file name for a given os architecture
      * @param base base path, parent of which will be used
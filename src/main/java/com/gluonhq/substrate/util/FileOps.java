@@ -48,13 +48,11 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.net.HttpURLConnection;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
@@ -62,9 +60,11 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
@@ -74,12 +74,23 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.jar.Attributes;
 import java.util.jar.JarOutputStream;
@@ -87,6 +98,7 @@ import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
@@ -94,6 +106,8 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 public class FileOps {
 
+    private static final int UNZIP_BUFFER_SIZE = 128 * 1024;
+
     /**
      * Find the file with the provided name in the provided directory.
      * @param workDir
@@ -265,6 +279,56 @@ public class FileOps {
         return destination;
     }
 
+    /**
+     * Makes the content of a file available at the destination path, without copying
+     * it if possible. If the destination is already the same file, or it has the same
+     * size and last modified time as the source, it is left as is. Otherwise, a hard
+     * link to the source is created, or a symbolic link if hard links are not supported,
+     * for instance when both paths are in different file systems. Only if linking fails,
+     * the file is copied.
+     *
+     * @param source the path of the source file
+     * @param destination the path of the destination file
+     * @return the path of the destination file
+     * @throws IOException if the file can't be linked nor copied
+     */
+    public static Path linkOrCopyFile(Path source, Path destination) throws IOException {
+        Files.createDirectories(destination.getParent());
+        if (Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
+            if (isUnchanged(source, destination)) {
+                Logger.logDebug("File " + destination + " is up to date");
+                return destination;
+            }
+            Files.delete(destination);
+        }
+        try {
+            Files.createLink(destination, source);
+            Logger.logDebug("Linked " + source + " to " + destination);
+            return destination;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            Logger.logDebug("Can't create a hard link to " + source + ": " + e);
+        }
+        try {
+            Files.createSymbolicLink(destination, source.toAbsolutePath());
+            Logger.logDebug("Symlinked " + source + " to " + destination);
+            return destination;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            Logger.logDebug("Can't create a symbolic link to " + source + ": " + e);
+        }
+        Files.copy(source, destination, REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        Logger.logDebug("Copied " + source + " to " + destination);
+        return destination;
+    }
+
+    private static boolean isUnchanged(Path source, Path destination) throws IOException {
+        if (Files.isSymbolicLink(destination)) {
+            return Files.readSymbolicLink(destination).equals(source.toAbsolutePath());
+        }
+        return Files.isSameFile(source, destination) ||
+                (Files.size(source) == Files.size(destination) &&
+                        Files.getLastModifiedTime(source).equals(Files.getLastModifiedTime(destination)));
+    }
+
     /**
      * Deletes recursively a directory and all its content
      * @param start the top level directory to be removed
@@ -400,6 +464,64 @@ public class FileOps {
         writer.close();
     }
 
+    /**
+     * Writes a file through a temporary file next to it, that is then moved into
+     * place, so concurrent readers never find a partial file
+     * @param file Path to output file
+     * @param writer Writes the content into the temporary file
+     * @throws IOException
+     */
+    public static void writeAtomically(Path file, FileWriterAction writer) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmpFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            writer.write(tmpFile);
+            Files.move(tmpFile, file, REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Writes a text file atomically, see {@link #writeAtomically(Path, FileWriterAction)}
+     * @param file Path to output file
+     * @param content The content of the file
+     * @throws IOException
+     */
+    public static void writeAtomically(Path file, String content) throws IOException {
+        writeAtomically(file, tmpFile -> Files.writeString(tmpFile, content));
+    }
+
+    /**
+     * Writes a properties file atomically, see {@link #writeAtomically(Path, FileWriterAction)}
+     * @param file Path to output file
+     * @param properties The properties to store
+     * @param comments The comments of the file, or null
+     * @throws IOException
+     */
+    public static void writeAtomically(Path file, Properties properties, String comments) throws IOException {
+        writeAtomically(file, tmpFile -> {
+            try (Writer writer = Files.newBufferedWriter(tmpFile)) {
+                properties.store(writer, comments);
+            }
+        });
+    }
+
+    /**
+     * Writes the content of a file, see {@link #writeAtomically(Path, FileWriterAction)}
+     */
+    @FunctionalInterface
+    public interface FileWriterAction {
+
+        /**
+         * Writes the content into the given file
+         * @param file the file to write
+         * @throws IOException
+         */
+        void write(Path file) throws IOException;
+    }
+
     /**
      * Replaces all occurrences of one parameter in file with another
      * @param file Path to file
@@ -545,26 +667,48 @@ public class FileOps {
         try (ZipFile zf = new ZipFile(sourceJar.toFile())) {
             List<? extends ZipEntry> entries = zf.stream()
                     .filter(ze -> extensions.stream().anyMatch(ext -> ze.getName().endsWith(ext)))
+                    .filter(ze -> {
+                        if (uniqueObjectFileNames.contains(new File(ze.getName()).getName())) {
+                            Logger.logDebug("File " + ze.getName() + " not tested, a file with the same name already exists");
+                            return false;
+                        }
+                        return true;
+                    })
                     .collect(Collectors.toList());
             if (entries.isEmpty()) {
                 return;
             }
 
-            for (ZipEntry ze : entries) {
-                String uniqueName = new File(ze.getName()).getName();
-                if (!uniqueObjectFileNames.contains(uniqueName)) {
+            // each file is extracted to its own folder, as the jar can have
+            // files with the same name, for different platforms
+            Path extractDir = Files.createTempDirectory(target, "extract");
+            try {
+                List<Path> filePaths = new ArrayList<>();
+                for (int i = 0; i < entries.size(); i++) {
+                    ZipEntry ze = entries.get(i);
                     Logger.logDebug("Testing file " + ze.getName());
-                    Path filePath = FileOps.copyStream(zf.getInputStream(ze), target.resolve(uniqueName));
-                    if (filter == null || filter.test(filePath)) {
+                    Path filePath = extractDir.resolve(Integer.toString(i)).resolve(new File(ze.getName()).getName());
+                    try (InputStream is = zf.getInputStream(ze)) {
+                        FileOps.copyStream(is, filePath);
+                    }
+                    filePaths.add(filePath);
+                }
+
+                List<Boolean> passes = testFiles(filePaths, filter);
+                for (int i = 0; i < filePaths.size(); i++) {
+                    String uniqueName = filePaths.get(i).getFileName().toString();
+                    if (uniqueObjectFileNames.contains(uniqueName)) {
+                        Logger.logDebug("File " + entries.get(i).getName() + " not copied, a file with the same name already passes the filter");
+                    } else if (passes.get(i)) {
                         Logger.logDebug("File copied, it passes the filter: " + uniqueName);
+                        Files.move(filePaths.get(i), target.resolve(uniqueName), REPLACE_EXISTING);
                         uniqueObjectFileNames.add(uniqueName);
                     } else {
                         Logger.logDebug("File not copied, doesn't pass filter: " + uniqueName);
-                        Files.delete(filePath);
                     }
-                } else {
-                    Logger.logDebug("File " + ze.getName() + " not tested, a file with the same name already exists");
                 }
+            } finally {
+                deleteDirectory(extractDir);
             }
         } catch (Exception ex) {
             Logger.logSevere("Error extracting files from zip: " + ex.getMessage());
@@ -572,20 +716,61 @@ public class FileOps {
     }
 
     /**
-     * Downloads a file from a given URL (non null) into a given path (non null)
+     * Tests a list of files with a given filter, in parallel, as the filter
+     * can run external processes, like objdump, for some of them
+     *
+     * @param files the list of files
+     * @param filter the filter, or null to accept all files
+     * @return a list with the result for each file, in the same order
+     * @throws IOException
+     */
+    private static List<Boolean> testFiles(List<Path> files, Predicate<Path> filter) throws IOException {
+        List<Boolean> passes = new ArrayList<>();
+        if (filter == null || files.size() < 2) {
+            for (Path file : files) {
+                passes.add(filter == null || filter.test(file));
+            }
+            return passes;
+        }
+        List<Callable<Boolean>> jobs = new ArrayList<>();
+        for (Path file : files) {
+            jobs.add(() -> filter.test(file));
+        }
+        int threads = Math.min(jobs.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            for (Future<Boolean> future : executor.invokeAll(jobs)) {
+                passes.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Filtering files interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return passes;
+    }
+
+    /**
+     * Downloads a file from a given URL (non null) into a given path (non null).
+     * Interrupted downloads are resumed, and large files are downloaded in parallel
+     * chunks when the server supports it, see {@link Downloader}.
      * @param fileUrl the URL of the file
      * @param filePath the absolute path of the file where the remote file be downloaded into
-     * @throws IOException
+     * @throws IOException if the download fails
      */
     public static void downloadFile(URL fileUrl, Path filePath) throws IOException {
         Objects.requireNonNull(fileUrl);
         Objects.requireNonNull(filePath);
-        ProgressDownloader.downloadFile(fileUrl, filePath);
+        new Downloader().download(fileUrl, filePath);
     }
 
     /**
      * Extracts the files from a given zip file into a target folder, and returns a map
      * with the names of the files and their checksum values.
+     * The entries are extracted in parallel, using as many threads as available processors.
      * In the case that the file is not a valid zip, the returned map will be empty.
      * @param sourceZip the path of a non null zip file
      * @param targetDir the path of a folder where the zip file will be extracted
@@ -593,6 +778,28 @@ public class FileOps {
      * @throws IOException
      */
     public static Map<String, String> unzipFile(Path sourceZip, Path targetDir) throws IOException {
+        return unzipFile(sourceZip, targetDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Extracts the files from a given zip file into a target folder, and returns a map
+     * with the names of the files and their checksum values.
+     * The zip file is read through its central directory, so its entries can be extracted
+     * in parallel, using up to the given number of threads. All the directories are
+     * created first, and entries that would be extracted outside the target folder
+     * are rejected.
+     * In the case that the file is not a valid zip, the returned map will be empty.
+     * @param sourceZip the path of a non null zip file
+     * @param targetDir the path of a folder where the zip file will be extracted
+     * @param threads the maximum number of entries that are extracted at the same time
+     * @return a map with the file names and their checksum values
+     * @throws IOException
+     */
+    public static Map<String, String> unzipFile(Path sourceZip, Path targetDir, int threads) throws IOException {
+        return toFileNames(extractFile(sourceZip, targetDir, threads));
+    }
+
+    private static Map<Path, String> extractFile(Path sourceZip, Path targetDir, int threads) throws IOException {
         Objects.requireNonNull(sourceZip);
         Objects.requireNonNull(targetDir);
         if (!Files.exists(sourceZip)) {
@@ -604,44 +811,180 @@ public class FileOps {
         if (!Files.exists(targetDir)) {
             Files.createDirectories(targetDir);
         }
-        Map<String, String> hashes = new HashMap<>();
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(sourceZip.toFile()))) {
-            ZipEntry zipEntry;
-            while ((zipEntry = zis.getNextEntry()) != null) {
-                Path destPath = targetDir.resolve(zipEntry.getName());
-                if (zipEntry.isDirectory()) {
-                    if (!Files.exists(destPath)) {
-                        Files.createDirectories(destPath);
-                    }
-                } else {
-                    if (!Files.exists(destPath.getParent())) {
-                        Files.createDirectories(destPath.getParent());
-                    }
-                    byte[] buffer = new byte[1024];
-                    try (FileOutputStream fos = new FileOutputStream(destPath.toFile())) {
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
-                    hashes.put(destPath.getFileName().toString(), calculateCheckSum(destPath.toFile()));
-                }
-                zis.closeEntry();
+        ZipFile zipFile;
+        try {
+            zipFile = new ZipFile(sourceZip.toFile());
+        } catch (ZipException e) {
+            // not a zip file, or one that can only be read sequentially
+            Logger.logDebug("Error opening " + sourceZip + " as zip file: " + e.getMessage());
+            try (InputStream is = Files.newInputStream(sourceZip)) {
+                return extractStream(is, targetDir);
+            } catch (IOException ex) {
+                throw new IOException("Error unzipping from " + sourceZip + " into " + targetDir + ": " + ex.getMessage() + ", " + Arrays.toString(ex.getSuppressed()));
             }
+        }
+        try (zipFile) {
+            return unzipEntries(zipFile, targetDir, threads);
         } catch (IOException e) {
             throw new IOException("Error unzipping from " + sourceZip + " into " + targetDir + ": " + e.getMessage() + ", " + Arrays.toString(e.getSuppressed()));
         }
+    }
+
+    private static Map<Path, String> unzipEntries(ZipFile zipFile, Path targetDir, int threads) throws IOException {
+        // resolve all the entries, keeping the last one for a repeated path, and create their folders
+        Map<Path, ZipEntry> files = new LinkedHashMap<>();
+        Set<Path> dirs = new TreeSet<>();
+        for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+            ZipEntry zipEntry = e.nextElement();
+            Path destPath = resolveZipEntry(targetDir, zipEntry.getName());
+            if (zipEntry.isDirectory()) {
+                dirs.add(destPath);
+            } else {
+                dirs.add(destPath.getParent());
+                files.remove(destPath);
+                files.put(destPath, zipEntry);
+            }
+        }
+        for (Path dir : dirs) {
+            Files.createDirectories(dir);
+        }
+
+        List<Callable<String>> jobs = new ArrayList<>();
+        ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[UNZIP_BUFFER_SIZE]);
+        for (Map.Entry<Path, ZipEntry> file : files.entrySet()) {
+            jobs.add(() -> {
+                try (InputStream is = zipFile.getInputStream(file.getValue())) {
+                    return writeWithCheckSum(is, file.getKey(), buffers.get());
+                }
+            });
+        }
+
+        List<String> checksums = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, jobs.size())));
+        try {
+            for (Future<String> future : executor.invokeAll(jobs)) {
+                checksums.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Unzip interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Path, String> hashes = new LinkedHashMap<>();
+        int i = 0;
+        for (Path destPath : files.keySet()) {
+            hashes.put(destPath, checksums.get(i++));
+        }
+        return hashes;
+    }
+
+    /**
+     * Converts a map of extracted paths and checksums, in the order they were extracted,
+     * into a map of file names and checksums, where the last path with a given name wins
+     */
+    private static Map<String, String> toFileNames(Map<Path, String> hashes) {
+        Map<String, String> fileNames = new HashMap<>();
+        hashes.forEach((path, checksum) -> fileNames.put(path.getFileName().toString(), checksum));
+        return fileNames;
+    }
+
+    /**
+     * Resolves the path of a zip entry against the target folder, and verifies
+     * that it doesn't escape from it, as in "../../file"
+     */
+    private static Path resolveZipEntry(Path targetDir, String name) throws IOException {
+        Path normalizedTarget = targetDir.toAbsolutePath().normalize();
+        Path destPath = normalizedTarget.resolve(name).normalize();
+        if (!destPath.startsWith(normalizedTarget)) {
+            throw new IOException("Error: zip entry " + name + " is outside of " + targetDir);
+        }
+        return destPath;
+    }
+
+    /**
+     * Extracts the files from a given zip stream into a target folder, and returns a map
+     * with the names of the files and their checksum values, as in {@link #calculateCheckSum(File)}.
+     * The checksums are computed while the files are written, so the stream can be
+     * extracted while it is being downloaded, and the files don't need to be read again.
+     * In the case that the stream is not a valid zip, the returned map will be empty.
+     * @param zipStream a non null stream with the content of a zip file, it is not closed
+     * @param targetDir the path of a folder where the zip content will be extracted
+     * @return a map with the file names and their checksum values
+     * @throws IOException
+     */
+    public static Map<String, String> unzipStream(InputStream zipStream, Path targetDir) throws IOException {
+        return toFileNames(extractStream(zipStream, targetDir));
+    }
+
+    private static Map<Path, String> extractStream(InputStream zipStream, Path targetDir) throws IOException {
+        Objects.requireNonNull(zipStream);
+        Objects.requireNonNull(targetDir);
+        if (Files.isRegularFile(targetDir)) {
+            throw new IOException("Error: " + targetDir + " is not a directory");
+        }
+        Files.createDirectories(targetDir);
+        Map<Path, String> hashes = new LinkedHashMap<>();
+        byte[] buffer = new byte[UNZIP_BUFFER_SIZE];
+        ZipInputStream zis = new ZipInputStream(zipStream);
+        ZipEntry zipEntry;
+        while ((zipEntry = zis.getNextEntry()) != null) {
+            Path destPath = resolveZipEntry(targetDir, zipEntry.getName());
+            if (zipEntry.isDirectory()) {
+                if (!Files.exists(destPath)) {
+                    Files.createDirectories(destPath);
+                }
+            } else {
+                if (!Files.exists(destPath.getParent())) {
+                    Files.createDirectories(destPath.getParent());
+                }
+                // a repeated entry goes last, as it is the one that remains
+                hashes.remove(destPath);
+                hashes.put(destPath, writeWithCheckSum(zis, destPath, buffer));
+            }
+            zis.closeEntry();
+        }
         return hashes;
     }
 
+    /**
+     * Writes the content of a stream into a file, computing its checksum at the same time
+     * @return the checksum of the content, as in {@link #calculateCheckSum(File)}
+     */
+    private static String writeWithCheckSum(InputStream is, Path destPath, byte[] buffer) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (OutputStream os = Files.newOutputStream(destPath)) {
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                md5.update(buffer, 0, len);
+                os.write(buffer, 0, len);
+            }
+        }
+        return Arrays.toString(md5.digest());
+    }
+
     /**
      * Downloads a zip file from the specified sourceUrl into the destPath where a file
-     * named fileName will be created.
-     * Once the zip file is downloaded, it will be unpacked into the location that starts at
-     * the destPath, and is resolved under destPath/dirName/level1/...
+     * named fileName will be created. The zip file is resolved through the
+     * {@link ArtifactCache}, so it is only downloaded if it is not cached yet.
+     * The zip file is unpacked while it is downloaded, or in parallel if it was already cached,
+     * into the location that starts at the destPath, and is resolved under destPath/dirName/level1/...
      * A file with the checksums of all the files in the zip will be generated with name
      * "dirName-levelN.md5" under the final path: destPath/dirName/.../levelN/subDir-levelN.md5, or
      * "dirName.md5" under the final path: destPath/dirName/subDir.md5, if levels are not provided.
+     * Next to it, a {@link FileStamp} file with the same name and the ".stamp" extension records
+     * the size and modification time of the extracted files, along with their checksums.
      *
      * @param sourceUrl a string with the location of a zip file, e.g. https://download2.gluonhq.com/substrate/bar/foo.zip
      * @param destPath the path where the file zip file will be downloaded, e.g. /opt/bar
@@ -668,48 +1011,81 @@ public class FileOps {
                 ", levels = " + Arrays.asList(levels) +
                 ", md5 = " + md5name);
 
-        // 1. Download zip from urlZip into zipPath
-        FileOps.downloadFile(new URL(sourceUrl), zipPath);
-
-        // 2. Set path where zip should be extracted
-        Path zipDir = destPath.resolve(dirName);
+        // 1. Set path where zip should be extracted
+        Path dir = destPath.resolve(dirName);
         for (String level : levels) {
             if (level != null && !level.isEmpty()) {
-                zipDir = zipDir.resolve(level);
+                dir = dir.resolve(level);
+            }
+        }
+        Path zipDir = Files.createDirectories(dir);
+
+        // 2. Install zip from the artifact cache into zipPath, downloading it only if needed,
+        // and extract it into zipDir: in parallel if it was cached, or else while it is downloaded
+        ArtifactCache artifactCache = ArtifactCache.getDefault();
+        Map<Path, String> hashes = new LinkedHashMap<>();
+        if (artifactCache.lookup(sourceUrl).isPresent()) {
+            artifactCache.fetch(sourceUrl, zipPath);
+            hashes.putAll(extractFile(zipPath, zipDir, Runtime.getRuntime().availableProcessors()));
+        } else {
+            AtomicBoolean extracted = new AtomicBoolean();
+            try {
+                artifactCache.fetch(sourceUrl, zipPath, null, content -> {
+                    // in case of a failed download, the content is extracted again,
+                    // without the files of the failed attempt
+                    if (extracted.getAndSet(true)) {
+                        deleteDirectory(zipDir);
+                        Files.createDirectories(zipDir);
+                    }
+                    hashes.clear();
+                    hashes.putAll(extractStream(content, zipDir));
+                });
+            } catch (IOException e) {
+                if (extracted.get()) {
+                    deleteDirectory(zipDir);
+                }
+                throw e;
             }
         }
-        Files.createDirectories(zipDir);
-
-        // 3. Extract zip from zipPath into zipDir
-        Map<String, String> hashes = FileOps.unzipFile(zipPath, zipDir);
 
-        // 4. Write hashes file into zipDir
+        // 3. Write hashes file into zipDir
+        Path md5Path = zipDir.resolve(md5name);
         try (FileOutputStream fos =
-                     new FileOutputStream(zipDir.resolve(md5name).toFile());
+                     new FileOutputStream(md5Path.toFile());
              ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-            oos.writeObject(hashes);
+            oos.writeObject(toFileNames(hashes));
         }
+
+        // 4. Write stamp file into zipDir, so the hashes can be checked later without reading all the files
+        FileStamp stamp = FileStamp.load(FileStamp.getStampPath(md5Path));
+        stamp.clear();
+        for (Map.Entry<Path, String> entry : hashes.entrySet()) {
+            stamp.record(entry.getKey().toFile(), entry.getValue());
+        }
+        stamp.save();
     }
 
     /**
-     * Shorten the Java classpath with a pathing jar. This works by creating a temporary
+     * Shorten the Java classpath with a pathing jar. This works by creating an
      * empty jar file where the full classpath is defined in its Class-Path entry in
-     * the manifest. All files on the classpath will be copied to the same temporary
-     * folder, while all directories will be resolved relatively against that temporary
-     * folder. The Class-Path entry will ultimately contain all classpath elements as a
-     * reference that is relative to the pathing jar.
+     * the manifest. All files on the classpath will be linked, or copied if linking is
+     * not possible, to a subfolder of the given folder, while all directories will be resolved
+     * relatively against that folder. The Class-Path entry will ultimately contain all classpath elements as a
+     * reference that is relative to the pathing jar. The given folder should persist between
+     * builds, so the links that are still valid are reused instead of created again.
      *
+     * @param pathingPath the folder where the pathing jar is created
      * @param classpath A string with the classpath of files that will be added to the
      *                 pathing jar Class-Path attribute
      * @return a String with the path to the created pathing jar
      * @throws IOException
      */
-    public static String createPathingJar(Path tmpPath, String classpath) throws IOException {
+    public static String createPathingJar(Path pathingPath, String classpath) throws IOException {
         Objects.requireNonNull(classpath);
 
-        Files.createDirectories(tmpPath);
+        Files.createDirectories(pathingPath);
 
-        String manifestClasspath = generateClasspathFromTemporaryFolder(tmpPath, classpath);
+        String manifestClasspath = generateClasspathFromFolder(pathingPath, classpath);
         Logger.logDebug("Class-Path manifest entry for pathing jar: " + manifestClasspath);
 
         Manifest manifest = new Manifest();
@@ -717,7 +1093,7 @@ public class FileOps {
         attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
         attributes.put(Attributes.Name.CLASS_PATH, manifestClasspath);
 
-        File jarFile = tmpPath.resolve("classpathJar.jar").toFile();
+        File jarFile = pathingPath.resolve("classpathJar.jar").toFile();
         try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
             jos.putNextEntry(new ZipEntry("META-INF/"));
         }
@@ -726,104 +1102,37 @@ public class FileOps {
     }
 
     /**
-     * Copies all files in the classpath to a subfolder under the provided temporary path. The
-     * name of the subfolder is defined by {@link Constants#PATHING_JAR_DEPS_PATH}. It then
-     * returns a space separated string containing each classpath entry as relative to the
-     * provided temporary path.
+     * Links all files in the classpath into a subfolder under the provided path,
+     * see {@link #linkOrCopyFile(Path, Path)}. The name of the subfolder is defined by
+     * {@link Constants#PATHING_JAR_DEPS_PATH}. It then returns a space separated string
+     * containing each classpath entry as relative to the provided path.
      */
-    private static String generateClasspathFromTemporaryFolder(Path tmpPath, String classpath) {
-        Path depsPath = tmpPath.resolve(Constants.PATHING_JAR_DEPS_PATH);
+    private static String generateClasspathFromFolder(Path pathingPath, String classpath) {
+        Path depsPath = pathingPath.resolve(Constants.PATHING_JAR_DEPS_PATH);
 
         String[] classpathEntries = classpath.split(File.pathSeparator);
 
         Stream<String> convertedDirectories = Arrays.stream(classpathEntries)
                 .map(Path::of)
                 .filter(Files::isDirectory)
-                .map(sourceDir -> tmpPath.toAbsolutePath().relativize(sourceDir).toString());
+                .map(sourceDir -> pathingPath.toAbsolutePath().relativize(sourceDir).toString());
 
         Stream<String> convertedFiles = Arrays.stream(classpathEntries)
                 .map(Path::of)
                 .filter(Files::isRegularFile)
-                .map(sourceFile -> copyFile(sourceFile, depsPath.resolve(sourceFile.getFileName())))
+                .map(sourceFile -> linkFile(sourceFile, depsPath.resolve(sourceFile.getFileName())))
                 .map(destFile -> Constants.PATHING_JAR_DEPS_PATH + File.separator + destFile.getFileName());
 
         return Stream.concat(convertedDirectories, convertedFiles)
                 .collect(Collectors.joining(" "));
     }
 
-    /**
-     * Prints the progress of a file download
-     */
-    private static final class ProgressDownloader {
-
-        private int printPercentage = 0;
-
-        public static void downloadFile(URL fileUrl, Path filePath) {
-            new ProgressDownloader(fileUrl, filePath);
-            System.out.println();
-        }
-
-        private ProgressDownloader(URL fileUrl, Path filePath) {
-            try (
-                    ReadableByteChannel rbc = new RBCWrapper(Channels.newChannel(fileUrl.openStream()), contentLength(fileUrl), this);
-                    FileOutputStream fos = new FileOutputStream(filePath.toFile())) {
-                fos.getChannel().transferFrom( rbc, 0, Long.MAX_VALUE );
-            } catch ( Exception e ) {
-                Logger.logSevere("Downloading failed: " + e.getMessage());
-            }
-        }
-
-        public void rbcProgressCallback(RBCWrapper rbc, double progress) {
-            if (((int)progress) >= printPercentage) {
-                printPercentage += 10;
-                System.out.print("\r" + String.format("Download progress: %.2f / %.2fM", toMB(rbc.readSoFar), toMB(rbc.expectedSize)));
-                System.out.flush();
-            }
-        }
-
-        private double toMB(long sizeInBytes) {
-            return (double) sizeInBytes / (1024 * 1024);
-        }
-
-        private int contentLength( URL url ) {
-            HttpURLConnection connection;
-            int contentLength = -1;
-
-            try {
-                HttpURLConnection.setFollowRedirects( false );
-                connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("HEAD");
-                contentLength = connection.getContentLength();
-            } catch ( Exception e ) { }
-            return contentLength;
-        }
-    }
-
-    private static final class RBCWrapper implements ReadableByteChannel {
-        private long readSoFar;
-        private long expectedSize;
-        private ReadableByteChannel rbc;
-        private ProgressDownloader progressDownloader;
-
-        RBCWrapper( ReadableByteChannel rbc, long expectedSize, ProgressDownloader progressDownloader) {
-            this.progressDownloader = progressDownloader;
-            this.expectedSize = expectedSize;
-            this.rbc = rbc;
-        }
-
-        public boolean isOpen() { return rbc.isOpen(); }
-        public void close() throws IOException { rbc.close(); }
-
-        public int read(ByteBuffer bb) throws IOException {
-            int n;
-            double progress;
-
-            if ((n = rbc.read(bb)) > 0) {
-                readSoFar += n;
-                progress = expectedSize > 0 ? (double) readSoFar / (double) expectedSize * 100.0 : -1.0;
-                progressDownloader.rbcProgressCallback(this, progress);
-            }
-            return n;
+    private static Path linkFile(Path source, Path destination) {
+        try {
+            return linkOrCopyFile(source, destination);
+        } catch (IOException ex) {
+            Logger.logFatal(ex, "Failed linking " + source + " to " + destination + ": " + ex);
         }
+        return destination;
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Records the size, the modification time and the checksum of the files of
+ * an installed SDK, so their integrity can be verified in later builds by
+ * computing the checksum only of those files that have changed since then.
+ *
+ * The stamp file is a properties file next to the checksums file of the SDK,
+ * where the keys are the paths of the files relative to its folder, and the
+ * values are their size, modification time in milliseconds and checksum, as
+ * in {@link FileOps#calculateCheckSum(File)}, separated by spaces.
+ */
+public class FileStamp {
+
+    private static final String EXTENSION = ".stamp";
+
+    private final Path stampFile;
+    private final Map<String, Stamp> stamps = new TreeMap<>();
+    private boolean modified;
+
+    private FileStamp(Path stampFile) {
+        this.stampFile = stampFile.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the path of the stamp file that goes with the given checksums file
+     *
+     * @param md5File the path of a checksums file, like foo-bar.md5
+     * @return the path of the stamp file, like foo-bar.stamp
+     */
+    public static Path getStampPath(Path md5File) {
+        String name = md5File.getFileName().toString();
+        int index = name.lastIndexOf('.');
+        return md5File.resolveSibling((index > 0 ? name.substring(0, index) : name) + EXTENSION);
+    }
+
+    /**
+     * Reads a stamp file. If the file doesn't exist or can't be read, the
+     * returned stamp is empty, and all the files will be verified.
+     *
+     * @param stampFile the path of the stamp file
+     * @return the stamp
+     */
+    public static FileStamp load(Path stampFile) {
+        FileStamp fileStamp = new FileStamp(Objects.requireNonNull(stampFile));
+        if (Files.isRegularFile(stampFile)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(stampFile)) {
+                properties.load(reader);
+                for (String name : properties.stringPropertyNames()) {
+                    String[] values = properties.getProperty(name).split(" ", 3);
+                    if (values.length == 3) {
+                        fileStamp.stamps.put(name, new Stamp(Long.parseLong(values[0]), Long.parseLong(values[1]), values[2]));
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                Logger.logDebug("Error reading stamp file " + stampFile + ": " + e.getMessage());
+                fileStamp.stamps.clear();
+            }
+        }
+        return fileStamp;
+    }
+
+    /**
+     * Removes all the recorded files
+     */
+    public void clear() {
+        modified = modified || !stamps.isEmpty();
+        stamps.clear();
+    }
+
+    /**
+     * Records the current size and modification time of a file, along with its checksum
+     *
+     * @param file the file
+     * @param checksum the checksum of its content
+     * @throws IOException
+     */
+    public void record(File file, String checksum) throws IOException {
+        Path path = file.toPath();
+        stamps.put(getKey(file), new Stamp(Files.size(path), Files.getLastModifiedTime(path).toMillis(), checksum));
+        modified = true;
+    }
+
+    /**
+     * Verifies that the content of a file matches the expected checksum.
+     *
+     * Unless a full verification is requested, if the file has the same size and
+     * modification time as when it was recorded with that same checksum, it is
+     * considered valid without reading it. Otherwise, its checksum is computed,
+     * and, if it is valid, the file is recorded again.
+     *
+     * @param file the file
+     * @param checksum the expected checksum, or null if it is not known
+     * @param full true to compute the checksum of the file in any case
+     * @return true if the file matches the checksum
+     */
+    public boolean verify(File file, String checksum, boolean full) {
+        if (checksum == null || !file.isFile()) {
+            return false;
+        }
+        if (!full) {
+            Stamp stamp = stamps.get(getKey(file));
+            if (stamp != null && stamp.checksum.equals(checksum) &&
+                    stamp.size == file.length() && stamp.lastModified == file.lastModified()) {
+                return true;
+            }
+        }
+        Logger.logDebug("Computing checksum of " + file);
+        if (!checksum.equals(FileOps.calculateCheckSum(file))) {
+            return false;
+        }
+        try {
+            record(file, checksum);
+        } catch (IOException e) {
+            Logger.logDebug("Error recording " + file + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Writes the stamp file, if any file was recorded since it was loaded
+     *
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        Properties properties = new Properties();
+        stamps.forEach((name, stamp) -> properties.setProperty(name,
+                stamp.size + " " + stamp.lastModified + " " + stamp.checksum));
+        FileOps.writeAtomically(stampFile, properties, null);
+        modified = false;
+    }
+
+    private String getKey(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        return stampFile.getParent().relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static final class Stamp {
+        private final long size;
+        private final long lastModified;
+        private final String checksum;
+
+        Stamp(long size, long lastModified, String checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Computes a digest of the inputs of a build step, so the step can be
+ * skipped when none of them have changed since its last successful run.
+ *
+ * Inputs are added as key/value strings or as files. For files, the content
+ * is digested, and for directories, the relative names and the content of all
+ * the files they contain. The digests of the file contents are kept in memory,
+ * for files with the same size and modification time, so a long-lived process,
+ * like the build daemon, doesn't read the unchanged inputs again on every build.
+ */
+public class Fingerprint {
+
+    private static final int MEMORY_ENTRIES = 4096;
+    // milliseconds since their last modification after which the digests of files are kept
+    private static final long RACY_PERIOD = 2000;
+    // digests of file contents, least recently used first
+    private static final Map<String, byte[]> CONTENT_DIGESTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+
+    private final MessageDigest digest;
+    private String value;
+
+    /**
+     * Creates an empty fingerprint
+     */
+    public Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds a string value to the fingerprint
+     *
+     * @param key the name of the input
+     * @param value the value of the input, can be null
+     * @return this fingerprint
+     */
+    public Fingerprint add(String key, String value) {
+        update(key);
+        update(value == null ? "<null>" : value);
+        return this;
+    }
+
+    /**
+     * Adds a list of string values to the fingerprint, keeping their order
+     *
+     * @param key the name of the input
+     * @param values the values of the input
+     * @return this fingerprint
+     */
+    public Fingerprint addAll(String key, List<String> values) {
+        update(key);
+        update(Integer.toString(values.size()));
+        values.forEach(this::update);
+        return this;
+    }
+
+    /**
+     * Adds a file or a directory to the fingerprint. Files that don't
+     * exist are added as such, so they change the fingerprint when they
+     * are created.
+     *
+     * @param key the name of the input
+     * @param path the path of a file or directory
+     * @return this fingerprint
+     * @throws IOException
+     */
+    public Fingerprint addFile(String key, Path path) throws IOException {
+        update(key);
+        update(path.toAbsolutePath().toString());
+        if (Files.isDirectory(path)) {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            update("<dir>");
+            for (Path file : files) {
+                update(path.relativize(file).toString().replace(File.separatorChar, '/'));
+                updateContent(file);
+            }
+        } else if (Files.isRegularFile(path)) {
+            update("<file>");
+            updateContent(path);
+        } else {
+            update("<none>");
+        }
+        return this;
+    }
+
+    /**
+     * Adds the content of a file to the fingerprint, but not its location,
+     * so the same file in a different folder, or on a different machine,
+     * gives the same fingerprint. Files that don't exist are added as such.
+     *
+     * @param key the name of the input
+     * @param path the path of a regular file
+     * @return this fingerprint
+     * @throws IOException
+     */
+    public Fingerprint addContent(String key, Path path) throws IOException {
+        update(key);
+        if (Files.isRegularFile(path)) {
+            update("<file>");
+            updateContent(path);
+        } else {
+            update("<none>");
+        }
+        return this;
+    }
+
+    /**
+     * Returns the value of the fingerprint. No more inputs can be added
+     * after calling this method.
+     *
+     * @return a string with the hexadecimal digest of all the inputs
+     */
+    public String getValue() {
+        if (value == null) {
+            value = Strings.toHex(digest.digest());
+        }
+        return value;
+    }
+
+    /**
+     * Reads the fingerprint stored in a file
+     *
+     * @param file the path of the file
+     * @return an optional with the stored value, or empty if the file doesn't
+     * exist or can't be read
+     */
+    public static Optional<String> read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(file).trim());
+        } catch (IOException e) {
+            Logger.logDebug("Error reading fingerprint " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the value of this fingerprint in a file
+     *
+     * @param file the path of the file
+     * @throws IOException
+     */
+    public void write(Path file) throws IOException {
+        FileOps.writeAtomically(file, getValue());
+    }
+
+    private void update(String s) {
+        checkNotDone();
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        updateLength(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void updateContent(Path file) throws IOException {
+        checkNotDone();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String key = file.toAbsolutePath() + File.pathSeparator + attributes.size() + File.pathSeparator +
+                attributes.lastModifiedTime().toMillis();
+        byte[] contentDigest;
+        synchronized (CONTENT_DIGESTS) {
+            contentDigest = CONTENT_DIGESTS.get(key);
+        }
+        if (contentDigest == null) {
+            contentDigest = digestContent(file);
+            // a file modified just now could change again without changing its modification time
+            if (System.currentTimeMillis() - attributes.lastModifiedTime().toMillis() > RACY_PERIOD) {
+                synchronized (CONTENT_DIGESTS) {
+                    CONTENT_DIGESTS.put(key, contentDigest);
+                }
+            }
+        }
+        updateLength(attributes.size());
+        digest.update(contentDigest);
+    }
+
+    private static byte[] digestContent(Path file) throws IOException {
+        MessageDigest contentDigest;
+        try {
+            contentDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                contentDigest.update(buffer, 0, read);
+            }
+        }
+        return contentDigest.digest();
+    }
+
+    private void updateLength(long length) {
+        for (int i = 7; i >= 0; i--) {
+            digest.update((byte) (length >>> (8 * i)));
+        }
+    }
+
+    private void checkNotDone() {
+        if (value != null) {
+            throw new IllegalStateException("Fingerprint value has already been computed");
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The memory and processors that the host makes available to the build,
+ * taking into account the limits of the cgroup of the current process, so
+ * the right values are used inside containers, and the heap size and number
+ * of threads for native-image that can be derived from them.
+ *
+ * Both cgroup v1 and v2 are supported. On other platforms than Linux, only
+ * the values reported by the JVM are used.
+ */
+public final class HostResources {
+
+    /**
+     * Value of the memory values when they are not known
+     */
+    public static final long UNKNOWN = -1;
+
+    private static final long MB = 1024 * 1024;
+    private static final long GB = 1024 * MB;
+    // memory that each native-image thread is given, at least
+    private static final long MEMORY_PER_THREAD = 512 * MB;
+    private static final long MIN_HEAP_SIZE = GB;
+
+    private final long physicalMemory;
+    private final long memoryLimit;
+    private final long availableMemory;
+    private final int processors;
+
+    HostResources(long physicalMemory, long memoryLimit, long availableMemory, int processors) {
+        this.physicalMemory = physicalMemory;
+        this.memoryLimit = memoryLimit;
+        this.availableMemory = availableMemory;
+        this.processors = Math.max(1, processors);
+    }
+
+    /**
+     * Inspects the resources of the host
+     *
+     * @return the resources of the host
+     */
+    public static HostResources detect() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        // getTotalMemorySize() replaces it since JDK 14, but the source level is 11
+        @SuppressWarnings("deprecation")
+        long physicalMemory = bean instanceof com.sun.management.OperatingSystemMXBean ?
+                ((com.sun.management.OperatingSystemMXBean) bean).getTotalPhysicalMemorySize() : UNKNOWN;
+        return detect(Path.of("/proc"), Path.of("/sys/fs/cgroup"), physicalMemory,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Inspects the resources of the host, reading the files of the given
+     * proc and cgroup file systems
+     *
+     * @param procPath the path of the proc file system
+     * @param cgroupPath the path where the cgroup file systems are mounted
+     * @param physicalMemory the physical memory of the host, or {@link #UNKNOWN}
+     * @param processors the processors available to the JVM
+     * @return the resources of the host
+     */
+    static HostResources detect(Path procPath, Path cgroupPath, long physicalMemory, int processors) {
+        Map<String, String> cgroups = readCgroups(procPath.resolve("self").resolve("cgroup"));
+
+        long memoryLimit;
+        long memoryUsage;
+        Optional<String> max = readCgroupFile(cgroups, cgroupPath, "", "memory.max");
+        if (max.isPresent()) {
+            memoryLimit = parseLong(max.get());
+            memoryUsage = readCgroupFile(cgroups, cgroupPath, "", "memory.current").map(HostResources::parseLong).orElse(UNKNOWN);
+        } else {
+            memoryLimit = readCgroupFile(cgroups, cgroupPath, "memory", "memory.limit_in_bytes").map(HostResources::parseLong).orElse(UNKNOWN);
+            memoryUsage = readCgroupFile(cgroups, cgroupPath, "memory", "memory.usage_in_bytes").map(HostResources::parseLong).orElse(UNKNOWN);
+        }
+        if (memoryLimit != UNKNOWN && physicalMemory != UNKNOWN && memoryLimit >= physicalMemory) {
+            // cgroup v1 reports a huge number when there is no limit
+            memoryLimit = UNKNOWN;
+        }
+
+        long availableMemory = readMemAvailable(procPath.resolve("meminfo"));
+        if (memoryLimit != UNKNOWN && memoryUsage != UNKNOWN) {
+            long cgroupAvailable = Math.max(0, memoryLimit - memoryUsage);
+            availableMemory = availableMemory == UNKNOWN ? cgroupAvailable : Math.min(availableMemory, cgroupAvailable);
+        }
+
+        double cpuLimit = readCgroupFile(cgroups, cgroupPath, "", "cpu.max")
+                .map(value -> value.split("\\s+"))
+                .filter(values -> values.length == 2)
+                .map(values -> parseQuota(values[0], values[1]))
+                .orElseGet(() -> parseQuota(
+                        readCgroupFile(cgroups, cgroupPath, "cpu", "cpu.cfs_quota_us").orElse("-1"),
+                        readCgroupFile(cgroups, cgroupPath, "cpu", "cpu.cfs_period_us").orElse("-1")));
+        if (cpuLimit > 0) {
+            processors = Math.min(processors, (int) Math.ceil(cpuLimit));
+        }
+        return new HostResources(physicalMemory, memoryLimit, availableMemory, processors);
+    }
+
+    /**
+     * @return the memory of the host, or the limit of its cgroup if it is lower,
+     * in bytes, or {@link #UNKNOWN}
+     */
+    public long getMemory() {
+        if (memoryLimit == UNKNOWN) {
+            return physicalMemory;
+        }
+        return physicalMemory == UNKNOWN ? memoryLimit : Math.min(physicalMemory, memoryLimit);
+    }
+
+    /**
+     * @return the memory that is not in use, in bytes, or {@link #UNKNOWN}
+     */
+    public long getAvailableMemory() {
+        long memory = getMemory();
+        if (availableMemory == UNKNOWN) {
+            return memory;
+        }
+        return memory == UNKNOWN ? availableMemory : Math.min(memory, availableMemory);
+    }
+
+    /**
+     * @return the processors available, limited by the CPU quota of the cgroup, if any
+     */
+    public int getProcessors() {
+        return processors;
+    }
+
+    /**
+     * Returns the maximum heap size for native-image: three quarters of the
+     * available memory, so the host doesn't need to swap, but not less than
+     * 1 GB (or half the memory of the host, if it is smaller)
+     *
+     * @return the heap size in bytes, or {@link #UNKNOWN} if the memory is not known
+     */
+    public long getNativeImageHeapSize() {
+        long available = getAvailableMemory();
+        if (available == UNKNOWN) {
+            return UNKNOWN;
+        }
+        long memory = getMemory();
+        long heapSize = Math.max(available / 4 * 3, Math.min(MIN_HEAP_SIZE, memory / 2));
+        return heapSize / MB * MB;
+    }
+
+    /**
+     * Returns the number of threads for native-image: one per processor,
+     * as long as each one of them gets at least 512 MB of the heap
+     *
+     * @param heapSize the heap size of native-image, or {@link #UNKNOWN}
+     * @return the number of threads, at least 1
+     */
+    public int getNativeImageThreads(long heapSize) {
+        if (heapSize == UNKNOWN) {
+            return processors;
+        }
+        return (int) Math.max(1, Math.min(processors, heapSize / MEMORY_PER_THREAD));
+    }
+
+    @Override
+    public String toString() {
+        return "HostResources{memory=" + toMB(getMemory()) + " MB, available=" + toMB(getAvailableMemory()) +
+                " MB, processors=" + processors + "}";
+    }
+
+    private static long toMB(long bytes) {
+        return bytes == UNKNOWN ? UNKNOWN : bytes / MB;
+    }
+
+    /**
+     * Reads the cgroups of the current process, as a map of controller
+     * to path, where the cgroup v2 hierarchy has an empty controller
+     */
+    private static Map<String, String> readCgroups(Path cgroupFile) {
+        Map<String, String> cgroups = new HashMap<>();
+        for (String line : readLines(cgroupFile)) {
+            // hierarchy-ID:controller-list:cgroup-path
+            String[] fields = line.split(":", 3);
+            if (fields.length == 3) {
+                for (String controller : fields[1].split(",")) {
+                    cgroups.put(controller, fields[2]);
+                }
+            }
+        }
+        return cgroups;
+    }
+
+    /**
+     * Reads a file of the cgroup of the current process for the given
+     * controller, or of the root cgroup, as it is seen inside containers
+     */
+    private static Optional<String> readCgroupFile(Map<String, String> cgroups, Path cgroupPath,
+                                                   String controller, String fileName) {
+        String path = cgroups.get(controller);
+        if (path == null) {
+            return Optional.empty();
+        }
+        Path controllerPath = cgroupPath.resolve(controller);
+        List<Path> candidates = Arrays.asList(
+                controllerPath.resolve(path.replaceFirst("^/+", "")).resolve(fileName),
+                controllerPath.resolve(fileName));
+        for (Path candidate : candidates) {
+            List<String> lines = readLines(candidate);
+            if (!lines.isEmpty()) {
+                return Optional.of(lines.get(0).trim());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static long readMemAvailable(Path meminfo) {
+        for (String line : readLines(meminfo)) {
+            if (line.startsWith("MemAvailable:")) {
+                // in kB
+                return parseLong(line.substring(13).replace("kB", "").trim()) * 1024;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static double parseQuota(String quota, String period) {
+        long q = parseLong(quota);
+        long p = parseLong(period);
+        return q > 0 && p > 0 ? (double) q / p : UNKNOWN;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            // "max" in cgroup v2
+            return UNKNOWN;
+        }
+    }
+
+    private static List<String> readLines(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(file);
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer for the configuration files that are
+ * passed to native-image.
+ *
+ * Objects are read as maps that keep the order of their keys, arrays as
+ * lists, and numbers as {@link BigDecimal}, so they are written back
+ * unchanged. The reader accepts trailing and repeated commas in
+ * arrays and objects, which are common in configuration fragments that were
+ * meant to be concatenated.
+ */
+public final class Json {
+
+    private final String text;
+    private int position;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document
+     *
+     * @param text the JSON text
+     * @return a {@link Map}, {@link List}, {@link String}, {@link Boolean},
+     * {@link Number} or null, depending on the document
+     * @throws IOException if the text is not valid JSON
+     */
+    public static Object parse(String text) throws IOException {
+        Json json = new Json(text);
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.position < text.length()) {
+            throw json.error("Unexpected content after the end of the document");
+        }
+        return value;
+    }
+
+    /**
+     * Writes a value in compact form, with the keys of objects in iteration order
+     *
+     * @param value a value, as returned by {@link #parse(String)}
+     * @return the JSON text of the value
+     */
+    public static String toJson(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(sb, value);
+        return sb.toString();
+    }
+
+    /**
+     * Writes a string as a JSON string, including the quotes
+     *
+     * @param value the string
+     * @return the quoted and escaped string
+     */
+    public static String quote(String value) {
+        StringBuilder sb = new StringBuilder();
+        writeString(sb, value);
+        return sb.toString();
+    }
+
+    private static void write(StringBuilder sb, Object value) {
+        if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                writeString(sb, String.valueOf(entry.getKey()));
+                sb.append(':');
+                write(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : (List<?>) value) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                write(sb, item);
+            }
+            sb.append(']');
+        } else if (value instanceof String) {
+            writeString(sb, (String) value);
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static void writeString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private Object readValue() throws IOException {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of the document");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{': return readObject();
+            case '[': return readArray();
+            case '"': return readString();
+            case 't': return readLiteral("true", Boolean.TRUE);
+            case 'f': return readLiteral("false", Boolean.FALSE);
+            case 'n': return readLiteral("null", null);
+            default:
+                if (c == '-' || Character.isDigit(c)) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        position++;
+        while (true) {
+            skipWhitespaceAndCommas();
+            if (peek() == '}') {
+                position++;
+                return map;
+            }
+            if (peek() != '"') {
+                throw error("Expected a key");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("Expected ':'");
+            }
+            position++;
+            map.put(key, readValue());
+            skipWhitespace();
+            char c = peek();
+            if (c != ',' && c != '}') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() throws IOException {
+        List<Object> list = new ArrayList<>();
+        position++;
+        while (true) {
+            skipWhitespaceAndCommas();
+            if (peek() == ']') {
+                position++;
+                return list;
+            }
+            list.add(readValue());
+            skipWhitespace();
+            char c = peek();
+            if (c != ',' && c != ']') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        position++;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default: sb.append(escaped);
+            }
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) throws IOException {
+        if (!text.startsWith(literal, position)) {
+            throw error("Unexpected token");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private Number readNumber() throws IOException {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return new BigDecimal(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    private char peek() throws IOException {
+        if (position >= text.length()) {
+            throw error("Unexpected end of the document");
+        }
+        return text.charAt(position);
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void skipWhitespaceAndCommas() {
+        while (position < text.length() &&
+                (Character.isWhitespace(text.charAt(position)) || text.charAt(position) == ',')) {
+            position++;
+        }
+    }
+
+    private IOException error(String message) {
+        int line = 1;
+        for (int i = 0; i < Math.min(position, text.length()); i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new IOException(message + " at line " + line);
+    }
+}
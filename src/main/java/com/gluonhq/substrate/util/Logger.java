@@ -28,8 +28,11 @@
 package com.gluonhq.substrate.util;
 
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.SimpleFormatter;
 
@@ -39,6 +42,7 @@ public class Logger {
     private static ConsoleHandler consoleHandler;
     private static FileHandler fileHandler;
     private static String logDirectory;
+    private static final ThreadLocal<TargetLog> TARGET_LOG = new ThreadLocal<>();
 
     public static void logInfo(String s) {
         LOGGER.info(s);
@@ -53,8 +57,9 @@ public class Logger {
     }
 
     public static void logSevere(String s) {
+        TargetLog targetLog = TARGET_LOG.get();
         LOGGER.severe(s + "\n" +
-                "Check the log files under "+logDirectory +
+                "Check the log files under " + (targetLog != null ? targetLog.logPath : logDirectory) +
                 "\nAnd please check https://docs.gluonhq.com/ for more information.");
     }
 
@@ -71,22 +76,31 @@ public class Logger {
     }
 
 
+    /**
+     * Adds a handler that receives all the messages logged from now on
+     *
+     * @param handler the handler
+     */
+    public static void addHandler(Handler handler) {
+        LOGGER.addHandler(handler);
+    }
+
+    /**
+     * Removes a handler added with {@link #addHandler(Handler)}
+     *
+     * @param handler the handler
+     */
+    public static void removeHandler(Handler handler) {
+        LOGGER.removeHandler(handler);
+    }
+
     public static void logInit(String logPath, boolean verbose) {
-        System.setProperty("java.util.logging.SimpleFormatter.format", "[%1$tc][%4$s] %5$s%n"); // [Date][Level] Message
+        initConsole(verbose);
         logDirectory = logPath;
-
-        LOGGER.setLevel(Level.ALL);
-        LOGGER.setUseParentHandlers(false);
         try {
-            if (consoleHandler == null) {
-                consoleHandler = new ConsoleHandler();
-                consoleHandler.setLevel(verbose ? Level.FINE : Level.INFO);
-                consoleHandler.setFormatter(new SimpleFormatter());
-                LOGGER.addHandler(consoleHandler);
-            }
-
             if (fileHandler != null) {
                 LOGGER.removeHandler(fileHandler);
+                fileHandler.close();
             }
 
             fileHandler = new FileHandler(logPath + "/client-debug%g.log",
@@ -100,4 +114,101 @@ public class Logger {
         }
     }
 
+    /**
+     * Starts logging the messages of the build of one target into its own log folder,
+     * when several targets are built at the same time. The current thread, and the
+     * threads of the tasks it runs with a {@link TaskGraph}, belong to the target until
+     * the returned log is closed, and their messages are only written to its log files.
+     * Messages of other threads are written to the log files of all the open targets.
+     *
+     * @param target the name of the target, like x86_64-linux
+     * @param logPath the path of the log folder of the target
+     * @param verbose true to log debug messages to the console
+     * @return the log of the target, which has to be closed when the build ends
+     * @throws IOException if the log files can't be created
+     */
+    public static TargetLog openTargetLog(String target, String logPath, boolean verbose) throws IOException {
+        initConsole(verbose);
+        TargetLog targetLog = new TargetLog(target, logPath);
+        TARGET_LOG.set(targetLog);
+        return targetLog;
+    }
+
+    /**
+     * @return the log of the target the current thread belongs to, or null if there is none
+     */
+    public static TargetLog getTargetLog() {
+        return TARGET_LOG.get();
+    }
+
+    /**
+     * Makes the current thread belong to the target of the given log, so tasks
+     * running in other threads can log on behalf of the thread that started them
+     *
+     * @param targetLog the log of the target, or null if the thread doesn't belong to any
+     * @return the log of the target the thread belonged to, or null
+     */
+    public static TargetLog setTargetLog(TargetLog targetLog) {
+        TargetLog previous = TARGET_LOG.get();
+        if (targetLog == null) {
+            TARGET_LOG.remove();
+        } else {
+            TARGET_LOG.set(targetLog);
+        }
+        return previous;
+    }
+
+    private static synchronized void initConsole(boolean verbose) {
+        System.setProperty("java.util.logging.SimpleFormatter.format", "[%1$tc][%4$s] %5$s%n"); // [Date][Level] Message
+
+        LOGGER.setLevel(Level.ALL);
+        LOGGER.setUseParentHandlers(false);
+        if (consoleHandler == null) {
+            consoleHandler = new ConsoleHandler();
+            consoleHandler.setLevel(verbose ? Level.FINE : Level.INFO);
+            consoleHandler.setFormatter(new SimpleFormatter());
+            LOGGER.addHandler(consoleHandler);
+        }
+    }
+
+    /**
+     * The log files of the build of one target, see {@link #openTargetLog(String, String, boolean)}
+     */
+    public static final class TargetLog implements Closeable {
+
+        private final String target;
+        private final String logPath;
+        private final FileHandler handler;
+
+        private TargetLog(String target, String logPath) throws IOException {
+            this.target = target;
+            this.logPath = logPath;
+            handler = new FileHandler(logPath + "/client-debug%g.log",
+                    10_485_760L, 1,
+                    true);
+            handler.setLevel(Level.ALL);
+            handler.setFormatter(new SimpleFormatter());
+            handler.setFilter(record -> {
+                TargetLog current = TARGET_LOG.get();
+                return current == null || current == this;
+            });
+            LOGGER.addHandler(handler);
+        }
+
+        /**
+         * @return the name of the target
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        @Override
+        public void close() {
+            LOGGER.removeHandler(handler);
+            handler.close();
+            if (TARGET_LOG.get() == this) {
+                TARGET_LOG.remove();
+            }
+        }
+    }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The statistics that native-image prints while it builds an image: the
+ * duration of its phases, the number of reachable types, fields and methods,
+ * and its peak memory, together with the size of the generated image.
+ *
+ * Reports are created with a {@link Parser} of the output of native-image,
+ * and can be stored, so the report of a build can be compared with the one
+ * of the previous build to find regressions, see {@link #findRegressions}.
+ */
+public final class NativeImageReport {
+
+    /**
+     * Value of the counters that native-image didn't print
+     */
+    public static final long UNKNOWN = -1;
+
+    /**
+     * The name of the analysis phase
+     */
+    public static final String ANALYSIS = "analysis";
+
+    public static final String TYPES = "types";
+    public static final String FIELDS = "fields";
+    public static final String METHODS = "methods";
+
+    // the analysis time is a regression when it grows 20%, and at least 5 seconds
+    private static final double ANALYSIS_TIME_THRESHOLD = 0.2;
+    private static final Duration ANALYSIS_TIME_MIN_INCREASE = Duration.ofSeconds(5);
+    // the image size is a regression when it grows 5%
+    private static final double IMAGE_SIZE_THRESHOLD = 0.05;
+
+    private static final String PHASE_PREFIX = "phase.";
+    private static final String REACHABLE_PREFIX = "reachable.";
+    private static final String PEAK_RSS = "peakRss";
+    private static final String IMAGE_SIZE = "imageSize";
+    private static final String TOTAL_TIME = "totalTime";
+
+    private final Map<String, Duration> phases;
+    private final Map<String, Long> reachable;
+    private final long peakRss;
+    private final long imageSize;
+    private final Duration totalTime;
+
+    private NativeImageReport(Map<String, Duration> phases, Map<String, Long> reachable,
+                              long peakRss, long imageSize, Duration totalTime) {
+        this.phases = Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+        this.reachable = Collections.unmodifiableMap(new TreeMap<>(reachable));
+        this.peakRss = peakRss;
+        this.imageSize = imageSize;
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Returns the duration of the phases of native-image, like "setup",
+     * "analysis", "universe", "compile" or "image", in the order they ran
+     *
+     * @return an unmodifiable map with the name and duration of each phase
+     */
+    public Map<String, Duration> getPhases() {
+        return phases;
+    }
+
+    /**
+     * @param name the name of a phase
+     * @return an optional with the duration of the phase, or empty if it is unknown
+     */
+    public Optional<Duration> getPhase(String name) {
+        return Optional.ofNullable(phases.get(name));
+    }
+
+    /**
+     * @param kind one of {@link #TYPES}, {@link #FIELDS} or {@link #METHODS}
+     * @return the number of reachable elements of that kind, or {@link #UNKNOWN}
+     */
+    public long getReachable(String kind) {
+        return reachable.getOrDefault(kind, UNKNOWN);
+    }
+
+    /**
+     * Returns the peak resident memory of native-image. Older versions don't
+     * print it, and then the peak heap usage of their phases is returned.
+     *
+     * @return the peak memory in bytes, or {@link #UNKNOWN}
+     */
+    public long getPeakRss() {
+        return peakRss;
+    }
+
+    /**
+     * @return the size in bytes of the generated image, or {@link #UNKNOWN}
+     */
+    public long getImageSize() {
+        return imageSize;
+    }
+
+    /**
+     * @return an optional with the total time of native-image, or empty if it is unknown
+     */
+    public Optional<Duration> getTotalTime() {
+        return Optional.ofNullable(totalTime);
+    }
+
+    /**
+     * Compares this report with the one of a previous build, and returns the
+     * regressions found in the analysis time and in the image size
+     *
+     * @param previous the report of the previous build
+     * @return a list with a description of each regression, empty if there are none
+     */
+    public List<String> findRegressions(NativeImageReport previous) {
+        List<String> regressions = new ArrayList<>();
+        Duration analysis = phases.get(ANALYSIS);
+        Duration previousAnalysis = previous.phases.get(ANALYSIS);
+        if (analysis != null && previousAnalysis != null &&
+                analysis.toMillis() > previousAnalysis.toMillis() * (1 + ANALYSIS_TIME_THRESHOLD) &&
+                analysis.minus(previousAnalysis).compareTo(ANALYSIS_TIME_MIN_INCREASE) >= 0) {
+            regressions.add(String.format("analysis time increased from %.1f s to %.1f s",
+                    previousAnalysis.toMillis() / 1000d, analysis.toMillis() / 1000d));
+        }
+        if (imageSize != UNKNOWN && previous.imageSize != UNKNOWN &&
+                imageSize > previous.imageSize * (1 + IMAGE_SIZE_THRESHOLD)) {
+            regressions.add(String.format("image size increased from %.2f MB to %.2f MB",
+                    previous.imageSize / 1048576d, imageSize / 1048576d));
+        }
+        return regressions;
+    }
+
+    /**
+     * Stores the report as a properties file
+     *
+     * @param reportPath the path of the file
+     * @throws IOException
+     */
+    public void store(Path reportPath) throws IOException {
+        Properties properties = new Properties();
+        phases.forEach((name, duration) -> properties.setProperty(PHASE_PREFIX + name, Long.toString(duration.toMillis())));
+        reachable.forEach((kind, count) -> properties.setProperty(REACHABLE_PREFIX + kind, Long.toString(count)));
+        properties.setProperty(PEAK_RSS, Long.toString(peakRss));
+        properties.setProperty(IMAGE_SIZE, Long.toString(imageSize));
+        if (totalTime != null) {
+            properties.setProperty(TOTAL_TIME, Long.toString(totalTime.toMillis()));
+        }
+        FileOps.writeAtomically(reportPath, properties, null);
+    }
+
+    /**
+     * Loads a report stored with {@link #store(Path)}
+     *
+     * @param reportPath the path of the file
+     * @return an optional with the report, or empty if it doesn't exist or can't be read
+     */
+    public static Optional<NativeImageReport> load(Path reportPath) {
+        if (!Files.isRegularFile(reportPath)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(reportPath)) {
+            properties.load(reader);
+            // Properties don't keep the order of the phases
+            Map<String, Duration> phases = new TreeMap<>();
+            Map<String, Long> reachable = new TreeMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(PHASE_PREFIX)) {
+                    phases.put(key.substring(PHASE_PREFIX.length()), Duration.ofMillis(Long.parseLong(properties.getProperty(key))));
+                } else if (key.startsWith(REACHABLE_PREFIX)) {
+                    reachable.put(key.substring(REACHABLE_PREFIX.length()), Long.parseLong(properties.getProperty(key)));
+                }
+            }
+            String totalTime = properties.getProperty(TOTAL_TIME);
+            return Optional.of(new NativeImageReport(phases, reachable,
+                    Long.parseLong(properties.getProperty(PEAK_RSS, Long.toString(UNKNOWN))),
+                    Long.parseLong(properties.getProperty(IMAGE_SIZE, Long.toString(UNKNOWN))),
+                    totalTime == null ? null : Duration.ofMillis(Long.parseLong(totalTime))));
+        } catch (IOException | IllegalArgumentException e) {
+            Logger.logDebug("Error reading native-image report " + reportPath + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NativeImageReport{phases=" + phases + ", reachable=" + reachable + ", peakRss=" + peakRss +
+                ", imageSize=" + imageSize + ", totalTime=" + totalTime + "}";
+    }
+
+    /**
+     * Parses the output of native-image, line by line, as printed by the
+     * GraalVM versions before 22.2, with one line per phase like
+     * <pre>[app:1234]     analysis:  10,987.65 ms,  1.23 GB</pre>
+     * and by later versions, like
+     * <pre>[2/7] Performing analysis...  [******]   (14.2s @ 1.05GB)</pre>
+     */
+    public static final class Parser implements Consumer<String> {
+
+        private static final Pattern ANSI_CODES = Pattern.compile("\u001B\\[[;\\d]*m");
+        private static final Pattern LEGACY_PHASE = Pattern.compile(
+                "^\\[[^]]*]\\s+(\\S+):\\s+([\\d,]+(?:\\.\\d+)?) ms,\\s+([\\d,]+(?:\\.\\d+)?) GB\\s*$");
+        private static final Pattern PHASE = Pattern.compile(
+                "^\\[\\d+/\\d+]\\s+(\\w[\\w ]*?)\\.\\.\\..*\\((\\d+(?:\\.\\d+)?)(ms|s)\\s+@\\s+(\\d+(?:\\.\\d+)?)GB\\)\\s*$");
+        private static final Pattern REACHABLE = Pattern.compile(
+                "^\\s*([\\d,]+)\\s+\\(\\s*[\\d.]+%\\)\\s+of\\s+[\\d,]+\\s+(classes|types|fields|methods)\\s+reachable");
+        private static final Pattern REACHABLE_TOTAL = Pattern.compile(
+                "^\\s*([\\d,]+)\\s+reachable\\s+(types|fields|methods)\\b");
+        private static final Pattern PEAK_RSS = Pattern.compile("Peak RSS:\\s*(\\d+(?:\\.\\d+)?)\\s*(GB|MB)");
+        private static final Pattern FINISHED = Pattern.compile("^Finished generating '.*' in (.+?)\\.?\\s*$");
+        private static final Pattern TIME_UNIT = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+        private static final Map<String, String> PHASE_NAMES = Map.of(
+                "Initializing", "setup",
+                "Performing analysis", ANALYSIS,
+                "Building universe", "universe",
+                "Parsing methods", "parse",
+                "Inlining methods", "inline",
+                "Compiling methods", "compile",
+                "Layouting methods", "layout",
+                "Creating image", "image");
+
+        private final Map<String, Duration> phases = new LinkedHashMap<>();
+        private final Map<String, Long> reachable = new TreeMap<>();
+        private long peakRss = UNKNOWN;
+        private long peakHeap = UNKNOWN;
+        private Duration totalTime;
+
+        @Override
+        public synchronized void accept(String line) {
+            String text = ANSI_CODES.matcher(Objects.requireNonNull(line)).replaceAll("");
+            Matcher m = LEGACY_PHASE.matcher(text);
+            if (m.find()) {
+                String name = m.group(1);
+                Duration duration = Duration.ofNanos((long) (parseNumber(m.group(2)) * 1_000_000));
+                if ("[total]".equals(name)) {
+                    totalTime = duration;
+                } else if (!name.startsWith("(")) {
+                    // the names in parenthesis are parts of other phases
+                    phases.put(name, duration);
+                }
+                peakHeap = Math.max(peakHeap, toBytes(parseNumber(m.group(3)), "GB"));
+                return;
+            }
+            m = PHASE.matcher(text);
+            if (m.find()) {
+                String name = m.group(1).trim();
+                double value = parseNumber(m.group(2));
+                phases.put(PHASE_NAMES.getOrDefault(name, name.toLowerCase().replace(" ", "")),
+                        Duration.ofNanos((long) (value * ("ms".equals(m.group(3)) ? 1_000_000 : 1_000_000_000))));
+                peakHeap = Math.max(peakHeap, toBytes(parseNumber(m.group(4)), "GB"));
+                return;
+            }
+            m = REACHABLE.matcher(text);
+            if (m.find() || (m = REACHABLE_TOTAL.matcher(text)).find()) {
+                String kind = "classes".equals(m.group(2)) ? TYPES : m.group(2);
+                reachable.put(kind, (long) parseNumber(m.group(1)));
+                return;
+            }
+            m = PEAK_RSS.matcher(text);
+            if (m.find()) {
+                peakRss = toBytes(parseNumber(m.group(1)), m.group(2));
+            }
+            m = FINISHED.matcher(text.trim());
+            if (m.find()) {
+                totalTime = parseTime(m.group(1));
+            }
+        }
+
+        /**
+         * Returns the report with the statistics parsed so far
+         *
+         * @param imageSize the size of the generated image, or {@link #UNKNOWN}
+         * @return the report
+         */
+        public synchronized NativeImageReport getReport(long imageSize) {
+            return new NativeImageReport(phases, reachable, peakRss != UNKNOWN ? peakRss : peakHeap,
+                    imageSize, totalTime);
+        }
+
+        private static double parseNumber(String value) {
+            return Double.parseDouble(value.replace(",", ""));
+        }
+
+        private static long toBytes(double value, String unit) {
+            return (long) (value * ("GB".equals(unit) ? 1 << 30 : 1 << 20));
+        }
+
+        private static Duration parseTime(String value) {
+            Duration duration = Duration.ZERO;
+            Matcher m = TIME_UNIT.matcher(value);
+            while (m.find()) {
+                double amount = parseNumber(m.group(1));
+                switch (m.group(2)) {
+                    case "h":  duration = duration.plusMillis((long) (amount * 3_600_000)); break;
+                    case "m":  duration = duration.plusMillis((long) (amount * 60_000)); break;
+                    case "s":  duration = duration.plusMillis((long) (amount * 1000)); break;
+                    default:   duration = duration.plusMillis((long) amount); break;
+                }
+            }
+            return duration;
+        }
+    }
+}
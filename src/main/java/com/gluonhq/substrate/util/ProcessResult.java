@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The outcome of a process run with {@link ProcessRunner}: its exit code,
+ * how long it took, and the lines of its output that were captured.
+ */
+public final class ProcessResult {
+
+    private final String processName;
+    private final int exitCode;
+    private final boolean timedOut;
+    private final Duration duration;
+    private final List<String> output;
+    private final ProcessUsage usage;
+
+    ProcessResult(String processName, int exitCode, boolean timedOut, Duration duration, List<String> output,
+                  ProcessUsage usage) {
+        this.processName = Objects.requireNonNull(processName);
+        this.exitCode = exitCode;
+        this.timedOut = timedOut;
+        this.duration = Objects.requireNonNull(duration);
+        this.output = Collections.unmodifiableList(new ArrayList<>(output));
+        this.usage = Objects.requireNonNull(usage);
+    }
+
+    /**
+     * @return the name of the process
+     */
+    public String getProcessName() {
+        return processName;
+    }
+
+    /**
+     * @return the exit code of the process. If it timed out, this is the
+     * exit code of the process after it was killed
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * @return true if the process didn't finish in time and was killed
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * @return true if the process finished in time with exit code 0
+     */
+    public boolean isSuccess() {
+        return !timedOut && exitCode == 0;
+    }
+
+    /**
+     * @return the time elapsed from the start of the process until it
+     * finished and all its output was read
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the resources used by the process and its descendants
+     */
+    public ProcessUsage getUsage() {
+        return usage;
+    }
+
+    /**
+     * Gets the captured lines of the output. Unless all lines were captured,
+     * only the most recent ones are returned.
+     *
+     * @return an unmodifiable list with the captured lines
+     * @see ProcessRunner#setCaptureAllLines(boolean)
+     */
+    public List<String> getOutput() {
+        return output;
+    }
+
+    /**
+     * @return the last line of the output, or an empty string if there was no output
+     */
+    public String getLastOutput() {
+        return output.isEmpty() ? "" : output.get(output.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessResult{" +
+                "processName='" + processName + '\'' +
+                ", exitCode=" + exitCode +
+                ", timedOut=" + timedOut +
+                ", duration=" + duration.toMillis() + "ms" +
+                ", output=" + output.size() + " lines" +
+                '}';
+    }
+}
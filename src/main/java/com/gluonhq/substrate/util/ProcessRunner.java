@@ -28,15 +28,21 @@
 package com.gluonhq.substrate.util;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,20 +50,62 @@ import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Utility class to run processes based on command line arguments
  * by wrapping a {@Link ProcessBuilder}.
  *
+ * Only the most recent lines of the output of the process are kept in memory,
+ * {@link #DEFAULT_MAX_LINES} by default, unless all of them are requested
+ * with {@link #setCaptureAllLines(boolean)}. The whole output is written, while
+ * the process runs, to its log file, and it can be processed as well with line
+ * listeners.
+ *
+ * Processes can be run synchronously, or asynchronously with
+ * {@link #runProcessAsync(String, File)}, which returns a future with the
+ * {@link ProcessResult}, so independent processes can run concurrently.
  */
 public class ProcessRunner {
 
+    /**
+     * The default number of output lines that are kept in memory
+     */
+    public static final int DEFAULT_MAX_LINES = 1000;
+
+    // seconds that killed processes have to exit before they are destroyed forcibly
+    private static final long DESTROY_GRACE_PERIOD = 5;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    // reads the output of all the processes, reusing idle threads
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "substrate-process-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    // working directory of the processes that are run without one, like the one of a daemon client
+    private static volatile File defaultWorkingDirectory;
+
     private final List<String> args = new ArrayList<>();
     private final Map<String, String> map;
     private final List<String> passwords;
-    private final StringBuffer answer;
+    private final Deque<String> lines = new ArrayDeque<>();
+    private final List<LineListener> listeners = new ArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private int maxLines = DEFAULT_MAX_LINES;
+    private Path processLog;
+    private BufferedWriter processLogWriter;
     private boolean info;
     private boolean showSevere = true;
     private boolean logToFile;
@@ -72,7 +120,6 @@ public class ProcessRunner {
      */
     public ProcessRunner(String... args) {
         this.args.addAll(Arrays.asList(args));
-        this.answer = new StringBuffer();
         this.map = new HashMap<>();
         this.passwords = new ArrayList<>();
     }
@@ -146,6 +193,41 @@ public class ProcessRunner {
         this.logToFile = logToFile;
     }
 
+    /**
+     * Sets the number of the most recent lines of the output that are kept in
+     * memory, and returned by {@link #getResponses()}. By default, it is
+     * {@link #DEFAULT_MAX_LINES}.
+     * @param maxLines the maximum number of lines, greater than 0
+     */
+    public void setMaxCapturedLines(int maxLines) {
+        if (maxLines < 1) {
+            throw new IllegalArgumentException("The number of lines has to be greater than 0");
+        }
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * When set to true, all the lines of the output are kept in memory, and
+     * returned by {@link #getResponses()}. This should be used only for processes
+     * with a short output that needs to be parsed as a whole.
+     * By default is false.
+     * @param captureAll a boolean that sets whether all the lines are kept
+     */
+    public void setCaptureAllLines(boolean captureAll) {
+        this.maxLines = captureAll ? Integer.MAX_VALUE : DEFAULT_MAX_LINES;
+    }
+
+    /**
+     * Adds a listener that is notified with every line of the output that
+     * matches the given filter, while the process runs. The listener is called
+     * from the thread that reads the output.
+     * @param filter a predicate that selects the lines
+     * @param listener a consumer of the selected lines
+     */
+    public void addLineListener(Predicate<String> filter, Consumer<String> listener) {
+        listeners.add(new LineListener(Objects.requireNonNull(filter), Objects.requireNonNull(listener)));
+    }
+
     /**
      * Adds a command line argument to the list of existing list of
      * command line arguments
@@ -233,27 +315,16 @@ public class ProcessRunner {
      * @throws InterruptedException
      */
     public int runProcess(String processName, File workingDirectory) throws IOException, InterruptedException {
-        Process p = setupProcess(processName, workingDirectory);
-
-        Thread logThread = mergeProcessOutput(p.getInputStream());
-        int result = p.waitFor();
-        logThread.join();
-        Logger.logDebug("Result for " + processName + ": " + result);
-        if (result != 0 && showSevere) {
-            Logger.logSevere("Process " + processName + " failed with result: " + result);
-        }
-        if (logToFile || result != 0) {
-            logProcess(processName, "result: " + result, result != 0);
-        }
-        return result;
+        return await(runProcessAsync(processName, workingDirectory)).getExitCode();
     }
 
     /**
      * Runs a process with a given set of command line arguments within a given time frame
      *
      * @param processName the name of the process
-     * @param timeout the maximum time allowed to run the process
-     * @return true if the process ended successfully, false otherwise
+     * @param timeout the maximum time, in seconds, allowed to run the process
+     * @return true if the process ended within the time frame, false if it
+     * timed out and was killed
      * @throws IOException
      * @throws InterruptedException
      */
@@ -267,46 +338,94 @@ public class ProcessRunner {
      *
      * @param processName the name of the process
      * @param workingDirectory a file with the working directory of the process
-     * @param timeout the maximum time allowed to run the process
-     * @return true if the process ended successfully, false otherwise
+     * @param timeout the maximum time, in seconds, allowed to run the process
+     * @return true if the process ended within the time frame, false if it
+     * timed out and was killed
      * @throws IOException
      * @throws InterruptedException
      */
     public boolean runTimedProcess(String processName, File workingDirectory, long timeout) throws IOException, InterruptedException {
-        Process p = setupProcess(processName, workingDirectory);
-        Thread logThread = mergeProcessOutput(p.getInputStream());
-        boolean result = p.waitFor(timeout, TimeUnit.SECONDS);
-        logThread.join();
-        Logger.logDebug("Result for " + processName + ": " + result);
-        if (!result && showSevere) {
-            Logger.logSevere("Process " + processName + " failed with result: " + result);
-        }
-        if (logToFile || !result) {
-            logProcess(processName, "result: " + result, !result);
+        return !await(runTimedProcessAsync(processName, workingDirectory, timeout)).isTimedOut();
+    }
+
+    /**
+     * Starts a process with a given set of command line arguments, without
+     * waiting for it to finish
+     *
+     * @param processName the name of the process
+     * @return a future with the result of the process
+     * @throws IOException if the process can't be started
+     * @see #runProcessAsync(String, File)
+     */
+    public CompletableFuture<ProcessResult> runProcessAsync(String processName) throws IOException {
+        return runProcessAsync(processName, null);
+    }
+
+    /**
+     * Starts a process with a given set of command line arguments, in a given
+     * working directory, without waiting for it to finish.
+     *
+     * The output is read on a shared executor, and the future completes once the
+     * process has finished and all its output has been read and logged.
+     * Cancelling the future kills the process and its descendants.
+     *
+     * A runner can only run one process at a time, but different runners can
+     * run their processes concurrently.
+     *
+     * @param processName the name of the process
+     * @param workingDirectory a file with the working directory of the process
+     * @return a future with the result of the process
+     * @throws IOException if the process can't be started
+     */
+    public CompletableFuture<ProcessResult> runProcessAsync(String processName, File workingDirectory) throws IOException {
+        return start(processName, workingDirectory, 0);
+    }
+
+    /**
+     * Starts a process with a given set of command line arguments, in a given
+     * working directory, that has to finish within a given time frame. If it
+     * doesn't, the process and its descendants are killed, and the result is
+     * flagged as timed out.
+     *
+     * @param processName the name of the process
+     * @param workingDirectory a file with the working directory of the process
+     * @param timeout the maximum time, in seconds, allowed to run the process
+     * @return a future with the result of the process
+     * @throws IOException if the process can't be started
+     * @see #runProcessAsync(String, File)
+     */
+    public CompletableFuture<ProcessResult> runTimedProcessAsync(String processName, File workingDirectory, long timeout) throws IOException {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Invalid timeout: " + timeout);
         }
-        return result;
+        return start(processName, workingDirectory, timeout);
     }
 
     /**
      * Gets the response of the process as single string
      *
-     * @return a single string with the whole output of the process
+     * @return a single string with the captured output of the process
      */
     public String getResponse() {
-        if (answer != null) {
-            return answer.toString().replace("\n", "");
+        synchronized (lines) {
+            return String.join("", lines);
         }
-        return null;
     }
 
     /**
-     * Gets the response of the process as list of lines
+     * Gets the response of the process as list of lines. Unless all lines are
+     * captured, only the most recent ones are returned.
      *
-     * @return a list with all the lines of the output
+     * @return a list with the captured lines of the output
+     * @see #setCaptureAllLines(boolean)
      */
     public List<String> getResponses() {
-        return answer == null ? null :
-                Arrays.asList(answer.toString().split("\n"));
+        synchronized (lines) {
+            if (lines.isEmpty()) {
+                return Arrays.asList("");
+            }
+            return new ArrayList<>(lines);
+        }
     }
 
     /**
@@ -315,11 +434,9 @@ public class ProcessRunner {
      * @return a string with the last line of the output
      */
     public String getLastResponse() {
-        if (answer == null) {
-            return null;
+        synchronized (lines) {
+            return lines.isEmpty() ? "" : lines.getLast();
         }
-        String[] answers = answer.toString().split("\n");
-        return answers.length > 0 ? answers[answers.length - 1] : "";
     }
 
     /**
@@ -356,6 +473,16 @@ public class ProcessRunner {
         return new ProcessWithFeedback(process, name).call();
     }
 
+    /**
+     * Sets the working directory of the processes that are run without one,
+     * instead of the working directory of the current process
+     *
+     * @param directory the working directory, or null to use the one of the current process
+     */
+    public static void setDefaultWorkingDirectory(File directory) {
+        defaultWorkingDirectory = directory;
+    }
+
     private Process setupProcess(String processName, File directory) throws IOException {
         ProcessBuilder pb = new ProcessBuilder(args);
         String join = pb.command().stream().map(s -> {
@@ -371,37 +498,274 @@ public class ProcessRunner {
         }
         if (directory != null) {
             pb.directory(directory);
+        } else if (defaultWorkingDirectory != null) {
+            pb.directory(defaultWorkingDirectory);
         }
         map.forEach((k, v) -> pb.environment().put(k, v));
-        answer.setLength(0);
+        synchronized (lines) {
+            lines.clear();
+        }
+        openProcessLog(processName);
         Logger.logDebug("Start process " + processName + "...");
-        return pb.start();
-    }
-
-    private Thread mergeProcessOutput(final InputStream is) {
-        Runnable r = () -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    answer.append(line).append("\n");
-                    if (info) {
-                        Logger.logInfo("[SUB] " + line);
-                    } else {
-                        Logger.logDebug("[SUB] " + line);
+        try {
+            return pb.start();
+        } catch (IOException e) {
+            discardProcessLog();
+            throw e;
+        }
+    }
+
+    private CompletableFuture<ProcessResult> start(String processName, File workingDirectory, long timeout) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Can't start process " + processName + ", the runner is already running a process");
+        }
+        long start = System.nanoTime();
+        Process p;
+        try {
+            p = setupProcess(processName, workingDirectory);
+        } catch (IOException | RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        BuildMetrics.Phase phase = BuildMetrics.current();
+        // the output and the result are logged on behalf of the target of the calling thread
+        Logger.TargetLog targetLog = Logger.getTargetLog();
+        ProcessUsage.Monitor monitor = ProcessUsage.monitor(p);
+        CompletableFuture<Void> output = CompletableFuture.runAsync(() -> {
+            Logger.TargetLog previousLog = Logger.setTargetLog(targetLog);
+            try {
+                mergeProcessOutput(p.getInputStream());
+            } finally {
+                Logger.setTargetLog(previousLog);
+            }
+        }, EXECUTOR);
+        AtomicBoolean timedOut = new AtomicBoolean();
+        CompletableFuture<Process> exit = p.onExit();
+        if (timeout > 0) {
+            exit = exit.copy()
+                    .orTimeout(timeout, TimeUnit.SECONDS)
+                    .handle((process, t) -> {
+                        if (t != null) {
+                            Logger.logDebug("Process " + processName + " timed out after " + timeout + " seconds");
+                            timedOut.set(true);
+                            destroyProcessTree(p.toHandle());
+                        }
+                        return p;
+                    })
+                    .thenCompose(Process::onExit);
+        }
+        CompletableFuture<ProcessResult> done = exit
+                .thenCombine(output, (process, v) -> process.exitValue())
+                .handle((exitCode, t) -> {
+                    Logger.TargetLog previousLog = Logger.setTargetLog(targetLog);
+                    try {
+                        ProcessUsage usage = monitor.stop();
+                        if (t != null) {
+                            throw new CompletionException(t);
+                        }
+                        if (phase != null) {
+                            phase.addProcessUsage(usage);
+                        }
+                        return complete(processName, exitCode, timedOut.get(), Duration.ofNanos(System.nanoTime() - start), usage);
+                    } finally {
+                        Logger.setTargetLog(previousLog);
+                        running.set(false);
                     }
+                });
+
+        CompletableFuture<ProcessResult> future = done.copy();
+        future.whenComplete((result, t) -> {
+            if (t instanceof CancellationException) {
+                Logger.logDebug("Process " + processName + " was cancelled");
+                destroyProcessTree(p.toHandle());
+            }
+        });
+        return future;
+    }
+
+    private ProcessResult complete(String processName, int exitCode, boolean timedOut, Duration duration,
+                                   ProcessUsage usage) {
+        String result = "result: " + exitCode + (timedOut ? " (timed out)" : "");
+        Logger.logDebug("Result for " + processName + ": " + exitCode + (timedOut ? " (timed out)" : "") +
+                ", took " + duration.toMillis() + " ms");
+        boolean failure = timedOut || exitCode != 0;
+        if (failure && showSevere) {
+            if (timedOut) {
+                Logger.logSevere("Process " + processName + " timed out after " + duration.toSeconds() + " seconds");
+            } else {
+                Logger.logSevere("Process " + processName + " failed with result: " + exitCode);
+            }
+        }
+        try {
+            if (logToFile || failure) {
+                logProcess(processName, result, failure);
+            } else {
+                discardProcessLog();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String> output;
+        synchronized (lines) {
+            output = new ArrayList<>(lines);
+        }
+        return new ProcessResult(processName, exitCode, timedOut, duration, output, usage);
+    }
+
+    /**
+     * Waits for a process started by this runner, killing it if the
+     * calling thread is interrupted
+     */
+    private static ProcessResult await(CompletableFuture<ProcessResult> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Kills a process and all its descendants, forcibly if they are still
+     * alive after a grace period
+     */
+    private static void destroyProcessTree(ProcessHandle handle) {
+        List<ProcessHandle> handles = Stream.concat(handle.descendants(), Stream.of(handle))
+                .collect(Collectors.toList());
+        handles.forEach(ProcessHandle::destroy);
+        CompletableFuture.delayedExecutor(DESTROY_GRACE_PERIOD, TimeUnit.SECONDS, EXECUTOR).execute(() ->
+                handles.stream()
+                        .filter(ProcessHandle::isAlive)
+                        .forEach(ProcessHandle::destroyForcibly));
+    }
+
+    private void mergeProcessOutput(final InputStream is) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                processLine(line);
+                if (info) {
+                    Logger.logInfo("[SUB] " + line);
+                } else {
+                    Logger.logDebug("[SUB] " + line);
                 }
-            } catch (IOException ex) {
-                ex.printStackTrace();
             }
-        };
-        Thread thread = new Thread(r);
-        thread.start();
-        return thread;
+        } catch (IOException ex) {
+            Logger.logDebug("Error reading process output: " + ex.getMessage());
+        }
+    }
+
+    private void processLine(String line) {
+        synchronized (lines) {
+            lines.addLast(line);
+            if (lines.size() > maxLines) {
+                lines.removeFirst();
+            }
+        }
+        if (processLogWriter != null) {
+            try {
+                processLogWriter.write(line);
+                processLogWriter.write('\n');
+            } catch (IOException e) {
+                Logger.logDebug("Error writing process log " + processLog + ": " + e.getMessage());
+                discardProcessLog();
+            }
+        }
+        for (LineListener listener : listeners) {
+            try {
+                if (listener.filter.test(line)) {
+                    listener.consumer.accept(line);
+                }
+            } catch (RuntimeException e) {
+                // keep reading the output, or the process could block
+                Logger.logDebug("Error processing line: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates the log file of the process, with its name and command line
+     * arguments, where the output will be written while the process runs.
+     * @param processName The name of the process
+     */
+    private void openProcessLog(String processName) {
+        discardProcessLog();
+        if (processLogPath == null) {
+            return;
+        }
+        try {
+            processLog = createProcessLogFile(processName);
+            processLogWriter = Files.newBufferedWriter(processLog);
+            processLogWriter.write(getHeader(processName));
+        } catch (IOException e) {
+            Logger.logDebug("Error creating process log for " + processName + ": " + e.getMessage());
+            discardProcessLog();
+        }
+    }
+
+    /**
+     * Creates a new empty log file for the process. Processes with the same
+     * name can run at the same time, for instance when several targets are
+     * built concurrently, so the name includes the target the current thread
+     * belongs to, if any, and a suffix is added if the file already exists.
+     * @param processName The name of the process
+     * @return the path of the log file
+     * @throws IOException
+     */
+    private static Path createProcessLogFile(String processName) throws IOException {
+        Logger.TargetLog targetLog = Logger.getTargetLog();
+        String name = "process-" + (targetLog == null ? "" : targetLog.getTarget() + "-") +
+                processName + "-" + System.currentTimeMillis();
+        for (int i = 0; ; i++) {
+            Path log = processLogPath.resolve(i == 0 ? name + ".log" : name + "-" + i + ".log");
+            try {
+                return Files.createFile(log);
+            } catch (FileAlreadyExistsException e) {
+                // try the next suffix
+            }
+        }
+    }
+
+    /**
+     * Removes the log file of the process, when it is not needed
+     */
+    private void discardProcessLog() {
+        if (processLogWriter != null) {
+            try {
+                processLogWriter.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            processLogWriter = null;
+        }
+        if (processLog != null) {
+            try {
+                Files.deleteIfExists(processLog);
+            } catch (IOException e) {
+                Logger.logDebug("Error removing process log " + processLog + ": " + e.getMessage());
+            }
+            processLog = null;
+        }
     }
 
     /**
      * Logs to a file the command line arguments, the whole output and the
-     * result of the process.
+     * result of the process. The output has already been written to the file
+     * while the process ran, unless the file couldn't be created, in which case
+     * only the captured lines are logged.
      * @param processName The name of the process
      * @param result The result of the process
      * @param failure true if the process failed
@@ -413,24 +777,47 @@ public class ProcessRunner {
             return;
         }
 
-        Path log = processLogPath.resolve("process-" + processName + "-" + System.currentTimeMillis() + ".log");
+        Path log = processLog;
+        if (processLogWriter != null) {
+            try (BufferedWriter writer = processLogWriter) {
+                writer.write(getFooter(result));
+            } finally {
+                processLogWriter = null;
+                processLog = null;
+            }
+        } else {
+            log = createProcessLogFile(processName);
+            Files.writeString(log, getHeader(processName) + String.join("\n", getResponses()) + "\n" + getFooter(result));
+        }
         if (failure) {
             Logger.logInfo("Logging process [" + processName + "] to file: " + log);
         } else {
             Logger.logDebug("Logging process [" + processName + "] to file: " + log);
         }
-        String message = toString(processName, result);
-        Files.write(log, message.getBytes());
         if (consoleProcessLog) {
-            Logger.logInfo(message);
+            // only read back into memory when the process logs are requested in the console
+            Logger.logInfo(Files.readString(log));
         }
     }
 
-    private String toString(String processName, String result) {
+    private String getHeader(String processName) {
         return "Process\n=======\n" + processName + "\n\n" +
                 "Command Line\n============\n" + getCmd() + "\n\n" +
-                "Output\n======\n" + answer.toString() + "\n\n" +
-                "Result\n======\n" + result;
+                "Output\n======\n";
+    }
+
+    private String getFooter(String result) {
+        return "\n\n" + "Result\n======\n" + result;
+    }
+
+    private static final class LineListener {
+        private final Predicate<String> filter;
+        private final Consumer<String> consumer;
+
+        LineListener(Predicate<String> filter, Consumer<String> consumer) {
+            this.filter = filter;
+            this.consumer = consumer;
+        }
     }
 
     /**
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The resources used by a process and its descendants: CPU time, peak
+ * resident memory and bytes read and written.
+ *
+ * The values are sampled while the process runs, so the usage of processes
+ * that live shorter than the sampling interval can be missing. The CPU time
+ * is available on every platform, while the memory and I/O values are read
+ * from /proc, and are only available on Linux.
+ */
+public final class ProcessUsage {
+
+    /**
+     * Value of the memory and I/O counters when they are not available
+     */
+    public static final long UNKNOWN = -1;
+
+    static final ProcessUsage NONE = new ProcessUsage(Duration.ZERO, UNKNOWN, UNKNOWN, UNKNOWN);
+
+    private static final long SAMPLING_INTERVAL = 200;
+    private static final Path PROC = Path.of("/proc");
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "process-usage-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Duration cpuTime;
+    private final long peakRss;
+    private final long bytesRead;
+    private final long bytesWritten;
+
+    ProcessUsage(Duration cpuTime, long peakRss, long bytesRead, long bytesWritten) {
+        this.cpuTime = cpuTime;
+        this.peakRss = peakRss;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * @return the CPU time used by the process and its descendants
+     */
+    public Duration getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return the peak resident memory, in bytes, of the largest process
+     * of the tree, or {@link #UNKNOWN}
+     */
+    public long getPeakRss() {
+        return peakRss;
+    }
+
+    /**
+     * @return the bytes read by the process and its descendants, or {@link #UNKNOWN}
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return the bytes written by the process and its descendants, or {@link #UNKNOWN}
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Returns the combined usage of this and another process that run
+     * at the same time or one after the other
+     *
+     * @param other the usage of the other process
+     * @return the combined usage
+     */
+    ProcessUsage plus(ProcessUsage other) {
+        return new ProcessUsage(cpuTime.plus(other.cpuTime),
+                Math.max(peakRss, other.peakRss),
+                sum(bytesRead, other.bytesRead),
+                sum(bytesWritten, other.bytesWritten));
+    }
+
+    private static long sum(long a, long b) {
+        return a == UNKNOWN ? b : b == UNKNOWN ? a : a + b;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessUsage{cpuTime=" + cpuTime.toMillis() + " ms, peakRss=" + peakRss +
+                ", bytesRead=" + bytesRead + ", bytesWritten=" + bytesWritten + "}";
+    }
+
+    /**
+     * Starts sampling the usage of a process and its descendants
+     *
+     * @param process the process
+     * @return the monitor of the process
+     */
+    static Monitor monitor(Process process) {
+        return new Monitor(process.toHandle());
+    }
+
+    /**
+     * Samples periodically the processes of a tree, keeping the last values
+     * seen for each one of them, as the counters of a process can't be read
+     * once it has finished
+     */
+    static final class Monitor {
+
+        private final ProcessHandle handle;
+        private final Map<Long, ProcessUsage> usages = new HashMap<>();
+        private final ScheduledFuture<?> sampling;
+
+        private Monitor(ProcessHandle handle) {
+            this.handle = handle;
+            this.sampling = SAMPLER.scheduleWithFixedDelay(this::sample, 0, SAMPLING_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void sample() {
+            List<ProcessHandle> handles = Stream.concat(Stream.of(handle), handle.descendants())
+                    .collect(Collectors.toList());
+            for (ProcessHandle h : handles) {
+                Duration cpu = h.info().totalCpuDuration().orElse(null);
+                if (cpu == null) {
+                    // the process has already finished
+                    continue;
+                }
+                Path proc = PROC.resolve(Long.toString(h.pid()));
+                long peakRss = readPeakRss(proc.resolve("status"));
+                long[] io = readIo(proc.resolve("io"));
+                usages.put(h.pid(), new ProcessUsage(cpu, peakRss, io[0], io[1]));
+            }
+        }
+
+        /**
+         * Stops sampling the process
+         *
+         * @return the usage of the process tree
+         */
+        synchronized ProcessUsage stop() {
+            sampling.cancel(false);
+            return usages.values().stream().reduce(ProcessUsage::plus).orElse(NONE);
+        }
+    }
+
+    private static long readPeakRss(Path status) {
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:")) {
+                    // in kB
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim()) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not available
+        }
+        return UNKNOWN;
+    }
+
+    private static long[] readIo(Path io) {
+        long[] values = {UNKNOWN, UNKNOWN};
+        try {
+            for (String line : Files.readAllLines(io)) {
+                if (line.startsWith("rchar:")) {
+                    values[0] = Long.parseLong(line.substring(6).trim());
+                } else if (line.startsWith("wchar:")) {
+                    values[1] = Long.parseLong(line.substring(6).trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not available
+        }
+        return values;
+    }
+}
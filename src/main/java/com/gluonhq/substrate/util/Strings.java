@@ -107,6 +107,22 @@ public final class Strings {
         return aString == null || aString.isBlank();
     }
 
+    /**
+     * Converts an array of bytes, like a digest, into a string with
+     * their lowercase hexadecimal representation
+     * @param bytes the array of bytes
+     * @return a string with two hexadecimal digits per byte
+     */
+    public static String toHex(byte[] bytes) {
+        Objects.requireNonNull(bytes);
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
     public static String randomString(int targetStringLength) {
         int leftLimit = 97; // letter 'a'
         int rightLimit = 122; // letter 'z'
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A graph of named tasks, where each task can depend on other tasks.
+ *
+ * When the graph runs, each task starts as soon as all its dependencies have
+ * succeeded, so independent tasks run in parallel. If a task fails or throws
+ * an exception, no more tasks are started, the tasks still running are
+ * interrupted (which kills the processes started with {@link ProcessRunner}),
+ * and the graph fails.
+ *
+ * Tasks are added in the order a sequential run would follow, and that order
+ * is kept among the tasks that are ready at the same time.
+ *
+ * Each task is recorded as a phase of the {@link BuildMetrics}, nested in the
+ * phase of the thread that runs the graph.
+ */
+public class TaskGraph {
+
+    /**
+     * A task of the graph
+     */
+    @FunctionalInterface
+    public interface Task {
+
+        /**
+         * Runs the task
+         *
+         * @return true if the task succeeded, false otherwise
+         * @throws IOException
+         * @throws InterruptedException
+         */
+        boolean run() throws IOException, InterruptedException;
+    }
+
+    // seconds to wait for interrupted tasks to finish after a failure
+    private static final long CANCEL_TIMEOUT = 60;
+
+    private final String name;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Map<String, Duration> durations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty graph
+     *
+     * @param name the name of the graph, used for logging
+     */
+    public TaskGraph(String name) {
+        this.name = Objects.requireNonNull(name);
+    }
+
+    /**
+     * Adds a task to the graph. Its dependencies have to be added before it,
+     * so the graph can't have cycles.
+     *
+     * @param taskName the unique name of the task
+     * @param task the task
+     * @param dependencies the names of the tasks that have to succeed before this task runs
+     * @return this graph
+     * @throws IllegalArgumentException if the name is already used, or a dependency is unknown
+     */
+    public TaskGraph add(String taskName, Task task, String... dependencies) {
+        Objects.requireNonNull(taskName);
+        Objects.requireNonNull(task);
+        if (nodes.containsKey(taskName)) {
+            throw new IllegalArgumentException("Task " + taskName + " already exists in " + name);
+        }
+        for (String dependency : dependencies) {
+            if (!nodes.containsKey(dependency)) {
+                throw new IllegalArgumentException("Task " + taskName + " depends on unknown task " + dependency);
+            }
+        }
+        nodes.put(taskName, new Node(taskName, task, Arrays.asList(dependencies)));
+        return this;
+    }
+
+    /**
+     * @param taskName the name of a task
+     * @return true if the graph has a task with that name
+     */
+    public boolean contains(String taskName) {
+        return nodes.containsKey(taskName);
+    }
+
+    /**
+     * Runs all the tasks, with as many threads as tasks, so every task runs
+     * as soon as its dependencies succeed
+     *
+     * @return true if all the tasks succeeded
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public boolean run() throws IOException, InterruptedException {
+        return run(nodes.size());
+    }
+
+    /**
+     * Runs all the tasks, with up to a given number of them running at the same time
+     *
+     * @param parallelism the maximum number of tasks running at the same time
+     * @return true if all the tasks succeeded
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public boolean run(int parallelism) throws IOException, InterruptedException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        if (nodes.isEmpty()) {
+            return true;
+        }
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<Node>> dependents = new HashMap<>();
+        List<Node> ready = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            pending.put(node.name, node.dependencies.size());
+            for (String dependency : node.dependencies) {
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(node);
+            }
+            if (node.dependencies.isEmpty()) {
+                ready.add(node);
+            }
+        }
+
+        Logger.logDebug("Running " + nodes.size() + " tasks of " + name + " with up to " + parallelism + " in parallel");
+        long start = System.nanoTime();
+        BuildMetrics.Phase phase = BuildMetrics.current();
+        Logger.TargetLog targetLog = Logger.getTargetLog();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, nodes.size()));
+        CompletionService<Node> completionService = new ExecutorCompletionService<>(executor);
+        int running = 0;
+        boolean success = true;
+        try {
+            while (true) {
+                for (Node node : ready) {
+                    completionService.submit(() -> runNode(node, phase, targetLog));
+                    running++;
+                }
+                ready.clear();
+                if (running == 0) {
+                    break;
+                }
+                Future<Node> future = completionService.take();
+                running--;
+                Node node;
+                try {
+                    node = future.get();
+                } catch (ExecutionException e) {
+                    cancel(executor);
+                    throw rethrow(e.getCause());
+                }
+                if (!node.success) {
+                    Logger.logSevere("Task " + node.name + " of " + name + " failed");
+                    success = false;
+                    cancel(executor);
+                    break;
+                }
+                for (Node dependent : dependents.getOrDefault(node.name, Collections.emptyList())) {
+                    if (pending.merge(dependent.name, -1, Integer::sum) == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancel(executor);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        Logger.logDebug("Tasks of " + name + " " + (success ? "finished" : "failed") + " in " +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return success;
+    }
+
+    /**
+     * Returns how long each task took. Tasks that didn't finish are not included.
+     *
+     * @return an unmodifiable map with the name and the duration of each task,
+     * in the order the tasks were added
+     */
+    public Map<String, Duration> getDurations() {
+        Map<String, Duration> result = new LinkedHashMap<>();
+        for (String taskName : nodes.keySet()) {
+            Duration duration = durations.get(taskName);
+            if (duration != null) {
+                result.put(taskName, duration);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return name + nodes.values().stream()
+                .map(node -> node.name + (node.dependencies.isEmpty() ? "" : " <- " + node.dependencies))
+                .collect(Collectors.joining(", ", " [", "]"));
+    }
+
+    private Node runNode(Node node, BuildMetrics.Phase parent, Logger.TargetLog targetLog)
+            throws IOException, InterruptedException {
+        Logger.TargetLog previousLog = Logger.setTargetLog(targetLog);
+        try {
+            return runNode(node, parent);
+        } finally {
+            Logger.setTargetLog(previousLog);
+        }
+    }
+
+    private Node runNode(Node node, BuildMetrics.Phase parent) throws IOException, InterruptedException {
+        Logger.logDebug("Starting task " + node.name + " of " + name);
+        long start = System.nanoTime();
+        try (BuildMetrics.Phase phase = BuildMetrics.start(parent, node.name)) {
+            node.success = phase.setSuccess(node.task.run());
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        durations.put(node.name, duration);
+        Logger.logDebug("Task " + node.name + " of " + name + (node.success ? " succeeded" : " failed") +
+                " in " + duration.toMillis() + " ms");
+        return node;
+    }
+
+    private void cancel(ExecutorService executor) throws InterruptedException {
+        executor.shutdownNow();
+        if (!executor.awaitTermination(CANCEL_TIMEOUT, TimeUnit.SECONDS)) {
+            Logger.logDebug("Some tasks of " + name + " are still running after being cancelled");
+        }
+    }
+
+    private static IOException rethrow(Throwable cause) throws InterruptedException {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private static final class Node {
+        private final String name;
+        private final Task task;
+        private final List<String> dependencies;
+        private volatile boolean success;
+
+        Node(String name, Task task, List<String> dependencies) {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+    }
+}
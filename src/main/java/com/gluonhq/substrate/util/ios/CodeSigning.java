@@ -262,6 +262,7 @@ public class CodeSigning {
         }
         Logger.logDebug("Signing app with identity: " + identity);
         ProcessRunner runner = new ProcessRunner("codesign", "--generate-entitlement-der", "--force", "--sign", identity.getSha1());
+        runner.setCaptureAllLines(true);
         if (entitlementsPath != null) {
             runner.addArgs("--entitlements", entitlementsPath.toString());
         }
@@ -331,6 +332,7 @@ public class CodeSigning {
     public static boolean verifyCodesign(Path target) throws IOException, InterruptedException {
         Logger.logDebug("Validating codesign...");
         ProcessRunner runner = new ProcessRunner("codesign", "--verify", "-vvvv", target.toAbsolutePath().toString());
+        runner.setCaptureAllLines(true);
         if (runner.runTimedProcess("verify", 30)) {
             return runner.getResponses().stream()
                     .anyMatch(line -> line.contains(CODESIGN_OK_1) ||
@@ -412,6 +414,7 @@ public class CodeSigning {
 
     public static List<Identity> retrieveAllIdentities() {
         ProcessRunner runner = new ProcessRunner("security", "find-identity", "-p", "codesigning", "-v");
+        runner.setCaptureAllLines(true);
         try {
             if (runner.runProcess("security") == 0) {
                 return runner.getResponses().stream()
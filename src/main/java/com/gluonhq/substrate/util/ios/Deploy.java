@@ -43,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static com.gluonhq.substrate.util.XcodeUtils.XCODE_PRODUCTS_PATH;
@@ -51,6 +52,8 @@ public class Deploy {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
     private static final String LIBIMOBILEDEVICE = "libimobiledevice-1.0";
+    private static final String DEVICE_LOCKED_MESSAGE = "Error: The device is locked.";
+    private static final String LAUNCH_TIMEOUT_MESSAGE = "error: timed out waiting for app to launch";
     private static final List<String> LIBIMOBILEDEVICE_DEPENDENCIES = Arrays.asList(
             "libssl", "libcrypto", "libusbmuxd-2.0", "libplist-2.0");
 
@@ -98,12 +101,15 @@ public class Deploy {
 
         ProcessRunner runner = new ProcessRunner(iosDeployPath.toString(), "--id", deviceId, "--bundle", app);
         runner.setInfo(true);
+        AtomicBoolean locked = new AtomicBoolean();
+        runner.addLineListener(DEVICE_LOCKED_MESSAGE::equals, line -> locked.set(true));
         boolean keepTrying = true;
         while (keepTrying) {
             keepTrying = false;
+            locked.set(false);
             boolean result = runner.runTimedProcess("install app", 60);
             if (result) {
-                if (runner.getResponses().stream().anyMatch("Error: The device is locked."::equals)) {
+                if (locked.get()) {
                     Logger.logInfo("\n\nDevice locked!\nPlease, unlock and press ENTER to try again");
                     System.in.read();
                     keepTrying = true;
@@ -139,16 +145,22 @@ public class Deploy {
 
         ProcessRunner runner = new ProcessRunner(iosDeployPath.toString(), "--id", deviceId, "--bundle", app, "--noinstall", "--noninteractive");
         runner.setInfo(true);
+        AtomicBoolean locked = new AtomicBoolean();
+        AtomicBoolean launchTimedOut = new AtomicBoolean();
+        runner.addLineListener(DEVICE_LOCKED_MESSAGE::equals, line -> locked.set(true));
+        runner.addLineListener(LAUNCH_TIMEOUT_MESSAGE::equals, line -> launchTimedOut.set(true));
         boolean keepTrying = true;
         while (keepTrying) {
             keepTrying = false;
+            locked.set(false);
+            launchTimedOut.set(false);
             boolean result = runner.runTimedProcess("run app", 60);
             if (result) {
-                if (runner.getResponses().stream().anyMatch("Error: The device is locked."::equals)) {
+                if (locked.get()) {
                     Logger.logInfo("\n\nDevice locked!\nPlease, unlock and press ENTER to try again");
                     System.in.read();
                     keepTrying = true;
-                } else if (runner.getResponses().stream().anyMatch("error: timed out waiting for app to launch"::equals)) {
+                } else if (launchTimedOut.get()) {
                     Logger.logInfo("\n\nLaunch failed!\nPlease, unplug your device, plug it again and try again");
                     return false;
                 }
@@ -214,6 +226,7 @@ public class Deploy {
         // Check for libimobiledevice installed
         List<String> libiPath = getDependencyPaths(LIBIMOBILEDEVICE);
         ProcessRunner runner = new ProcessRunner("otool", "-L", libiPath.get(0));
+        runner.setCaptureAllLines(true);
         if (runner.runProcess("otool") == 0) {
             for (String key : map.keySet()) {
                 if (runner.getResponses().stream()
@@ -264,6 +277,7 @@ public class Deploy {
      */
     private List<String> getDependencyPaths(String nameLib) throws IOException, InterruptedException {
         ProcessRunner runner = new ProcessRunner("/bin/sh", "-c", "find $(brew --cellar) -name " + nameLib + ".dylib");
+        runner.setCaptureAllLines(true);
         if (runner.runProcess(nameLib) != 0) {
             throw new IOException("Error finding " + nameLib);
         }
@@ -417,6 +431,7 @@ public class Deploy {
         }
 
         ProcessRunner runner = new ProcessRunner(iosDeployPath.toString(), "-c" , "--no-wifi");
+        runner.setCaptureAllLines(true);
         if (!runner.runTimedProcess("connected devices", 10L)) {
             Logger.logSevere("Error finding connected devices");
             return List.of();
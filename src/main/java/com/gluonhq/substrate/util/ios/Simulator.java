@@ -162,6 +162,7 @@ public class Simulator {
     private static List<SimDevice> getSimDevices() throws IOException, InterruptedException {
         List<SimDevice> devices = null;
         ProcessRunner runner = new ProcessRunner("xcrun", "simctl", "list", "devices");
+        runner.setCaptureAllLines(true);
         if (runner.runProcess("sim") == 0) {
             devices = runner.getResponses().stream()
                     .map(line -> DEVICE_PATTERN.matcher(line.trim()))
@@ -180,6 +181,7 @@ public class Simulator {
     private static void validateBundleId(String bundleId) throws IOException, InterruptedException {
         ProcessRunner runner = new ProcessRunner("/bin/sh", "-c",
                 "xcrun simctl listapps booted | plutil -convert json - -o - | ruby -r json -e 'puts JSON.parse(STDIN.read).keys'");
+        runner.setCaptureAllLines(true);
         if (runner.runProcess("get installed apps") != 0) {
             throw new IOException("Error finding installed apps from booted simulator");
         }
@@ -32,20 +32,43 @@ import static com.gluonhq.substrate.util.linux.LinuxLinkerFlags.PkgInfo.debian;
 import static com.gluonhq.substrate.util.linux.LinuxLinkerFlags.PkgInfo.fedora;
 import static com.gluonhq.substrate.util.linux.LinuxLinkerFlags.PkgInfo.hardwired;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
+import com.gluonhq.substrate.util.FileOps;
 import com.gluonhq.substrate.util.Logger;
+import com.gluonhq.substrate.util.ProcessResult;
 import com.gluonhq.substrate.util.ProcessRunner;
 import com.gluonhq.substrate.util.linux.LinuxFlavor.Flavor;
 
 /**
  * Defines linker flags for a given linux flavor (debian/fedora).
+ *
+ * The flags resolved with pkg-config can be cached in a directory, so they
+ * are reused by later builds. The cache is invalidated when the flavor, the
+ * pkg-config environment, or any of the .pc files and pkg-config search
+ * directories involved change.
  */
 public class LinuxLinkerFlags {
     private static final Flavor flavor = LinuxFlavor.getFlavor();
+    private static final String PKG_CONFIG = "/usr/bin/pkg-config";
+    private static final String MTIME_PREFIX = "mtime.";
 
     /**
      * Defines per-flavor pkg-config package names and the associated OS package
@@ -100,8 +123,18 @@ public class LinuxLinkerFlags {
      * List of packages found missing on computer.
      */
     private List<String> missingPackages = new ArrayList<>();
-    
-    private LinuxLinkerFlags() {}
+
+    /**
+     * The .pc files and search directories used to resolve the flags
+     */
+    private final Set<Path> involvedFiles = new TreeSet<>();
+    private final String pkgConfig;
+    private final Path cacheDir;
+
+    LinuxLinkerFlags(String pkgConfig, Path cacheDir) {
+        this.pkgConfig = Objects.requireNonNull(pkgConfig);
+        this.cacheDir = cacheDir;
+    }
 
     /**
      * Returns linker flag appropriate for the current linux variant.
@@ -118,17 +151,49 @@ public class LinuxLinkerFlags {
      * @throws IOException 
      */
     public static List<String> getLinkerFlags() throws IOException, InterruptedException {
-        return new LinuxLinkerFlags().doGetLinkerFlags(LINK_DEPENDENCIES);
+        return getLinkerFlags(null);
+    }
+
+    /**
+     * Returns linker flag appropriate for the current linux variant, reusing
+     * the flags cached by a previous build when they are still valid.
+     *
+     * @param cacheDir the directory where the flags are cached, or null to
+     *                 always run pkg-config
+     * @return linker flag appropriate for the current linux variant.
+     * @throws InterruptedException
+     * @throws IOException
+     * @see #getLinkerFlags()
+     */
+    public static List<String> getLinkerFlags(Path cacheDir) throws IOException, InterruptedException {
+        return new LinuxLinkerFlags(PKG_CONFIG, cacheDir).doGetLinkerFlags("link", LINK_DEPENDENCIES);
     }
 
     public static List<String> getMediaLinkerFlags() throws IOException, InterruptedException {
-        return new LinuxLinkerFlags().doGetLinkerFlags(MEDIA_LINK_DEPENDENCIES);
+        return getMediaLinkerFlags(null);
     }
-    
-    private List<String> doGetLinkerFlags(List<PkgInfo> deps) throws IOException, InterruptedException {
-        List<String> pkgFlags = new ArrayList<>();
-        for (PkgInfo pkg :deps ) {
-            pkgFlags.addAll(lookupPackageFlags(pkg));
+
+    /**
+     * Returns the linker flags required by JavaFX media, reusing the flags
+     * cached by a previous build when they are still valid.
+     *
+     * @param cacheDir the directory where the flags are cached, or null to
+     *                 always run pkg-config
+     * @return linker flags for media
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    public static List<String> getMediaLinkerFlags(Path cacheDir) throws IOException, InterruptedException {
+        return new LinuxLinkerFlags(PKG_CONFIG, cacheDir).doGetLinkerFlags("media", MEDIA_LINK_DEPENDENCIES);
+    }
+
+    List<String> doGetLinkerFlags(String name, List<PkgInfo> deps) throws IOException, InterruptedException {
+        Path cacheFile = cacheDir == null ? null : cacheDir.resolve(name + ".properties");
+        Properties key = getCacheKey(deps);
+        List<String> pkgFlags = readCache(cacheFile, key);
+        if (pkgFlags == null) {
+            pkgFlags = lookupFlags(deps);
+            writeCache(cacheFile, key, pkgFlags);
         }
 
         if (isOSPackageMissing()) {
@@ -140,25 +205,165 @@ public class LinuxLinkerFlags {
     }
 
     /**
-     * Uses pkg-config to lookup linker flags for package.
+     * Uses pkg-config to lookup linker flags for all the packages, running
+     * the queries concurrently, and keeping the order of the packages.
      *
-     * If pkg-config fails, adds amendment instructions to missingPackages.
+     * If pkg-config fails for a package, adds amendment instructions to missingPackages.
      */
-    private List<String> lookupPackageFlags(PkgInfo pkgInfo) throws IOException, InterruptedException {
-        if (pkgInfo.hardwired != null) {
-            return List.of(pkgInfo.hardwired);
+    private List<String> lookupFlags(List<PkgInfo> deps) throws IOException, InterruptedException {
+        ProcessRunner searchPathRunner = new ProcessRunner(pkgConfig, "--variable", "pc_path", "pkg-config");
+        searchPathRunner.showSevereMessage(false);
+        CompletableFuture<ProcessResult> searchPath = searchPathRunner.runProcessAsync("pkg-config search path");
+        List<CompletableFuture<ProcessResult>> libs = new ArrayList<>();
+        List<CompletableFuture<ProcessResult>> pcFiles = new ArrayList<>();
+        for (PkgInfo pkgInfo : deps) {
+            if (pkgInfo.hardwired != null) {
+                libs.add(null);
+                pcFiles.add(null);
+                continue;
+            }
+            ProcessRunner libsRunner = new ProcessRunner(pkgConfig, "--libs", pkgInfo.pkgName);
+            libs.add(libsRunner.runProcessAsync("Get config for " + pkgInfo.pkgName));
+            ProcessRunner pathRunner = new ProcessRunner(pkgConfig, "--path", pkgInfo.pkgName);
+            pathRunner.showSevereMessage(false);
+            pcFiles.add(pathRunner.runProcessAsync("Get path for " + pkgInfo.pkgName));
         }
 
-        String pkgName = pkgInfo.pkgName;
-        ProcessRunner process = new ProcessRunner("/usr/bin/pkg-config", "--libs", pkgName);
-        if (process.runProcess("Get config for " + pkgName) != 0) {
-            missingPackages.add(pkgInfo.installName + " (for pkgConfig " + pkgName + ")");
+        List<String> pkgFlags = new ArrayList<>();
+        for (int i = 0; i < deps.size(); i++) {
+            PkgInfo pkgInfo = deps.get(i);
+            if (pkgInfo.hardwired != null) {
+                pkgFlags.add(pkgInfo.hardwired);
+                continue;
+            }
+            String pkgName = pkgInfo.pkgName;
+            ProcessResult result = await(libs.get(i));
+            if (!result.isSuccess()) {
+                missingPackages.add(pkgInfo.installName + " (for pkgConfig " + pkgName + ")");
+                continue;
+            }
+            List<String> flags = List.of(String.join("", result.getOutput()).trim().split(" "));
+            Logger.logDebug("Pkg " + pkgName + " provided flags: " + flags);
+            pkgFlags.addAll(flags);
+
+            ProcessResult pcFile = await(pcFiles.get(i));
+            if (pcFile.isSuccess() && !pcFile.getLastOutput().isBlank()) {
+                involvedFiles.add(Paths.get(pcFile.getLastOutput().trim()));
+            }
+        }
+
+        // new or removed .pc files change the modification time of their directories
+        List<String> searchDirs = new ArrayList<>(splitPath(System.getenv("PKG_CONFIG_PATH")));
+        ProcessResult searchPathResult = await(searchPath);
+        if (searchPathResult.isSuccess()) {
+            searchDirs.addAll(splitPath(searchPathResult.getLastOutput()));
+        }
+        searchDirs.forEach(dir -> involvedFiles.add(Paths.get(dir)));
+        return pkgFlags;
+    }
+
+    private static ProcessResult await(CompletableFuture<ProcessResult> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Error running pkg-config", e.getCause());
+        }
+    }
+
+    private static List<String> splitPath(String path) {
+        if (path == null || path.isBlank()) {
             return List.of();
         }
+        return Arrays.stream(path.trim().split(File.pathSeparator))
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the inputs, other than the .pc files, that the flags depend on
+     */
+    private Properties getCacheKey(List<PkgInfo> deps) {
+        Properties key = new Properties();
+        key.setProperty("flavor", flavor.name());
+        key.setProperty("pkgConfig", pkgConfig);
+        key.setProperty("PKG_CONFIG_PATH", Objects.requireNonNullElse(System.getenv("PKG_CONFIG_PATH"), ""));
+        key.setProperty("PKG_CONFIG_LIBDIR", Objects.requireNonNullElse(System.getenv("PKG_CONFIG_LIBDIR"), ""));
+        key.setProperty("packages", deps.stream()
+                .map(pkg -> pkg.hardwired != null ? pkg.hardwired : pkg.pkgName)
+                .collect(Collectors.joining(" ")));
+        return key;
+    }
 
-        List<String> flags = List.of(process.getResponse().trim().split(" "));
-        Logger.logDebug("Pkg " + pkgName + " provided flags: " + flags);
-        return flags;
+    /**
+     * Reads the cached flags and missing packages, if the cache key matches,
+     * and none of the involved files has changed.
+     *
+     * @return the list of flags, or null if there is no valid cache
+     */
+    private List<String> readCache(Path cacheFile, Properties key) {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        Properties cache = new Properties();
+        try (Reader reader = Files.newBufferedReader(cacheFile)) {
+            cache.load(reader);
+        } catch (IOException e) {
+            Logger.logDebug("Error reading " + cacheFile + ": " + e.getMessage());
+            return null;
+        }
+        for (String name : key.stringPropertyNames()) {
+            if (!key.getProperty(name).equals(cache.getProperty(name))) {
+                Logger.logDebug("Linker flags cache is stale, " + name + " has changed");
+                return null;
+            }
+        }
+        for (String name : cache.stringPropertyNames()) {
+            if (name.startsWith(MTIME_PREFIX)) {
+                Path file = Paths.get(name.substring(MTIME_PREFIX.length()));
+                if (!Long.toString(getLastModified(file)).equals(cache.getProperty(name))) {
+                    Logger.logDebug("Linker flags cache is stale, " + file + " has changed");
+                    return null;
+                }
+            }
+        }
+        Logger.logDebug("Using cached linker flags from " + cacheFile);
+        missingPackages.addAll(split(cache.getProperty("missing", ""), "\n"));
+        return split(cache.getProperty("flags", ""), " ");
+    }
+
+    private void writeCache(Path cacheFile, Properties key, List<String> pkgFlags) {
+        if (cacheFile == null) {
+            return;
+        }
+        Map<String, String> cache = new TreeMap<>();
+        key.stringPropertyNames().forEach(name -> cache.put(name, key.getProperty(name)));
+        cache.put("flags", String.join(" ", pkgFlags));
+        cache.put("missing", String.join("\n", missingPackages));
+        for (Path file : involvedFiles) {
+            cache.put(MTIME_PREFIX + file, Long.toString(getLastModified(file)));
+        }
+        Properties properties = new Properties();
+        properties.putAll(cache);
+        try {
+            FileOps.writeAtomically(cacheFile, properties, "pkg-config linker flags");
+        } catch (IOException e) {
+            Logger.logDebug("Error writing " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    private static long getLastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static List<String> split(String value, String separator) {
+        if (value.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(value.split(separator)));
     }
 
     private boolean isOSPackageMissing() {
@@ -189,6 +189,7 @@ public class CodeSigning {
         }
         Logger.logDebug("Signing app with identity: " + identity);
         ProcessRunner execRunner = new ProcessRunner("codesign", "--timestamp", "--options", "runtime", "--force", "--sign", identity.getSha1());
+        execRunner.setCaptureAllLines(true);
         if (entitlementsPath != null) {
             execRunner.addArgs("--entitlements", entitlementsPath.toString());
         }
@@ -270,6 +271,7 @@ public class CodeSigning {
     private boolean verifyCodesign(Path target) throws IOException, InterruptedException {
         Logger.logDebug("Validating codesign...");
         ProcessRunner runner = new ProcessRunner("codesign", "--verify", "-vvvv", target.toAbsolutePath().toString());
+        runner.setCaptureAllLines(true);
         if (runner.runTimedProcess("verify", 30)) {
             return runner.getResponses().stream()
                     .anyMatch(line -> line.contains(CODESIGN_OK_1) ||
@@ -342,6 +344,7 @@ public class CodeSigning {
 
     private static List<Identity> retrieveAllIdentities() {
         ProcessRunner runner = new ProcessRunner("security", "find-identity", "-p", "codesigning", "-v");
+        runner.setCaptureAllLines(true);
         try {
             if (runner.runProcess("security") == 0) {
                 return runner.getResponses().stream()
@@ -500,6 +500,7 @@ public class Packager {
         final Pattern pattern = Pattern.compile("\"alis\"<blob>=\"([^\"]+)\"");
 
         ProcessRunner runner = new ProcessRunner("security", "find-certificate", "-a", "-c", type);
+        runner.setCaptureAllLines(true);
         try {
             if (runner.runProcess("certificates") == 0) {
                 return runner.getResponses().stream()
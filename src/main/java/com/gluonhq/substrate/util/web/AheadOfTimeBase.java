@@ -17,6 +17,7 @@
  */
 package com.gluonhq.substrate.util.web;
 
+import com.gluonhq.substrate.util.Fingerprint;
 import org.apidesign.bck2brwsr.aot.Bck2BrwsrJars;
 import org.apidesign.vm4brwsr.Bck2Brwsr;
 import org.apidesign.vm4brwsr.ObfuscationLevel;
@@ -33,8 +34,15 @@ import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -60,6 +68,14 @@ public abstract class AheadOfTimeBase<Art> {
     protected abstract String groupId(Art a);
     protected abstract String version(Art a);
 
+    protected int parallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    protected File fingerprintPath(File js) {
+        return new File(js.getPath() + ".fingerprint");
+    }
+
     public final void work() {
         URLClassLoader loader;
         final Iterable<Art> artifacts = artifacts();
@@ -69,7 +85,9 @@ public abstract class AheadOfTimeBase<Art> {
         } catch (MalformedURLException ex) {
             throw raise("Can't initialize classloader", ex);
         }
-        List<String> libsCp = new ArrayList<>();
+        // file() has been called for every artifact at this point, so the
+        // jobs below only read what the subclass has already resolved
+        Map<File, Art> libraries = new LinkedHashMap<>();
         for (Art a : artifacts) {
             final File aFile = file(a);
             if (aFile == null) {
@@ -87,18 +105,39 @@ public abstract class AheadOfTimeBase<Art> {
             }
             final String libNameJs = n.substring(0, n.length() - 4) + ".js";
             File js = libraryPath(libNameJs);
-            try {
-                js.getParentFile().mkdirs();
-                aotLibrary(a, artifacts, js, loader, libsCp);
-            } catch (IOException ex) {
-                throw raise("Can't compile " + aFile, ex);
+            Art previous = libraries.putIfAbsent(js, a);
+            if (previous != null) {
+                logInfo("Skipping " + aFile + " as " + js + " is generated from " + file(previous));
             }
         }
 
+        // libsCp follows the order of the artifacts, not the order in which the jobs finish
+        List<String> libsCp = new ArrayList<>();
+        List<Callable<String>> jobs = new ArrayList<>();
+        for (Map.Entry<File, Art> entry : libraries.entrySet()) {
+            File js = entry.getKey();
+            Art a = entry.getValue();
+            libsCp.add(js.getParentFile().getName() + '/' + js.getName());
+            jobs.add(() -> {
+                try {
+                    js.getParentFile().mkdirs();
+                    return aotLibrary(a, artifacts, js, loader);
+                } catch (IOException ex) {
+                    throw raise("Can't compile " + file(a), ex);
+                }
+            });
+        }
+        List<String> libsFingerprints = runAll(jobs);
+
         try {
-            if (mainJavaScript().lastModified() > mainJar().lastModified()) {
-                logInfo("Skipping " + mainJavaScript() + " as it already exists.");
+            Fingerprint fingerprint = settingsFingerprint()
+                    .addContent("main", mainJar().toPath())
+                    .addAll("libraries", libsCp)
+                    .addAll("librariesFingerprints", libsFingerprints);
+            if (isUpToDate(mainJavaScript(), fingerprint)) {
+                logInfo("Skipping " + mainJavaScript() + " as it is up to date.");
             } else {
+                Files.deleteIfExists(fingerprintPath(mainJavaScript()).toPath());
                 logInfo("Generating " + mainJavaScript());
                 Bck2Brwsr withLibsCp = Bck2Brwsr.newCompiler().library(libsCp.toArray(new String[0]));
                 Bck2Brwsr c = Bck2BrwsrJars.configureFrom(withLibsCp, mainJar(), loader, ignoreBootClassPath());
@@ -114,6 +153,7 @@ public abstract class AheadOfTimeBase<Art> {
                             obfuscation(obfuscation()).
                             generate(w);
                 }
+                fingerprint.write(fingerprintPath(mainJavaScript()).toPath());
             }
         } catch (IOException ex) {
             throw raise("Cannot generate script for " + mainJar(), ex);
@@ -137,38 +177,46 @@ public abstract class AheadOfTimeBase<Art> {
         }
     }
 
-    private void aotLibrary(Art a, Iterable<Art> allArtifacts, File js, URLClassLoader loader, List<String> libsCp) throws IOException {
+    private String aotLibrary(Art a, Iterable<Art> allArtifacts, File js, URLClassLoader loader) throws IOException {
         File aFile = file(a);
-        if (js.lastModified() > aFile.lastModified()) {
-            logInfo("Skipping " + js + " as it already exists.");
-            libsCp.add(js.getParentFile().getName() + '/' + js.getName());
-            return;
+        Fingerprint fingerprint = settingsFingerprint()
+                .addContent("library", aFile.toPath());
+        for (Art b : allArtifacts) {
+            if ("bck2brwsr".equals(classifier(b))) { // NOI18N
+                fingerprint.addContent("precompiled", file(b).toPath());
+            }
+        }
+        if (isUpToDate(js, fingerprint)) {
+            logInfo("Skipping " + js + " as it is up to date.");
+            return fingerprint.getValue();
         }
+        Files.deleteIfExists(fingerprintPath(js).toPath());
         for (Art b : allArtifacts) {
             final File file = file(b);
             if ("bck2brwsr".equals(classifier(b))) { // NOI18N
-                JarFile jf = new JarFile(file);
-                Manifest man = jf.getManifest();
-                for (Map.Entry<String, Attributes> entrySet : man.getEntries().entrySet()) {
-                    String entryName = entrySet.getKey();
-                    Attributes attr = entrySet.getValue();
-                    if (
-                        attr.getValue("Bck2BrwsrArtifactId").equals(artifactId(a)) &&
-                        attr.getValue("Bck2BrwsrGroupId").equals(groupId(a)) &&
-                        attr.getValue("Bck2BrwsrVersion").equals(version(a)) &&
-                        "melta".equals(attr.getValue("Bck2BrwsrMagic")) &&
-                        (
-                            obfuscation() == ObfuscationLevel.FULL && "true".equals(attr.getValue("Bck2BrwsrMinified"))
-                            ||
-                            obfuscation() != ObfuscationLevel.FULL && "true".equals(attr.getValue("Bck2BrwsrDebug"))
-                        )
-                    ) {
-                        logInfo("Extracting " + js + " from " + file);
-                        libsCp.add(js.getParentFile().getName() + '/' + js.getName());
-                        try (InputStream is = jf.getInputStream(new ZipEntry(entryName))) {
-                            Files.copy(is, js.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                try (JarFile jf = new JarFile(file)) {
+                    Manifest man = jf.getManifest();
+                    for (Map.Entry<String, Attributes> entrySet : man.getEntries().entrySet()) {
+                        String entryName = entrySet.getKey();
+                        Attributes attr = entrySet.getValue();
+                        if (
+                            attr.getValue("Bck2BrwsrArtifactId").equals(artifactId(a)) &&
+                            attr.getValue("Bck2BrwsrGroupId").equals(groupId(a)) &&
+                            attr.getValue("Bck2BrwsrVersion").equals(version(a)) &&
+                            "melta".equals(attr.getValue("Bck2BrwsrMagic")) &&
+                            (
+                                obfuscation() == ObfuscationLevel.FULL && "true".equals(attr.getValue("Bck2BrwsrMinified"))
+                                ||
+                                obfuscation() != ObfuscationLevel.FULL && "true".equals(attr.getValue("Bck2BrwsrDebug"))
+                            )
+                        ) {
+                            logInfo("Extracting " + js + " from " + file);
+                            try (InputStream is = jf.getInputStream(new ZipEntry(entryName))) {
+                                Files.copy(is, js.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                            }
+                            fingerprint.write(fingerprintPath(js).toPath());
+                            return fingerprint.getValue();
                         }
-                        return;
                     }
                 }
             }
@@ -177,7 +225,6 @@ public abstract class AheadOfTimeBase<Art> {
             throw raise("Not generating " + js + " and no precompiled version found!", null);
         }
         logInfo("Generating " + js);
-        libsCp.add(js.getParentFile().getName() + '/' + js.getName());
         try (Writer w = new OutputStreamWriter(new FileOutputStream(js), "UTF-8")) {
             Bck2Brwsr c = Bck2BrwsrJars.configureFrom(null, file(a), loader, ignoreBootClassPath());
             if (exports() != null) {
@@ -187,7 +234,46 @@ public abstract class AheadOfTimeBase<Art> {
                     obfuscation(obfuscation()).
                     generate(w);
         }
+        fingerprint.write(fingerprintPath(js).toPath());
+        return fingerprint.getValue();
+    }
+
+    private Fingerprint settingsFingerprint() {
+        return new Fingerprint()
+                .add("bck2brwsr", Bck2Brwsr.class.getPackage().getImplementationVersion())
+                .add("obfuscation", obfuscation().name())
+                .addAll("exports", exports() == null ? List.of() : Arrays.asList(exports()))
+                .add("ignoreBootClassPath", Boolean.toString(ignoreBootClassPath()));
     }
+
+    private boolean isUpToDate(File js, Fingerprint fingerprint) {
+        return js.isFile() &&
+                Fingerprint.read(fingerprintPath(js).toPath()).filter(fingerprint.getValue()::equals).isPresent();
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> jobs) {
+        List<T> results = new ArrayList<>();
+        if (jobs.isEmpty()) {
+            return results;
+        }
+        int nThreads = Math.max(1, Math.min(jobs.size(), parallelism()));
+        logInfo("Processing " + jobs.size() + " libraries using " + nThreads + " parallel jobs");
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            for (Future<T> future : executor.invokeAll(jobs)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw raise("Interrupted while processing libraries", ex);
+        } catch (ExecutionException ex) {
+            throw raise(RuntimeException.class, ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private URLClassLoader buildClassLoader(File root, Iterable<Art> deps) throws MalformedURLException {
         List<URL> arr = new ArrayList<>();
         if (root != null) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubstrateDaemonTests {
+
+    @Test
+    void testBuildRequest() throws Exception {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Thread daemon = startDaemon(tmp);
+        try {
+            Properties state = awaitState(tmp);
+            Properties properties = new Properties();
+            properties.setProperty("step", "compile");
+            properties.setProperty("substrate.daemon.test", "true");
+            properties.setProperty("java.vendor", "ignored");
+
+            StringWriter output = new StringWriter();
+            Optional<Integer> exitCode = SubstrateDaemon.request(state, tmp.resolve("build"), properties, output);
+
+            // without imagecp the build fails, and the reason is sent to the client
+            assertEquals(Optional.of(1), exitCode);
+            assertTrue(output.toString().contains("imagecp"));
+            assertNull(System.getProperty("substrate.daemon.test"));
+            assertNull(System.getProperty("step"));
+        } finally {
+            daemon.join(10_000);
+        }
+        assertFalse(daemon.isAlive());
+        assertTrue(SubstrateDaemon.readState(tmp).isEmpty());
+    }
+
+    @Test
+    void testInvalidToken() throws Exception {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Thread daemon = startDaemon(tmp);
+        try {
+            Properties state = awaitState(tmp);
+            state.setProperty("token", "invalid");
+            assertThrows(IOException.class, () -> SubstrateDaemon.request(state, tmp.resolve("build"), new Properties(), new StringWriter()));
+        } finally {
+            daemon.join(10_000);
+        }
+    }
+
+    @Test
+    void testDifferentEnvironment() throws Exception {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Thread daemon = startDaemon(tmp, Duration.ofMinutes(1));
+        try {
+            Properties state = awaitState(tmp);
+            Optional<Integer> exitCode = SubstrateDaemon.request(state, tmp.resolve("build"), new Properties(),
+                    "other environment", new StringWriter());
+            assertTrue(exitCode.isEmpty());
+        } finally {
+            // the daemon stops right away, instead of waiting to be idle
+            daemon.join(10_000);
+        }
+        assertFalse(daemon.isAlive());
+        assertTrue(SubstrateDaemon.readState(tmp).isEmpty());
+    }
+
+    @Test
+    void testInvalidRequests() throws Exception {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Thread daemon = startDaemon(tmp, Duration.ofMinutes(1));
+        try {
+            Properties state = awaitState(tmp);
+            for (int size : new int[] {-1, Integer.MAX_VALUE}) {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(state.getProperty("port")))) {
+                    new DataOutputStream(socket.getOutputStream()).writeInt(size);
+                    assertEquals(-1, socket.getInputStream().read());
+                }
+            }
+            // the daemon is still serving requests
+            assertTrue(daemon.isAlive());
+            assertTrue(SubstrateDaemon.request(state, tmp.resolve("build"), new Properties(),
+                    "other environment", new StringWriter()).isEmpty());
+        } finally {
+            daemon.join(10_000);
+        }
+        assertFalse(daemon.isAlive());
+    }
+
+    @Test
+    void testResolvePaths() {
+        Path workingDir = Path.of("client").toAbsolutePath();
+        assertEquals(workingDir.resolve("graalvm").toString(),
+                SubstrateDaemon.resolvePaths("graalvm", "graalvm", workingDir));
+        assertEquals(workingDir.resolve("libs").toString(),
+                SubstrateDaemon.resolvePaths("javalibspath", "libs", workingDir));
+        assertEquals(workingDir.resolve("a.jar") + File.pathSeparator + workingDir.resolve("b.jar"),
+                SubstrateDaemon.resolvePaths("imagecp", "a.jar" + File.pathSeparator + "b.jar", workingDir));
+        Path absolute = Path.of("other").toAbsolutePath();
+        assertEquals(absolute.toString(), SubstrateDaemon.resolvePaths("graalvm", absolute.toString(), workingDir));
+        assertEquals("compile", SubstrateDaemon.resolvePaths("step", "compile", workingDir));
+    }
+
+    private static Thread startDaemon(Path daemonPath) {
+        return startDaemon(daemonPath, Duration.ofSeconds(2));
+    }
+
+    private static Thread startDaemon(Path daemonPath, Duration idleTimeout) {
+        Thread thread = new Thread(() -> {
+            try {
+                SubstrateDaemon.serve(daemonPath, idleTimeout);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static Properties awaitState(Path daemonPath) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Optional<Properties> state = SubstrateDaemon.readState(daemonPath);
+            if (state.isPresent()) {
+                return state.get();
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("The daemon didn't start");
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassConfigTests {
+
+    @Test
+    void testMergeEntries() throws IOException {
+        ClassConfig config = new ClassConfig();
+        config.add("[\n" +
+                "  {\"name\":\"b.B\", \"allDeclaredMethods\":true, \"fields\":[{\"name\":\"x\"}]},\n" +
+                "  {\"name\":\"a.A\", \"methods\":[{\"name\":\"run\",\"parameterTypes\":[] }]}\n" +
+                "]", "first");
+        // a fragment without brackets, with a trailing comma
+        config.add("{\"name\":\"a.A\", \"methods\":[{\"parameterTypes\":[], \"name\":\"run\"}, {\"name\":\"call\",\"parameterTypes\":[\"int\"]}]},\n" +
+                "{\"name\":\"b.B\", \"allDeclaredMethods\":false, \"fields\":[{\"name\":\"x\", \"allowUnsafeAccess\":true}]},", "second");
+        config.addClass("b.B", false);
+
+        assertEquals(2, config.size());
+        assertEquals("[\n" +
+                "  {\n" +
+                "    \"name\" : \"a.A\",\n" +
+                "    \"methods\" : [\n" +
+                "      {\"name\":\"call\",\"parameterTypes\":[\"int\"]},\n" +
+                "      {\"name\":\"run\",\"parameterTypes\":[]}\n" +
+                "    ]\n" +
+                "  },\n" +
+                "  {\n" +
+                "    \"name\" : \"b.B\",\n" +
+                "    \"allDeclaredMethods\" : true,\n" +
+                "    \"fields\" : [\n" +
+                "      {\"name\":\"x\",\"allowUnsafeAccess\":true}\n" +
+                "    ]\n" +
+                "  }\n" +
+                "]\n", config.toJson());
+    }
+
+    @Test
+    void testMergeMembersAndTypes() throws IOException {
+        ClassConfig config = new ClassConfig();
+        config.add("[{\"type\":\"a.A\", \"queriedMethods\":[{\"name\":\"run\",\"parameterTypes\":[]}]}]", "first");
+        config.add("[{\"name\":\"a.A\", \"queriedMethods\":[{\"name\":\"run\",\"parameterTypes\":[],\"extra\":true}]}]", "second");
+        config.add("[{\"type\":\"b.B\"}]", "third");
+
+        // one method with the attributes of both entries, and only the name key of the classes
+        assertEquals("[\n" +
+                "  {\n" +
+                "    \"name\" : \"a.A\",\n" +
+                "    \"queriedMethods\" : [\n" +
+                "      {\"name\":\"run\",\"extra\":true,\"parameterTypes\":[]}\n" +
+                "    ]\n" +
+                "  },\n" +
+                "  {\n" +
+                "    \"name\" : \"b.B\"\n" +
+                "  }\n" +
+                "]\n", config.toJson());
+    }
+
+    @Test
+    void testConditions() throws IOException {
+        ClassConfig config = new ClassConfig();
+        config.add("[{\"name\":\"a.A\", \"condition\":{\"typeReachable\":\"a.B\"}, \"allPublicMethods\":true}]", "first");
+        config.add("[{\"name\":\"a.A\", \"allPublicFields\":true}]", "second");
+        config.add("[{\"name\":\"a.A\", \"condition\":{\"typeReachable\":\"a.B\"}, \"allPublicFields\":true}]", "third");
+        assertEquals(2, config.size());
+        assertTrue(config.toJson().contains("\"condition\" : {\"typeReachable\":\"a.B\"},\n" +
+                "    \"allPublicFields\" : true,\n" +
+                "    \"allPublicMethods\" : true"));
+    }
+
+    @Test
+    void testStableOutput() throws IOException {
+        ClassConfig first = new ClassConfig();
+        first.addClass("a.A", true);
+        first.add("[{\"name\":\"b.B\"}]", "test");
+        ClassConfig second = new ClassConfig();
+        second.add("[{\"name\":\"b.B\"}]", "test");
+        second.addClass("a.A", true);
+        second.addClass("b.B", false);
+        assertEquals(first.toJson(), second.toJson());
+    }
+
+    @Test
+    void testInvalidConfig() {
+        ClassConfig config = new ClassConfig();
+        IOException e = assertThrows(IOException.class, () -> config.add("[{\"name\":\"a.A\",]\n]", "broken.json"));
+        assertTrue(e.getMessage().contains("broken.json"));
+        assertThrows(IOException.class, () -> config.add("[{\"methods\":[]}]", "unnamed.json"));
+    }
+}
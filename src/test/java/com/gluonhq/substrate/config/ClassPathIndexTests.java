@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.util.FileOps;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_CONFIG;
+import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_DALVIK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassPathIndexTests {
+
+    @Test
+    void testConfigEntries() throws IOException, InterruptedException {
+        Path jarPath = Files.createTempDirectory("substrate-tests").resolve("substrate-test.jar");
+        Path resourcePath = FileOps.copyResource("/substrate-test.jar", jarPath);
+        ClassPathIndex index = new ClassPathIndex(resourcePath.toString());
+
+        assertEquals(1, index.getJars().size());
+        assertEquals(1, index.getEntries(META_INF_SUBSTRATE_CONFIG + "initbuildtime").size());
+        assertEquals(2, index.getEntries(META_INF_SUBSTRATE_CONFIG + "initbuildtime",
+                META_INF_SUBSTRATE_CONFIG + "initbuildtime-test").size());
+        assertEquals(7, index.getEntriesWithPrefix(META_INF_SUBSTRATE_CONFIG).size());
+        assertTrue(index.getEntriesWithPrefix("test-resource").isEmpty());
+        assertTrue(index.getJarsWithStaticLibraries(".a").isEmpty());
+    }
+
+    @Test
+    void testDalvikAndStaticLibraries() throws IOException, InterruptedException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path jarWithLibs = tmp.resolve("native-libs.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jarWithLibs))) {
+            jos.putNextEntry(new ZipEntry("native/linux/libfoo.a"));
+            jos.write(new byte[] {1, 2, 3});
+            jos.putNextEntry(new ZipEntry(META_INF_SUBSTRATE_DALVIK + "android-permissions.txt"));
+            jos.write("android.permission.INTERNET".getBytes());
+        }
+        Path jarWithoutLibs = FileOps.copyResource("/substrate-test.jar", tmp.resolve("substrate-test.jar"));
+
+        ClassPathIndex index = new ClassPathIndex(jarWithoutLibs + File.pathSeparator + jarWithLibs);
+        List<File> jars = index.getJarsWithStaticLibraries(".a");
+        assertEquals(1, jars.size());
+        assertEquals(jarWithLibs.toFile(), jars.get(0));
+        assertTrue(index.getJarsWithStaticLibraries(".lib").isEmpty());
+
+        List<ClassPathIndex.Entry> entries = index.getEntriesWithPrefix(META_INF_SUBSTRATE_DALVIK);
+        assertEquals(1, entries.size());
+        assertEquals(List.of("android.permission.INTERNET"), FileOps.readFileLines(entries.get(0).getInputStream()));
+    }
+
+    @Test
+    void testProjectClasses() throws IOException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path classes = Files.createDirectories(tmp.resolve("classes"));
+        Path config = Files.createDirectories(classes.resolve(META_INF_SUBSTRATE_CONFIG));
+        Files.writeString(config.resolve("reflectionconfig.txt"), "foo.Main");
+        Path cachePath = tmp.resolve("cache");
+
+        ClassPathIndex index = new ClassPathIndex(classes.toString(), cachePath);
+        assertEquals(List.of(classes.toFile()), index.getJars());
+        List<ClassPathIndex.Entry> entries = index.getEntries(META_INF_SUBSTRATE_CONFIG + "reflectionconfig.txt");
+        assertEquals(1, entries.size());
+        assertEquals(classes.toFile(), entries.get(0).getJar());
+        assertEquals(List.of("foo.Main"), FileOps.readFileLines(entries.get(0).getInputStream()));
+        assertFalse(Files.exists(cachePath));
+    }
+
+    @Test
+    void testJarScanCache() throws IOException, InterruptedException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path cachePath = tmp.resolve("cache");
+        Path jarPath = FileOps.copyResource("/substrate-test.jar", tmp.resolve("substrate-test.jar"));
+
+        ClassPathIndex index = new ClassPathIndex(jarPath.toString(), cachePath);
+        assertEquals(7, index.getEntriesWithPrefix(META_INF_SUBSTRATE_CONFIG).size());
+        assertTrue(Files.list(cachePath).anyMatch(p -> p.toString().endsWith(".idx")));
+
+        JarScanCache cache = new JarScanCache(cachePath);
+        assertTrue(cache.load(jarPath.toFile()).isPresent());
+        assertEquals(7, cache.load(jarPath.toFile()).get().getEntries().size());
+
+        ClassPathIndex cachedIndex = new ClassPathIndex(jarPath.toString(), cachePath);
+        assertEquals(7, cachedIndex.getEntriesWithPrefix(META_INF_SUBSTRATE_CONFIG).size());
+
+        // a modified jar invalidates its cached result
+        assertTrue(jarPath.toFile().setLastModified(jarPath.toFile().lastModified() - 10_000));
+        assertTrue(cache.load(jarPath.toFile()).isEmpty());
+    }
+}
@@ -94,6 +94,17 @@ class ConfigTests {
                 .anyMatch(s -> "\"methods\":[{\"name\":\"test\",\"parameterTypes\":[\"int\"] }]".equals(s.trim())));
     }
 
+    @Test
+    void testReflectionConfig() throws IOException {
+        ClassConfig config = new ClassConfig();
+        resolver.addUserReflectionConfig(config, "test");
+        assertEquals(2, config.size());
+        String json = config.toJson();
+        assertTrue(json.contains("\"name\" : \"this.is.a.test\""));
+        assertTrue(json.contains("\"name\" : \"this.is.a.target.test\""));
+        assertTrue(json.contains("{\"name\":\"test\",\"parameterTypes\":[\"int\"]}"));
+    }
+
     @Test
     void testJNINullArch() throws IOException {
         List<String> jniList = resolver.getUserJNIList(null);
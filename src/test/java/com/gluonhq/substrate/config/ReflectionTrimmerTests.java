@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.model.ClassPathEntry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReflectionTrimmerTests {
+
+    private static final Map<String, String> SOURCES = Map.of(
+            "javafx/fxml/FXML.java",
+            "package javafx.fxml;\n" +
+            "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n" +
+            "public @interface FXML {}\n",
+            "test/Controller.java",
+            "package test;\n" +
+            "public class Controller {\n" +
+            "    @javafx.fxml.FXML private Object label;\n" +
+            "    private Object notInjected;\n" +
+            "    public Object button;\n" +
+            "    public Controller() {}\n" +
+            "    @javafx.fxml.FXML private void initialize() {}\n" +
+            "    private void onClick(Object event) {}\n" +
+            "    private void helper(int a, String[] b) {}\n" +
+            "}\n",
+            "test/CustomControl.java",
+            "package test;\n" +
+            "public class CustomControl {\n" +
+            "    public CustomControl() {}\n" +
+            "    public void setText(String text) {}\n" +
+            "    private void update() {}\n" +
+            "}\n",
+            "test/Plugin.java",
+            "package test;\n" +
+            "public class Plugin {\n" +
+            "    public Plugin() {}\n" +
+            "    public Plugin(String name) {}\n" +
+            "    public void start() {}\n" +
+            "    public void stop() {}\n" +
+            "}\n",
+            "test/Introspected.java",
+            "package test;\n" +
+            "public class Introspected {\n" +
+            "    private int value;\n" +
+            "}\n",
+            "test/Bean.java",
+            "package test;\n" +
+            "public class Bean {\n" +
+            "    public String getName() { return null; }\n" +
+            "    public String getValue() { return null; }\n" +
+            "}\n",
+            "test/Lookup.java",
+            "package test;\n" +
+            "public class Lookup {\n" +
+            "    Object find(Class<?> type) throws Exception {\n" +
+            "        return type.getMethod(\"getName\");\n" +
+            "    }\n" +
+            "}\n",
+            "test/Unused.java",
+            "package test;\n" +
+            "public class Unused {\n" +
+            "    private int value;\n" +
+            "}\n",
+            "test/Main.java",
+            "package test;\n" +
+            "public class Main {\n" +
+            "    public static void main(String[] args) throws Exception {\n" +
+            "        Class.forName(\"test.Plugin\").getDeclaredConstructor().newInstance();\n" +
+            "        Plugin.class.getMethod(\"start\").invoke(null);\n" +
+            "    }\n" +
+            "}\n",
+            "test/Inspector.java",
+            "package test;\n" +
+            "public class Inspector {\n" +
+            "    int count() {\n" +
+            "        return Introspected.class.getDeclaredFields().length;\n" +
+            "    }\n" +
+            "}\n");
+
+    private static final String FXML =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<?import test.*?>\n" +
+            "<CustomControl xmlns:fx=\"http://javafx.com/fxml\" fx:controller=\"test.Controller\" onAction=\"#onClick\" text=\"Hi\">\n" +
+            "  <CustomControl fx:id=\"button\"/>\n" +
+            "</CustomControl>\n";
+
+    private static final List<String> CLASSES = List.of("test.Controller", "test.CustomControl", "test.Plugin",
+            "test.Introspected", "test.Bean", "test.Unused", "java.lang.String");
+
+    private static ClassConfig config;
+    private static ReflectionTrimmer trimmer;
+
+    @BeforeAll
+    static void trim() throws IOException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path sources = tmp.resolve("src");
+        Path classes = tmp.resolve("classes");
+        List<String> args = new ArrayList<>(List.of("-d", classes.toString()));
+        for (Map.Entry<String, String> source : SOURCES.entrySet()) {
+            Path file = sources.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            args.add(file.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])));
+        Files.writeString(classes.resolve("test").resolve("main.fxml"), FXML);
+
+        config = new ClassConfig();
+        trimmer = new ReflectionTrimmer(List.of(ClassPathEntry.ofDirectories(List.of(classes))));
+        trimmer.addClasses(config, CLASSES);
+    }
+
+    @Test
+    void testController() {
+        String entry = getEntry("test.Controller");
+        assertTrue(entry.contains("{\"name\":\"<init>\",\"parameterTypes\":[]}"));
+        assertTrue(entry.contains("{\"name\":\"initialize\",\"parameterTypes\":[]}"));
+        assertTrue(entry.contains("{\"name\":\"onClick\",\"parameterTypes\":[\"java.lang.Object\"]}"));
+        assertTrue(entry.contains("{\"name\":\"label\"}"));
+        assertTrue(entry.contains("{\"name\":\"button\"}"));
+        assertFalse(entry.contains("notInjected"));
+        assertFalse(entry.contains("helper"));
+        assertFalse(entry.contains("allDeclared"));
+    }
+
+    @Test
+    void testFxmlClass() {
+        String entry = getEntry("test.CustomControl");
+        assertTrue(entry.contains("\"allPublicMethods\" : true"));
+        assertFalse(entry.contains("allDeclared"));
+    }
+
+    @Test
+    void testLoadedClass() {
+        String entry = getEntry("test.Plugin");
+        assertTrue(entry.contains("{\"name\":\"<init>\",\"parameterTypes\":[]}"));
+        assertTrue(entry.contains("{\"name\":\"<init>\",\"parameterTypes\":[\"java.lang.String\"]}"));
+        assertTrue(entry.contains("{\"name\":\"start\",\"parameterTypes\":[]}"));
+        assertFalse(entry.contains("stop"));
+    }
+
+    @Test
+    void testFullClasses() {
+        // inspected in full, without evidence of reflective access, or not in the classpath
+        assertTrue(getEntry("test.Introspected").contains("\"allDeclaredFields\" : true"));
+        assertTrue(getEntry("test.Unused").contains("\"allDeclaredFields\" : true"));
+        // a member name looked up by a class that doesn't refer to it isn't enough to trim it
+        assertTrue(getEntry("test.Bean").contains("\"allDeclaredMethods\" : true"));
+        assertTrue(getEntry("java.lang.String").contains("\"allDeclaredFields\" : true"));
+        assertEquals(3, trimmer.getTrimmedClasses());
+        assertEquals(4, trimmer.getFullClasses());
+        // notInjected, helper, update and stop
+        assertEquals(4, trimmer.getDroppedMembers());
+    }
+
+    private static String getEntry(String className) {
+        String json = config.toJson();
+        int start = json.indexOf("\"name\" : \"" + className + "\"");
+        assertTrue(start >= 0, className + " not found");
+        int end = json.indexOf("\n  }", start);
+        return json.substring(start, end);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceSelectorTests {
+
+    private static final List<String> EXTENSIONS = List.of("png", "gif", "css");
+
+    private static String classpath;
+    private static ClassPathIndex classPathIndex;
+
+    @BeforeAll
+    static void createClassPath() throws IOException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+
+        Map<String, byte[]> jarEntries = new TreeMap<>();
+        jarEntries.put("lib/used.png", new byte[5000]);
+        jarEntries.put("lib/unused.png", new byte[5000]);
+        jarEntries.put("lib/small.png", new byte[10]);
+        jarEntries.put("lib/icon.gif", new byte[5000]);
+        jarEntries.put("lib/style.css", ".button { -fx-graphic: url(\"icon.gif\"); }".getBytes(StandardCharsets.UTF_8));
+        jarEntries.put("lib/data.bin", new byte[5000]);
+        Path jar = tmp.resolve("lib.jar");
+        try (OutputStream os = Files.newOutputStream(jar); JarOutputStream jos = new JarOutputStream(os)) {
+            for (Map.Entry<String, byte[]> entry : jarEntries.entrySet()) {
+                jos.putNextEntry(new ZipEntry(entry.getKey()));
+                jos.write(entry.getValue());
+                jos.closeEntry();
+            }
+        }
+
+        Path classes = tmp.resolve("classes");
+        Path source = tmp.resolve("src").resolve("app").resolve("Main.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "package app;\n" +
+                "public class Main {\n" +
+                "    static final String IMAGE = \"/lib/used.png\";\n" +
+                "}\n");
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-d", classes.toString(), source.toString()));
+        Files.write(classes.resolve("app").resolve("logo.png"), new byte[5000]);
+
+        classpath = jar + File.pathSeparator + classes;
+        classPathIndex = new ClassPathIndex(classpath);
+    }
+
+    @Test
+    void testAllResources() throws IOException {
+        ResourceSelector selector = new ResourceSelector(classPathIndex, EXTENSIONS);
+        assertEquals(List.of("\\Qlib/icon.gif\\E", "\\Qlib/small.png\\E", "\\Qlib/style.css\\E",
+                "\\Qlib/unused.png\\E", "\\Qlib/used.png\\E", "\\Qapp/logo.png\\E"), selector.getPatterns());
+        assertEquals(6, selector.getIncludedResources());
+        assertEquals(0, selector.getExcludedResources());
+    }
+
+    @Test
+    void testUsageThreshold() throws IOException {
+        ResourceSelector selector = new ResourceSelector(classPathIndex, EXTENSIONS);
+        selector.setUsageThreshold(1000, classpath);
+        // unused.png is large and not referenced, logo.png belongs to the project
+        assertEquals(List.of("\\Qlib/icon.gif\\E", "\\Qlib/small.png\\E", "\\Qlib/style.css\\E",
+                "\\Qlib/used.png\\E", "\\Qapp/logo.png\\E"), selector.getPatterns());
+        assertEquals(1, selector.getExcludedResources());
+        assertEquals(5000, selector.getExcludedBytes());
+    }
+
+    @Test
+    void testModuleResources() throws IOException {
+        ResourceSelector selector = new ResourceSelector(classPathIndex, List.of("png", "dat"));
+        selector.setJavaHome(Path.of(System.getProperty("java.home")));
+        List<String> patterns = selector.getPatterns();
+        // the resources of the classpath come first, and the ones of the JDK modules after them
+        assertEquals(List.of("\\Qlib/small.png\\E", "\\Qlib/unused.png\\E", "\\Qlib/used.png\\E",
+                "\\Qapp/logo.png\\E"), patterns.subList(0, 4));
+        assertTrue(patterns.contains("\\Qjava/lang/uniName.dat\\E"));
+        assertEquals(patterns.size(), selector.getIncludedResources());
+
+        selector = new ResourceSelector(classPathIndex, List.of("png"));
+        selector.setJavaHome(Files.createTempDirectory("substrate-tests"));
+        assertEquals(".*\\.png$", selector.getPatterns().get(4));
+    }
+
+    @Test
+    void testUnreadableModules() throws IOException {
+        ResourceSelector selector = new ResourceSelector(classPathIndex, EXTENSIONS);
+        selector.setUsageThreshold(1000, classpath);
+        selector.setJavaHome(Files.createTempDirectory("substrate-tests"));
+        List<String> patterns = selector.getPatterns();
+        // the patterns per extension include unused.png as well
+        assertTrue(patterns.contains(".*\\.png$"));
+        assertEquals(6, selector.getIncludedResources());
+        assertEquals(0, selector.getExcludedResources());
+        assertEquals(0, selector.getExcludedBytes());
+    }
+}
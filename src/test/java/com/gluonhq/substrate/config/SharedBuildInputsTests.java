@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.config;
+
+import com.gluonhq.substrate.util.FileOps;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.gluonhq.substrate.Constants.META_INF_SUBSTRATE_CONFIG;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedBuildInputsTests {
+
+    @Test
+    void testSharedClassPathIndex() throws Exception {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path jarPath = FileOps.copyResource("/substrate-test.jar", tmp.resolve("substrate-test.jar"));
+        SharedBuildInputs inputs = new SharedBuildInputs(tmp.resolve("shared"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ClassPathIndex>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Path cachePath = tmp.resolve("target" + i).resolve("jars");
+                futures.add(executor.submit(() -> inputs.getClassPathIndex(jarPath.toString(), cachePath)));
+            }
+            ClassPathIndex index = futures.get(0).get();
+            for (Future<ClassPathIndex> future : futures) {
+                assertSame(index, future.get());
+            }
+            assertEquals(7, index.getEntriesWithPrefix(META_INF_SUBSTRATE_CONFIG).size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ClassPathIndex otherIndex = new SharedBuildInputs(null).getClassPathIndex(jarPath.toString(), null);
+        assertNotSame(otherIndex, inputs.getClassPathIndex(jarPath.toString(), null));
+    }
+
+    @Test
+    void testSharedPathingJar() throws Exception {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path jarPath = FileOps.copyResource("/substrate-test.jar", tmp.resolve("substrate-test.jar"));
+        Path sharedPath = tmp.resolve("shared");
+        SharedBuildInputs inputs = new SharedBuildInputs(sharedPath);
+
+        String pathingJar = inputs.getPathingJar(jarPath.toString(), tmp.resolve("target1"));
+        assertEquals(pathingJar, inputs.getPathingJar(jarPath.toString(), tmp.resolve("target2")));
+        assertTrue(Path.of(pathingJar).startsWith(sharedPath));
+        assertTrue(Files.exists(Path.of(pathingJar)));
+
+        String targetPathingJar = new SharedBuildInputs(null).getPathingJar(jarPath.toString(), tmp.resolve("target1"));
+        assertTrue(Path.of(targetPathingJar).startsWith(tmp.resolve("target1")));
+    }
+}
@@ -7,12 +7,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarFile;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -122,4 +126,42 @@ public class ClassPathTests {
         assertEquals(3, jars.size());
     }
 
+    @Test
+    public void classesEntryTest() throws IOException {
+        Path build = Files.createTempDirectory("substrate-tests");
+        Path classes = Files.createDirectories(build.resolve("classes" + SS + "java" + SS + "main"));
+        Path resources = Files.createDirectories(build.resolve("resources" + SS + "main"));
+        Files.createDirectories(classes.resolve("foo"));
+        Files.write(classes.resolve("foo").resolve("Main.class"), new byte[] {1, 2, 3});
+        Files.createDirectories(resources.resolve("foo"));
+        Files.writeString(resources.resolve("foo").resolve("main.properties"), "key=value");
+
+        var cp = new ClassPath("aaa.jar" + PS + classes + PS + resources);
+        List<ClassPathEntry> entries = cp.getEntries(true);
+        assertEquals(2, entries.size());
+        ClassPathEntry classesEntry = entries.get(1);
+        assertTrue(classesEntry.isDirectory());
+        assertEquals("classes", classesEntry.getName());
+        List<String> names = new ArrayList<>();
+        classesEntry.visit((name, content) -> names.add(name));
+        assertIterableEquals(Arrays.asList("foo/Main.class", "foo/main.properties"), names);
+        assertEquals(1, cp.getEntries(false).size());
+
+        List<File> jars = cp.getJars(true);
+        assertEquals(2, jars.size());
+        File classesJar = jars.get(1);
+        assertEquals("classes.jar", classesJar.getName());
+        try (JarFile jarFile = new JarFile(classesJar)) {
+            assertNotNull(jarFile.getManifest());
+            assertNotNull(jarFile.getEntry("foo/"));
+            assertNotNull(jarFile.getEntry("foo/Main.class"));
+            assertNotNull(jarFile.getEntry("foo/main.properties"));
+        }
+
+        // the jar is reused, unless the classes change
+        assertEquals(classesJar, cp.getJars(true).get(1));
+        assertTrue(classes.resolve("foo").resolve("Main.class").toFile().setLastModified(classesJar.lastModified() + 10_000));
+        assertNotEquals(classesJar, cp.getJars(true).get(1));
+    }
+
 }
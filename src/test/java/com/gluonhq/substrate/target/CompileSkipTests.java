@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.target;
+
+import com.gluonhq.substrate.util.Fingerprint;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompileSkipTests {
+
+    @Test
+    void testSkipCompile() throws IOException {
+        Path gvmPath = Files.createTempDirectory("substrate-tests").resolve("gvm");
+        Path tmpPath = gvmPath.resolve("tmp");
+        Path fingerprintPath = gvmPath.getParent().resolve("cache").resolve("compile").resolve("app.fingerprint");
+        Path objectFile = Files.createDirectories(tmpPath.resolve("SVM-1234")).resolve("app.o");
+        Files.writeString(objectFile, "object");
+        Path deps = Files.writeString(Files.createDirectories(tmpPath.resolve("deps")).resolve("lib.jar"), "jar");
+
+        Fingerprint fingerprint = new Fingerprint().add("args", "-cp lib.jar");
+        assertFalse(AbstractTargetConfiguration.isCompileUpToDate(fingerprintPath, fingerprint, gvmPath, "app.o"));
+        fingerprint.write(fingerprintPath);
+
+        // the object file of the last compile is kept, so the next compile with the same inputs is skipped
+        assertTrue(AbstractTargetConfiguration.isCompileUpToDate(fingerprintPath,
+                new Fingerprint().add("args", "-cp lib.jar"), gvmPath, "app.o"));
+        assertFalse(AbstractTargetConfiguration.isCompileUpToDate(fingerprintPath,
+                new Fingerprint().add("args", "-cp other.jar"), gvmPath, "app.o"));
+
+        // before a new compile only the folders of native-image are removed
+        AbstractTargetConfiguration.cleanNativeImageTempDirectories(tmpPath);
+        assertFalse(Files.exists(objectFile));
+        assertTrue(Files.exists(deps));
+        assertFalse(AbstractTargetConfiguration.isCompileUpToDate(fingerprintPath,
+                new Fingerprint().add("args", "-cp lib.jar"), gvmPath, "app.o"));
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchitectureReaderTests {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        tempDir = Files.createTempDirectory("substrate-tests");
+    }
+
+    @Test
+    void testObjectFiles() throws IOException {
+        assertEquals(Optional.of(Set.of("x86_64")), read("x86_64.o", elf(62, false)));
+        assertEquals(Optional.of(Set.of("aarch64")), read("aarch64.o", elf(183, false)));
+        assertEquals(Optional.of(Set.of("arm")), read("arm.o", elf(40, true)));
+        assertEquals(Optional.of(Set.of("aarch64")), read("arm64.o", machO(0x0100000C)));
+        assertEquals(Optional.of(Set.of("aarch64", "x86_64")), read("fat.a", fat(0x01000007, 0x0100000C)));
+        assertEquals(Optional.empty(), read("text.a", "not an object file".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Optional.empty(), read("empty.a", new byte[0]));
+    }
+
+    @Test
+    void testArchives() throws IOException {
+        byte[] gnu = archive(
+                member("/", new byte[] {0, 0, 0, 0}),
+                member("//", "a_very_long_object_file_name.o/\n".getBytes(StandardCharsets.US_ASCII)),
+                member("/0", elf(62, false)),
+                member("readme.txt/", "odd".getBytes(StandardCharsets.US_ASCII)),
+                member("b.o/", elf(62, false)));
+        assertEquals(Optional.of(Set.of("x86_64")), read("libgnu.a", gnu));
+
+        byte[] bsdName = "an_object_file_with_long_name.o\0".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(bsdName);
+        content.write(machO(0x01000007));
+        byte[] bsd = archive(
+                member("__.SYMDEF SORTED", new byte[] {0, 0, 0, 0}),
+                member("#1/" + bsdName.length, content.toByteArray()),
+                member("#1/4", concat("c.o\0".getBytes(StandardCharsets.US_ASCII), machO(0x0100000C))));
+        assertEquals(Optional.of(Set.of("aarch64", "x86_64")), read("libbsd.a", bsd));
+
+        assertEquals(Optional.empty(), read("libempty.a", archive(member("/", new byte[] {0, 0}))));
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals(ArchitectureReader.AARCH64, ArchitectureReader.normalize("arm64"));
+        assertEquals(ArchitectureReader.AARCH64, ArchitectureReader.normalize("aarch64"));
+        assertEquals(ArchitectureReader.X86_64, ArchitectureReader.normalize("x86_64"));
+    }
+
+    @Test
+    void testFilter() throws IOException {
+        Path cache = tempDir.resolve("cache");
+        Path x86 = write("x86_64.o", elf(62, false));
+        Path arm = write("arm64.o", machO(0x0100000C));
+        Path unknown = write("unknown.a", "unknown".getBytes(StandardCharsets.UTF_8));
+
+        AtomicInteger fallbacks = new AtomicInteger();
+        ArchitectureFilter filter = new ArchitectureFilter("arm64", cache, p -> fallbacks.incrementAndGet() > 0);
+        assertFalse(filter.test(x86));
+        assertTrue(filter.test(arm));
+        assertTrue(filter.test(unknown));
+        assertTrue(filter.test(unknown));
+        assertEquals(1, fallbacks.get());
+
+        // a file that changes is read again
+        Files.write(arm, elf(62, false));
+        Files.setLastModifiedTime(arm, FileTime.fromMillis(Files.getLastModifiedTime(arm).toMillis() + 2000));
+        assertFalse(filter.test(arm));
+
+        // a new filter reuses the verdicts of the same files, even if renamed
+        Path copy = write("copy.a", "unknown".getBytes(StandardCharsets.UTF_8));
+        assertTrue(new ArchitectureFilter("aarch64", cache, p -> fallbacks.incrementAndGet() < 0).test(copy));
+        assertEquals(1, fallbacks.get());
+        assertFalse(new ArchitectureFilter("x86_64", cache, p -> fallbacks.incrementAndGet() < 0).test(copy));
+        assertEquals(2, fallbacks.get());
+    }
+
+    private Optional<Set<String>> read(String name, byte[] content) throws IOException {
+        return ArchitectureReader.read(write(name, content));
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(tempDir.resolve(name), content);
+    }
+
+    private static byte[] elf(int machine, boolean bigEndian) {
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[] {0x7F, 'E', 'L', 'F', 2, (byte) (bigEndian ? 2 : 1), 1});
+        buffer.putShort(16, (short) 1);
+        buffer.putShort(18, (short) machine);
+        return buffer.array();
+    }
+
+    private static byte[] machO(int cpuType) {
+        ByteBuffer buffer = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0xFEEDFACF);
+        buffer.putInt(cpuType);
+        return buffer.array();
+    }
+
+    private static byte[] fat(int... cpuTypes) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 20 * cpuTypes.length).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(0xCAFEBABE);
+        buffer.putInt(cpuTypes.length);
+        for (int cpuType : cpuTypes) {
+            buffer.putInt(cpuType);
+            buffer.put(new byte[16]);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] member(String name, byte[] content) {
+        String header = String.format("%-16s%-12s%-6s%-6s%-8s%-10s`\n", name, "0", "0", "0", "644", content.length);
+        byte[] bytes = concat(header.getBytes(StandardCharsets.US_ASCII), content);
+        return content.length % 2 == 0 ? bytes : concat(bytes, new byte[] {'\n'});
+    }
+
+    private static byte[] archive(byte[]... members) {
+        byte[] archive = "!<arch>\n".getBytes(StandardCharsets.US_ASCII);
+        for (byte[] member : members) {
+            archive = concat(archive, member);
+        }
+        return archive;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
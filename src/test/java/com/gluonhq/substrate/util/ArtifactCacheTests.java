@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArtifactCacheTests {
+
+    private static final byte[] CONTENT = "artifact content".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    // number of responses that are cut in the middle
+    private final AtomicInteger truncated = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+    private Path tmp;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] content = files.get(path);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(content == null ? 404 : 200, -1);
+                exchange.close();
+                return;
+            }
+            requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, content.length);
+                OutputStream os = exchange.getResponseBody();
+                if (truncated.getAndDecrement() > 0) {
+                    os.write(content, 0, content.length / 2);
+                    os.flush();
+                    exchange.close();
+                    return;
+                }
+                os.write(content);
+                os.close();
+            }
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        tmp = Files.createTempDirectory("substrate-tests");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testFetchOnce() throws IOException {
+        files.put("/substrate/artifact.zip", CONTENT);
+        ArtifactCache cache = new ArtifactCache(tmp.resolve("cache"), null);
+        String url = baseUrl + "/substrate/artifact.zip";
+
+        Path first = cache.fetch(url, tmp.resolve("first").resolve("artifact.zip"));
+        Path second = cache.fetch(url, tmp.resolve("second").resolve("artifact.zip"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(first));
+        assertArrayEquals(CONTENT, Files.readAllBytes(second));
+        assertEquals(1, requests.get("/substrate/artifact.zip").get());
+        assertEquals(sha256(CONTENT), cache.lookup(url).orElseThrow());
+
+        // a new instance on the same folder, like another build on the same machine
+        new ArtifactCache(tmp.resolve("cache"), null).fetch(url, tmp.resolve("third.zip"));
+        assertEquals(1, requests.get("/substrate/artifact.zip").get());
+        try (Stream<Path> list = Files.list(tmp.resolve("first"))) {
+            assertEquals(1, list.count());
+        }
+        try (Stream<Path> blobs = Files.walk(tmp.resolve("cache").resolve("blobs"))) {
+            Path blob = blobs.filter(Files::isRegularFile).findFirst().orElseThrow();
+            assertTrue(Files.isSameFile(blob, first));
+            assertTrue(Files.isSameFile(blob, second));
+        }
+    }
+
+    @Test
+    void testCorruptedArtifact() throws IOException {
+        files.put("/substrate/artifact.zip", CONTENT);
+        ArtifactCache cache = new ArtifactCache(tmp.resolve("cache"), null);
+        String url = baseUrl + "/substrate/artifact.zip";
+        cache.fetch(url, tmp.resolve("artifact.zip"));
+
+        String digest = cache.lookup(url).orElseThrow();
+        Path blob = tmp.resolve("cache").resolve("blobs").resolve("sha256").resolve(digest.substring(0, 2)).resolve(digest);
+        Files.writeString(blob, "corrupted");
+
+        Path target = cache.fetch(url, tmp.resolve("again.zip"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(2, requests.get("/substrate/artifact.zip").get());
+    }
+
+    @Test
+    void testMirror() throws IOException {
+        files.put("/127.0.0.1/substrate/artifact.zip", CONTENT);
+        files.put("/127.0.0.1/substrate/artifact.zip.sha256", (sha256(CONTENT) + "  artifact.zip\n").getBytes(StandardCharsets.UTF_8));
+        ArtifactCache cache = new ArtifactCache(tmp.resolve("cache"), baseUrl + "/");
+
+        Path target = cache.fetch(baseUrl + "/substrate/artifact.zip", tmp.resolve("artifact.zip"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(1, requests.get("/127.0.0.1/substrate/artifact.zip").get());
+        assertFalse(requests.containsKey("/substrate/artifact.zip"));
+    }
+
+    @Test
+    void testFetchWithConsumer() throws IOException {
+        files.put("/substrate/artifact.zip", CONTENT);
+        ArtifactCache cache = new ArtifactCache(tmp.resolve("cache"), null);
+        String url = baseUrl + "/substrate/artifact.zip";
+
+        // the consumer doesn't need to read the whole content
+        List<byte[]> consumed = new ArrayList<>();
+        Path target = cache.fetch(url, tmp.resolve("artifact.zip"), null, content -> consumed.add(content.readNBytes(8)));
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(1, consumed.size());
+        assertArrayEquals(Arrays.copyOf(CONTENT, 8), consumed.get(0));
+        assertEquals(sha256(CONTENT), cache.lookup(url).orElseThrow());
+
+        // cached artifacts are passed to the consumer too
+        Path cached = cache.fetch(url, tmp.resolve("cached.zip"), null, content -> consumed.add(content.readAllBytes()));
+        assertArrayEquals(CONTENT, Files.readAllBytes(cached));
+        assertArrayEquals(CONTENT, consumed.get(1));
+        assertEquals(1, requests.get("/substrate/artifact.zip").get());
+    }
+
+    @Test
+    void testFetchWithConsumerRetry() throws IOException {
+        files.put("/substrate/artifact.zip", CONTENT);
+        truncated.set(1);
+        ArtifactCache cache = new ArtifactCache(tmp.resolve("cache"), null);
+        String url = baseUrl + "/substrate/artifact.zip";
+
+        List<byte[]> consumed = new ArrayList<>();
+        Path target = cache.fetch(url, tmp.resolve("artifact.zip"), null, content -> consumed.add(content.readAllBytes()));
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertArrayEquals(CONTENT, consumed.get(consumed.size() - 1));
+        assertEquals(2, requests.get("/substrate/artifact.zip").get());
+
+        // errors of the consumer itself are not retried
+        IOException e = assertThrows(IOException.class, () -> cache.fetch(baseUrl + "/substrate/artifact.zip?again",
+                tmp.resolve("again.zip"), null, content -> { throw new IOException("consumer error"); }));
+        assertEquals("consumer error", e.getMessage());
+        assertEquals(3, requests.get("/substrate/artifact.zip").get());
+        assertFalse(Files.exists(tmp.resolve("again.zip")));
+    }
+
+    @Test
+    void testConcurrentFetch() throws Exception {
+        files.put("/substrate/artifact.zip", CONTENT);
+        String url = baseUrl + "/substrate/artifact.zip";
+
+        // separate caches on the same folder, like two builds would use
+        List<byte[]> consumed = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Path>> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                Path target = tmp.resolve("build" + i).resolve("artifact.zip");
+                results.add(executor.submit(() -> new ArtifactCache(tmp.resolve("cache"), null)
+                        .fetch(url, target, null, content -> consumed.add(content.readAllBytes()))));
+            }
+            for (Future<Path> result : results) {
+                assertArrayEquals(CONTENT, Files.readAllBytes(result.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, consumed.size());
+        consumed.forEach(c -> assertArrayEquals(CONTENT, c));
+        // the second build waits for the first one, and installs the artifact from the cache
+        assertEquals(1, requests.get("/substrate/artifact.zip").get());
+    }
+
+    @Test
+    void testErrors() throws IOException {
+        files.put("/substrate/artifact.zip", CONTENT);
+        ArtifactCache cache = new ArtifactCache(tmp.resolve("cache"), null);
+        Path target = tmp.resolve("artifact.zip");
+
+        assertThrows(IOException.class, () -> cache.fetch(baseUrl + "/substrate/missing.zip", target));
+        assertThrows(IOException.class, () -> cache.fetch(baseUrl + "/substrate/artifact.zip", target, sha256(new byte[0])));
+        assertFalse(Files.exists(target));
+
+        cache.fetch(baseUrl + "/substrate/artifact.zip", target, sha256(CONTENT).toUpperCase());
+        assertTrue(Files.exists(target));
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return Strings.toHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class BuildMetricsTests {
+
+    @Test
+    void testNestedPhases() throws Exception {
+        BuildMetrics.Phase compile;
+        try (BuildMetrics.Phase phase = BuildMetrics.start("compile")) {
+            compile = phase;
+            TaskGraph graph = new TaskGraph("test")
+                    .add("a", () -> true)
+                    .add("b", () -> {
+                        try (BuildMetrics.Phase nested = BuildMetrics.start("nested")) {
+                            return true;
+                        }
+                    }, "a");
+            phase.setSuccess(graph.run());
+        }
+        assertNull(BuildMetrics.current());
+
+        Map<String, BuildMetrics.Phase> phases = compile.getPhases().stream()
+                .collect(Collectors.toMap(BuildMetrics.Phase::getName, Function.identity()));
+        assertEquals(List.of("compile", "compile/a", "compile/b", "compile/b/nested"),
+                phases.keySet().stream().sorted().collect(Collectors.toList()));
+        assertEquals(Boolean.TRUE, phases.get("compile").getSuccess());
+        assertEquals(Boolean.TRUE, phases.get("compile/b").getSuccess());
+        assertNull(phases.get("compile/b/nested").getSuccess());
+        assertTrue(phases.get("compile").getWallTime().compareTo(phases.get("compile/b").getWallTime()) >= 0);
+    }
+
+    @Test
+    void testProcessUsage() throws Exception {
+        assumeFalse(System.getProperty("os.name").toLowerCase().contains("win"));
+        BuildMetrics.Phase link;
+        try (BuildMetrics.Phase phase = BuildMetrics.start("link")) {
+            link = phase;
+            try (BuildMetrics.Phase nested = BuildMetrics.start("linker")) {
+                ProcessRunner runner = new ProcessRunner("sleep", "1");
+                ProcessResult result = runner.runProcessAsync("sleep").get();
+                assertTrue(result.isSuccess());
+                if (Files.exists(Path.of("/proc/self/status"))) {
+                    assertTrue(result.getUsage().getPeakRss() > 0);
+                }
+            }
+        }
+        List<BuildMetrics.Phase> phases = link.getPhases();
+        assertEquals(2, phases.size());
+        for (BuildMetrics.Phase phase : phases) {
+            assertEquals(1, phase.getProcesses());
+            assertTrue(phase.getWallTime().toMillis() >= 1000);
+        }
+    }
+
+    @Test
+    void testReport() throws Exception {
+        BuildMetrics.Phase packaging;
+        try (BuildMetrics.Phase phase = BuildMetrics.start("x86_64-linux", "package")) {
+            packaging = phase;
+            phase.setValue("imageBytes", 1234);
+            phase.setSuccess(false);
+        }
+        Path report = Files.createTempDirectory("substrate-tests").resolve("log")
+                .resolve(BuildMetrics.getReportFile("x86_64-linux"));
+        BuildMetrics.writeReport(report, "x86_64-linux", packaging.getPhases());
+
+        String json = Files.readString(report);
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.contains("\"target\": \"x86_64-linux\", \"name\": \"package\""));
+        assertTrue(json.contains("\"success\": false"));
+        assertTrue(json.contains("\"cpuTimeMillis\": "));
+        assertTrue(json.contains("\"values\": {\"imageBytes\": 1234}"));
+        try (Stream<Path> files = Files.list(report.getParent())) {
+            assertEquals(List.of(report), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testTargets() throws Exception {
+        BuildMetrics.Phase linux;
+        BuildMetrics.Phase android;
+        try (BuildMetrics.Phase phase = BuildMetrics.start("x86_64-linux", "compile")) {
+            linux = phase;
+            BuildMetrics.measure("configFiles", () -> true);
+        }
+        try (BuildMetrics.Phase phase = BuildMetrics.start("aarch64-android", "compile")) {
+            android = phase;
+            new TaskGraph("test").add("nativeLibs", () -> true).run();
+        }
+
+        assertEquals(List.of("compile", "compile/configFiles"), linux.getPhases().stream()
+                .map(BuildMetrics.Phase::getName)
+                .collect(Collectors.toList()));
+        assertEquals(List.of("compile", "compile/nativeLibs"), android.getPhases().stream()
+                .map(BuildMetrics.Phase::getName)
+                .collect(Collectors.toList()));
+        assertTrue(android.getPhases().stream().allMatch(phase -> "aarch64-android".equals(phase.getTarget())));
+        assertTrue(linux.getPhases().stream().allMatch(phase -> "x86_64-linux".equals(phase.getTarget())));
+    }
+}
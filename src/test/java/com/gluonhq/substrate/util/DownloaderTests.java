@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownloaderTests {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    // number of requests that are served before the server starts failing
+    private final AtomicInteger available = new AtomicInteger(Integer.MAX_VALUE);
+    // number of requests that are cut in the middle of the response
+    private final AtomicInteger truncated = new AtomicInteger();
+    private volatile byte[] content;
+    private volatile String etag = "\"v1\"";
+    private volatile boolean ranges = true;
+    private HttpServer server;
+    private URL url;
+    private Path tmp;
+
+    @BeforeEach
+    void setup() throws IOException {
+        content = new byte[10 * CHUNK_SIZE + 500];
+        new Random(42).nextBytes(content);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/sdk.zip");
+        tmp = Files.createTempDirectory("substrate-tests");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testDownloadWithoutRanges() throws IOException {
+        ranges = false;
+        Path target = tmp.resolve("sdk.zip");
+        String digest = new Downloader(4, CHUNK_SIZE, 0, 1).download(url, target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(sha256(content), digest);
+        assertEquals(1, requests.get());
+        assertFalse(Files.exists(tmp.resolve("sdk.zip.part")));
+    }
+
+    @Test
+    void testParallelChunks() throws IOException {
+        Path target = tmp.resolve("sdk.zip");
+        String digest = new Downloader(4, CHUNK_SIZE, 0, 1).download(url, target, sha256(content));
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(sha256(content), digest);
+        assertEquals(11, requests.get());
+        assertFalse(Files.exists(tmp.resolve("sdk.zip.part")));
+        assertFalse(Files.exists(tmp.resolve("sdk.zip.part.properties")));
+    }
+
+    @Test
+    void testRetry() throws IOException {
+        truncated.set(3);
+        Path target = tmp.resolve("sdk.zip");
+        new Downloader(2, CHUNK_SIZE, 3, 1).download(url, target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        // truncated chunks are resumed from the last byte received
+        assertEquals(14, requests.get());
+    }
+
+    @Test
+    void testResume() throws IOException {
+        available.set(4);
+        Path target = tmp.resolve("sdk.zip");
+        Downloader downloader = new Downloader(1, CHUNK_SIZE, 0, 1);
+        assertThrows(IOException.class, () -> downloader.download(url, target));
+        assertFalse(Files.exists(target));
+        assertTrue(Files.exists(tmp.resolve("sdk.zip.part")));
+
+        available.set(Integer.MAX_VALUE);
+        requests.set(0);
+        downloader.download(url, target);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        // only the pending chunks are downloaded
+        assertEquals(7, requests.get());
+    }
+
+    @Test
+    void testRemoteFileChanged() throws IOException {
+        available.set(4);
+        Path target = tmp.resolve("sdk.zip");
+        Downloader downloader = new Downloader(1, CHUNK_SIZE, 0, 1);
+        assertThrows(IOException.class, () -> downloader.download(url, target));
+
+        available.set(Integer.MAX_VALUE);
+        requests.set(0);
+        etag = "\"v2\"";
+        new Random(7).nextBytes(content);
+        downloader.download(url, target);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(11, requests.get());
+    }
+
+    @Test
+    void testStream() throws IOException {
+        truncated.set(2);
+        Path target = tmp.resolve("sdk.zip");
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        String digest = new Downloader(4, CHUNK_SIZE, 3, 1).download(url, target, sha256(content),
+                is -> is.transferTo(received));
+
+        assertArrayEquals(content, received.toByteArray());
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(sha256(content), digest);
+        // truncated responses are resumed from the last byte passed to the consumer
+        assertEquals(3, requests.get());
+        assertFalse(Files.exists(tmp.resolve("sdk.zip.part")));
+        assertFalse(Files.exists(tmp.resolve("sdk.zip.part.properties")));
+    }
+
+    @Test
+    void testStreamResume() throws IOException {
+        available.set(4);
+        Path target = tmp.resolve("sdk.zip");
+        Downloader downloader = new Downloader(1, CHUNK_SIZE, 0, 1);
+        assertThrows(IOException.class, () -> downloader.download(url, target));
+
+        available.set(Integer.MAX_VALUE);
+        requests.set(0);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        downloader.download(url, target, null, is -> is.transferTo(received));
+        // the chunks already downloaded are read from the part file
+        assertArrayEquals(content, received.toByteArray());
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testStreamErrors() throws IOException {
+        Path target = tmp.resolve("sdk.zip");
+        Downloader downloader = new Downloader(4, CHUNK_SIZE, 0, 1);
+        IOException e = assertThrows(IOException.class, () -> downloader.download(url, target, null, is -> {
+            is.readNBytes(CHUNK_SIZE);
+            throw new IOException("consumer error");
+        }));
+        assertTrue(e instanceof Downloader.ContentException);
+        assertEquals("consumer error", e.getCause().getMessage());
+        assertFalse(Files.exists(target));
+
+        ranges = false;
+        truncated.set(1);
+        e = assertThrows(IOException.class, () -> downloader.download(url, target, null, InputStream::readAllBytes));
+        // without ranges, a failed download can't be resumed, and it isn't reported as an error of the consumer
+        assertFalse(e instanceof Downloader.ContentException);
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void testErrors() throws IOException {
+        Path target = tmp.resolve("sdk.zip");
+        Downloader downloader = new Downloader(4, CHUNK_SIZE, 0, 1);
+        IOException e = assertThrows(IOException.class, () -> downloader.download(url, target, sha256(new byte[0])));
+        assertTrue(e.getMessage().contains("digest"));
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(tmp.resolve("sdk.zip.part")));
+
+        assertThrows(IOException.class, () -> downloader.download(new URL(url, "/missing.zip"), target));
+        assertThrows(NullPointerException.class, () -> downloader.download(null, target));
+        assertThrows(IllegalArgumentException.class, () -> new Downloader(0, CHUNK_SIZE, 0, 1));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"/sdk.zip".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = content;
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (ranges) {
+                exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(bytes.length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            requests.incrementAndGet();
+            if (available.getAndDecrement() <= 0) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            int start = 0;
+            int end = bytes.length - 1;
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (ranges && range != null) {
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                start = Integer.parseInt(bounds[0]);
+                if (bounds.length > 1) {
+                    end = Math.min(end, Integer.parseInt(bounds[1]));
+                }
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + bytes.length);
+                exchange.sendResponseHeaders(206, end - start + 1);
+            } else {
+                exchange.sendResponseHeaders(200, bytes.length);
+            }
+            OutputStream os = exchange.getResponseBody();
+            int length = end - start + 1;
+            if (truncated.getAndDecrement() > 0) {
+                os.write(bytes, start, length / 2);
+                os.flush();
+                // drop the connection before the whole response is sent
+                throw new IOException("truncated");
+            }
+            os.write(bytes, start, length);
+            os.close();
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return Strings.toHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
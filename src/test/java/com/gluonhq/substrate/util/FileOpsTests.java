@@ -29,13 +29,21 @@ package com.gluonhq.substrate.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -182,6 +190,77 @@ class FileOpsTests {
         });
     }
 
+    @Test
+    void unzipStream() throws IOException {
+        byte[] large = new byte[300_000];
+        new Random(1).nextBytes(large);
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+            zos.putNextEntry(new ZipEntry("dir/"));
+            zos.putNextEntry(new ZipEntry("dir/test.txt"));
+            zos.write("some dummy tekst test".getBytes(StandardCharsets.UTF_8));
+            zos.putNextEntry(new ZipEntry("large.bin"));
+            zos.write(large);
+        }
+
+        Path testPath = getTempDir().resolve("test");
+        Map<String, String> sums = FileOps.unzipStream(new ByteArrayInputStream(zip.toByteArray()), testPath);
+        assertEquals(2, sums.size());
+        Path testFile = testPath.resolve("dir").resolve("test.txt");
+        Path largeFile = testPath.resolve("large.bin");
+        assertEquals(FileOps.calculateCheckSum(testFile.toFile()), sums.get("test.txt"));
+        assertEquals(FileOps.calculateCheckSum(largeFile.toFile()), sums.get("large.bin"));
+        assertEquals("some dummy tekst test", Files.readAllLines(testFile).get(0));
+        assertArrayEquals(large, Files.readAllBytes(largeFile));
+
+        assertTrue(FileOps.unzipStream(new ByteArrayInputStream(large), getTempDir()).isEmpty());
+    }
+
+    @Test
+    void unzipFileParallel() throws IOException {
+        Path testZip = getTempDir().resolve("sdk.zip");
+        Random random = new Random(2);
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(testZip))) {
+            for (int i = 0; i < 200; i++) {
+                // same file names in different folders, without explicit directory entries
+                zos.putNextEntry(new ZipEntry("lib/" + (i % 10) + "/file" + (i / 10) + ".a"));
+                byte[] content = new byte[random.nextInt(50_000)];
+                random.nextBytes(content);
+                zos.write(content);
+            }
+        }
+
+        Path parallelPath = getTempDir().resolve("parallel");
+        Map<String, String> sums = FileOps.unzipFile(testZip, parallelPath, 4);
+        Map<String, String> sequentialSums;
+        try (InputStream is = Files.newInputStream(testZip)) {
+            sequentialSums = FileOps.unzipStream(is, getTempDir().resolve("sequential"));
+        }
+        assertEquals(20, sums.size());
+        assertEquals(sequentialSums, sums);
+        assertTrue(Files.exists(parallelPath.resolve("lib").resolve("3").resolve("file13.a")));
+        // as when extracting sequentially, the last entry with a given name wins
+        Path file = parallelPath.resolve("lib").resolve("9").resolve("file13.a");
+        assertEquals(FileOps.calculateCheckSum(file.toFile()), sums.get("file13.a"));
+    }
+
+    @Test
+    void unzipOutsideTarget() throws IOException {
+        Path testZip = getTempDir().resolve("slip.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(testZip))) {
+            zos.putNextEntry(new ZipEntry("../outside.txt"));
+            zos.write("outside".getBytes(StandardCharsets.UTF_8));
+        }
+        Path testPath = getTempDir().resolve("test");
+        assertThrows(IOException.class, () -> FileOps.unzipFile(testZip, testPath));
+        assertThrows(IOException.class, () -> {
+            try (InputStream is = Files.newInputStream(testZip)) {
+                FileOps.unzipStream(is, testPath);
+            }
+        });
+        assertFalse(Files.exists(testPath.resolveSibling("outside.txt")));
+    }
+
     //--- processFile ----------------
 
     @Test
@@ -218,6 +297,65 @@ class FileOpsTests {
         Files.deleteIfExists(resourcePath);
     }
 
+    //--- link ----------------
+
+    @Test
+    void linkFile() throws IOException {
+        Path tmp = getTempDir();
+        Path source = Files.writeString(tmp.resolve("source.jar"), "content");
+        Path destination = FileOps.linkOrCopyFile(source, tmp.resolve("deps").resolve("source.jar"));
+        assertEquals("content", Files.readString(destination));
+        assertTrue(Files.isSameFile(source, destination) || Files.isSymbolicLink(destination));
+
+        // linking again keeps the existing link
+        assertEquals(destination, FileOps.linkOrCopyFile(source, destination));
+        assertEquals("content", Files.readString(destination));
+    }
+
+    @Test
+    void linkReplacedFile() throws IOException {
+        Path tmp = getTempDir();
+        Path source = Files.writeString(tmp.resolve("source.jar"), "content");
+        Path destination = FileOps.linkOrCopyFile(source, tmp.resolve("deps").resolve("source.jar"));
+
+        // a new file with the same name is linked again
+        Files.delete(source);
+        Files.writeString(source, "new content");
+        FileOps.linkOrCopyFile(source, destination);
+        assertEquals("new content", Files.readString(destination));
+    }
+
+    //--- writeAtomically ----------------
+
+    @Test
+    void writeAtomically() throws IOException {
+        Path dir = getTempDir();
+        Path file = dir.resolve("cache").resolve("value.txt");
+        FileOps.writeAtomically(file, "first");
+        FileOps.writeAtomically(file, "second");
+        assertEquals("second", Files.readString(file));
+
+        Properties properties = new Properties();
+        properties.setProperty("key", "value");
+        Path propertiesFile = dir.resolve("cache").resolve("value.properties");
+        FileOps.writeAtomically(propertiesFile, properties, null);
+        Properties read = new Properties();
+        try (InputStream is = Files.newInputStream(propertiesFile)) {
+            read.load(is);
+        }
+        assertEquals(properties, read);
+
+        // a failed write keeps the previous file, and leaves no temporary files behind
+        assertThrows(IOException.class, () -> FileOps.writeAtomically(file, tmpFile -> {
+            Files.writeString(tmpFile, "partial");
+            throw new IOException("write error");
+        }));
+        assertEquals("second", Files.readString(file));
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(2, files.count());
+        }
+    }
+
     //--- extract ----------------
 
     @Test
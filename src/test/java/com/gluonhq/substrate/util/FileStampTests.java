@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileStampTests {
+
+    @Test
+    void testStampPath() {
+        assertEquals(Path.of("sdk", "javaStaticSdk-linux-x86_64.stamp"),
+                FileStamp.getStampPath(Path.of("sdk", "javaStaticSdk-linux-x86_64.md5")));
+    }
+
+    @Test
+    void testVerify() throws IOException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path stampPath = tmp.resolve("sdk.stamp");
+        File lib = Files.writeString(Files.createDirectories(tmp.resolve("lib")).resolve("libjava.a"), "content").toFile();
+        String checksum = FileOps.calculateCheckSum(lib);
+
+        FileStamp stamp = FileStamp.load(stampPath);
+        stamp.record(lib, checksum);
+        stamp.save();
+        assertTrue(Files.exists(stampPath));
+
+        // same size and time: valid without reading it, unless a full check is done
+        FileTime time = Files.getLastModifiedTime(lib.toPath());
+        Files.writeString(lib.toPath(), "CONTENT");
+        Files.setLastModifiedTime(lib.toPath(), time);
+        FileStamp loaded = FileStamp.load(stampPath);
+        assertTrue(loaded.verify(lib, checksum, false));
+        assertFalse(loaded.verify(lib, checksum, true));
+
+        // a different time requires reading it
+        Files.setLastModifiedTime(lib.toPath(), FileTime.fromMillis(time.toMillis() - 10_000));
+        assertFalse(loaded.verify(lib, checksum, false));
+
+        // an unchanged content is recorded again with its new time
+        Files.writeString(lib.toPath(), "content");
+        Files.setLastModifiedTime(lib.toPath(), FileTime.fromMillis(time.toMillis() - 20_000));
+        assertTrue(loaded.verify(lib, checksum, false));
+        loaded.save();
+        Files.writeString(lib.toPath(), "CONTENT");
+        Files.setLastModifiedTime(lib.toPath(), FileTime.fromMillis(time.toMillis() - 20_000));
+        assertTrue(FileStamp.load(stampPath).verify(lib, checksum, false));
+
+        assertFalse(loaded.verify(lib, null, false));
+        assertFalse(loaded.verify(tmp.resolve("missing.a").toFile(), checksum, false));
+    }
+
+    @Test
+    void testCorruptedStamp() throws IOException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        Path stampPath = tmp.resolve("sdk.stamp");
+        File lib = Files.writeString(tmp.resolve("libjava.a"), "content").toFile();
+        Files.writeString(stampPath, "libjava.a=not a stamp");
+
+        FileStamp stamp = FileStamp.load(stampPath);
+        assertTrue(stamp.verify(lib, FileOps.calculateCheckSum(lib), false));
+        assertFalse(stamp.verify(lib, "[0]", false));
+    }
+}
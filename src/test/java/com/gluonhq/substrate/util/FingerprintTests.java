@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintTests {
+
+    @Test
+    void testValues() {
+        String value = new Fingerprint().add("a", "b").addAll("args", List.of("1", "2")).getValue();
+        assertEquals(value, new Fingerprint().add("a", "b").addAll("args", List.of("1", "2")).getValue());
+        assertNotEquals(value, new Fingerprint().add("a", "b").addAll("args", List.of("2", "1")).getValue());
+        assertNotEquals(value, new Fingerprint().add("ab", "").addAll("args", List.of("1", "2")).getValue());
+        assertNotEquals(value, new Fingerprint().add("a", null).addAll("args", List.of("1", "2")).getValue());
+
+        Fingerprint fingerprint = new Fingerprint().add("a", "b");
+        fingerprint.getValue();
+        assertThrows(IllegalStateException.class, () -> fingerprint.add("c", "d"));
+    }
+
+    @Test
+    void testFiles() throws IOException {
+        Path dir = Files.createTempDirectory("substrate-tests");
+        Path file = Files.writeString(dir.resolve("foo.txt"), "foo");
+        String fileValue = new Fingerprint().addFile("file", file).getValue();
+        String dirValue = new Fingerprint().addFile("dir", dir).getValue();
+        assertEquals(dirValue, new Fingerprint().addFile("dir", dir).getValue());
+
+        Files.writeString(file, "bar");
+        assertNotEquals(fileValue, new Fingerprint().addFile("file", file).getValue());
+        String newDirValue = new Fingerprint().addFile("dir", dir).getValue();
+        assertNotEquals(dirValue, newDirValue);
+
+        Files.createDirectories(dir.resolve("sub"));
+        Files.writeString(dir.resolve("sub").resolve("baz.txt"), "");
+        assertNotEquals(newDirValue, new Fingerprint().addFile("dir", dir).getValue());
+
+        String missingValue = new Fingerprint().addFile("file", dir.resolve("missing")).getValue();
+        assertEquals(missingValue, new Fingerprint().addFile("file", dir.resolve("missing")).getValue());
+    }
+
+    @Test
+    void testContent() throws IOException {
+        Path dir = Files.createTempDirectory("substrate-tests");
+        Path file = Files.writeString(dir.resolve("foo.jar"), "foo");
+        Path copy = Files.writeString(Files.createDirectories(dir.resolve("copy")).resolve("foo.jar"), "foo");
+        String value = new Fingerprint().addContent("jar", file).getValue();
+        assertEquals(value, new Fingerprint().addContent("jar", copy).getValue());
+        assertNotEquals(new Fingerprint().addFile("jar", file).getValue(), new Fingerprint().addFile("jar", copy).getValue());
+
+        Files.writeString(copy, "bar");
+        assertNotEquals(value, new Fingerprint().addContent("jar", copy).getValue());
+        assertNotEquals(value, new Fingerprint().addContent("jar", dir.resolve("missing")).getValue());
+    }
+
+    @Test
+    void testKeptContent() throws IOException {
+        Path file = Files.writeString(Files.createTempDirectory("substrate-tests").resolve("foo.jar"), "foo");
+        FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        Files.setLastModifiedTime(file, lastModified);
+        String value = new Fingerprint().addContent("jar", file).getValue();
+        assertEquals(value, new Fingerprint().addContent("jar", file).getValue());
+
+        // the digest is kept while the size and the modification time are the same
+        Files.writeString(file, "bar");
+        Files.setLastModifiedTime(file, lastModified);
+        assertEquals(value, new Fingerprint().addContent("jar", file).getValue());
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+        assertNotEquals(value, new Fingerprint().addContent("jar", file).getValue());
+    }
+
+    @Test
+    void testReadWrite() throws IOException {
+        Path file = Files.createTempDirectory("substrate-tests").resolve("cache").resolve("app.fingerprint");
+        assertTrue(Fingerprint.read(file).isEmpty());
+        Fingerprint fingerprint = new Fingerprint().add("a", "b");
+        fingerprint.write(file);
+        assertEquals(fingerprint.getValue(), Fingerprint.read(file).orElseThrow());
+    }
+}
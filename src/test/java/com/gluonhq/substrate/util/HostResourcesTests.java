@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HostResourcesTests {
+
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private Path proc;
+    private Path cgroup;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path tmp = Files.createTempDirectory("substrate-tests");
+        proc = Files.createDirectories(tmp.resolve("proc").resolve("self")).getParent();
+        cgroup = Files.createDirectories(tmp.resolve("cgroup"));
+        Files.writeString(proc.resolve("meminfo"), "MemTotal:       16777216 kB\nMemAvailable:   12582912 kB\n");
+    }
+
+    @Test
+    void testHost() {
+        HostResources resources = HostResources.detect(proc, cgroup, 16 * GB, 64);
+        assertEquals(16 * GB, resources.getMemory());
+        assertEquals(12 * GB, resources.getAvailableMemory());
+        assertEquals(64, resources.getProcessors());
+        assertEquals(9 * GB, resources.getNativeImageHeapSize());
+        assertEquals(18, resources.getNativeImageThreads(resources.getNativeImageHeapSize()));
+        assertEquals(64, resources.getNativeImageThreads(HostResources.UNKNOWN));
+    }
+
+    @Test
+    void testCgroupV2() throws IOException {
+        Files.writeString(proc.resolve("self").resolve("cgroup"), "0::/build\n");
+        Path group = Files.createDirectories(cgroup.resolve("build"));
+        Files.writeString(group.resolve("memory.max"), "4294967296\n");
+        Files.writeString(group.resolve("memory.current"), "1073741824\n");
+        Files.writeString(group.resolve("cpu.max"), "150000 100000\n");
+
+        HostResources resources = HostResources.detect(proc, cgroup, 16 * GB, 64);
+        assertEquals(4 * GB, resources.getMemory());
+        assertEquals(3 * GB, resources.getAvailableMemory());
+        assertEquals(2, resources.getProcessors());
+        assertEquals(2304L * 1024 * 1024, resources.getNativeImageHeapSize());
+        assertEquals(2, resources.getNativeImageThreads(resources.getNativeImageHeapSize()));
+
+        Files.writeString(group.resolve("memory.max"), "max\n");
+        Files.writeString(group.resolve("cpu.max"), "max 100000\n");
+        resources = HostResources.detect(proc, cgroup, 16 * GB, 64);
+        assertEquals(16 * GB, resources.getMemory());
+        assertEquals(64, resources.getProcessors());
+    }
+
+    @Test
+    void testCgroupV1() throws IOException {
+        // inside a container, the cgroup path of the host is not mounted
+        Files.writeString(proc.resolve("self").resolve("cgroup"),
+                "4:memory:/docker/abc\n3:cpu,cpuacct:/docker/abc\n");
+        Path memory = Files.createDirectories(cgroup.resolve("memory"));
+        Files.writeString(memory.resolve("memory.limit_in_bytes"), "9223372036854771712\n");
+        Files.writeString(memory.resolve("memory.usage_in_bytes"), "1073741824\n");
+        Path cpu = Files.createDirectories(cgroup.resolve("cpu"));
+        Files.writeString(cpu.resolve("cpu.cfs_quota_us"), "400000\n");
+        Files.writeString(cpu.resolve("cpu.cfs_period_us"), "100000\n");
+
+        HostResources resources = HostResources.detect(proc, cgroup, 16 * GB, 64);
+        assertEquals(16 * GB, resources.getMemory());
+        assertEquals(12 * GB, resources.getAvailableMemory());
+        assertEquals(4, resources.getProcessors());
+
+        Files.writeString(memory.resolve("memory.limit_in_bytes"), "2147483648\n");
+        Files.writeString(memory.resolve("memory.usage_in_bytes"), "1879048192\n");
+        resources = HostResources.detect(proc, cgroup, 16 * GB, 64);
+        assertEquals(2 * GB, resources.getMemory());
+        // not less than 1 GB, even if most of the memory is in use
+        assertEquals(GB, resources.getNativeImageHeapSize());
+        assertEquals(2, resources.getNativeImageThreads(resources.getNativeImageHeapSize()));
+    }
+}
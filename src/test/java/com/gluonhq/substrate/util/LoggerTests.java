@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoggerTests {
+
+    @Test
+    void testTargetLogs() throws Exception {
+        Path dir = Files.createTempDirectory("substrate-tests");
+        Path linux = Files.createDirectories(dir.resolve("x86_64-linux"));
+        Path android = Files.createDirectories(dir.resolve("aarch64-android"));
+
+        Thread other;
+        try (Logger.TargetLog linuxLog = Logger.openTargetLog("x86_64-linux", linux.toString(), false)) {
+            other = new Thread(() -> {
+                try (Logger.TargetLog androidLog = Logger.openTargetLog("aarch64-android", android.toString(), false)) {
+                    Logger.logDebug("message from " + androidLog.getTarget());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            other.start();
+            other.join();
+            Logger.logDebug("message from " + linuxLog.getTarget());
+
+            // tasks of a graph log on behalf of the thread that runs it
+            new TaskGraph("test").add("task", () -> {
+                Logger.logDebug("task of " + Logger.getTargetLog().getTarget());
+                return true;
+            }).run();
+        }
+        assertNull(Logger.getTargetLog());
+
+        String linuxContent = Files.readString(linux.resolve("client-debug0.log"));
+        String androidContent = Files.readString(android.resolve("client-debug0.log"));
+        assertTrue(linuxContent.contains("message from x86_64-linux"));
+        assertTrue(linuxContent.contains("task of x86_64-linux"));
+        assertFalse(linuxContent.contains("message from aarch64-android"));
+        assertTrue(androidContent.contains("message from aarch64-android"));
+        assertFalse(androidContent.contains("x86_64-linux"));
+    }
+}
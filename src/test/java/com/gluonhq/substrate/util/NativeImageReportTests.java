@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeImageReportTests {
+
+    @Test
+    void testLegacyOutput() {
+        NativeImageReport report = parse(List.of(
+                "[helloworld:12345]    classlist:   1,234.56 ms,  0.96 GB",
+                "[helloworld:12345]        (cap):     456.78 ms,  0.96 GB",
+                "[helloworld:12345]        setup:   2,345.67 ms,  0.96 GB",
+                "[helloworld:12345]   (typeflow):   5,678.90 ms,  1.23 GB",
+                "[helloworld:12345]     analysis:  10,987.65 ms,  1.23 GB",
+                "[helloworld:12345]     universe:     567.89 ms,  1.23 GB",
+                "[helloworld:12345]      compile:  12,345.67 ms,  2.34 GB",
+                "[helloworld:12345]        image:   1,234.56 ms,  2.50 GB",
+                "[helloworld:12345]        write:     345.67 ms,  2.34 GB",
+                "[helloworld:12345]      [total]:  30,123.45 ms,  2.34 GB"), 1000);
+
+        assertEquals(List.of("classlist", "setup", "analysis", "universe", "compile", "image", "write"),
+                List.copyOf(report.getPhases().keySet()));
+        assertEquals(10_987, report.getPhase(NativeImageReport.ANALYSIS).get().toMillis());
+        assertEquals(30_123, report.getTotalTime().get().toMillis());
+        assertEquals((long) (2.5 * (1 << 30)), report.getPeakRss());
+        assertEquals(NativeImageReport.UNKNOWN, report.getReachable(NativeImageReport.METHODS));
+        assertEquals(1000, report.getImageSize());
+    }
+
+    @Test
+    void testOutput() {
+        NativeImageReport report = parse(List.of(
+                "[1/7] Initializing...                                     (3.5s @ 0.18GB)",
+                " Version info: 'GraalVM 22.3.0 Java 17 CE'",
+                "[2/7] Performing analysis...  [******]                    (14.2s @ 1.05GB)",
+                "   3,456 (75.12%) of  4,567 classes reachable",
+                "   5,678 (60.00%) of  9,012 fields reachable",
+                "  15,678 (45.00%) of 34,567 methods reachable",
+                "[3/7] Building universe...                                 (1.5s @ 1.10GB)",
+                "[6/7] Compiling methods...    [****]                       (8.9s @ 1.50GB)",
+                "[7/7] Creating image...                                  (850ms @ 1.60GB)",
+                "   1.2s (3.9% of total time) in 18 GCs | Peak RSS: 2.10GB | CPU load: 3.52",
+                "Finished generating 'helloworld' in 1m 5s."), 2000);
+
+        assertEquals(List.of("setup", "analysis", "universe", "compile", "image"),
+                List.copyOf(report.getPhases().keySet()));
+        assertEquals(14_200, report.getPhase(NativeImageReport.ANALYSIS).get().toMillis());
+        assertEquals(850, report.getPhase("image").get().toMillis());
+        assertEquals(3456, report.getReachable(NativeImageReport.TYPES));
+        assertEquals(5678, report.getReachable(NativeImageReport.FIELDS));
+        assertEquals(15_678, report.getReachable(NativeImageReport.METHODS));
+        assertEquals((long) (2.1 * (1 << 30)), report.getPeakRss());
+        assertEquals(65_000, report.getTotalTime().get().toMillis());
+
+        NativeImageReport newer = parse(List.of(
+                "[2/8] Performing analysis...  [****]                               (5.9s @ 0.50GB)",
+                "    3,190 reachable types   (72.5% of    4,398 total)",
+                "   14,845 reachable methods (45.3% of   32,783 total)"), NativeImageReport.UNKNOWN);
+        assertEquals(3190, newer.getReachable(NativeImageReport.TYPES));
+        assertEquals(14_845, newer.getReachable(NativeImageReport.METHODS));
+    }
+
+    @Test
+    void testRegressions() throws Exception {
+        NativeImageReport previous = parse(List.of(
+                "[2/7] Performing analysis...  [******]                    (14.2s @ 1.05GB)"), 10_000_000);
+        Path reportPath = Files.createTempDirectory("substrate-tests").resolve("app.native-image.properties");
+        previous.store(reportPath);
+        NativeImageReport stored = NativeImageReport.load(reportPath).get();
+        assertEquals(previous.getPhases(), stored.getPhases());
+        assertEquals(10_000_000, stored.getImageSize());
+
+        NativeImageReport same = parse(List.of(
+                "[2/7] Performing analysis...  [******]                    (15.0s @ 1.05GB)"), 10_100_000);
+        assertTrue(same.findRegressions(stored).isEmpty());
+
+        NativeImageReport slower = parse(List.of(
+                "[2/7] Performing analysis...  [******]                    (24.0s @ 1.05GB)"), 11_000_000);
+        List<String> regressions = slower.findRegressions(stored);
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.get(0).startsWith("analysis time"));
+        assertTrue(regressions.get(1).startsWith("image size"));
+    }
+
+    private static NativeImageReport parse(List<String> lines, long imageSize) {
+        NativeImageReport.Parser parser = new NativeImageReport.Parser();
+        lines.forEach(parser);
+        return parser.getReport(imageSize);
+    }
+}
@@ -33,9 +33,19 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 public class ProcessTest {
 
@@ -76,4 +86,95 @@ public class ProcessTest {
         assertTrue(runner.getLastResponse().endsWith(output));
     }
 
+    @Test
+    public void processBoundedOutputTest() throws IOException, InterruptedException {
+        assumeFalse(Triplet.isWindowsHost());
+        ProcessRunner runner = new ProcessRunner("sh", "-c", "i=1; while [ $i -le 50 ]; do echo line$i; i=$((i+1)); done");
+        runner.setMaxCapturedLines(10);
+        List<String> matches = new ArrayList<>();
+        runner.addLineListener(line -> line.endsWith("5"), matches::add);
+        assertEquals(0, runner.runProcess("lines"));
+        assertEquals(10, runner.getResponses().size());
+        assertEquals("line41", runner.getResponses().get(0));
+        assertEquals("line50", runner.getLastResponse());
+        assertEquals(List.of("line5", "line15", "line25", "line35", "line45"), matches);
+
+        runner.setCaptureAllLines(true);
+        assertEquals(0, runner.runProcess("lines"));
+        assertEquals(50, runner.getResponses().size());
+        assertEquals("line1", runner.getResponses().get(0));
+
+        assertThrows(IllegalArgumentException.class, () -> runner.setMaxCapturedLines(0));
+    }
+
+    @Test
+    public void processStreamedLogTest() throws IOException, InterruptedException {
+        assumeFalse(Triplet.isWindowsHost());
+        Path tempDir = getTempDir();
+        ProcessRunner.setProcessLogPath(tempDir);
+        ProcessRunner runner = new ProcessRunner("sh", "-c", "i=1; while [ $i -le 50 ]; do echo line$i; i=$((i+1)); done; exit 1");
+        runner.setMaxCapturedLines(5);
+        runner.showSevereMessage(false);
+        assertEquals(1, runner.runProcess("streamed"));
+        assertEquals(5, runner.getResponses().size());
+
+        // the log file has the whole output, not only the lines kept in memory
+        List<Path> logs;
+        try (Stream<Path> list = Files.list(tempDir)) {
+            logs = list.filter(p -> p.getFileName().toString().startsWith("process-streamed-")).collect(Collectors.toList());
+        }
+        assertEquals(1, logs.size());
+        String log = Files.readString(logs.get(0));
+        assertTrue(log.contains("line1\n"));
+        assertTrue(log.contains("line50\n"));
+    }
+
+    @Test
+    public void processAsyncTest() throws Exception {
+        assumeFalse(Triplet.isWindowsHost());
+        ProcessRunner first = new ProcessRunner("sh", "-c", "sleep 1; echo first");
+        ProcessRunner second = new ProcessRunner("sh", "-c", "sleep 1; echo second; exit 3");
+        long start = System.nanoTime();
+        CompletableFuture<ProcessResult> firstResult = first.runProcessAsync("first");
+        second.showSevereMessage(false);
+        CompletableFuture<ProcessResult> secondResult = second.runProcessAsync("second");
+        assertThrows(IllegalStateException.class, () -> first.runProcessAsync("again"));
+
+        ProcessResult result = firstResult.get(30, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals(List.of("first"), result.getOutput());
+        assertTrue(result.getDuration().toMillis() >= 1000);
+        result = secondResult.get(30, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+        assertEquals(3, result.getExitCode());
+        assertEquals("second", result.getLastOutput());
+        // both processes ran at the same time
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1900);
+
+        // the runner can be reused once the process has finished
+        assertEquals(0, first.runProcess("first"));
+        assertEquals("first", first.getLastResponse());
+    }
+
+    @Test
+    public void processTimeoutTest() throws Exception {
+        assumeFalse(Triplet.isWindowsHost());
+        ProcessRunner runner = new ProcessRunner("sh", "-c", "sleep 60 & echo $!; wait");
+        runner.showSevereMessage(false);
+        long start = System.nanoTime();
+        ProcessResult result = runner.runTimedProcessAsync("sleep", null, 1).get(30, TimeUnit.SECONDS);
+        assertTrue(result.isTimedOut());
+        assertFalse(result.isSuccess());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+
+        // the child process is killed too
+        Optional<ProcessHandle> child = ProcessHandle.of(Long.parseLong(result.getLastOutput()));
+        if (child.isPresent()) {
+            child.get().onExit().get(30, TimeUnit.SECONDS);
+            assertFalse(child.get().isAlive());
+        }
+
+        assertFalse(runner.runTimedProcess("sleep", 1));
+    }
+
 }
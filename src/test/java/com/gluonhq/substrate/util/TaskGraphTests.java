@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskGraphTests {
+
+    @Test
+    void testDependencies() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        TaskGraph graph = new TaskGraph("test")
+                .add("a", () -> order.add("a"))
+                .add("b", () -> order.add("b"), "a")
+                .add("c", () -> order.add("c"), "a")
+                .add("d", () -> order.add("d"), "b", "c");
+        assertTrue(graph.run(1));
+        assertEquals(List.of("a", "b", "c", "d"), order);
+        assertEquals(List.of("a", "b", "c", "d"), List.copyOf(graph.getDurations().keySet()));
+    }
+
+    @Test
+    void testParallel() throws Exception {
+        // both tasks wait for each other, so they only finish if they run at the same time
+        CountDownLatch latch = new CountDownLatch(2);
+        TaskGraph.Task task = () -> {
+            latch.countDown();
+            return latch.await(30, TimeUnit.SECONDS);
+        };
+        TaskGraph graph = new TaskGraph("test")
+                .add("a", task)
+                .add("b", task);
+        assertTrue(graph.run());
+    }
+
+    @Test
+    void testFailure() throws Exception {
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        TaskGraph graph = new TaskGraph("test")
+                .add("slow", () -> {
+                    try {
+                        Thread.sleep(30_000);
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                        throw e;
+                    }
+                    return true;
+                })
+                .add("fail", () -> false)
+                .add("dependent", () -> dependentRan.getAndSet(true), "fail");
+        long start = System.nanoTime();
+        assertFalse(graph.run());
+        assertFalse(dependentRan.get());
+        // the running task is cancelled
+        assertTrue(interrupted.get());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+    }
+
+    @Test
+    void testErrors() {
+        TaskGraph graph = new TaskGraph("test").add("a", () -> true);
+        assertThrows(IllegalArgumentException.class, () -> graph.add("a", () -> true));
+        assertThrows(IllegalArgumentException.class, () -> graph.add("b", () -> true, "missing"));
+
+        graph.add("io", () -> {
+            throw new IOException("task error");
+        }, "a");
+        IOException e = assertThrows(IOException.class, graph::run);
+        assertEquals("task error", e.getMessage());
+
+        TaskGraph runtime = new TaskGraph("test").add("runtime", () -> {
+            throw new IllegalStateException("runtime error");
+        });
+        assertThrows(IllegalStateException.class, runtime::run);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2025, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.substrate.util.linux;
+
+import com.gluonhq.substrate.model.Triplet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import static com.gluonhq.substrate.util.linux.LinuxLinkerFlags.PkgInfo.debian;
+import static com.gluonhq.substrate.util.linux.LinuxLinkerFlags.PkgInfo.hardwired;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class LinuxLinkerFlagsTests {
+
+    private Path pcDir;
+    private Path log;
+    private Path pkgConfig;
+    private Path cacheDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        assumeFalse(Triplet.isWindowsHost());
+        Path dir = Files.createTempDirectory("substrate-tests");
+        pcDir = Files.createDirectories(dir.resolve("pkgconfig"));
+        log = dir.resolve("pkg-config.log");
+        cacheDir = dir.resolve("cache");
+        // a fake pkg-config that finds the packages with a .pc file in pcDir
+        pkgConfig = dir.resolve("pkg-config");
+        Files.writeString(pkgConfig, "#!/bin/sh\n" +
+                "echo \"$@\" >> " + log + "\n" +
+                "case \"$1\" in\n" +
+                "  --variable) echo " + pcDir + " ;;\n" +
+                "  --path) [ -f " + pcDir + "/$2.pc ] && echo " + pcDir + "/$2.pc || exit 1 ;;\n" +
+                "  --libs) [ -f " + pcDir + "/$2.pc ] && echo \"-l$2 \" || exit 1 ;;\n" +
+                "esac\n");
+        Files.setPosixFilePermissions(pkgConfig, PosixFilePermissions.fromString("rwxr-xr-x"));
+        Files.writeString(pcDir.resolve("gl.pc"), "");
+        Files.writeString(pcDir.resolve("x11.pc"), "");
+    }
+
+    @Test
+    void testCachedFlags() throws Exception {
+        List<LinuxLinkerFlags.PkgInfo> deps = List.of(hardwired("-lm"), debian("gl", "libgl-dev"), debian("x11", "libx11-dev"));
+        assertEquals(List.of("-lm", "-lgl", "-lx11"), getFlags(deps));
+        assertEquals(5, invocations());
+
+        // a later build reuses the flags
+        assertEquals(List.of("-lm", "-lgl", "-lx11"), getFlags(deps));
+        assertEquals(5, invocations());
+
+        // an updated .pc file invalidates the cache
+        Path gl = pcDir.resolve("gl.pc");
+        Files.setLastModifiedTime(gl, FileTime.fromMillis(Files.getLastModifiedTime(gl).toMillis() + 10_000));
+        assertEquals(List.of("-lm", "-lgl", "-lx11"), getFlags(deps));
+        assertEquals(10, invocations());
+    }
+
+    @Test
+    void testCachedMissingPackages() throws Exception {
+        List<LinuxLinkerFlags.PkgInfo> deps = List.of(debian("gl", "libgl-dev"), debian("gtk", "libgtk-3-dev"));
+        assertThrows(IllegalStateException.class, () -> getFlags(deps));
+        int invocations = invocations();
+        assertThrows(IllegalStateException.class, () -> getFlags(deps));
+        assertEquals(invocations, invocations());
+
+        // installing the package adds a .pc file to a search directory
+        Files.writeString(pcDir.resolve("gtk.pc"), "");
+        Files.setLastModifiedTime(pcDir, FileTime.fromMillis(Files.getLastModifiedTime(pcDir).toMillis() + 10_000));
+        assertEquals(List.of("-lgl", "-lgtk"), getFlags(deps));
+    }
+
+    private List<String> getFlags(List<LinuxLinkerFlags.PkgInfo> deps) throws Exception {
+        return new LinuxLinkerFlags(pkgConfig.toString(), cacheDir).doGetLinkerFlags("link", deps);
+    }
+
+    private int invocations() throws IOException {
+        return Files.readAllLines(log).size();
+    }
+}